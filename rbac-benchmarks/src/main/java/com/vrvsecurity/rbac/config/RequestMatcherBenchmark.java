@@ -0,0 +1,89 @@
+package com.vrvsecurity.rbac.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the authorization decision {@link SecurityConfig} configures, for a request to each group of endpoints.
+ * <p>
+ * The rules are the ones in {@code SecurityConfig.securityFilterChain}, in the same order, since the first
+ * matching rule wins and later rules cost more to reach; keep the two in step. They are built with
+ * {@link AntPathRequestMatcher}, so the figures leave out the handler mapping lookup Spring MVC's matchers add
+ * inside the application.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestMatcherBenchmark {
+
+    @Param({"/public/health", "/admin/users/active", "/moderator/reports", "/user/profile", "/other/resource"})
+    private String path;
+
+    private AuthorizationManager<HttpServletRequest> authorizationManager;
+    private HttpServletRequest request;
+    private Supplier<Authentication> authentication;
+
+    @Setup
+    public void setUp() {
+        AuthorizationManager<RequestAuthorizationContext> permitAll = (auth, context) -> new AuthorizationDecision(true);
+        authorizationManager = RequestMatcherDelegatingAuthorizationManager.builder()
+                .add(new OrRequestMatcher(new AntPathRequestMatcher("/public/**"),
+                        new AntPathRequestMatcher("/auth/**")), permitAll)
+                .add(new AntPathRequestMatcher("/admin/**"), AuthorityAuthorizationManager.hasRole("ADMIN"))
+                .add(new AntPathRequestMatcher("/moderator/**"), AuthorityAuthorizationManager.hasRole("MODERATOR"))
+                .add(new AntPathRequestMatcher("/user/**"), AuthorityAuthorizationManager.hasRole("USER"))
+                .add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated())
+                .build();
+
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", path);
+        mockRequest.setServletPath(path);
+        request = mockRequest;
+
+        Authentication user = new UsernamePasswordAuthenticationToken("bench@example.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_MODERATOR", "ROLE_ADMIN"));
+        authentication = () -> user;
+    }
+
+    @Benchmark
+    public AuthorizationResult authorize() {
+        return authorizationManager.authorize(authentication, request);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public AuthorizationResult authorizeContended() {
+        return authorizationManager.authorize(authentication, request);
+    }
+}
@@ -0,0 +1,59 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Objects shared by the benchmarks, built the way the application builds them.
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    static final String EMAIL = "bench@example.com";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates a {@link JwtUtil} configured like {@code application.properties}.
+     *
+     * @param meterRegistry The registry its timers are published to.
+     * @return The utility.
+     */
+    static JwtUtil jwtUtil(MeterRegistry meterRegistry) {
+        JwtUtil jwtUtil = new JwtUtil(meterRegistry);
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400L);
+        return jwtUtil;
+    }
+
+    /**
+     * Creates the principal of an active user.
+     *
+     * @param email     The user's email.
+     * @param roleNames The names of the user's roles, e.g. {@code ROLE_USER}.
+     * @return The principal.
+     */
+    static UserPrincipal principal(String email, String... roleNames) {
+        Set<Role> roles = new HashSet<>();
+        for (int i = 0; i < roleNames.length; i++) {
+            Role role = new Role();
+            role.setRoleId(i + 1);
+            role.setName(roleNames[i]);
+            roles.add(role);
+        }
+        User user = new User();
+        user.setUserId(1);
+        user.setEmail(email);
+        user.setPassword("{noop}unused");
+        user.setStatus(AccountStatus.ACTIVE);
+        user.setRoles(roles);
+        return new UserPrincipal(user);
+    }
+}
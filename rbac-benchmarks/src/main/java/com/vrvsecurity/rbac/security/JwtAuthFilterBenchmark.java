@@ -0,0 +1,137 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.model.EmailDigest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JwtAuthFilter} for a request carrying a valid token, with and without the
+ * {@link VerifiedTokenCache}.
+ * <p>
+ * Run with the allocation profiler to see the garbage per request:
+ * {@code java -jar target/benchmarks.jar JwtAuthFilterBenchmark -prof gc} and read
+ * {@code gc.alloc.rate.norm} (bytes/op). With a cached token the only allocations left are the security
+ * context Spring Security creates for each request once the previous one is cleared.
+ * </p>
+ * <p>
+ * The request is a fixed instance whose header and path lookups allocate nothing, so the figures are those of
+ * the filter rather than of the mock. {@code doFilterInternal} is called directly, leaving out the
+ * already-filtered request attribute {@link org.springframework.web.filter.OncePerRequestFilter} sets.
+ * </p>
+ * <p>
+ * The filters and caches are shared by all benchmark threads, as in the application; the {@code contended}
+ * variants run on every available processor to show contention on the caches and meters.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private final FilterChain chain = (request, response) -> { };
+
+    private JwtAuthFilter cachingFilter;
+    private JwtAuthFilter verifyingFilter;
+    private HttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtUtil jwtUtil = BenchmarkFixtures.jwtUtil(meterRegistry);
+        UserPrincipal principal = BenchmarkFixtures.principal(BenchmarkFixtures.EMAIL, "ROLE_USER");
+
+        PrincipalCache principalCache = new PrincipalCache(TimeUnit.DAYS.toSeconds(1), 1_000, -1, 0);
+        principalCache.put(BenchmarkFixtures.EMAIL, principal);
+        UserDetailsService userDetailsService = username -> principalCache.get(EmailDigest.normalize(username));
+
+        cachingFilter = new JwtAuthFilter(jwtUtil, userDetailsService, new VerifiedTokenCache(principalCache, 1_000),
+                meterRegistry);
+        verifyingFilter = new JwtAuthFilter(jwtUtil, userDetailsService, new VerifiedTokenCache(principalCache, 0),
+                meterRegistry);
+
+        request = new FixedRequest("/user/profile", "Bearer " + jwtUtil.generateToken(principal));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication cachedToken() throws ServletException, IOException {
+        return authenticate(cachingFilter);
+    }
+
+    @Benchmark
+    public Authentication verifiedToken() throws ServletException, IOException {
+        return authenticate(verifyingFilter);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Authentication cachedTokenContended() throws ServletException, IOException {
+        return authenticate(cachingFilter);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Authentication verifiedTokenContended() throws ServletException, IOException {
+        return authenticate(verifyingFilter);
+    }
+
+    private Authentication authenticate(JwtAuthFilter filter) throws ServletException, IOException {
+        filter.doFilterInternal(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    /**
+     * A request answering the lookups the filter makes from fields, unlike {@link MockHttpServletRequest},
+     * whose case-insensitive header map lower-cases the name on every lookup.
+     */
+    private static final class FixedRequest extends HttpServletRequestWrapper {
+
+        private final String servletPath;
+        private final String authorization;
+
+        private FixedRequest(String servletPath, String authorization) {
+            super(new MockHttpServletRequest("GET", servletPath));
+            this.servletPath = servletPath;
+            this.authorization = authorization;
+        }
+
+        @Override
+        public String getServletPath() {
+            return servletPath;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return "Authorization".equalsIgnoreCase(name) ? authorization : null;
+        }
+    }
+}
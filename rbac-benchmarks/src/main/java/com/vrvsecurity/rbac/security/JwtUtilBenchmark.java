@@ -0,0 +1,76 @@
+package com.vrvsecurity.rbac.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures issuing and verifying tokens with {@link JwtUtil}.
+ * <p>
+ * {@code validateToken} parses the token twice (once for the subject, once for the expiry), unlike the
+ * {@code parseClaims}/{@code validateClaims} pair the filter uses; comparing the two shows what the single parse
+ * saves. The {@code contended} variants share one {@link JwtUtil} across every available processor.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserPrincipal principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.jwtUtil(new SimpleMeterRegistry());
+        principal = BenchmarkFixtures.principal(BenchmarkFixtures.EMAIL, "ROLE_USER", "ROLE_MODERATOR");
+        token = jwtUtil.generateToken(principal);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(principal);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, principal);
+    }
+
+    @Benchmark
+    public boolean parseAndValidateClaims() {
+        return jwtUtil.validateClaims(jwtUtil.parseClaims(token), principal);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String generateTokenContended() {
+        return jwtUtil.generateToken(principal);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean parseAndValidateClaimsContended() {
+        return jwtUtil.validateClaims(jwtUtil.parseClaims(token), principal);
+    }
+}
@@ -0,0 +1,55 @@
+package com.vrvsecurity.rbac.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a principal's authorities, which happens on every authorization decision, against building
+ * the principal, which is when the authorities are computed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPrincipalBenchmark {
+
+    @Param({"1", "3", "10"})
+    private int roleCount;
+
+    private String[] roleNames;
+    private UserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        roleNames = new String[roleCount];
+        for (int i = 0; i < roleCount; i++) {
+            roleNames[i] = "ROLE_" + i;
+        }
+        principal = BenchmarkFixtures.principal(BenchmarkFixtures.EMAIL, roleNames);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+
+    @Benchmark
+    public UserPrincipal createPrincipal() {
+        return BenchmarkFixtures.principal(BenchmarkFixtures.EMAIL, roleNames);
+    }
+}
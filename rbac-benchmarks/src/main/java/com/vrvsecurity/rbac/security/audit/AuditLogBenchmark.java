@@ -0,0 +1,60 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link AuditLog#record} adds to a request: building the event and offering it to the ring buffer.
+ * <p>
+ * The writer runs against a sink that discards batches, so the buffer is drained as fast as it can be and the
+ * numbers show the request-path cost rather than the sink's. The {@code contended} variant records from every
+ * available processor into one shared log.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditLogBenchmark {
+
+    private AuditLog auditLog;
+
+    @Setup
+    public void setUp() {
+        auditLog = new AuditLog(events -> { }, 65_536, OverflowPolicy.DROP_NEWEST, Duration.ofMillis(200), 500,
+                Duration.ZERO, new SimpleMeterRegistry());
+        auditLog.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditLog.stop();
+    }
+
+    @Benchmark
+    public void record() {
+        auditLog.record(AuditAction.LOGIN_FAILED, "bench@example.com", "bad-credentials");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordContended() {
+        auditLog.record(AuditAction.LOGIN_FAILED, "bench@example.com", "bad-credentials");
+    }
+}
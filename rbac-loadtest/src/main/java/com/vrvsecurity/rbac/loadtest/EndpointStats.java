@@ -0,0 +1,113 @@
+package com.vrvsecurity.rbac.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and response counts of one workload during the measured part of a run.
+ * <p>
+ * Latencies are recorded in microseconds from the time the request was scheduled to be sent, not from the time
+ * it was actually sent, so requests delayed behind a stalled server are charged for the delay.
+ * </p>
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Workload workload;
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+    private final LongAdder expected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<Integer, LongAdder> unexpected = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the statistics of a workload.
+     *
+     * @param workload The workload.
+     */
+    public EndpointStats(Workload workload) {
+        this.workload = workload;
+    }
+
+    /**
+     * Records a response.
+     *
+     * @param latencyNanos The time from the scheduled send to the response.
+     * @param status       The HTTP status of the response.
+     */
+    public void recordResponse(long latencyNanos, int status) {
+        record(latencyNanos);
+        if (status == workload.expectedStatus()) {
+            expected.increment();
+        } else {
+            unexpected.computeIfAbsent(status, code -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Records a request that got no response (connection failure or timeout).
+     *
+     * @param latencyNanos The time from the scheduled send to the failure.
+     */
+    public void recordFailure(long latencyNanos) {
+        record(latencyNanos);
+        failed.increment();
+    }
+
+    private void record(long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY_MICROS));
+    }
+
+    /**
+     * Returns the workload these statistics belong to.
+     *
+     * @return The workload.
+     */
+    public Workload workload() {
+        return workload;
+    }
+
+    /**
+     * Returns the latencies of all requests, in microseconds.
+     *
+     * @return The latency distribution.
+     */
+    public Histogram latencies() {
+        return latencies;
+    }
+
+    /**
+     * Returns the number of responses with the expected status.
+     *
+     * @return The count.
+     */
+    public long expected() {
+        return expected.sum();
+    }
+
+    /**
+     * Returns the number of requests that got no response.
+     *
+     * @return The count.
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the responses with another status than expected.
+     *
+     * @return The count of each unexpected status, ordered by status.
+     */
+    public Map<Integer, Long> unexpected() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        unexpected.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,114 @@
+package com.vrvsecurity.rbac.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the throughput and latency percentiles of a run.
+ * <p>
+ * The summary table goes to {@code report.txt} and to the console. The full latency distribution of each
+ * workload is written to {@code <workload>.hgrm}, in milliseconds, which can be plotted with HdrHistogram's
+ * plotter to compare runs.
+ * </p>
+ */
+public class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private final LoadTestSettings settings;
+    private final Map<Workload, EndpointStats> stats;
+    private final Histogram senderLag;
+
+    /**
+     * Constructs the report of a run.
+     *
+     * @param settings  The settings of the run.
+     * @param stats     The statistics of each workload.
+     * @param senderLag How late the sender was behind the schedule, in microseconds.
+     */
+    public LoadReport(LoadTestSettings settings, Map<Workload, EndpointStats> stats, Histogram senderLag) {
+        this.settings = settings;
+        this.stats = stats;
+        this.senderLag = senderLag;
+    }
+
+    /**
+     * Writes the report to the report directory and prints the summary.
+     *
+     * @throws IOException If the report cannot be written.
+     */
+    public void write() throws IOException {
+        Files.createDirectories(settings.reportDir());
+        String summary = summary();
+        Files.writeString(settings.reportDir().resolve("report.txt"), summary, StandardCharsets.UTF_8);
+        System.out.print(summary);
+
+        for (EndpointStats endpoint : stats.values()) {
+            if (endpoint.latencies().getTotalCount() == 0) {
+                continue;
+            }
+            Path file = settings.reportDir().resolve(endpoint.workload().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                endpoint.latencies().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private String summary() {
+        double seconds = settings.duration().toMillis() / 1_000.0;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Offered load: %d req/s for %d s after %d s of warmup, %d users%n%n",
+                settings.rate(), settings.duration().toSeconds(), settings.warmup().toSeconds(), settings.users()));
+        out.append(String.format(Locale.ROOT, "%-36s %9s %9s %8s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "req/s", "Errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        Histogram all = new Histogram(3);
+        long allRequests = 0;
+        long allErrors = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram latencies = endpoint.latencies();
+            if (latencies.getTotalCount() == 0) {
+                continue;
+            }
+            long errors = latencies.getTotalCount() - endpoint.expected();
+            row(out, endpoint.workload().label(), latencies, errors, seconds);
+            all.add(latencies);
+            allRequests += latencies.getTotalCount();
+            allErrors += errors;
+        }
+        if (allRequests > 0) {
+            row(out, "All", all, allErrors, seconds);
+        }
+
+        out.append(System.lineSeparator());
+        for (EndpointStats endpoint : stats.values()) {
+            if (endpoint.failed() > 0 || !endpoint.unexpected().isEmpty()) {
+                out.append(String.format(Locale.ROOT, "%s: expected %d, got %s, %d without response%n",
+                        endpoint.workload().label(), endpoint.workload().expectedStatus(), endpoint.unexpected(),
+                        endpoint.failed()));
+            }
+        }
+        out.append(String.format(Locale.ROOT, "Sender lag behind schedule: p99 %.3f ms, max %.3f ms%n",
+                senderLag.getValueAtPercentile(99) / MICROS_PER_MILLI, senderLag.getMaxValue() / MICROS_PER_MILLI));
+        return out.toString();
+    }
+
+    private static void row(StringBuilder out, String label, Histogram latencies, long errors, double seconds) {
+        out.append(String.format(Locale.ROOT, "%-36s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f%n",
+                label,
+                latencies.getTotalCount(),
+                latencies.getTotalCount() / seconds,
+                errors,
+                latencies.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                latencies.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                latencies.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                latencies.getMaxValue() / MICROS_PER_MILLI));
+    }
+}
@@ -0,0 +1,79 @@
+package com.vrvsecurity.rbac.loadtest;
+
+import com.vrvsecurity.rbac.RbacApplication;
+import com.vrvsecurity.rbac.security.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * End-to-end load test of the application.
+ * <p>
+ * Starts the application in-process with the {@code loadtest} profile (embedded H2 in MySQL mode, random port),
+ * seeds users, then drives a mix of logins, authenticated requests with valid, expired and badly signed tokens,
+ * registrations and admin listings at a fixed arrival rate, and reports throughput and latency percentiles per
+ * endpoint. See {@link LoadTestSettings#parse(String[])} for the arguments.
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs the load test and writes its report.
+     *
+     * @param args The settings ({@code name=value}) and application arguments ({@code --name=value}).
+     * @throws Exception If the application fails to start or the report cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RbacApplication.class)
+                .profiles("loadtest")
+                .run(settings.applicationArgs());
+        try {
+            Environment environment = context.getEnvironment();
+            PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+            log.info("Seeding {} users", settings.users());
+            new Seeder(context.getBean(DataSource.class), passwordEncoder.encode(Seeder.PASSWORD))
+                    .seed(settings.users());
+
+            // Tokens are issued the way the login endpoint issues them, which also warms the principal cache
+            JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+            UserDetailsService userDetailsService = context.getBean(UserDetailsService.class);
+            List<String> tokens = new ArrayList<>(settings.tokens());
+            for (int i = 0; i < settings.tokens(); i++) {
+                tokens.add(jwtUtil.generateToken(userDetailsService.loadUserByUsername(Seeder.userEmail(i))));
+            }
+            String adminToken = jwtUtil.generateToken(userDetailsService.loadUserByUsername(Seeder.ADMIN_EMAIL));
+
+            URI baseUri = URI.create("http://localhost:" + environment.getRequiredProperty("local.server.port"));
+            WorkloadRequests requests = new WorkloadRequests(baseUri, settings.requestTimeout(), settings.users(),
+                    tokens, adminToken, environment.getRequiredProperty("jwt.secret"));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            log.info("Sending {} req/s for {} s of warmup and {} s of measurement", settings.rate(),
+                    settings.warmup().toSeconds(), settings.duration().toSeconds());
+            OpenLoopDriver driver = new OpenLoopDriver(settings, requests, client);
+            new LoadReport(settings, driver.run(), driver.senderLag()).write();
+        } finally {
+            context.close();
+        }
+    }
+}
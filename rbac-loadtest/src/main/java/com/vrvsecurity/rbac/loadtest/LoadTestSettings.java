@@ -0,0 +1,110 @@
+package com.vrvsecurity.rbac.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, parsed from {@code name=value} arguments.
+ * <p>
+ * Arguments starting with {@code --} are passed on to the application, e.g.
+ * {@code --spring.profiles.active=virtual-threads}.
+ * </p>
+ *
+ * @param users          The number of users seeded before the run.
+ * @param tokens         The number of distinct valid tokens used by authenticated requests.
+ * @param rate           The fixed arrival rate, in requests per second.
+ * @param warmup         How long requests are sent before latencies are recorded.
+ * @param duration       How long latencies are recorded.
+ * @param requestTimeout How long a response is waited for before the request counts as failed.
+ * @param mix            The relative weight of each workload.
+ * @param seed           The seed of the random choice of workloads and users.
+ * @param reportDir      The directory the report and the latency distributions are written to.
+ * @param applicationArgs The arguments passed on to the application.
+ */
+public record LoadTestSettings(int users, int tokens, int rate, Duration warmup, Duration duration,
+                               Duration requestTimeout, Map<Workload, Integer> mix, long seed, Path reportDir,
+                               String[] applicationArgs) {
+
+    /**
+     * Parses the command line.
+     * <p>
+     * Recognized arguments, with their defaults: {@code users=10000}, {@code tokens=1000}, {@code rate=200},
+     * {@code warmup=15} and {@code duration=60} (seconds), {@code timeout=30} (seconds), {@code seed=42},
+     * {@code report=target/loadtest} and
+     * {@code mix=login:10,profile:60,profile_expired:5,profile_bad_signature:5,register:5,admin_listing:15}.
+     * </p>
+     *
+     * @param args The command line arguments.
+     * @return The settings.
+     * @throws IllegalArgumentException If an argument is unknown or malformed.
+     */
+    public static LoadTestSettings parse(String[] args) {
+        int users = 10_000;
+        int tokens = 1_000;
+        int rate = 200;
+        long warmupSeconds = 15;
+        long durationSeconds = 60;
+        long timeoutSeconds = 30;
+        long seed = 42;
+        Path reportDir = Path.of("target", "loadtest");
+        Map<Workload, Integer> mix = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            mix.put(workload, workload.defaultWeight());
+        }
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value but got '" + arg + "'");
+            }
+            String name = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "users" -> users = Integer.parseInt(value);
+                case "tokens" -> tokens = Integer.parseInt(value);
+                case "rate" -> rate = Integer.parseInt(value);
+                case "warmup" -> warmupSeconds = Long.parseLong(value);
+                case "duration" -> durationSeconds = Long.parseLong(value);
+                case "timeout" -> timeoutSeconds = Long.parseLong(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "report" -> reportDir = Path.of(value);
+                case "mix" -> mix = parseMix(value);
+                default -> throw new IllegalArgumentException("Unknown setting '" + name + "'");
+            }
+        }
+        if (users < 1 || tokens < 1 || rate < 1 || durationSeconds < 1) {
+            throw new IllegalArgumentException("users, tokens, rate and duration must be positive");
+        }
+        return new LoadTestSettings(users, Math.min(tokens, users), rate, Duration.ofSeconds(warmupSeconds),
+                Duration.ofSeconds(durationSeconds), Duration.ofSeconds(timeoutSeconds), mix, seed, reportDir,
+                applicationArgs.toArray(String[]::new));
+    }
+
+    private static Map<Workload, Integer> parseMix(String value) {
+        Map<Workload, Integer> mix = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            mix.put(workload, 0);
+        }
+        for (String part : value.split(",")) {
+            String[] entry = part.split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Expected workload:weight but got '" + part + "'");
+            }
+            mix.put(Workload.valueOf(entry[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(entry[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix must give at least one workload a positive weight");
+        }
+        return mix;
+    }
+}
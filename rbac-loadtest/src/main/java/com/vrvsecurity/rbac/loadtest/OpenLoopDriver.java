@@ -0,0 +1,123 @@
+package com.vrvsecurity.rbac.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate, whatever the latency of earlier requests, and records their latencies.
+ * <p>
+ * Request {@code i} is scheduled at {@code start + i / rate}. It is sent asynchronously at that time, or at once
+ * if the sender is late, so a slow server does not slow down the offered load (an open-loop generator). Its
+ * latency is measured from the scheduled time, which keeps the time requests spend waiting behind a stalled server
+ * in the figures instead of omitting it (coordinated omission). The lag of the sender behind the schedule is
+ * recorded separately: when it is large the machine running the test, not the server, is the bottleneck.
+ * </p>
+ */
+public class OpenLoopDriver {
+
+    private static final long HIGHEST_LAG_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadTestSettings settings;
+    private final WorkloadRequests requests;
+    private final HttpClient client;
+    private final Workload[] schedule;
+    private final Map<Workload, EndpointStats> stats = new EnumMap<>(Workload.class);
+    private final Histogram senderLag = new ConcurrentHistogram(HIGHEST_LAG_MICROS, 3);
+    private final AtomicLong inFlight = new AtomicLong();
+
+    /**
+     * Constructs the driver.
+     *
+     * @param settings The settings of the run.
+     * @param requests The builder of the requests.
+     * @param client   The HTTP client sending them.
+     */
+    public OpenLoopDriver(LoadTestSettings settings, WorkloadRequests requests, HttpClient client) {
+        this.settings = settings;
+        this.requests = requests;
+        this.client = client;
+        int total = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+        this.schedule = new Workload[total];
+        int slot = 0;
+        for (Map.Entry<Workload, Integer> entry : settings.mix().entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                schedule[slot++] = entry.getKey();
+            }
+        }
+        for (Workload workload : Workload.values()) {
+            stats.put(workload, new EndpointStats(workload));
+        }
+    }
+
+    /**
+     * Runs the warmup and the measured period, then waits for the outstanding responses.
+     *
+     * @return The statistics of each workload over the measured period.
+     * @throws InterruptedException If interrupted while waiting for outstanding responses.
+     */
+    public Map<Workload, EndpointStats> run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduled >= measureFrom;
+            if (measured) {
+                senderLag.recordValue(Math.min(
+                        TimeUnit.NANOSECONDS.toMicros(Math.max(0, System.nanoTime() - scheduled)), HIGHEST_LAG_MICROS));
+            }
+            Workload workload = schedule[random.nextInt(schedule.length)];
+            send(workload, requests.create(workload, random), scheduled, measured);
+        }
+
+        long deadline = System.nanoTime() + settings.requestTimeout().toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns how late the sender was behind the schedule during the measured period, in microseconds.
+     *
+     * @return The sender lag distribution.
+     */
+    public Histogram senderLag() {
+        return senderLag;
+    }
+
+    private void send(Workload workload, HttpRequest request, long scheduled, boolean measured) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - scheduled;
+            if (measured) {
+                if (response != null) {
+                    stats.get(workload).recordResponse(latency, response.statusCode());
+                } else {
+                    stats.get(workload).recordFailure(latency);
+                }
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package com.vrvsecurity.rbac.loadtest;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeds the roles, an admin and the users the load test authenticates as, with batched inserts.
+ * <p>
+ * Every user gets the same password hash, computed once: hashing each password would take longer than the run.
+ * Users get ids {@code 1..users} and the admin {@code users + 1}; the id sequence is moved past them so users
+ * registered during the run get fresh ids.
+ * </p>
+ */
+public class Seeder {
+
+    /**
+     * The password of every seeded user and of the admin.
+     */
+    public static final String PASSWORD = "LoadTest-Password-1";
+
+    /**
+     * The email of the seeded admin.
+     */
+    public static final String ADMIN_EMAIL = "admin@loadtest.example";
+
+    private static final List<String> ROLES = List.of("ROLE_USER", "ROLE_MODERATOR", "ROLE_ADMIN");
+    private static final int BATCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbc;
+    private final String passwordHash;
+
+    /**
+     * Constructs the seeder.
+     *
+     * @param dataSource   The application's data source.
+     * @param passwordHash The hash of {@link #PASSWORD} given to every seeded account.
+     */
+    public Seeder(DataSource dataSource, String passwordHash) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.passwordHash = passwordHash;
+    }
+
+    /**
+     * Returns the email of the seeded user with the given index.
+     *
+     * @param index The index, from 0 to {@code users - 1}.
+     * @return The email.
+     */
+    public static String userEmail(int index) {
+        return "user-" + index + "@loadtest.example";
+    }
+
+    /**
+     * Inserts the roles, {@code users} active users with the USER role and an active admin.
+     *
+     * @param users The number of users to insert.
+     */
+    public void seed(int users) {
+        Map<String, Long> roleIds = seedRoles();
+        long userRole = roleIds.get("ROLE_USER");
+        Timestamp registeredAt = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+
+        List<Object[]> userRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> roleRows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < users; i++) {
+            long id = i + 1;
+            userRows.add(userRow(id, userEmail(i), registeredAt));
+            roleRows.add(new Object[]{id, userRole});
+            if (userRows.size() == BATCH_SIZE) {
+                insert(userRows, roleRows);
+            }
+        }
+        long adminId = users + 1L;
+        userRows.add(userRow(adminId, ADMIN_EMAIL, registeredAt));
+        roleRows.add(new Object[]{adminId, roleIds.get("ROLE_ADMIN")});
+        roleRows.add(new Object[]{adminId, userRole});
+        insert(userRows, roleRows);
+
+        jdbc.execute("ALTER TABLE `user` ALTER COLUMN user_id RESTART WITH " + (adminId + 1));
+    }
+
+    private Map<String, Long> seedRoles() {
+        Map<String, Long> roleIds = new HashMap<>();
+        jdbc.query("SELECT role_id, name FROM role", row -> {
+            roleIds.put(row.getString("name"), row.getLong("role_id"));
+        });
+        for (String role : ROLES) {
+            if (!roleIds.containsKey(role)) {
+                jdbc.update("INSERT INTO role (name) VALUES (?)", role);
+                roleIds.put(role, jdbc.queryForObject("SELECT role_id FROM role WHERE name = ?", Long.class, role));
+            }
+        }
+        return roleIds;
+    }
+
+    private Object[] userRow(long id, String email, Timestamp registeredAt) {
+        return new Object[]{id, "Load Test User " + id, 5_550_000 + (int) (id % 10_000), email,
+                EmailDigest.of(email), passwordHash, AccountStatus.ACTIVE.getCode(), registeredAt};
+    }
+
+    private void insert(List<Object[]> userRows, List<Object[]> roleRows) {
+        jdbc.batchUpdate("INSERT INTO `user` (user_id, full_name, cell_number, email, email_digest, password, "
+                + "status, registered_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", userRows);
+        jdbc.batchUpdate("INSERT INTO user_role (user_id, role_id) VALUES (?, ?)", roleRows);
+        userRows.clear();
+        roleRows.clear();
+    }
+}
@@ -0,0 +1,51 @@
+package com.vrvsecurity.rbac.loadtest;
+
+/**
+ * The kinds of request the load test sends, with the response each one should get.
+ */
+public enum Workload {
+
+    LOGIN("POST /auth/login", 200, 10),
+    PROFILE("GET /user/profile (valid token)", 200, 60),
+    PROFILE_EXPIRED("GET /user/profile (expired token)", 401, 5),
+    PROFILE_BAD_SIGNATURE("GET /user/profile (bad signature)", 401, 5),
+    REGISTER("POST /auth/register", 200, 5),
+    ADMIN_LISTING("GET /admin/users/active", 200, 15);
+
+    private final String label;
+    private final int expectedStatus;
+    private final int defaultWeight;
+
+    Workload(String label, int expectedStatus, int defaultWeight) {
+        this.label = label;
+        this.expectedStatus = expectedStatus;
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * Returns the endpoint and case shown in the report.
+     *
+     * @return The label.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Returns the HTTP status a correct response has.
+     *
+     * @return The expected status.
+     */
+    public int expectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * Returns the share of requests of this kind when no mix is given.
+     *
+     * @return The default weight.
+     */
+    public int defaultWeight() {
+        return defaultWeight;
+    }
+}
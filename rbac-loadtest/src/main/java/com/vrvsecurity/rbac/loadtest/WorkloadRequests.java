@@ -0,0 +1,106 @@
+package com.vrvsecurity.rbac.loadtest;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the request of each workload.
+ * <p>
+ * Authenticated requests use one of a fixed pool of valid tokens, so most of them are served from the principal
+ * and verified token caches as they would be in steady state. Expired tokens carry a valid signature, and badly
+ * signed tokens carry a valid expiry, so each is rejected for exactly one reason.
+ * </p>
+ */
+public class WorkloadRequests {
+
+    private final URI baseUri;
+    private final Duration timeout;
+    private final int users;
+    private final List<String> validTokens;
+    private final String adminToken;
+    private final String expiredToken;
+    private final String badSignatureToken;
+    private final AtomicLong registrations = new AtomicLong();
+
+    /**
+     * Constructs the request builder.
+     *
+     * @param baseUri     The address of the application, e.g. {@code http://localhost:8080}.
+     * @param timeout     How long a response is waited for.
+     * @param users       The number of seeded users.
+     * @param validTokens Valid tokens of seeded users.
+     * @param adminToken  A valid token of the seeded admin.
+     * @param secret      The application's {@code jwt.secret}, used to sign the expired token.
+     */
+    public WorkloadRequests(URI baseUri, Duration timeout, int users, List<String> validTokens, String adminToken,
+                            String secret) {
+        this.baseUri = baseUri;
+        this.timeout = timeout;
+        this.users = users;
+        this.validTokens = List.copyOf(validTokens);
+        this.adminToken = adminToken;
+
+        long now = System.currentTimeMillis();
+        String subject = Seeder.userEmail(0);
+        this.expiredToken = Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date(now - TimeUnit.HOURS.toMillis(2)))
+                .setExpiration(new Date(now - TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)), SignatureAlgorithm.HS256)
+                .compact();
+        this.badSignatureToken = Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256))
+                .compact();
+    }
+
+    /**
+     * Builds a request of the given workload.
+     *
+     * @param workload The workload.
+     * @param random   The source of the user and page choices.
+     * @return The request.
+     */
+    public HttpRequest create(Workload workload, SplittableRandom random) {
+        return switch (workload) {
+            case LOGIN -> post("/auth/login", "{\"email\":\"" + Seeder.userEmail(random.nextInt(users))
+                    + "\",\"password\":\"" + Seeder.PASSWORD + "\"}");
+            case PROFILE -> get("/user/profile", validTokens.get(random.nextInt(validTokens.size())));
+            case PROFILE_EXPIRED -> get("/user/profile", expiredToken);
+            case PROFILE_BAD_SIGNATURE -> get("/user/profile", badSignatureToken);
+            case REGISTER -> post("/auth/register", "{\"email\":\"new-" + registrations.incrementAndGet()
+                    + "@loadtest.example\",\"password\":\"" + Seeder.PASSWORD
+                    + "\",\"fullName\":\"Registered User\",\"cellNumber\":5550000,\"roles\":[\"USER\"]}");
+            case ADMIN_LISTING -> get("/admin/users/active?limit=100&afterId=" + random.nextInt(users), adminToken);
+        };
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
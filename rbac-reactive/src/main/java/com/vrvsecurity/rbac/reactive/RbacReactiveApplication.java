@@ -0,0 +1,25 @@
+package com.vrvsecurity.rbac.reactive;
+
+import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.LoginThrottle;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Non-blocking variant of the authentication endpoints.
+ * <p>
+ * Only this package is scanned; the token, throttling and principal cache components of the servlet application
+ * are imported as they are, so both applications issue and accept the same tokens.
+ * </p>
+ */
+@SpringBootApplication
+@Import({JwtUtil.class, LoginThrottle.class, PrincipalCache.class})
+public class RbacReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(RbacReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.vrvsecurity.rbac.reactive.Repository;
+
+import com.vrvsecurity.rbac.model.Role;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code RoleRepository}, reading the role catalog through R2DBC.
+ */
+@Repository
+public class ReactiveRoleRepository {
+
+    private final DatabaseClient db;
+
+    /**
+     * Constructs the repository.
+     *
+     * @param db The R2DBC client.
+     */
+    public ReactiveRoleRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Finds a role by its name.
+     *
+     * @param name The role name (e.g., "ROLE_ADMIN").
+     * @return The role, or an empty {@link Mono} if there is none.
+     */
+    public Mono<Role> findByName(String name) {
+        return db.sql("SELECT role_id, name FROM role WHERE name = :name")
+                .bind("name", name)
+                .map((row, metadata) -> {
+                    Role role = new Role();
+                    role.setRoleId(row.get("role_id", Long.class));
+                    role.setName(row.get("name", String.class));
+                    return role;
+                })
+                .one();
+    }
+}
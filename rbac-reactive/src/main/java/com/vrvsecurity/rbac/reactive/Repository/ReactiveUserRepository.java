@@ -0,0 +1,146 @@
+package com.vrvsecurity.rbac.reactive.Repository;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@code UserRepository}, reading and writing users through R2DBC.
+ * <p>
+ * Works on the schema maintained by the servlet application's Flyway migrations. Users are looked up by the
+ * digest of their normalized email, like the JPA repository does, and returned as detached {@link User}
+ * instances with their roles.
+ * </p>
+ */
+@Repository
+public class ReactiveUserRepository {
+
+    private static final String SELECT_WITH_ROLES =
+            "SELECT u.user_id, u.full_name, u.cell_number, u.email, u.password, u.status, u.registered_at, " +
+            "r.role_id, r.name AS role_name FROM `user` u " +
+            "LEFT JOIN user_role ur ON ur.user_id = u.user_id " +
+            "LEFT JOIN role r ON r.role_id = ur.role_id " +
+            "WHERE u.email_digest = :digest";
+
+    private final DatabaseClient db;
+
+    /**
+     * Constructs the repository.
+     *
+     * @param db The R2DBC client.
+     */
+    public ReactiveUserRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    /**
+     * Finds a user and their roles by email.
+     *
+     * @param email The normalized email.
+     * @return The user, or an empty {@link Mono} if there is none.
+     */
+    public Mono<User> findByEmail(String email) {
+        return db.sql(SELECT_WITH_ROLES)
+                .bind("digest", EmailDigest.of(email))
+                .map((row, metadata) -> new UserRoleRow(toUser(row), toRole(row)))
+                .all()
+                .collectList()
+                .flatMap(rows -> rows.isEmpty() ? Mono.empty() : Mono.just(merge(rows)));
+    }
+
+    /**
+     * Checks whether a user with the given email exists.
+     *
+     * @param email The normalized email.
+     * @return {@code true} if the email is registered.
+     */
+    public Mono<Boolean> existsByEmail(String email) {
+        return db.sql("SELECT 1 FROM `user` WHERE email_digest = :digest")
+                .bind("digest", EmailDigest.of(email))
+                .map((row, metadata) -> true)
+                .first()
+                .hasElement();
+    }
+
+    /**
+     * Inserts a new user and their role assignments.
+     * <p>
+     * Must run inside a transaction so the user and its roles are written together.
+     * </p>
+     *
+     * @param user The user to insert; its email must already be normalized. Its id is set once inserted.
+     * @return The inserted user.
+     */
+    public Mono<User> insert(User user) {
+        return db.sql("INSERT INTO `user` (full_name, cell_number, email, email_digest, password, status, registered_at) " +
+                        "VALUES (:fullName, :cellNumber, :email, :digest, :password, :status, :registeredAt)")
+                .filter(statement -> statement.returnGeneratedValues("user_id"))
+                .bind("fullName", user.getFullName())
+                .bind("cellNumber", user.getCellNumber())
+                .bind("email", user.getEmail())
+                .bind("digest", EmailDigest.of(user.getEmail()))
+                .bind("password", user.getPassword())
+                .bind("status", user.getStatus().getCode())
+                .bind("registeredAt", user.getRegisteredAt())
+                .map((row, metadata) -> row.get("user_id", Long.class))
+                .one()
+                .flatMap(userId -> {
+                    user.setUserId(userId);
+                    return Flux.fromIterable(user.getRoles())
+                            .concatMap(role -> db.sql("INSERT INTO user_role (user_id, role_id) VALUES (:userId, :roleId)")
+                                    .bind("userId", userId)
+                                    .bind("roleId", role.getRoleId())
+                                    .fetch()
+                                    .rowsUpdated())
+                            .then(Mono.just(user));
+                });
+    }
+
+    private static User toUser(Row row) {
+        User user = new User();
+        user.setUserId(row.get("user_id", Long.class));
+        user.setFullName(row.get("full_name", String.class));
+        user.setCellNumber(row.get("cell_number", Integer.class));
+        user.setEmail(row.get("email", String.class));
+        user.setPassword(row.get("password", String.class));
+        Byte status = row.get("status", Byte.class);
+        user.setStatus(status == null ? null : AccountStatus.fromCode(status));
+        user.setRegisteredAt(row.get("registered_at", LocalDateTime.class));
+        user.setRoles(new HashSet<>());
+        return user;
+    }
+
+    private static Role toRole(Row row) {
+        Long roleId = row.get("role_id", Long.class);
+        if (roleId == null) {
+            return null; // The user holds no role
+        }
+        Role role = new Role();
+        role.setRoleId(roleId);
+        role.setName(row.get("role_name", String.class));
+        return role;
+    }
+
+    private static User merge(List<UserRoleRow> rows) {
+        User user = rows.get(0).user();
+        for (UserRoleRow row : rows) {
+            if (row.role() != null) {
+                user.getRoles().add(row.role());
+            }
+        }
+        return user;
+    }
+
+    private record UserRoleRow(User user, Role role) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.vrvsecurity.rbac.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vrvsecurity.rbac.reactive.security.JwtWebFilter;
+import com.vrvsecurity.rbac.security.JwtUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Security configuration of the reactive application.
+ * <p>
+ * Applies the same access rules as the servlet application's {@code SecurityConfig}, with the
+ * {@link JwtWebFilter} authenticating Bearer tokens. No security context is stored between requests, and form
+ * and HTTP Basic login are disabled since logins go through {@code /auth/login}.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@EnableWebFluxSecurity // Enables Spring Security for WebFlux
+public class ReactiveSecurityConfig {
+
+    /**
+     * Configures the security filter chain.
+     *
+     * @param http         the {@link ServerHttpSecurity} object for configuring security.
+     * @param jwtWebFilter the token-verification filter.
+     * @return the configured {@link SecurityWebFilterChain}.
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtWebFilter jwtWebFilter) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable) // Disables CSRF protection as the application uses stateless JWT authentication
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance()) // Keeps the application stateless
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers("/public/**", "/auth/**", "/actuator/health").permitAll() // Allows unrestricted access to public and auth-related endpoints
+                        .pathMatchers("/admin/**").hasRole("ADMIN") // Restricts admin-related endpoints to users with ADMIN role
+                        .pathMatchers("/moderator/**").hasRole("MODERATOR") // Restricts moderator-related endpoints to users with MODERATOR role
+                        .pathMatchers("/user/**").hasRole("USER") // Restricts user-related endpoints to users with USER role
+                        .anyExchange().authenticated()) // Requires authentication for any other request
+                .addFilterAt(jwtWebFilter, SecurityWebFiltersOrder.AUTHENTICATION) // Authenticates Bearer tokens
+                .build();
+    }
+
+    /**
+     * Provides the token-verification filter.
+     *
+     * @param jwtUtil            the token utility shared with the servlet application.
+     * @param userDetailsService the reactive principal loader.
+     * @param objectMapper       the mapper used to write error bodies.
+     * @return the {@link JwtWebFilter}.
+     */
+    @Bean
+    public JwtWebFilter jwtWebFilter(JwtUtil jwtUtil, ReactiveUserDetailsService userDetailsService,
+                                     ObjectMapper objectMapper) {
+        return new JwtWebFilter(jwtUtil, userDetailsService, objectMapper);
+    }
+
+    /**
+     * Configures the password encoder, with the same strength as the servlet application so either can verify
+     * the hashes written by the other.
+     *
+     * @return a {@link BCryptPasswordEncoder} instance for password encoding.
+     */
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(12);
+    }
+}
@@ -0,0 +1,102 @@
+package com.vrvsecurity.rbac.reactive.controller.auth;
+
+import com.vrvsecurity.rbac.dto.AuthResponse;
+import com.vrvsecurity.rbac.dto.LoginRequest;
+import com.vrvsecurity.rbac.reactive.security.OffloadedPasswordEncoder;
+import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.LoginThrottle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive counterpart of {@code LoginController}.
+ * <p>
+ * The password is verified on the bounded BCrypt scheduler of {@link OffloadedPasswordEncoder}; when that
+ * scheduler is saturated the login is refused with 503 Service Unavailable rather than queued. Unknown emails
+ * are still checked against a dummy hash, so they are answered no faster than wrong passwords.
+ * </p>
+ */
+@RestController // Marks this class as a Spring WebFlux REST controller
+@RequestMapping("/auth") // Defines the base URL path for authentication-related endpoints
+public class ReactiveLoginController {
+
+    private final ReactiveUserDetailsService userDetailsService;
+    private final OffloadedPasswordEncoder passwordEncoder;
+    private final JwtUtil jwtUtil;
+    private final LoginThrottle loginThrottle;
+
+    /**
+     * Constructs the controller.
+     *
+     * @param userDetailsService the reactive principal loader.
+     * @param passwordEncoder    the encoder verifying passwords off the event loop.
+     * @param jwtUtil            the token utility shared with the servlet application.
+     * @param loginThrottle      the per-email and per-IP login attempt limits.
+     */
+    public ReactiveLoginController(ReactiveUserDetailsService userDetailsService,
+                                   OffloadedPasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                                   LoginThrottle loginThrottle) {
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtil = jwtUtil;
+        this.loginThrottle = loginThrottle;
+    }
+
+    /**
+     * Authenticates the user and returns a JWT token if the credentials are valid.
+     *
+     * @param request  the login request containing user email and password.
+     * @param exchange the current exchange, used for the client address.
+     * @return the JWT token if login is successful, or an error message.
+     */
+    @PostMapping("/login") // Maps this method to the POST request at '/auth/login'
+    public Mono<ResponseEntity<Object>> login(@RequestBody LoginRequest request, ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        String address = remoteAddress == null || remoteAddress.getAddress() == null
+                ? null : remoteAddress.getAddress().getHostAddress();
+        long retryAfterSeconds = loginThrottle.tryAcquire(request.getEmail(), address);
+        if (retryAfterSeconds != LoginThrottle.ADMITTED) {
+            return Mono.just(ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS) // Return HTTP status 429 Too Many Requests
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .<Object>body(Map.of("error", "Too many login attempts, please try again later")));
+        }
+
+        return userDetailsService.findByUsername(request.getEmail())
+                .onErrorResume(UsernameNotFoundException.class, e -> Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(found -> found.isPresent()
+                        ? passwordEncoder.matches(request.getPassword(), found.get().getPassword())
+                                .filter(Boolean::booleanValue)
+                                .map(matched -> found.get())
+                        : passwordEncoder.mismatch(request.getPassword()).then(Mono.<UserDetails>empty()))
+                .map(userDetails -> {
+                    String jwt = jwtUtil.generateToken(userDetails);
+                    loginThrottle.onSuccess(request.getEmail());
+                    return ResponseEntity.ok().<Object>body(new AuthResponse(jwt, "Bearer"));
+                })
+                .defaultIfEmpty(ResponseEntity
+                        .status(HttpStatus.UNAUTHORIZED) // Return HTTP status 401 Unauthorized
+                        .<Object>body(Map.of("error", "Invalid credentials")))
+                .onErrorResume(RejectedExecutionException.class, e -> Mono.just(ResponseEntity
+                        .status(HttpStatus.SERVICE_UNAVAILABLE) // Password hashing is saturated
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .<Object>body(Map.of("error", "Too many concurrent logins, please retry"))));
+    }
+}
@@ -0,0 +1,47 @@
+package com.vrvsecurity.rbac.reactive.controller.auth;
+
+import com.vrvsecurity.rbac.dto.RegistrationRequest;
+import com.vrvsecurity.rbac.reactive.service.ReactiveUserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code RegistrationController}.
+ */
+@RestController // Marks this class as a Spring WebFlux REST controller
+@RequestMapping("/auth") // Defines the base URL path for authentication-related endpoints
+public class ReactiveRegistrationController {
+
+    private final ReactiveUserService userService;
+
+    /**
+     * Constructs the controller.
+     *
+     * @param userService the service registering users.
+     */
+    public ReactiveRegistrationController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Registers a new user.
+     *
+     * @param request the registration details.
+     * @return 201 Created with a message describing the outcome, or 400 Bad Request with the error message.
+     */
+    @PostMapping("/register") // Maps this method to the POST request at '/auth/register'
+    public Mono<ResponseEntity<String>> registration(@RequestBody RegistrationRequest request) {
+        return userService.registration(request)
+                .map(response -> ResponseEntity
+                        .status(HttpStatus.CREATED) // Respond with HTTP status 201 Created
+                        .body(response))
+                .onErrorResume(e -> Mono.just(ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST) // Respond with HTTP status 400 Bad Request in case of error
+                        .body(e.getMessage())));
+    }
+}
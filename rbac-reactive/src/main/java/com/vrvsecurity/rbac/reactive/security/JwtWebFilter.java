@@ -0,0 +1,132 @@
+package com.vrvsecurity.rbac.reactive.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reactive counterpart of {@code JwtAuthFilter}.
+ * <p>
+ * Verifies the Bearer token with the shared {@link JwtUtil}, loads the principal without blocking and makes it
+ * the authentication of the rest of the exchange. The token is parsed once; its claims are then checked against
+ * the loaded principal. Invalid tokens and unknown users are answered with 401, users whose account is pending
+ * approval with 403, and failures to load the principal (the database is unreachable, for instance) with 503, as
+ * in the servlet application. Error bodies are constant, so no exception message reaches the client.
+ * </p>
+ */
+public class JwtWebFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtWebFilter.class);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final ReactiveUserDetailsService userDetailsService;
+    private final byte[] unauthorizedBody;
+    private final byte[] pendingBody;
+    private final byte[] unavailableBody;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param jwtUtil            The token utility shared with the servlet application.
+     * @param userDetailsService The reactive principal loader.
+     * @param objectMapper       The mapper used to write error bodies.
+     */
+    public JwtWebFilter(JwtUtil jwtUtil, ReactiveUserDetailsService userDetailsService, ObjectMapper objectMapper) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.unauthorizedBody = errorBody(objectMapper, "Authentication failed");
+        this.pendingBody = errorBody(objectMapper, "Account is pending approval. Please contact admin.");
+        this.unavailableBody = errorBody(objectMapper, "Authentication is temporarily unavailable, please retry");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        // Proceed if the Authorization header is missing or does not contain a Bearer token
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(authHeader.substring(BEARER_PREFIX.length()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return reject(exchange, HttpStatus.UNAUTHORIZED, unauthorizedBody);
+        }
+
+        // Errors of the principal lookup are answered here; errors further down the chain are not caught
+        return userDetailsService.findByUsername(claims.getSubject())
+                .map(userDetails -> authenticate(exchange, chain, claims, userDetails))
+                .onErrorResume(e -> Mono.just(rejectLookup(exchange, e)))
+                .flatMap(Function.identity());
+    }
+
+    private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain, Claims claims,
+                                    UserDetails userDetails) {
+        if (!jwtUtil.validateClaims(claims, userDetails)) {
+            return chain.filter(exchange);
+        }
+        if (userDetails instanceof UserPrincipal principal && principal.getStatus() == AccountStatus.PENDING) {
+            return reject(exchange, HttpStatus.FORBIDDEN, pendingBody);
+        }
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken));
+    }
+
+    /**
+     * Answers a failed principal lookup: 401 if the user does not exist, 503 for anything else, since the
+     * credentials could not be checked at all.
+     */
+    private Mono<Void> rejectLookup(ServerWebExchange exchange, Throwable e) {
+        if (e instanceof UsernameNotFoundException) {
+            return reject(exchange, HttpStatus.UNAUTHORIZED, unauthorizedBody);
+        }
+        log.warn("Could not load principal, answering 503", e);
+        return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, unavailableBody);
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, byte[] body) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static byte[] errorBody(ObjectMapper objectMapper, String message) {
+        try {
+            return objectMapper.writeValueAsBytes(Map.of("error", message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.vrvsecurity.rbac.reactive.security;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs BCrypt hashing and verification off the event loop on a bounded scheduler.
+ * <p>
+ * A BCrypt check costs tens of milliseconds of CPU, which would stall every connection served by an event loop
+ * thread. Hashes are computed on at most {@code rbac.reactive.bcrypt.threads} threads (the number of processors
+ * by default) with at most {@code rbac.reactive.bcrypt.queue-capacity} tasks waiting per thread; further work is
+ * refused with a {@link java.util.concurrent.RejectedExecutionException} instead of queueing without bound.
+ * </p>
+ * <p>
+ * Logins for unknown emails are checked against a dummy hash with {@link #mismatch(CharSequence)}, so they take
+ * as long as a wrong password and the response time does not reveal which emails are registered.
+ * </p>
+ */
+@Component
+public class OffloadedPasswordEncoder implements DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final Scheduler scheduler;
+    private volatile String dummyHash; // Hashed on first use, off the event loop
+
+    /**
+     * Constructs the encoder.
+     *
+     * @param delegate      The blocking password encoder.
+     * @param threads       The maximum number of hashing threads, or 0 for the number of processors.
+     * @param queueCapacity The maximum number of hashing tasks waiting per thread.
+     */
+    public OffloadedPasswordEncoder(PasswordEncoder delegate,
+                                    @Value("${rbac.reactive.bcrypt.threads:0}") int threads,
+                                    @Value("${rbac.reactive.bcrypt.queue-capacity:1000}") int queueCapacity) {
+        this.delegate = delegate;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newBoundedElastic(size, queueCapacity, "bcrypt");
+    }
+
+    /**
+     * Hashes a raw password.
+     *
+     * @param rawPassword The password to hash.
+     * @return The hash.
+     */
+    public Mono<String> encode(CharSequence rawPassword) {
+        return Mono.fromCallable(() -> delegate.encode(rawPassword)).subscribeOn(scheduler);
+    }
+
+    /**
+     * Checks a raw password against a stored hash.
+     *
+     * @param rawPassword     The password to check.
+     * @param encodedPassword The stored hash.
+     * @return {@code true} if the password matches.
+     */
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return Mono.fromCallable(() -> delegate.matches(rawPassword, encodedPassword)).subscribeOn(scheduler);
+    }
+
+    /**
+     * Checks a raw password against a dummy hash, spending the time of a real check.
+     *
+     * @param rawPassword The password to check.
+     * @return {@code false}, once the check is done.
+     */
+    public Mono<Boolean> mismatch(CharSequence rawPassword) {
+        return Mono.fromCallable(() -> {
+            String hash = dummyHash;
+            if (hash == null) {
+                hash = delegate.encode("userNotFoundPassword");
+                dummyHash = hash;
+            }
+            delegate.matches(rawPassword, hash);
+            return false;
+        }).subscribeOn(scheduler);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
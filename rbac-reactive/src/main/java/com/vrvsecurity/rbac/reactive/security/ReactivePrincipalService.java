@@ -0,0 +1,59 @@
+package com.vrvsecurity.rbac.reactive.security;
+
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.reactive.Repository.ReactiveUserRepository;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import com.vrvsecurity.rbac.security.UserPrincipal;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code CustomUserDetailsService}.
+ * <p>
+ * Principals are served from the shared {@link PrincipalCache} and otherwise loaded through R2DBC. This module
+ * does not tail the cache change log, so status and role changes reach it within
+ * {@code rbac.principal-cache.ttl-seconds}.
+ * </p>
+ */
+@Service
+public class ReactivePrincipalService implements ReactiveUserDetailsService {
+
+    private final ReactiveUserRepository userRepository;
+    private final PrincipalCache principalCache;
+
+    /**
+     * Constructs the service.
+     *
+     * @param userRepository The repository users are loaded from.
+     * @param principalCache The cache of loaded principals.
+     */
+    public ReactivePrincipalService(ReactiveUserRepository userRepository, PrincipalCache principalCache) {
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * Loads a user's principal by email.
+     *
+     * @param username The user's email.
+     * @return The principal, or a {@link UsernameNotFoundException} error if no user has that email.
+     */
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        String email = EmailDigest.normalize(username);
+        UserPrincipal cached = principalCache.get(email);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return userRepository.findByEmail(email)
+                .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException("User not found with '" + email + "' email")))
+                .map(user -> {
+                    UserPrincipal principal = new UserPrincipal(user);
+                    principalCache.put(email, principal);
+                    return principal;
+                });
+    }
+}
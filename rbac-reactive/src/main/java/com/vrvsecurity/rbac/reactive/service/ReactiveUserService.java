@@ -0,0 +1,93 @@
+package com.vrvsecurity.rbac.reactive.service;
+
+import com.vrvsecurity.rbac.dto.RegistrationRequest;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import com.vrvsecurity.rbac.reactive.Repository.ReactiveRoleRepository;
+import com.vrvsecurity.rbac.reactive.Repository.ReactiveUserRepository;
+import com.vrvsecurity.rbac.reactive.security.OffloadedPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Reactive counterpart of the registration in {@code UserService}.
+ */
+@Service
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveRoleRepository roleRepository;
+    private final OffloadedPasswordEncoder passwordEncoder;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Constructs the service.
+     *
+     * @param userRepository        The repository users are written to.
+     * @param roleRepository        The repository roles are resolved from.
+     * @param passwordEncoder       The encoder hashing passwords off the event loop.
+     * @param transactionalOperator Runs the insert of a user and its roles in one transaction.
+     */
+    public ReactiveUserService(ReactiveUserRepository userRepository, ReactiveRoleRepository roleRepository,
+                               OffloadedPasswordEncoder passwordEncoder, TransactionalOperator transactionalOperator) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Registers a new user, with the same rules as the servlet application: admin and moderator sign-ups are
+     * pending until reviewed, all others are active at once.
+     *
+     * @param request The registration details.
+     * @return A message describing the outcome, or an error if a requested role does not exist.
+     */
+    public Mono<String> registration(RegistrationRequest request) {
+        String email = EmailDigest.normalize(request.getEmail());
+        return userRepository.existsByEmail(email)
+                .flatMap(exists -> exists ? Mono.just(alreadyRegistered(email)) : register(email, request));
+    }
+
+    private Mono<String> register(String email, RegistrationRequest request) {
+        Mono<List<Role>> roles = Flux.fromIterable(request.getRoles())
+                .concatMap(roleName -> roleRepository.findByName("ROLE_" + roleName)
+                        .switchIfEmpty(Mono.error(() -> new RuntimeException(roleName + " role not found"))))
+                .collectList();
+
+        return roles.zipWith(passwordEncoder.encode(request.getPassword()), (heldRoles, hash) -> {
+                    // Admin and moderator sign-ups wait for review
+                    boolean reviewed = request.getRoles().stream().anyMatch(roleName ->
+                            "admin".equalsIgnoreCase(roleName) || "moderator".equalsIgnoreCase(roleName));
+                    User user = new User();
+                    user.setFullName(request.getFullName());
+                    user.setCellNumber(request.getCellNumber());
+                    user.setEmail(email);
+                    user.setPassword(hash);
+                    user.setStatus(reviewed ? AccountStatus.PENDING : AccountStatus.ACTIVE);
+                    user.setRoles(new HashSet<>(heldRoles));
+                    user.setRegisteredAt(LocalDateTime.now());
+                    return user;
+                })
+                .flatMap(user -> userRepository.insert(user).as(transactionalOperator::transactional))
+                .map(user -> user.getStatus() == AccountStatus.PENDING
+                        ? "Registration successful. Your account is pending activation and requires admin review."
+                        : "Registration successful. You can now log in to your account.")
+                // A concurrent registration of the same email is rejected by the unique digest index
+                .onErrorResume(DataIntegrityViolationException.class, e -> userRepository.existsByEmail(email)
+                        .flatMap(exists -> exists ? Mono.just(alreadyRegistered(email)) : Mono.error(e)));
+    }
+
+    private String alreadyRegistered(String email) {
+        return "Already had an account with " + email + " email";
+    }
+}
@@ -0,0 +1,160 @@
+package com.vrvsecurity.rbac.reactive;
+
+import com.vrvsecurity.rbac.dto.LoginRequest;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import com.vrvsecurity.rbac.reactive.security.OffloadedPasswordEncoder;
+import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Smoke tests of the reactive application: the context starts, and the JWT filter and login endpoint answer
+ * with the expected statuses. Principals come from a mocked loader, so no database is needed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class RbacReactiveApplicationTests {
+
+	@Autowired
+	private WebTestClient client;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@MockitoBean
+	private ReactiveUserDetailsService userDetailsService;
+
+	@MockitoSpyBean
+	private OffloadedPasswordEncoder offloadedPasswordEncoder;
+
+	@Test
+	void validTokenIsAuthenticated() {
+		UserPrincipal principal = principal("active@example.com", AccountStatus.ACTIVE, "secret");
+		when(userDetailsService.findByUsername("active@example.com")).thenReturn(Mono.just(principal));
+
+		client.get().uri("/actuator/metrics")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(principal))
+				.exchange()
+				.expectStatus().isOk();
+	}
+
+	@Test
+	void malformedTokenIsRejectedWithoutLoadingThePrincipal() {
+		client.get().uri("/actuator/metrics")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer not.a.token")
+				.exchange()
+				.expectStatus().isUnauthorized()
+				.expectBody().jsonPath("$.error").isEqualTo("Authentication failed");
+
+		verify(userDetailsService, never()).findByUsername(anyString());
+	}
+
+	@Test
+	void pendingAccountIsForbidden() {
+		UserPrincipal principal = principal("pending@example.com", AccountStatus.PENDING, "secret");
+		when(userDetailsService.findByUsername("pending@example.com")).thenReturn(Mono.just(principal));
+
+		client.get().uri("/actuator/metrics")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(principal))
+				.exchange()
+				.expectStatus().isForbidden();
+	}
+
+	@Test
+	void unknownUserIsUnauthorized() {
+		UserPrincipal principal = principal("gone@example.com", AccountStatus.ACTIVE, "secret");
+		when(userDetailsService.findByUsername("gone@example.com"))
+				.thenReturn(Mono.error(new UsernameNotFoundException("User not found with 'gone@example.com' email")));
+
+		client.get().uri("/actuator/metrics")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(principal))
+				.exchange()
+				.expectStatus().isUnauthorized()
+				.expectBody().jsonPath("$.error").isEqualTo("Authentication failed");
+	}
+
+	@Test
+	void databaseOutageIsServiceUnavailableAndDoesNotLeakTheCause() {
+		UserPrincipal principal = principal("active@example.com", AccountStatus.ACTIVE, "secret");
+		when(userDetailsService.findByUsername("active@example.com"))
+				.thenReturn(Mono.error(new DataAccessResourceFailureException("Connection refused: db-primary:3306")));
+
+		client.get().uri("/actuator/metrics")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(principal))
+				.exchange()
+				.expectStatus().isEqualTo(503)
+				.expectBody()
+				.jsonPath("$.error").isEqualTo("Authentication is temporarily unavailable, please retry");
+	}
+
+	@Test
+	void loginIssuesTokenForValidCredentials() {
+		UserPrincipal principal = principal("login@example.com", AccountStatus.ACTIVE, "secret");
+		when(userDetailsService.findByUsername("login@example.com")).thenReturn(Mono.just(principal));
+
+		client.post().uri("/auth/login")
+				.bodyValue(loginRequest("login@example.com", "secret"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.token").exists();
+	}
+
+	@Test
+	void loginForUnknownEmailStillChecksAPassword() {
+		when(userDetailsService.findByUsername("nobody@example.com"))
+				.thenReturn(Mono.error(new UsernameNotFoundException("User not found with 'nobody@example.com' email")));
+
+		client.post().uri("/auth/login")
+				.bodyValue(loginRequest("nobody@example.com", "secret"))
+				.exchange()
+				.expectStatus().isUnauthorized()
+				.expectBody().jsonPath("$.error").isEqualTo("Invalid credentials");
+
+		verify(offloadedPasswordEncoder).mismatch(any());
+	}
+
+	private UserPrincipal principal(String email, AccountStatus status, String password) {
+		Role role = new Role();
+		role.setName("ROLE_USER");
+		User user = new User();
+		user.setUserId(1);
+		user.setFullName("Test User");
+		user.setEmail(email);
+		user.setPassword(passwordEncoder.encode(password));
+		user.setStatus(status);
+		user.setRoles(Set.of(role));
+		return new UserPrincipal(user);
+	}
+
+	private static LoginRequest loginRequest(String email, String password) {
+		LoginRequest request = new LoginRequest();
+		request.setEmail(email);
+		request.setPassword(password);
+		return request;
+	}
+}
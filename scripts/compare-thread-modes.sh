@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+# Compares throughput and p99 latency of the platform-thread and virtual-thread modes.
+#
+# Starts the packaged application once per mode against the configured database, logs in as an existing
+# admin and drives two workloads with wrk: authenticated admin listings (JWT validation, principal loading and
+# a JDBC query per request) and logins (BCrypt verification). The adaptive concurrency limit and the login
+# throttle are disabled so both modes are measured at the same offered load.
+#
+# Requirements: a packaged jar (mvn -DskipTests package), a running database with an ACTIVE admin account,
+# curl and wrk on the PATH.
+#
+# Usage: ADMIN_EMAIL=admin@example.com ADMIN_PASSWORD=secret scripts/compare-thread-modes.sh
+# Optional: JAR, PORT, THREADS, CONNECTIONS, DURATION, EXTRA_ARGS (further application arguments).
+set -euo pipefail
+
+JAR=${JAR:-target/rbac-0.0.1-SNAPSHOT-exec.jar}
+PORT=${PORT:-8080}
+THREADS=${THREADS:-4}
+CONNECTIONS=${CONNECTIONS:-400}
+DURATION=${DURATION:-60s}
+BASE_URL="http://localhost:${PORT}"
+: "${ADMIN_EMAIL:?ADMIN_EMAIL must name an ACTIVE admin account}"
+: "${ADMIN_PASSWORD:?ADMIN_PASSWORD must be set}"
+
+WORK_DIR=$(mktemp -d)
+APP_PID=
+cleanup() {
+    if [[ -n "$APP_PID" ]]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+LOGIN_BODY="{\"email\":\"${ADMIN_EMAIL}\",\"password\":\"${ADMIN_PASSWORD}\"}"
+cat > "$WORK_DIR/login.lua" <<LUA
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+wrk.body = '${LOGIN_BODY}'
+LUA
+
+start_app() {
+    java -jar "$JAR" --server.port="$PORT" --rbac.concurrency.enabled=false --rbac.login-throttle.enabled=false \
+        ${EXTRA_ARGS:-} "$@" > "$WORK_DIR/app.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 1 120); do
+        if curl -fs "$BASE_URL/actuator/health" > /dev/null; then
+            return
+        fi
+        sleep 1
+    done
+    echo "Application did not become healthy, see its log:" >&2
+    tail -50 "$WORK_DIR/app.log" >&2
+    exit 1
+}
+
+stop_app() {
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+}
+
+# Prints "<requests/sec> <p99>" from wrk --latency output.
+summarize() {
+    awk '/Requests\/sec:/ { rps = $2 } $1 == "99%" { p99 = $2 } END { print rps, p99 }'
+}
+
+run_mode() {
+    local mode=$1
+    shift
+    start_app "$@"
+    local token
+    token=$(curl -fs -H 'Content-Type: application/json' -d "$LOGIN_BODY" "$BASE_URL/auth/login" \
+        | sed -E 's/.*"token":"([^"]+)".*/\1/')
+
+    # Warm up the JIT, the principal cache and the connection pool before measuring
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d15s -H "Authorization: Bearer $token" \
+        "$BASE_URL/admin/users/active?limit=50" > /dev/null
+
+    local listing login
+    listing=$(wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency -H "Authorization: Bearer $token" \
+        "$BASE_URL/admin/users/active?limit=50" | summarize)
+    login=$(wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency -s "$WORK_DIR/login.lua" \
+        "$BASE_URL/auth/login" | summarize)
+    printf '%-10s %-16s %12s %10s\n' "$mode" "admin-listing" $listing
+    printf '%-10s %-16s %12s %10s\n' "$mode" "login" $login
+    local pinned
+    pinned=$(grep -c "Virtual thread pinned" "$WORK_DIR/app.log" || true)
+    printf '%-10s %-16s %12s\n' "$mode" "pinned-stacks" "$pinned"
+    stop_app
+}
+
+printf '%-10s %-16s %12s %10s\n' "mode" "workload" "requests/s" "p99"
+run_mode platform --spring.threads.virtual.enabled=false
+run_mode virtual --spring.profiles.active=virtual-threads
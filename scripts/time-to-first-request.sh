@@ -0,0 +1,100 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request of the JVM, AOT + CDS and native variants of the application.
+#
+# Each variant is started RUNS times; the time from launch until the first POST /auth/login is answered (a 401 for
+# an unknown email, which goes through the security filter chain, the user lookup and the connection pool) is
+# reported together with the startup time Spring logs. Variants whose artifacts have not been built are skipped.
+#
+# Requirements: curl, and the artifacts to compare:
+#   mvn -DskipTests package                        target/rbac-0.0.1-SNAPSHOT-exec.jar    (jvm)
+#   mvn -Paot-cds -DskipTests package              target/cds/rbac-0.0.1-SNAPSHOT-exec.jar (jvm, aot-cds)
+#   mvn -Pnative -DskipTests native:compile        target/rbac                            (native)
+#
+# Usage: scripts/time-to-first-request.sh
+# Optional: RUNS, PORT, DB_ARGS (application arguments selecting the database; an embedded H2 database by default),
+#           EXTRA_ARGS (further application arguments).
+set -euo pipefail
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+DB_ARGS=${DB_ARGS:-"--spring.datasource.url=jdbc:h2:mem:ttfr;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1 \
+--spring.datasource.username=sa --spring.datasource.password= --spring.datasource.driver-class-name=org.h2.Driver \
+--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect --rbac.snapshot.load-on-startup=false"}
+LOGIN_BODY='{"email":"first-request@example.com","password":"none"}'
+
+if [[ -f target/cds/rbac-0.0.1-SNAPSHOT-exec.jar ]]; then
+    JAR=target/cds/rbac-0.0.1-SNAPSHOT-exec.jar
+else
+    JAR=target/rbac-0.0.1-SNAPSHOT-exec.jar
+fi
+
+WORK_DIR=$(mktemp -d)
+APP_PID=
+RESULT=
+cleanup() {
+    if [[ -n "$APP_PID" ]]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Starts a variant, waits for the first answered request and sets RESULT to "<time-to-first-request ms> <started in>".
+measure() {
+    local started
+    started=$(now_ms)
+    # shellcheck disable=SC2086
+    "$@" --server.port="$PORT" $DB_ARGS ${EXTRA_ARGS:-} > "$WORK_DIR/app.log" 2>&1 &
+    APP_PID=$!
+    local status=000
+    for _ in $(seq 1 12000); do
+        status=$(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' -d "$LOGIN_BODY" \
+            "$BASE_URL/auth/login" || true)
+        if [[ "$status" != "000" ]]; then
+            break
+        fi
+        if ! kill -0 "$APP_PID" 2>/dev/null; then
+            break
+        fi
+        sleep 0.01
+    done
+    local elapsed=$(( $(now_ms) - started ))
+    if [[ "$status" == "000" ]]; then
+        echo "Application did not answer, see its log:" >&2
+        tail -50 "$WORK_DIR/app.log" >&2
+        exit 1
+    fi
+    local spring
+    spring=$(grep -oE 'Started RbacApplication in [0-9.]+ seconds' "$WORK_DIR/app.log" | grep -oE '[0-9.]+' || echo '?')
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+    RESULT="$elapsed ${spring}s"
+}
+
+run_variant() {
+    local variant=$1
+    shift
+    for run in $(seq 1 "$RUNS"); do
+        measure "$@"
+        # shellcheck disable=SC2086
+        printf '%-8s %4s %10s %12s\n' "$variant" "$run" $RESULT
+    done
+}
+
+printf '%-8s %4s %10s %12s\n' "variant" "run" "ttfr-ms" "started-in"
+if [[ -f "$JAR" ]]; then
+    run_variant jvm java -jar "$JAR"
+fi
+if [[ -f target/cds/rbac.jsa ]]; then
+    run_variant aot-cds java -XX:SharedArchiveFile=target/cds/rbac.jsa -Dspring.aot.enabled=true -jar "$JAR"
+fi
+if [[ -x target/rbac ]]; then
+    run_variant native target/rbac
+fi
@@ -0,0 +1,19 @@
+package com.vrvsecurity.rbac.Repository;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+
+/**
+ * Projection of the authentication-relevant columns of a user joined with one of their roles.
+ * <p>
+ * A user holding several roles yields one row per role; a user without roles yields a single row with a
+ * {@code null} role id. Used to write principal snapshots without loading user entities.
+ * </p>
+ *
+ * @param emailDigest The digest of the user's normalized email.
+ * @param userId      The id of the user.
+ * @param password    The encoded password of the user.
+ * @param status      The status of the user.
+ * @param roleId      The id of one role held by the user, or {@code null} if the user holds none.
+ */
+public record PrincipalRow(byte[] emailDigest, long userId, String password, AccountStatus status, Long roleId) {
+}
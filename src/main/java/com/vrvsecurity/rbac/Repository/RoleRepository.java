@@ -4,6 +4,8 @@ import com.vrvsecurity.rbac.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -11,11 +13,12 @@ import java.util.Optional;
  * <p>
  * This interface provides methods to perform CRUD operations and custom queries
  * for the Role entity. It extends the {@link JpaRepository} interface, which
- * provides default implementations for common database operations.
+ * provides default implementations for common database operations, and {@link RoleStore}, the
+ * operations services use.
  * </p>
  */
 @Repository
-public interface RoleRepository extends JpaRepository<Role, Long> {
+public interface RoleRepository extends JpaRepository<Role, Long>, RoleStore {
 
     /**
      * Custom query method to find a Role by its name.
@@ -28,4 +31,16 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
      * @return An {@link Optional} containing the matching Role entity, if found.
      */
     Optional<Role> findByName(String role);
+
+    /**
+     * Custom query method to find every Role whose name is in the given collection.
+     * <p>
+     * Used to resolve all roles requested at registration with a single query instead of one
+     * lookup per role. Names that match no role are simply absent from the result.
+     * </p>
+     *
+     * @param roles The names of the roles to search for.
+     * @return A {@link List} of the matching Role entities, in no particular order.
+     */
+    List<Role> findByNameIn(Collection<String> roles);
 }
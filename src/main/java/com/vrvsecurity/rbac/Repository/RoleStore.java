@@ -0,0 +1,50 @@
+package com.vrvsecurity.rbac.Repository;
+
+import com.vrvsecurity.rbac.model.Role;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The role operations the application uses, implemented by every store.
+ * <p>
+ * Services depend on this interface rather than on {@link RoleRepository}, so the JPA repository, the sharded
+ * JDBC repository and the in-memory repository are interchangeable and none of them has to provide JPA
+ * operations the application never calls.
+ * </p>
+ */
+public interface RoleStore {
+
+    /**
+     * Saves a role, assigning its id if it is new.
+     *
+     * @param role The role to save.
+     * @param <S>  The role type.
+     * @return The saved role.
+     */
+    <S extends Role> S save(S role);
+
+    /**
+     * Retrieves every role.
+     *
+     * @return A {@link List} of all roles.
+     */
+    List<Role> findAll();
+
+    /**
+     * Finds a role by its name.
+     *
+     * @param role The name of the role to search for.
+     * @return An {@link Optional} containing the matching Role, if found.
+     */
+    Optional<Role> findByName(String role);
+
+    /**
+     * Finds every role whose name is in the given collection.
+     *
+     * @param roles The names of the roles to search for.
+     * @return A {@link List} of the matching roles, in no particular order.
+     */
+    List<Role> findByNameIn(Collection<String> roles);
+}
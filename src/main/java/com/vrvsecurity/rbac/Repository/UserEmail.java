@@ -0,0 +1,14 @@
+package com.vrvsecurity.rbac.Repository;
+
+/**
+ * Projection of a user's id and email.
+ * <p>
+ * Used to page through the users selected by a filter-based bulk update without loading user entities; the id
+ * is the keyset the next page starts after.
+ * </p>
+ *
+ * @param userId The id of the user.
+ * @param email  The normalized email of the user.
+ */
+public record UserEmail(long userId, String email) {
+}
@@ -1,9 +1,19 @@
 package com.vrvsecurity.rbac.Repository;
 
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
 import com.vrvsecurity.rbac.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,33 +22,125 @@ import java.util.Optional;
  * <p>
  * This interface provides methods to perform CRUD operations and custom queries
  * for the User entity. It extends {@link JpaRepository}, which includes
- * common database operation implementations.
+ * common database operation implementations, and {@link UserStore}, the operations services use. The
+ * streaming queries of {@link UserStreamRepository} are listed again directly so Spring Data picks up their
+ * implementation.
  * </p>
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserStore, UserStreamRepository {
 
     /**
-     * Finds a user by their email address.
+     * Finds a user by the digest of their normalized email address.
      * <p>
-     * Email is a unique identifier for users, so this query is expected
-     * to return at most one result wrapped in an {@link Optional}.
+     * Callers should normally use {@link UserStore#findByEmail(String)}, which computes the digest and
+     * verifies the stored email. Runs in a read-only transaction, so it may be served by a read replica.
+     * The user's roles are fetched in the same statement, so loading a principal costs one query.
      * </p>
      *
-     * @param email The email address of the user.
+     * @param emailDigest The digest computed by {@link EmailDigest#of(String)}.
      * @return An {@link Optional} containing the matching User, if found.
      */
-    Optional<User> findByEmail(String email);
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findByEmailDigest(byte[] emailDigest);
 
     /**
-     * Retrieves all users with a specific status.
+     * Retrieves one page of users with a specific status, ordered by id.
      * <p>
      * This method is useful for filtering users based on their status
-     * (e.g., "active", "inactive").
+     * (e.g., "active", "pending"). Pages are selected by keyset rather than offset: the next page starts
+     * after the last id of the previous one, so every page is a short range scan on the
+     * {@code (status, user_id)} index no matter how many users share the status.
+     * The roles of the page are then loaded in batches (see the roles mapping of {@link User}) rather than one query per user.
      * </p>
      *
-     * @param status The status value to filter users by.
+     * @param status  The status value to filter users by.
+     * @param afterId Only users with a greater id are returned; 0 for the first page.
+     * @param limit   The maximum number of users to return.
      * @return A {@link List} of users matching the specified status.
      */
-    List<User> findByStatus(String status);
+    @Transactional(readOnly = true)
+    List<User> findByStatusAndUserIdGreaterThanOrderByUserIdAsc(AccountStatus status, long afterId, Limit limit);
+
+    /**
+     * Retrieves one keyset page of the ids and emails of users with a given status who registered before a point
+     * in time.
+     * <p>
+     * Only the id and email columns are selected, so no user entities or roles are loaded. This is used to
+     * resolve filter-based bulk status updates into chunks of emails one page at a time, each page a range scan
+     * on the {@code (status, user_id)} index. Users whose registration date is unknown ({@code NULL}) never match.
+     * </p>
+     *
+     * @param status  The status value to filter users by.
+     * @param before  Only users registered strictly before this instant are returned.
+     * @param afterId Only users with a greater id are returned; 0 for the first page.
+     * @param limit   The maximum number of users to return.
+     * @return The matching users' ids and emails, ordered by user id.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.vrvsecurity.rbac.Repository.UserEmail(u.userId, u.email) from User u " +
+            "where u.status = :status and u.registeredAt < :before and u.userId > :afterId order by u.userId")
+    List<UserEmail> findEmailsByStatusAndRegisteredBefore(@Param("status") AccountStatus status,
+                                                          @Param("before") LocalDateTime before,
+                                                          @Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Updates the status of every user whose email digest is in the given collection with a single statement.
+     * <p>
+     * When {@code expectedStatus} is not null, only users currently in that status are updated, so a
+     * filter resolved earlier cannot overwrite a status that changed in the meantime.
+     * Each call runs in its own transaction.
+     * </p>
+     *
+     * @param emailDigests   The digests of the normalized emails of the users to update.
+     * @param status         The new status value.
+     * @param expectedStatus The status the users must currently have, or {@code null} for any.
+     * @return The number of rows updated.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.status = :status where u.emailDigest in :emailDigests " +
+            "and (:expectedStatus is null or u.status = :expectedStatus)")
+    int updateStatusByEmailDigestIn(@Param("emailDigests") Collection<byte[]> emailDigests,
+                                    @Param("status") AccountStatus status,
+                                    @Param("expectedStatus") AccountStatus expectedStatus);
+
+    /**
+     * Grants a role to every user whose email digest is in the given collection with a single statement.
+     * <p>
+     * Rows are inserted directly into the {@code user_role} join table; users that already hold the role
+     * are left untouched, which makes the operation idempotent. Each call runs in its own transaction.
+     * </p>
+     *
+     * @param emailDigests The digests of the normalized emails of the users to grant the role to.
+     * @param roleId The id of the role to grant.
+     * @return The row count reported by the database for the statement.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO user_role (user_id, role_id) " +
+            "SELECT u.user_id, :roleId FROM `user` u WHERE u.email_digest IN (:emailDigests) " +
+            "ON DUPLICATE KEY UPDATE user_role.role_id = user_role.role_id", nativeQuery = true)
+    int grantRoleByEmailDigestIn(@Param("emailDigests") Collection<byte[]> emailDigests,
+                                 @Param("roleId") long roleId);
+
+    /**
+     * Revokes a role from every user whose email digest is in the given collection with a single statement.
+     * <p>
+     * Rows are deleted directly from the {@code user_role} join table; users that do not hold the role
+     * are unaffected, which makes the operation idempotent. Each call runs in its own transaction.
+     * </p>
+     *
+     * @param emailDigests The digests of the normalized emails of the users to revoke the role from.
+     * @param roleId The id of the role to revoke.
+     * @return The number of join rows deleted.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM user_role WHERE role_id = :roleId " +
+            "AND user_id IN (SELECT u.user_id FROM `user` u WHERE u.email_digest IN (:emailDigests))",
+            nativeQuery = true)
+    int revokeRoleByEmailDigestIn(@Param("emailDigests") Collection<byte[]> emailDigests,
+                                  @Param("roleId") long roleId);
 }
@@ -0,0 +1,128 @@
+package com.vrvsecurity.rbac.Repository;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.model.User;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The user operations the application uses, implemented by every store.
+ * <p>
+ * Services depend on this interface rather than on {@link UserRepository}, so the JPA repository, the sharded
+ * JDBC repository and the in-memory repository are interchangeable and none of them has to provide JPA
+ * operations the application never calls. {@link UserRepository} documents each operation's queries.
+ * </p>
+ */
+public interface UserStore extends UserStreamRepository {
+
+    /**
+     * Saves a user, assigning its id if it is new.
+     *
+     * @param user The user to save.
+     * @param <S>  The user type.
+     * @return The saved user.
+     */
+    <S extends User> S save(S user);
+
+    /**
+     * Saves a user and writes the change to the store immediately, so constraint violations surface here.
+     *
+     * @param user The user to save.
+     * @param <S>  The user type.
+     * @return The saved user.
+     */
+    <S extends User> S saveAndFlush(S user);
+
+    /**
+     * Counts the registered users.
+     *
+     * @return The number of users.
+     */
+    long count();
+
+    /**
+     * Finds a user by their email address.
+     * <p>
+     * The email is normalized and looked up through the fixed-width digest index, then compared
+     * against the stored email so a digest collision can never return the wrong user.
+     * </p>
+     *
+     * @param email The email address of the user, in any case and with optional surrounding whitespace.
+     * @return An {@link Optional} containing the matching User, if found.
+     */
+    default Optional<User> findByEmail(String email) {
+        String normalized = EmailDigest.normalize(email);
+        if (normalized == null) {
+            return Optional.empty();
+        }
+        return findByEmailDigest(EmailDigest.of(normalized))
+                .filter(user -> user.getEmail().equals(normalized));
+    }
+
+    /**
+     * Finds a user, with their roles, by the digest of their normalized email address.
+     *
+     * @param emailDigest The digest computed by {@link EmailDigest#of(String)}.
+     * @return An {@link Optional} containing the matching User, if found.
+     */
+    Optional<User> findByEmailDigest(byte[] emailDigest);
+
+    /**
+     * Retrieves one keyset page of users with a specific status, ordered by id.
+     *
+     * @param status  The status value to filter users by.
+     * @param afterId Only users with a greater id are returned; 0 for the first page.
+     * @param limit   The maximum number of users to return.
+     * @return A {@link List} of users matching the specified status.
+     */
+    List<User> findByStatusAndUserIdGreaterThanOrderByUserIdAsc(AccountStatus status, long afterId, Limit limit);
+
+    /**
+     * Retrieves one keyset page of the ids and emails of users with a given status who registered before a point
+     * in time. Users whose registration date is unknown never match.
+     *
+     * @param status  The status value to filter users by.
+     * @param before  Only users registered strictly before this instant are returned.
+     * @param afterId Only users with a greater id are returned; 0 for the first page.
+     * @param limit   The maximum number of users to return.
+     * @return The matching users' ids and emails, ordered by user id.
+     */
+    List<UserEmail> findEmailsByStatusAndRegisteredBefore(AccountStatus status, LocalDateTime before, long afterId,
+                                                          Limit limit);
+
+    /**
+     * Updates the status of every user whose email digest is in the given collection.
+     *
+     * @param emailDigests   The digests of the normalized emails of the users to update.
+     * @param status         The new status value.
+     * @param expectedStatus The status the users must currently have, or {@code null} for any.
+     * @return The number of users updated.
+     */
+    int updateStatusByEmailDigestIn(Collection<byte[]> emailDigests, AccountStatus status,
+                                    AccountStatus expectedStatus);
+
+    /**
+     * Grants a role to every user whose email digest is in the given collection; users already holding it
+     * are left untouched.
+     *
+     * @param emailDigests The digests of the normalized emails of the users to grant the role to.
+     * @param roleId       The id of the role to grant.
+     * @return The row count reported by the store.
+     */
+    int grantRoleByEmailDigestIn(Collection<byte[]> emailDigests, long roleId);
+
+    /**
+     * Revokes a role from every user whose email digest is in the given collection; users not holding it
+     * are unaffected.
+     *
+     * @param emailDigests The digests of the normalized emails of the users to revoke the role from.
+     * @param roleId       The id of the role to revoke.
+     * @return The number of grants removed.
+     */
+    int revokeRoleByEmailDigestIn(Collection<byte[]> emailDigests, long roleId);
+}
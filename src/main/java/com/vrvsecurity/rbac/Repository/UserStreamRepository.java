@@ -0,0 +1,40 @@
+package com.vrvsecurity.rbac.Repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment streaming every user, for rebuilding in-memory indexes over millions of users.
+ * <p>
+ * The JPA implementation is {@link UserStreamRepositoryImpl}, which chooses the fetch size the database's driver
+ * needs to return rows incrementally; the sharded and in-memory user repositories implement it directly.
+ * </p>
+ */
+public interface UserStreamRepository {
+
+    /**
+     * Streams the email address of every registered user.
+     * <p>
+     * Rows are fetched incrementally rather than materialized as a list, so the stream can be used to
+     * rebuild in-memory indexes over millions of users. It must be consumed inside a transaction and closed.
+     * </p>
+     *
+     * @return A {@link Stream} of all email addresses.
+     */
+    @Transactional(readOnly = true)
+    Stream<String> streamAllEmails();
+
+    /**
+     * Streams the authentication-relevant columns of every user, ordered by email digest.
+     * <p>
+     * Each user appears as one row per held role, and the rows of a user are consecutive. Rows are fetched
+     * incrementally in the order of the unique digest index, so millions of users can be written to a
+     * principal snapshot without being held in memory. It must be consumed inside a transaction and closed.
+     * </p>
+     *
+     * @return A {@link Stream} of {@link PrincipalRow} ordered by unsigned email digest.
+     */
+    @Transactional(readOnly = true)
+    Stream<PrincipalRow> streamPrincipalRows();
+}
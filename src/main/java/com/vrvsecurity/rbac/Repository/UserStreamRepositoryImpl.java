@@ -0,0 +1,63 @@
+package com.vrvsecurity.rbac.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * JPA implementation of {@link UserStreamRepository}, picked up by Spring Data for {@link UserRepository}.
+ * <p>
+ * MySQL Connector/J only streams a result set when the fetch size is {@link Integer#MIN_VALUE} and otherwise
+ * reads every row into memory before returning the first one, while standard drivers such as H2's reject a
+ * negative fetch size outright. The fetch size is therefore chosen from the dialect Hibernate was configured
+ * with, once, rather than fixed in a query hint.
+ * </p>
+ */
+class UserStreamRepositoryImpl implements UserStreamRepository {
+
+    private static final int STREAM_FETCH_SIZE = 1000; // Rows per round trip on drivers honouring a positive size
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Integer fetchSize; // Resolved from the dialect on first use
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<String> streamAllEmails() {
+        return entityManager.createQuery("select u.email from User u", String.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize())
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<PrincipalRow> streamPrincipalRows() {
+        return entityManager.createQuery("select new com.vrvsecurity.rbac.Repository.PrincipalRow(" +
+                        "u.emailDigest, u.userId, u.password, u.status, r.roleId) " +
+                        "from User u left join u.roles r order by u.emailDigest", PrincipalRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize())
+                .getResultStream();
+    }
+
+    /**
+     * Returns the fetch size that makes the configured database's driver stream rows.
+     *
+     * @return {@link Integer#MIN_VALUE} on MySQL, a positive batch size everywhere else.
+     */
+    private int fetchSize() {
+        Integer size = fetchSize;
+        if (size == null) {
+            boolean mysql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof MySQLDialect;
+            size = mysql ? Integer.MIN_VALUE : STREAM_FETCH_SIZE;
+            fetchSize = size;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,405 @@
+package com.vrvsecurity.rbac.Repository.memory;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Local-file durability for the in-memory repositories: a snapshot plus an append-only log.
+ * <p>
+ * Every change is appended to {@code journal.log} as the full new state of the changed role or user, so
+ * replaying a record twice is harmless. {@link #compact} writes the current state to {@code snapshot.bin}
+ * and truncates the log. At startup the snapshot is loaded and the log replayed on top of it.
+ * </p>
+ * <p>
+ * Both files hold frames of {@code [length][CRC-32][payload]}. A record is serialized completely before its frame
+ * is written with a single call, so a record that cannot be serialized (such as a string longer than 64 KB)
+ * writes nothing, and a failed write is cut off the log again. A frame cut short by a crash, or whose length or
+ * checksum is wrong, ends the replay of the log, and the log is truncated there before new records are appended
+ * behind it; a damaged snapshot, which is only ever replaced whole, fails the load instead.
+ * </p>
+ * <p>
+ * Appends are serialized with a {@link ReentrantLock} rather than a monitor, so a virtual thread waiting for
+ * a write or an fsync releases its carrier thread.
+ * </p>
+ */
+public class InMemoryJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryJournal.class);
+
+    private static final byte ROLE_RECORD = 1;
+    private static final byte USER_RECORD = 2;
+    private static final int FRAME_HEADER_BYTES = 8; // Payload length and CRC-32
+    private static final int MAX_PAYLOAD_BYTES = 1 << 24; // A longer length is damage, not a record
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel logChannel;
+    private long logLength; // End of the last complete frame
+    private long appendedSinceCompaction;
+
+    /**
+     * Opens the journal in the given directory, creating it if needed.
+     *
+     * @param directory The directory holding the snapshot and the log.
+     * @param fsync     Whether every appended record is forced to disk before the change returns.
+     */
+    public InMemoryJournal(Path directory, boolean fsync) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.snapshotFile = directory.resolve("snapshot.bin");
+        this.logFile = directory.resolve("journal.log");
+        this.fsync = fsync;
+    }
+
+    /**
+     * Loads the snapshot and replays the log, then opens the log for appending behind its last complete record.
+     *
+     * @param roles     Receives every stored role, in order.
+     * @param users     Receives every stored user, in order; later records replace earlier ones.
+     * @param roleById  Resolves the role ids referenced by user records.
+     * @throws IllegalStateException If the snapshot is damaged.
+     */
+    public void load(Consumer<Role> roles, Consumer<User> users, LongFunction<Role> roleById) {
+        lock.lock();
+        try {
+            Replay snapshot = replay(snapshotFile, roles, users, roleById);
+            if (snapshot.damaged()) {
+                throw new IllegalStateException("Damaged record at offset " + snapshot.validLength() + " in "
+                        + snapshotFile + "; restore it from a backup or remove it to start from the log alone");
+            }
+            Replay journal = replay(logFile, roles, users, roleById);
+            if (journal.damaged()) {
+                log.warn("Incomplete or damaged record at offset {} in {}, truncating the log there",
+                        journal.validLength(), logFile);
+            }
+            log.info("Loaded {} in-memory store records from {}", snapshot.records() + journal.records(),
+                    snapshotFile.getParent());
+            openLog();
+            logChannel.truncate(journal.validLength());
+            logLength = journal.validLength();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the new state of a role.
+     *
+     * @param role The role after the change.
+     */
+    public void appendRole(Role role) {
+        lock.lock();
+        try {
+            append(frame(role));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the new state of a user.
+     *
+     * @param user The user after the change.
+     */
+    public void appendUser(User user) {
+        lock.lock();
+        try {
+            append(frame(user));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of records appended since the last compaction.
+     *
+     * @return The record count.
+     */
+    public long appendedSinceCompaction() {
+        lock.lock();
+        try {
+            return appendedSinceCompaction;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given state and truncates the log.
+     * <p>
+     * Appends wait while the snapshot is written, but changes are not blocked from reaching the maps, so the
+     * collections must be live views of the repositories, read here under the journal lock, and every change
+     * must be applied to them before it is appended. A change applied concurrently is then either in the
+     * snapshot, appended to the new log after the truncation, or both, which is harmless because records carry
+     * full state. A snapshot taken from copies made before this call, or a change appended before it is
+     * applied, could be truncated away without reaching the snapshot.
+     * </p>
+     *
+     * @param roles A live view of the stored roles.
+     * @param users A live view of the stored users.
+     */
+    public void compact(Collection<Role> roles, Collection<User> users) {
+        lock.lock();
+        try {
+            Path temporary = snapshotFile.resolveSibling("snapshot.bin.tmp");
+            try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteArrayOutputStream frames = new ByteArrayOutputStream(1 << 16);
+                for (Role role : roles) {
+                    frames.write(frame(role));
+                }
+                for (User user : users) {
+                    frames.write(frame(user));
+                    if (frames.size() >= 1 << 16) {
+                        writeFully(file, frames.toByteArray());
+                        frames.reset();
+                    }
+                }
+                writeFully(file, frames.toByteArray());
+                file.force(true);
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logChannel.truncate(0);
+            logLength = 0;
+            appendedSinceCompaction = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closeLog();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a frame at the end of the last complete one, cutting off whatever part of it reached the file if
+     * the write fails, so a later record never follows a partial one.
+     */
+    private void append(byte[] frame) throws IOException {
+        try {
+            logChannel.position(logLength);
+            writeFully(logChannel, frame);
+            if (fsync) {
+                logChannel.force(false);
+            }
+        } catch (IOException e) {
+            try {
+                logChannel.truncate(logLength);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        logLength += frame.length;
+        appendedSinceCompaction++;
+    }
+
+    private void openLog() throws IOException {
+        logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private void closeLog() throws IOException {
+        if (logChannel != null) {
+            logChannel.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] frame(Role role) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        writeRole(new DataOutputStream(payload), role);
+        return frame(payload);
+    }
+
+    private static byte[] frame(User user) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+        writeUser(new DataOutputStream(payload), user);
+        return frame(payload);
+    }
+
+    private static byte[] frame(ByteArrayOutputStream payload) {
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return ByteBuffer.allocate(FRAME_HEADER_BYTES + bytes.length)
+                .putInt(bytes.length)
+                .putInt((int) crc.getValue())
+                .put(bytes)
+                .array();
+    }
+
+    /**
+     * Replays the frames of a file until its end or its first incomplete or damaged frame.
+     *
+     * @return The number of records replayed and the length of the file up to the end of the last of them.
+     */
+    private static Replay replay(Path file, Consumer<Role> roles, Consumer<User> users, LongFunction<Role> roleById) {
+        if (!Files.exists(file)) {
+            return new Replay(0, 0, false);
+        }
+        long records = 0;
+        long validLength = 0;
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return new Replay(records, validLength, validLength != Files.size(file));
+                }
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                    return new Replay(records, validLength, true);
+                }
+                byte[] payload = new byte[length];
+                try {
+                    int checksum = in.readInt();
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        return new Replay(records, validLength, true);
+                    }
+                } catch (EOFException e) {
+                    return new Replay(records, validLength, true);
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                int type = record.readByte();
+                if (type == ROLE_RECORD) {
+                    roles.accept(readRole(record));
+                } else if (type == USER_RECORD) {
+                    users.accept(readUser(record, roleById));
+                } else {
+                    throw new IOException("Unknown record type " + type + " at offset " + validLength + " in " + file);
+                }
+                records++;
+                validLength += FRAME_HEADER_BYTES + length;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Outcome of replaying one file.
+     *
+     * @param records     The number of records replayed.
+     * @param validLength The length of the file up to the end of the last replayed record.
+     * @param damaged     Whether the file continues past that point with an incomplete or damaged frame.
+     */
+    private record Replay(long records, long validLength, boolean damaged) {
+    }
+
+    private static void writeRole(DataOutputStream out, Role role) throws IOException {
+        out.writeByte(ROLE_RECORD);
+        out.writeLong(role.getRoleId());
+        out.writeUTF(role.getName());
+    }
+
+    private static Role readRole(DataInputStream in) throws IOException {
+        Role role = new Role();
+        role.setRoleId(in.readLong());
+        role.setName(in.readUTF());
+        return role;
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeByte(USER_RECORD);
+        out.writeLong(user.getUserId());
+        out.writeUTF(user.getFullName());
+        out.writeInt(user.getCellNumber());
+        out.writeUTF(user.getEmail());
+        out.writeUTF(user.getPassword());
+        out.writeByte(user.getStatus() == null ? 0 : user.getStatus().getCode());
+        out.writeLong(user.getRegisteredAt() == null
+                ? Long.MIN_VALUE
+                : user.getRegisteredAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        Set<Role> roles = user.getRoles() == null ? Set.of() : user.getRoles();
+        out.writeInt(roles.size());
+        for (Role role : roles) {
+            out.writeLong(role.getRoleId());
+        }
+    }
+
+    private static User readUser(DataInputStream in, LongFunction<Role> roleById) throws IOException {
+        User user = new User();
+        user.setUserId(in.readLong());
+        user.setFullName(in.readUTF());
+        user.setCellNumber(in.readInt());
+        user.setEmail(in.readUTF());
+        user.setPassword(in.readUTF());
+        byte status = in.readByte();
+        user.setStatus(status == 0 ? null : AccountStatus.fromCode(status));
+        long registeredAt = in.readLong();
+        user.setRegisteredAt(registeredAt == Long.MIN_VALUE
+                ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(registeredAt), ZoneOffset.UTC));
+        int roleCount = in.readInt();
+        Set<Role> roles = new HashSet<>();
+        for (int i = 0; i < roleCount; i++) {
+            Role role = roleById.apply(in.readLong());
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+        user.setRoles(roles);
+        return user;
+    }
+}
@@ -0,0 +1,135 @@
+package com.vrvsecurity.rbac.Repository.memory;
+
+import com.vrvsecurity.rbac.Repository.RoleStore;
+import com.vrvsecurity.rbac.model.Role;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link RoleStore} implementation keeping the role catalog in concurrent maps.
+ * <p>
+ * The catalog is small and rarely changes, so writes are serialized on one lock while reads go
+ * straight to the maps. Roles handed out are shared instances and must not be mutated by callers. Like user
+ * changes, a role change is applied to the maps before it is appended to the {@link InMemoryJournal}.
+ * </p>
+ */
+public class InMemoryRoleRepository implements RoleStore {
+
+    private final ConcurrentHashMap<Long, Role> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Role> byName = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final InMemoryJournal journal;
+
+    /**
+     * Constructs an empty repository.
+     *
+     * @param journal The journal every change is appended to.
+     */
+    public InMemoryRoleRepository(InMemoryJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Optional<Role> findByName(String role) {
+        return Optional.ofNullable(byName.get(role));
+    }
+
+    @Override
+    public List<Role> findByNameIn(Collection<String> roles) {
+        List<Role> found = new ArrayList<>(roles.size());
+        for (String name : roles) {
+            Role role = byName.get(name);
+            if (role != null && !found.contains(role)) {
+                found.add(role);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Role> findAll() {
+        List<Role> roles = new ArrayList<>(byId.values());
+        roles.sort(Comparator.comparingLong(Role::getRoleId));
+        return roles;
+    }
+
+    @Override
+    public <S extends Role> S save(S role) {
+        writeLock.lock();
+        try {
+            Role existing = byName.get(role.getName());
+            if (existing != null && existing.getRoleId() != role.getRoleId()) {
+                throw new DuplicateKeyException("Role " + role.getName() + " already exists");
+            }
+            if (role.getRoleId() == 0) {
+                role.setRoleId(lastId.incrementAndGet());
+            }
+            Role stored = copy(role);
+            Role replaced = byId.get(stored.getRoleId());
+            restore(stored);
+            try {
+                journal.appendRole(stored);
+            } catch (RuntimeException e) {
+                if (replaced != null) {
+                    restore(replaced);
+                } else {
+                    byId.remove(stored.getRoleId(), stored);
+                    byName.remove(stored.getName(), stored);
+                }
+                throw e;
+            }
+            return role;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Puts a role loaded from the journal, replacing any earlier state with the same id.
+     *
+     * @param role The role to restore.
+     */
+    void restore(Role role) {
+        Role previous = byId.put(role.getRoleId(), role);
+        if (previous != null && !previous.getName().equals(role.getName())) {
+            byName.remove(previous.getName(), previous);
+        }
+        byName.put(role.getName(), role);
+        lastId.accumulateAndGet(role.getRoleId(), Math::max);
+    }
+
+    /**
+     * Returns the stored roles, used to write snapshots.
+     *
+     * @return A live view of the stored roles.
+     */
+    Collection<Role> storedRoles() {
+        return byId.values();
+    }
+
+    /**
+     * Returns the stored role with the given id, used to resolve role references.
+     *
+     * @param id The role id.
+     * @return The role, or {@code null} if unknown.
+     */
+    Role role(long id) {
+        return byId.get(id);
+    }
+
+    private static Role copy(Role role) {
+        Role copy = new Role();
+        copy.setRoleId(role.getRoleId());
+        copy.setName(role.getName());
+        return copy;
+    }
+}
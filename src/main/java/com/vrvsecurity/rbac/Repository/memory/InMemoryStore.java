@@ -0,0 +1,61 @@
+package com.vrvsecurity.rbac.Repository.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+
+/**
+ * Lifecycle of the in-memory store: restores both repositories from the journal at startup and compacts the
+ * journal into a snapshot once enough changes have been appended.
+ */
+public class InMemoryStore implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryStore.class);
+
+    private final InMemoryJournal journal;
+    private final InMemoryRoleRepository roles;
+    private final InMemoryUserRepository users;
+    private final long compactAfter;
+
+    /**
+     * Constructs the store lifecycle.
+     *
+     * @param journal      The journal holding the durable state.
+     * @param roles        The role repository to restore.
+     * @param users        The user repository to restore.
+     * @param compactAfter The number of appended records after which the journal is compacted.
+     */
+    public InMemoryStore(InMemoryJournal journal, InMemoryRoleRepository roles, InMemoryUserRepository users,
+                         long compactAfter) {
+        this.journal = journal;
+        this.roles = roles;
+        this.users = users;
+        this.compactAfter = compactAfter;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        journal.load(roles::restore, users::restore, roles::role);
+    }
+
+    /**
+     * Writes a snapshot and truncates the log when it has grown past the compaction threshold.
+     */
+    @Scheduled(fixedDelayString = "${rbac.memory.compaction-check-ms:60000}")
+    public void compactIfNeeded() {
+        if (journal.appendedSinceCompaction() >= compactAfter) {
+            long started = System.nanoTime();
+            journal.compact(roles.storedRoles(), users.storedUsers());
+            log.info("Compacted in-memory store journal in {} ms", (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        journal.close();
+    }
+}
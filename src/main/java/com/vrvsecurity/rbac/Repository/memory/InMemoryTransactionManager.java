@@ -0,0 +1,36 @@
+package com.vrvsecurity.rbac.Repository.memory;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Transaction manager for the in-memory store.
+ * <p>
+ * The in-memory repositories apply every change atomically under their own locks and journal it immediately,
+ * so there is nothing to commit or roll back. This manager only lets {@code @Transactional} methods run
+ * (including their read-only and synchronization semantics) when no database is configured.
+ * </p>
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        // Changes are applied directly to the store
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        // Changes were already applied and journaled
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        // Changes cannot be undone; each repository call is atomic on its own
+    }
+}
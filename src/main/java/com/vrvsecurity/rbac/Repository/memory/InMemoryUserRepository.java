@@ -0,0 +1,313 @@
+package com.vrvsecurity.rbac.Repository.memory;
+
+import com.vrvsecurity.rbac.Repository.PrincipalRow;
+import com.vrvsecurity.rbac.Repository.UserEmail;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserStore} implementation keeping users in lock-striped concurrent maps.
+ * <p>
+ * Users are stored by id with secondary indexes by email digest and by status. Reads never lock. Writes lock
+ * the stripe owning the user's email digest, so changes to different users proceed in parallel while the
+ * digest index stays unique. Stored users are private copies: callers always receive and hand in detached
+ * instances, as they would with JPA. Every change is appended to the {@link InMemoryJournal} after it is
+ * applied to the maps and before the stripe lock is released, so a concurrent compaction either snapshots the
+ * change or truncates the log before the change is appended to it; a change whose append fails is reverted.
+ * </p>
+ */
+public class InMemoryUserRepository implements UserStore {
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<Long, User> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ByteBuffer, Long> idByDigest = new ConcurrentHashMap<>();
+    private final Map<AccountStatus, ConcurrentSkipListSet<Long>> idsByStatus = new EnumMap<>(AccountStatus.class);
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final AtomicLong lastId = new AtomicLong();
+    private final InMemoryRoleRepository roles;
+    private final InMemoryJournal journal;
+
+    /**
+     * Constructs an empty repository.
+     *
+     * @param roles   The role repository used to resolve role ids.
+     * @param journal The journal every change is appended to.
+     */
+    public InMemoryUserRepository(InMemoryRoleRepository roles, InMemoryJournal journal) {
+        this.roles = roles;
+        this.journal = journal;
+        for (AccountStatus status : AccountStatus.values()) {
+            idsByStatus.put(status, new ConcurrentSkipListSet<>());
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmailDigest(byte[] emailDigest) {
+        Long id = idByDigest.get(ByteBuffer.wrap(emailDigest));
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id)).map(InMemoryUserRepository::copy);
+    }
+
+    @Override
+    public List<User> findByStatusAndUserIdGreaterThanOrderByUserIdAsc(AccountStatus status, long afterId, Limit limit) {
+        int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        List<User> page = new ArrayList<>();
+        for (Long id : idsByStatus.get(status).tailSet(afterId, false)) {
+            if (page.size() >= max) {
+                break;
+            }
+            User user = byId.get(id);
+            if (user != null && user.getStatus() == status) { // The index may briefly lag a concurrent change
+                page.add(copy(user));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<UserEmail> findEmailsByStatusAndRegisteredBefore(AccountStatus status, LocalDateTime before,
+                                                                 long afterId, Limit limit) {
+        int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        List<UserEmail> page = new ArrayList<>();
+        for (Long id : idsByStatus.get(status).tailSet(afterId, false)) {
+            if (page.size() >= max) {
+                break;
+            }
+            User user = byId.get(id);
+            if (user != null && user.getStatus() == status
+                    && user.getRegisteredAt() != null && user.getRegisteredAt().isBefore(before)) {
+                page.add(new UserEmail(id, user.getEmail()));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public int updateStatusByEmailDigestIn(Collection<byte[]> emailDigests, AccountStatus status,
+                                           AccountStatus expectedStatus) {
+        return updateEach(emailDigests, user -> {
+            if (expectedStatus != null && user.getStatus() != expectedStatus) {
+                return null;
+            }
+            User updated = copy(user);
+            updated.setStatus(status);
+            return updated;
+        });
+    }
+
+    @Override
+    public int grantRoleByEmailDigestIn(Collection<byte[]> emailDigests, long roleId) {
+        Role role = roles.role(roleId);
+        if (role == null) {
+            return 0;
+        }
+        return updateEach(emailDigests, user -> {
+            if (user.getRoles().stream().anyMatch(held -> held.getRoleId() == roleId)) {
+                return null;
+            }
+            User updated = copy(user);
+            updated.getRoles().add(role);
+            return updated;
+        });
+    }
+
+    @Override
+    public int revokeRoleByEmailDigestIn(Collection<byte[]> emailDigests, long roleId) {
+        return updateEach(emailDigests, user -> {
+            User updated = copy(user);
+            return updated.getRoles().removeIf(held -> held.getRoleId() == roleId) ? updated : null;
+        });
+    }
+
+    @Override
+    public Stream<String> streamAllEmails() {
+        return byId.values().stream().map(User::getEmail);
+    }
+
+    @Override
+    public Stream<PrincipalRow> streamPrincipalRows() {
+        return byId.values().stream()
+                .sorted((a, b) -> Arrays.compareUnsigned(a.getEmailDigest(), b.getEmailDigest()))
+                .flatMap(user -> user.getRoles().isEmpty()
+                        ? Stream.of(principalRow(user, null))
+                        : user.getRoles().stream().map(role -> principalRow(user, role.getRoleId())));
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        user.setEmail(EmailDigest.normalize(user.getEmail()));
+        user.setEmailDigest(EmailDigest.of(user.getEmail()));
+        ByteBuffer digest = ByteBuffer.wrap(user.getEmailDigest());
+        User previous = user.getUserId() == 0 ? null : byId.get(user.getUserId());
+        ByteBuffer previousDigest = previous == null ? null : ByteBuffer.wrap(previous.getEmailDigest());
+
+        // Lock both the new and the old digest's stripes, in index order, when the email changes
+        int first = stripeOf(digest);
+        int second = previousDigest == null ? first : stripeOf(previousDigest);
+        ReentrantLock low = stripes[Math.min(first, second)];
+        ReentrantLock high = stripes[Math.max(first, second)];
+        low.lock();
+        high.lock();
+        try {
+            Long owner = idByDigest.get(digest);
+            if (owner != null && owner != user.getUserId()) {
+                throw new DuplicateKeyException("Email " + user.getEmail() + " is already registered");
+            }
+            if (user.getUserId() == 0) {
+                user.setUserId(lastId.incrementAndGet());
+            }
+            User stored = copy(user);
+            apply(stored, byId.get(stored.getUserId()));
+            return user;
+        } finally {
+            high.unlock();
+            low.unlock();
+        }
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S user) {
+        return save(user); // Writes are applied immediately, there is nothing to flush
+    }
+
+    @Override
+    public long count() {
+        return byId.size();
+    }
+
+    /**
+     * Puts a user loaded from the journal or just saved, replacing any earlier state and its index entries.
+     *
+     * @param user The user to store; the instance is kept and must not be shared.
+     */
+    void restore(User user) {
+        User previous = byId.put(user.getUserId(), user);
+        if (previous != null) {
+            ByteBuffer previousDigest = ByteBuffer.wrap(previous.getEmailDigest());
+            if (!previousDigest.equals(ByteBuffer.wrap(user.getEmailDigest()))) {
+                idByDigest.remove(previousDigest, previous.getUserId());
+            }
+            if (previous.getStatus() != null && previous.getStatus() != user.getStatus()) {
+                idsByStatus.get(previous.getStatus()).remove(previous.getUserId());
+            }
+        }
+        if (user.getEmailDigest() == null) {
+            user.setEmailDigest(EmailDigest.of(user.getEmail()));
+        }
+        idByDigest.put(ByteBuffer.wrap(user.getEmailDigest()), user.getUserId());
+        if (user.getStatus() != null) {
+            idsByStatus.get(user.getStatus()).add(user.getUserId());
+        }
+        lastId.accumulateAndGet(user.getUserId(), Math::max);
+    }
+
+    /**
+     * Returns the stored users, used to write snapshots.
+     *
+     * @return A live view of the stored users.
+     */
+    Collection<User> storedUsers() {
+        return byId.values();
+    }
+
+    /**
+     * Applies a change to every user with one of the given digests under their stripe lock.
+     *
+     * @param emailDigests The digests of the users to change.
+     * @param change       Returns the changed copy of a user, or {@code null} to leave it unchanged.
+     * @return The number of users changed.
+     */
+    private int updateEach(Collection<byte[]> emailDigests, UnaryOperator<User> change) {
+        int changed = 0;
+        for (byte[] emailDigest : emailDigests) {
+            ByteBuffer digest = ByteBuffer.wrap(emailDigest);
+            ReentrantLock lock = stripes[stripeOf(digest)];
+            lock.lock();
+            try {
+                Long id = idByDigest.get(digest);
+                User user = id == null ? null : byId.get(id);
+                User updated = user == null ? null : change.apply(user);
+                if (updated != null) {
+                    apply(updated, user);
+                    changed++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Stores a changed user and appends it to the journal; the caller holds the user's stripe lock.
+     *
+     * @param changed  The user after the change.
+     * @param replaced The stored user before the change, or {@code null} if the user is new.
+     */
+    private void apply(User changed, User replaced) {
+        restore(changed);
+        try {
+            journal.appendUser(changed);
+        } catch (RuntimeException e) {
+            if (replaced != null) {
+                restore(replaced);
+            } else {
+                byId.remove(changed.getUserId(), changed);
+                idByDigest.remove(ByteBuffer.wrap(changed.getEmailDigest()), changed.getUserId());
+                if (changed.getStatus() != null) {
+                    idsByStatus.get(changed.getStatus()).remove(changed.getUserId());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static PrincipalRow principalRow(User user, Long roleId) {
+        return new PrincipalRow(user.getEmailDigest(), user.getUserId(), user.getPassword(), user.getStatus(), roleId);
+    }
+
+    private static int stripeOf(ByteBuffer digest) {
+        return (digest.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setUserId(user.getUserId());
+        copy.setFullName(user.getFullName());
+        copy.setCellNumber(user.getCellNumber());
+        copy.setEmail(user.getEmail());
+        copy.setEmailDigest(user.getEmailDigest());
+        copy.setPassword(user.getPassword());
+        copy.setStatus(user.getStatus());
+        copy.setRegisteredAt(user.getRegisteredAt());
+        Set<Role> heldRoles = user.getRoles() == null ? new HashSet<>() : new HashSet<>(user.getRoles());
+        copy.setRoles(heldRoles);
+        return copy;
+    }
+}
@@ -0,0 +1,160 @@
+package com.vrvsecurity.rbac.Repository.sharded;
+
+import com.vrvsecurity.rbac.Repository.RoleStore;
+import com.vrvsecurity.rbac.model.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link RoleStore} implementation keeping the role catalog replicated on every shard.
+ * <p>
+ * Reads are served by shard 0. A new role is inserted on shard 0 first and then copied with the same id to
+ * every other shard, so {@code user_role} rows on any shard can reference it directly.
+ * </p>
+ * <p>
+ * The shards do not share a transaction, so a copy is written as an upsert keyed by role id and retried a few
+ * times; repeating it is harmless. A copy that still fails leaves that shard behind, which
+ * {@link #repairCatalog()} corrects at the next startup by copying every role of shard 0 that another shard
+ * lacks or names differently.
+ * </p>
+ */
+public class ShardedRoleRepository implements RoleStore {
+
+    private static final RowMapper<Role> ROLE_MAPPER = (rs, row) -> {
+        Role role = new Role();
+        role.setRoleId(rs.getLong("role_id"));
+        role.setName(rs.getString("name"));
+        return role;
+    };
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedRoleRepository.class);
+
+    private static final int COPY_ATTEMPTS = 3; // Attempts to write a role to one shard before giving up
+    private static final long COPY_BACKOFF_MS = 100; // Wait before the second attempt, doubled for each further one
+
+    private final UserShards shards;
+
+    /**
+     * Constructs the repository over the given shards.
+     *
+     * @param shards The shard set the catalog is replicated on.
+     */
+    public ShardedRoleRepository(UserShards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public Optional<Role> findByName(String role) {
+        return shards.jdbc(0).query("SELECT role_id, name FROM role WHERE name = ?", ROLE_MAPPER, role)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<Role> findByNameIn(Collection<String> roles) {
+        if (roles.isEmpty()) {
+            return List.of();
+        }
+        return shards.jdbc(0).query("SELECT role_id, name FROM role WHERE name IN (" +
+                String.join(", ", Collections.nCopies(roles.size(), "?")) + ")", ROLE_MAPPER, roles.toArray());
+    }
+
+    @Override
+    public List<Role> findAll() {
+        return shards.jdbc(0).query("SELECT role_id, name FROM role ORDER BY role_id", ROLE_MAPPER);
+    }
+
+    @Override
+    public <S extends Role> S save(S role) {
+        if (role.getRoleId() == 0) {
+            KeyHolder key = new GeneratedKeyHolder();
+            shards.jdbc(0).update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO role (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+                statement.setString(1, role.getName());
+                return statement;
+            }, key);
+            role.setRoleId(key.getKeyAs(Number.class).longValue());
+            for (int shard = 1; shard < shards.count(); shard++) {
+                copy(shard, role);
+            }
+        } else {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                copy(shard, role);
+            }
+        }
+        return role;
+    }
+
+    /**
+     * Copies every role of shard 0 that another shard lacks or names differently to that shard.
+     * <p>
+     * Run once at startup, before requests are served, to finish copies a failed {@link #save(Role)} left
+     * behind. Roles present only on other shards are left in place, as {@code user_role} rows may reference them.
+     * </p>
+     */
+    public void repairCatalog() {
+        List<Role> catalog = findAll();
+        int repaired = 0;
+        for (int shard = 1; shard < shards.count(); shard++) {
+            Map<Long, String> names = new HashMap<>();
+            shards.jdbc(shard).query("SELECT role_id, name FROM role", ROLE_MAPPER)
+                    .forEach(role -> names.put(role.getRoleId(), role.getName()));
+            for (Role role : catalog) {
+                if (!role.getName().equals(names.get(role.getRoleId()))) {
+                    copy(shard, role);
+                    repaired++;
+                }
+            }
+        }
+        if (repaired > 0) {
+            log.warn("Repaired {} role catalog entries missing or stale on shards 1..{}", repaired, shards.count() - 1);
+        }
+    }
+
+    /**
+     * Writes a role to one shard under its id, retrying with a growing backoff.
+     *
+     * @param shard The shard to write to.
+     * @param role  The role, with its id assigned.
+     * @throws RuntimeException If the role could not be written within {@link #COPY_ATTEMPTS} attempts.
+     */
+    private void copy(int shard, Role role) {
+        JdbcTemplate jdbc = shards.jdbc(shard);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Update first so a retry after a lost acknowledgement finds the row instead of inserting it twice
+                if (jdbc.update("UPDATE role SET name = ? WHERE role_id = ?", role.getName(), role.getRoleId()) == 0) {
+                    jdbc.update("INSERT INTO role (role_id, name) VALUES (?, ?)", role.getRoleId(), role.getName());
+                }
+                return;
+            } catch (DataAccessException e) {
+                if (attempt == COPY_ATTEMPTS) {
+                    throw new RuntimeException("Could not copy role " + role.getName() + " to shard " + shard
+                            + "; it is copied again at the next startup", e);
+                }
+                log.debug("Copying role {} to shard {} failed, retrying", role.getName(), shard, e);
+                try {
+                    Thread.sleep(COPY_BACKOFF_MS << (attempt - 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while copying role " + role.getName(), interrupted);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.vrvsecurity.rbac.Repository.sharded;
+
+import com.vrvsecurity.rbac.Repository.PrincipalRow;
+import com.vrvsecurity.rbac.Repository.UserEmail;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link UserStore} implementation partitioning users across several databases.
+ * <p>
+ * Lookups by email digest or id go to exactly one shard (see {@link UserShards}). Listings and filters are
+ * fanned out to every shard in parallel and merged by global id; bulk statements are split by shard and
+ * each part runs as a single set-based statement on its shard.
+ * </p>
+ */
+public class ShardedUserRepository implements UserStore {
+
+    private static final String USER_COLUMNS =
+            "user_id, full_name, cell_number, email, email_digest, password, status, registered_at";
+
+    private final UserShards shards;
+
+    /**
+     * Constructs the repository over the given shards.
+     *
+     * @param shards The shard set holding the users.
+     */
+    public ShardedUserRepository(UserShards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public Optional<User> findByEmailDigest(byte[] emailDigest) {
+        int shard = shards.shardOf(emailDigest);
+        List<User> users = shards.jdbc(shard).query(
+                "SELECT " + USER_COLUMNS + " FROM `user` WHERE email_digest = ?", userMapper(shard), emailDigest);
+        return users.stream().findFirst().map(user -> withRoles(shard, List.of(user)).get(0));
+    }
+
+    @Override
+    public List<User> findByStatusAndUserIdGreaterThanOrderByUserIdAsc(AccountStatus status, long afterId, Limit limit) {
+        int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        List<List<User>> pages = shards.fanOut(shard -> {
+            // Smallest local id whose global id is greater than afterId is localAfter + 1
+            long localAfter = Math.floorDiv(afterId - shard, shards.count());
+            List<User> page = shards.jdbc(shard).query(
+                    "SELECT " + USER_COLUMNS + " FROM `user` WHERE status = ? AND user_id > ? ORDER BY user_id LIMIT ?",
+                    userMapper(shard), status.getCode(), localAfter, max);
+            return withRoles(shard, page);
+        });
+        return pages.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(User::getUserId))
+                .limit(max)
+                .toList();
+    }
+
+    @Override
+    public List<UserEmail> findEmailsByStatusAndRegisteredBefore(AccountStatus status, LocalDateTime before,
+                                                                 long afterId, Limit limit) {
+        int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        List<List<UserEmail>> pages = shards.fanOut(shard -> {
+            long localAfter = Math.floorDiv(afterId - shard, shards.count());
+            return shards.jdbc(shard).query(
+                    "SELECT user_id, email FROM `user` WHERE status = ? AND registered_at < ? AND user_id > ? " +
+                            "ORDER BY user_id LIMIT ?",
+                    (rs, row) -> new UserEmail(shards.globalId(shard, rs.getLong(1)), rs.getString(2)),
+                    status.getCode(), Timestamp.valueOf(before), localAfter, max);
+        });
+        return pages.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(UserEmail::userId))
+                .limit(max)
+                .toList();
+    }
+
+    @Override
+    public int updateStatusByEmailDigestIn(Collection<byte[]> emailDigests, AccountStatus status,
+                                           AccountStatus expectedStatus) {
+        return perShard(emailDigests, (jdbc, digests) -> {
+            List<Object> args = new ArrayList<>();
+            args.add(status.getCode());
+            args.addAll(digests);
+            String sql = "UPDATE `user` SET status = ? WHERE email_digest IN (" + placeholders(digests.size()) + ")";
+            if (expectedStatus != null) {
+                sql += " AND status = ?";
+                args.add(expectedStatus.getCode());
+            }
+            return jdbc.update(sql, args.toArray());
+        });
+    }
+
+    @Override
+    public int grantRoleByEmailDigestIn(Collection<byte[]> emailDigests, long roleId) {
+        return perShard(emailDigests, (jdbc, digests) -> {
+            // Portable equivalent of INSERT ... ON DUPLICATE KEY: users already holding the role are skipped
+            List<Object> args = new ArrayList<>();
+            args.add(roleId);
+            args.addAll(digests);
+            args.add(roleId);
+            return jdbc.update("INSERT INTO user_role (user_id, role_id) SELECT u.user_id, ? FROM `user` u " +
+                    "WHERE u.email_digest IN (" + placeholders(digests.size()) + ") AND NOT EXISTS " +
+                    "(SELECT 1 FROM user_role ur WHERE ur.user_id = u.user_id AND ur.role_id = ?)", args.toArray());
+        });
+    }
+
+    @Override
+    public int revokeRoleByEmailDigestIn(Collection<byte[]> emailDigests, long roleId) {
+        return perShard(emailDigests, (jdbc, digests) -> {
+            List<Object> args = new ArrayList<>();
+            args.add(roleId);
+            args.addAll(digests);
+            return jdbc.update("DELETE FROM user_role WHERE role_id = ? AND user_id IN " +
+                    "(SELECT u.user_id FROM `user` u WHERE u.email_digest IN (" + placeholders(digests.size()) + "))",
+                    args.toArray());
+        });
+    }
+
+    @Override
+    public Stream<String> streamAllEmails() {
+        return IntStream.range(0, shards.count())
+                .boxed()
+                .flatMap(shard -> shards.jdbc(shard).queryForStream("SELECT email FROM `user`",
+                        (rs, row) -> rs.getString(1)));
+    }
+
+    @Override
+    public Stream<PrincipalRow> streamPrincipalRows() {
+        List<Stream<PrincipalRow>> perShard = new ArrayList<>();
+        PriorityQueue<Map.Entry<PrincipalRow, Iterator<PrincipalRow>>> heads = new PriorityQueue<>(
+                (a, b) -> Arrays.compareUnsigned(a.getKey().emailDigest(), b.getKey().emailDigest()));
+        try {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                int source = shard;
+                Stream<PrincipalRow> rows = shards.jdbc(shard).queryForStream("SELECT u.email_digest, u.user_id, " +
+                                "u.password, u.status, ur.role_id FROM `user` u " +
+                                "LEFT JOIN user_role ur ON ur.user_id = u.user_id ORDER BY u.email_digest",
+                        (rs, row) -> {
+                            byte status = rs.getByte(4);
+                            AccountStatus accountStatus = rs.wasNull() ? null : AccountStatus.fromCode(status);
+                            long roleId = rs.getLong(5);
+                            return new PrincipalRow(rs.getBytes(1), shards.globalId(source, rs.getLong(2)),
+                                    rs.getString(3), accountStatus, rs.wasNull() ? null : roleId);
+                        });
+                perShard.add(rows);
+                Iterator<PrincipalRow> iterator = rows.iterator();
+                if (iterator.hasNext()) {
+                    heads.add(Map.entry(iterator.next(), iterator));
+                }
+            }
+        } catch (RuntimeException e) {
+            perShard.forEach(Stream::close);
+            throw e;
+        }
+
+        // A user lives on exactly one shard, so merging the digest-ordered shard streams keeps a user's rows together
+        Iterator<PrincipalRow> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public PrincipalRow next() {
+                Map.Entry<PrincipalRow, Iterator<PrincipalRow>> head = heads.remove();
+                if (head.getValue().hasNext()) {
+                    heads.add(Map.entry(head.getValue().next(), head.getValue()));
+                }
+                return head.getKey();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(() -> perShard.forEach(Stream::close));
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        user.setEmail(EmailDigest.normalize(user.getEmail()));
+        user.setEmailDigest(EmailDigest.of(user.getEmail()));
+        int shard = shards.shardOf(user.getEmailDigest());
+        return shards.transaction(shard).execute(tx -> {
+            JdbcTemplate jdbc = shards.jdbc(shard);
+            if (user.getUserId() == 0) {
+                KeyHolder key = new GeneratedKeyHolder();
+                jdbc.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement("INSERT INTO `user` " +
+                            "(full_name, cell_number, email, email_digest, password, status, registered_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                    bindUser(statement, user);
+                    return statement;
+                }, key);
+                long localId = key.getKeyAs(Number.class).longValue();
+                user.setUserId(shards.globalId(shard, localId));
+            } else {
+                jdbc.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement("UPDATE `user` SET full_name = ?, " +
+                            "cell_number = ?, email = ?, email_digest = ?, password = ?, status = ?, registered_at = ? " +
+                            "WHERE user_id = ?");
+                    bindUser(statement, user);
+                    statement.setLong(8, shards.localId(user.getUserId()));
+                    return statement;
+                });
+                jdbc.update("DELETE FROM user_role WHERE user_id = ?", shards.localId(user.getUserId()));
+            }
+            if (user.getRoles() != null && !user.getRoles().isEmpty()) {
+                long localId = shards.localId(user.getUserId());
+                jdbc.batchUpdate("INSERT INTO user_role (user_id, role_id) VALUES (?, ?)",
+                        user.getRoles().stream().map(role -> new Object[]{localId, role.getRoleId()}).toList());
+            }
+            return user;
+        });
+    }
+
+    @Override
+    public <S extends User> S saveAndFlush(S user) {
+        return save(user); // Each save commits on its shard, there is nothing to flush
+    }
+
+    @Override
+    public long count() {
+        return shards.fanOut(shard -> shards.jdbc(shard).queryForObject("SELECT COUNT(*) FROM `user`", Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Splits digests by shard and runs a set-based statement on every shard that has any, in parallel.
+     *
+     * @param emailDigests The digests of the users to change.
+     * @param statement    The statement to run with a shard's template and its digests.
+     * @return The total row count of all statements.
+     */
+    private int perShard(Collection<byte[]> emailDigests, ShardStatement statement) {
+        List<List<byte[]>> byShard = new ArrayList<>();
+        for (int shard = 0; shard < shards.count(); shard++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (byte[] digest : emailDigests) {
+            byShard.get(shards.shardOf(digest)).add(digest);
+        }
+        return shards.fanOut(shard -> byShard.get(shard).isEmpty()
+                        ? 0
+                        : statement.apply(shards.jdbc(shard), byShard.get(shard)))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    /**
+     * Loads the roles of users read from one shard with a single query and attaches them.
+     *
+     * @param shard The shard the users were read from.
+     * @param users The users, with global ids.
+     * @return The same users with their roles set.
+     */
+    private List<User> withRoles(int shard, List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        Map<Long, User> byLocalId = new HashMap<>();
+        for (User user : users) {
+            user.setRoles(new HashSet<>());
+            byLocalId.put(shards.localId(user.getUserId()), user);
+        }
+        shards.jdbc(shard).query("SELECT ur.user_id, r.role_id, r.name FROM user_role ur " +
+                        "JOIN role r ON r.role_id = ur.role_id WHERE ur.user_id IN (" + placeholders(users.size()) + ")",
+                rs -> {
+                    Role role = new Role();
+                    role.setRoleId(rs.getLong(2));
+                    role.setName(rs.getString(3));
+                    byLocalId.get(rs.getLong(1)).getRoles().add(role);
+                },
+                byLocalId.keySet().toArray());
+        return users;
+    }
+
+    private RowMapper<User> userMapper(int shard) {
+        return (rs, row) -> {
+            User user = new User();
+            user.setUserId(shards.globalId(shard, rs.getLong("user_id")));
+            user.setFullName(rs.getString("full_name"));
+            user.setCellNumber(rs.getInt("cell_number"));
+            user.setEmail(rs.getString("email"));
+            user.setEmailDigest(rs.getBytes("email_digest"));
+            user.setPassword(rs.getString("password"));
+            byte status = rs.getByte("status");
+            user.setStatus(rs.wasNull() ? null : AccountStatus.fromCode(status));
+            Timestamp registeredAt = rs.getTimestamp("registered_at");
+            user.setRegisteredAt(registeredAt == null ? null : registeredAt.toLocalDateTime());
+            user.setRoles(Collections.emptySet());
+            return user;
+        };
+    }
+
+    private static void bindUser(PreparedStatement statement, User user) throws java.sql.SQLException {
+        statement.setString(1, user.getFullName());
+        statement.setInt(2, user.getCellNumber());
+        statement.setString(3, user.getEmail());
+        statement.setBytes(4, user.getEmailDigest());
+        statement.setString(5, user.getPassword());
+        statement.setObject(6, user.getStatus() == null ? null : user.getStatus().getCode());
+        statement.setTimestamp(7, user.getRegisteredAt() == null ? null : Timestamp.valueOf(user.getRegisteredAt()));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * A set-based statement run on one shard for the digests routed to it.
+     */
+    @FunctionalInterface
+    private interface ShardStatement {
+        int apply(JdbcTemplate jdbc, List<byte[]> digests);
+    }
+}
@@ -0,0 +1,50 @@
+package com.vrvsecurity.rbac.Repository.sharded;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the sharded user store, bound from {@code rbac.sharding.*}.
+ * <p>
+ * The order of {@link #shards} defines the shard numbers and must never change once users are stored,
+ * since users are placed by a hash of their email modulo the number of shards.
+ * </p>
+ */
+@Getter
+@Setter
+@ConfigurationProperties("rbac.sharding")
+public class ShardingProperties {
+
+    /**
+     * Whether users are stored across the configured shards instead of the single JPA data source.
+     */
+    private boolean enabled;
+
+    /**
+     * Whether the Flyway migrations are applied to every shard at startup.
+     */
+    private boolean migrate = true;
+
+    /**
+     * The connection settings of each shard, in shard order.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Connection settings of a single shard.
+     */
+    @Getter
+    @Setter
+    public static class Shard {
+
+        private String jdbcUrl;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,169 @@
+package com.vrvsecurity.rbac.Repository.sharded;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * The set of databases holding the sharded user store.
+ * <p>
+ * A user lives on exactly one shard, chosen by the digest of their normalized email, together with their
+ * {@code user_role} rows; the role catalog is replicated on every shard with identical ids. Shard-local
+ * auto-increment ids are turned into globally unique user ids by interleaving the shard number
+ * ({@code globalId = localId * shardCount + shard}), so the shard of a user is also known from their id.
+ * Queries that cannot be routed to one shard are fanned out in parallel on a dedicated pool.
+ * </p>
+ */
+public class UserShards implements DisposableBean {
+
+    private final List<HikariDataSource> dataSources;
+    private final List<JdbcTemplate> templates = new ArrayList<>();
+    private final List<TransactionTemplate> transactions = new ArrayList<>();
+    private final ExecutorService fanOutPool;
+
+    /**
+     * Constructs the shard set.
+     *
+     * @param dataSources The connection pool of each shard, in shard order.
+     */
+    public UserShards(List<HikariDataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        for (HikariDataSource dataSource : dataSources) {
+            templates.add(new JdbcTemplate(dataSource));
+            transactions.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.fanOutPool = Executors.newFixedThreadPool(dataSources.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return The shard count.
+     */
+    public int count() {
+        return dataSources.size();
+    }
+
+    /**
+     * Returns the shard holding the user with the given email digest.
+     *
+     * @param emailDigest The digest of the user's normalized email.
+     * @return The shard number.
+     */
+    public int shardOf(byte[] emailDigest) {
+        long prefix = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            prefix = (prefix << 8) | (emailDigest[i] & 0xFF);
+        }
+        return (int) Long.remainderUnsigned(prefix, dataSources.size());
+    }
+
+    /**
+     * Returns the shard holding the user with the given global id.
+     *
+     * @param globalId The user's global id.
+     * @return The shard number.
+     */
+    public int shardOfId(long globalId) {
+        return (int) (globalId % dataSources.size());
+    }
+
+    /**
+     * Converts a global user id into the id stored on its shard.
+     *
+     * @param globalId The user's global id.
+     * @return The shard-local id.
+     */
+    public long localId(long globalId) {
+        return globalId / dataSources.size();
+    }
+
+    /**
+     * Converts a shard-local user id into its global id.
+     *
+     * @param shard   The shard the user is stored on.
+     * @param localId The id stored on the shard.
+     * @return The global id.
+     */
+    public long globalId(int shard, long localId) {
+        return localId * dataSources.size() + shard;
+    }
+
+    /**
+     * Returns the JDBC template of a shard.
+     *
+     * @param shard The shard number.
+     * @return The shard's {@link JdbcTemplate}.
+     */
+    public JdbcTemplate jdbc(int shard) {
+        return templates.get(shard);
+    }
+
+    /**
+     * Returns the transaction template of a shard, for changes spanning several statements.
+     *
+     * @param shard The shard number.
+     * @return The shard's {@link TransactionTemplate}.
+     */
+    public TransactionTemplate transaction(int shard) {
+        return transactions.get(shard);
+    }
+
+    /**
+     * Returns the connection pool of a shard.
+     *
+     * @param shard The shard number.
+     * @return The shard's data source.
+     */
+    public HikariDataSource dataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    /**
+     * Runs a query on every shard in parallel and collects the per-shard results in shard order.
+     *
+     * @param query The query to run, given the shard number.
+     * @param <R>   The per-shard result type.
+     * @return The results of all shards.
+     */
+    public <R> List<R> fanOut(IntFunction<R> query) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(dataSources.size());
+        for (int shard = 0; shard < dataSources.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(target), fanOutPool));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        fanOutPool.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,152 @@
+package com.vrvsecurity.rbac.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit that adapts to observed latency by additive increase and multiplicative decrease.
+ * <p>
+ * The baseline is the minimum latency seen over the last one to two baseline windows, i.e. how fast
+ * requests complete without queueing. A request slower than the baseline times the tolerance, or one that
+ * failed, signals overload and shrinks the limit by the backoff ratio, at most once per observed latency
+ * so a single burst is not punished repeatedly. Otherwise, while at least half the limit is in use, the limit
+ * grows by about one for every limit's worth of completed requests.
+ * </p>
+ * <p>
+ * {@link #release(long, boolean)} runs at the end of every request, so it takes no lock. The limit is updated
+ * with compare-and-set, the window minimum is only written when a faster request is seen, and the window roll
+ * and each decrease are claimed by the single caller whose compare-and-set succeeds. A latency recorded while
+ * the window rolls may land in either window, which only matters to a minimum by a single sample.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final long baselineWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong limitBits; // Double.doubleToRawLongBits of the limit
+    private final AtomicLong previousWindowMin = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong currentWindowMin = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong windowStartedAt = new AtomicLong(System.nanoTime());
+    private final AtomicLong lastDecreaseAt = new AtomicLong(System.nanoTime());
+
+    /**
+     * Constructs a limit.
+     *
+     * @param initialLimit        The limit before any latency is observed.
+     * @param minLimit            The lowest the limit may shrink to.
+     * @param maxLimit            The highest the limit may grow to.
+     * @param latencyTolerance    How many times the baseline latency a request may take before it signals overload.
+     * @param backoffRatio        The factor applied to the limit on overload.
+     * @param baselineWindowMillis How long a minimum latency is remembered.
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double latencyTolerance,
+                                    double backoffRatio, long baselineWindowMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.baselineWindowNanos = TimeUnit.MILLISECONDS.toNanos(baselineWindowMillis);
+        double limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(limit));
+    }
+
+    /**
+     * Admits a request if fewer requests than the current limit are in flight.
+     * <p>
+     * An admitted request must report its completion with {@link #release(long, boolean)}.
+     * </p>
+     *
+     * @return {@code true} if the request is admitted.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reports a completed request and adjusts the limit.
+     *
+     * @param latencyNanos How long the request took.
+     * @param failed       Whether the request failed with an exception.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+        long windowStart = windowStartedAt.get();
+        if (now - windowStart > baselineWindowNanos && windowStartedAt.compareAndSet(windowStart, now)) {
+            previousWindowMin.set(currentWindowMin.getAndSet(Long.MAX_VALUE));
+        }
+        long windowMin = recordMin(latencyNanos);
+        long baseline = Math.min(previousWindowMin.get(), windowMin);
+
+        if (failed || latencyNanos > baseline * latencyTolerance) {
+            long lastDecrease = lastDecreaseAt.get();
+            if (now - lastDecrease > latencyNanos && lastDecreaseAt.compareAndSet(lastDecrease, now)) {
+                updateLimit(limit -> Math.max(minLimit, limit * backoffRatio));
+            }
+        } else if (inFlightBefore * 2 >= limit()) {
+            updateLimit(limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+
+    /**
+     * Lowers the current window's minimum to the given latency if it is faster.
+     *
+     * @param latencyNanos The latency of a completed request.
+     * @return The window's minimum latency.
+     */
+    private long recordMin(long latencyNanos) {
+        while (true) {
+            long min = currentWindowMin.get();
+            if (latencyNanos >= min || currentWindowMin.compareAndSet(min, latencyNanos)) {
+                return Math.min(min, latencyNanos);
+            }
+        }
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        while (true) {
+            long bits = limitBits.get();
+            long updated = Double.doubleToRawLongBits(update.applyAsDouble(Double.longBitsToDouble(bits)));
+            if (bits == updated || limitBits.compareAndSet(bits, updated)) {
+                return;
+            }
+        }
+    }
+
+    private double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return The number of requests that may be in flight at once.
+     */
+    public int getLimit() {
+        return (int) limit();
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     *
+     * @return The in-flight count.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
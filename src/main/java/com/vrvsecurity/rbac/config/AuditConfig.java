@@ -0,0 +1,80 @@
+package com.vrvsecurity.rbac.config;
+
+import com.vrvsecurity.rbac.security.audit.AuditLog;
+import com.vrvsecurity.rbac.security.audit.AuditSink;
+import com.vrvsecurity.rbac.security.audit.JdbcAuditSink;
+import com.vrvsecurity.rbac.security.audit.MappedFileAuditSink;
+import com.vrvsecurity.rbac.security.audit.OverflowPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration class for the audit trail of logins, registrations and administrative changes.
+ * <p>
+ * Events are written to the {@code audit_log} table ({@code rbac.audit.sink=jdbc}) or to rolling memory-mapped
+ * files under {@code rbac.audit.file.directory} ({@code rbac.audit.sink=file}). Without a database (the
+ * {@code inmemory} profile) the file sink is used. With {@code rbac.audit.enabled=false} events are discarded.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+public class AuditConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditConfig.class);
+
+    /**
+     * Creates the audit log and its sink.
+     *
+     * @param jdbc            the primary database, absent when running without one.
+     * @param meterRegistry   the registry the audit metrics are published to.
+     * @param enabled         whether events are recorded.
+     * @param sinkType        where events are written: {@code jdbc} or {@code file}.
+     * @param capacity        the number of events the ring buffer holds.
+     * @param batchSize       the maximum number of events written at once.
+     * @param flushIntervalMs the longest time an event waits in the buffer, in milliseconds.
+     * @param overflowPolicy  what to do with an event when the buffer is full.
+     * @param maxBlockMs      how long a request waits for room under the {@code block} policy, in milliseconds.
+     * @param directory       the directory of the file sink's segments.
+     * @param segmentSizeMb   the size of a file segment, in megabytes.
+     * @param maxSegments     the number of file segments kept.
+     * @return the {@link AuditLog}.
+     */
+    @Bean
+    public AuditLog auditLog(ObjectProvider<JdbcTemplate> jdbc, MeterRegistry meterRegistry,
+                             @Value("${rbac.audit.enabled:true}") boolean enabled,
+                             @Value("${rbac.audit.sink:jdbc}") String sinkType,
+                             @Value("${rbac.audit.capacity:65536}") int capacity,
+                             @Value("${rbac.audit.batch-size:500}") int batchSize,
+                             @Value("${rbac.audit.flush-interval-ms:200}") long flushIntervalMs,
+                             @Value("${rbac.audit.overflow-policy:drop-newest}") String overflowPolicy,
+                             @Value("${rbac.audit.max-block-ms:5}") long maxBlockMs,
+                             @Value("${rbac.audit.file.directory:./data/audit}") String directory,
+                             @Value("${rbac.audit.file.segment-size-mb:64}") int segmentSizeMb,
+                             @Value("${rbac.audit.file.max-segments:20}") int maxSegments) {
+        if (!enabled) {
+            return AuditLog.disabled();
+        }
+        AuditSink sink = switch (sinkType.trim().toLowerCase()) {
+            case "jdbc" -> {
+                JdbcTemplate template = jdbc.getIfAvailable();
+                if (template != null) {
+                    yield new JdbcAuditSink(template);
+                }
+                log.info("No database available, writing the audit log to {}", directory);
+                yield new MappedFileAuditSink(Path.of(directory), segmentSizeMb << 20, maxSegments);
+            }
+            case "file" -> new MappedFileAuditSink(Path.of(directory), segmentSizeMb << 20, maxSegments);
+            default -> throw new IllegalArgumentException("Unknown audit sink: " + sinkType);
+        };
+        return new AuditLog(sink, capacity, OverflowPolicy.fromLabel(overflowPolicy),
+                Duration.ofMillis(flushIntervalMs), batchSize, Duration.ofMillis(maxBlockMs), meterRegistry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.vrvsecurity.rbac.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Continuous Flight Recorder recording of the authentication events, started with the application.
+ * <p>
+ * Uses the {@code jfr/rbac-auth.jfc} profile, which adds GC, safepoint, lock contention and thread parking events
+ * so slow authentications can be lined up with pauses and connection pool waits. The thresholds of the
+ * application's events are overridden from configuration. The recording keeps {@code maxAge} of data on disk,
+ * and is written to {@code destination} when the JVM exits; use {@code jcmd <pid> JFR.dump name=rbac-auth} to
+ * take a copy while it runs.
+ * </p>
+ */
+public class AuthFlightRecording implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthFlightRecording.class);
+
+    private static final String PROFILE = "jfr/rbac-auth.jfc";
+    private static final String NAME = "rbac-auth";
+
+    private final Map<String, Duration> thresholds;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path destination;
+    private volatile Recording recording;
+
+    /**
+     * Constructs the recording.
+     *
+     * @param thresholds   The threshold of each application event, by event name.
+     * @param maxAge       How long recorded data is kept.
+     * @param maxSizeBytes The maximum size of the data kept on disk.
+     * @param destination  The file the recording is written to on exit, or {@code null} to not write it.
+     */
+    public AuthFlightRecording(Map<String, Duration> thresholds, Duration maxAge, long maxSizeBytes, Path destination) {
+        this.thresholds = Map.copyOf(thresholds);
+        this.maxAge = maxAge;
+        this.maxSizeBytes = maxSizeBytes;
+        this.destination = destination;
+    }
+
+    @Override
+    public void start() {
+        Map<String, String> settings = new HashMap<>(loadProfile().getSettings());
+        thresholds.forEach((event, threshold) -> settings.put(event + "#threshold", threshold.toNanos() + " ns"));
+
+        Recording current = new Recording(settings);
+        current.setName(NAME);
+        current.setToDisk(true);
+        current.setMaxAge(maxAge);
+        current.setMaxSize(maxSizeBytes);
+        if (destination != null) {
+            try {
+                current.setDestination(destination);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current.setDumpOnExit(true);
+        }
+        current.start();
+        recording = current;
+        log.info("Started Flight Recorder recording '{}' keeping {} min of data", NAME, maxAge.toMinutes());
+    }
+
+    @Override
+    public void stop() {
+        Recording current = recording;
+        recording = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    private static Configuration loadProfile() {
+        InputStream profile = AuthFlightRecording.class.getClassLoader().getResourceAsStream(PROFILE);
+        if (profile == null) {
+            throw new IllegalStateException(PROFILE + " not found on the classpath");
+        }
+        try (Reader reader = new InputStreamReader(profile, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid Flight Recorder profile " + PROFILE, e);
+        }
+    }
+}
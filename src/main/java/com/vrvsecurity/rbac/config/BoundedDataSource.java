@@ -0,0 +1,166 @@
+package com.vrvsecurity.rbac.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source wrapper bounding the number of connections in use at once.
+ * <p>
+ * With virtual threads every request gets its own thread, so nothing but the connection pool limits how many
+ * requests wait for the database. This wrapper hands out at most {@code permits} connections, normally the pool
+ * size, and queues further callers fairly on a semaphore, where a waiting virtual thread releases its carrier.
+ * At most {@code maxWaiting} callers queue; beyond that, and after {@code acquireTimeout}, a
+ * {@link SQLTransientConnectionException} is thrown at once instead of piling more threads onto the pool.
+ * A permit is returned when the connection is closed.
+ * </p>
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejected;
+
+    /**
+     * Wraps a data source.
+     *
+     * @param target         The data source handing out the connections.
+     * @param permits        The maximum number of connections in use at once.
+     * @param maxWaiting     The maximum number of callers waiting for a connection.
+     * @param acquireTimeout How long a caller waits for a connection.
+     * @param meterRegistry  The registry the permit metrics are published to.
+     */
+    public BoundedDataSource(DataSource target, int permits, int maxWaiting, Duration acquireTimeout,
+                             MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.rejected = Counter.builder("rbac.db.permits.rejected")
+                .description("Connection requests refused because too many callers waited or the wait timed out")
+                .register(meterRegistry);
+        Gauge.builder("rbac.db.permits.in.use", this, source -> permits - source.permits.availablePermits())
+                .description("Connections currently held through the bounded data source")
+                .register(meterRegistry);
+        Gauge.builder("rbac.db.permits.waiting", waiting, AtomicInteger::get)
+                .description("Callers waiting for a connection permit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new SQLTransientConnectionException("Too many callers waiting for a database connection");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new SQLTransientConnectionException("Timed out waiting for a database connection after "
+                        + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wraps a connection so that closing it returns its permit, exactly once.
+     *
+     * @param target The connection from the target data source.
+     * @return The wrapped connection.
+     */
+    private Connection guard(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new PermitReleasingHandler(target));
+    }
+
+    private final class PermitReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "isClosed":
+                    if (closed.get()) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        try {
+                            target.close();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
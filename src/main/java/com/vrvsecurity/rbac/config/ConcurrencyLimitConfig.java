@@ -0,0 +1,46 @@
+package com.vrvsecurity.rbac.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class providing the adaptive {@link ConcurrencyLimitFilter}.
+ * <p>
+ * The filter is added to the security filter chain ahead of the JWT filter by {@link SecurityConfig}, so it
+ * is kept out of the servlet container's own filter chain.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Creates the concurrency limit filter.
+     *
+     * @param properties    the limit settings bound from {@code rbac.concurrency.*}.
+     * @param meterRegistry the registry the limit metrics are published to.
+     * @return the {@link ConcurrencyLimitFilter}.
+     */
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitFilter(properties, meterRegistry);
+    }
+
+    /**
+     * Prevents the servlet container from running the filter a second time outside the security filter chain.
+     *
+     * @param filter the concurrency limit filter.
+     * @return a disabled {@link FilterRegistrationBean} for the filter.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(
+            ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
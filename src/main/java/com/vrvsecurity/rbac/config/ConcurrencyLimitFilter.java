@@ -0,0 +1,113 @@
+package com.vrvsecurity.rbac.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Servlet filter shedding load once too many requests are in flight.
+ * <p>
+ * Requests are sorted into three buckets, {@code /auth/**}, {@code /admin/**} and everything else, each with
+ * its own {@link AdaptiveConcurrencyLimit}, so a burst of logins cannot starve authenticated traffic or the
+ * admin endpoints needed to respond to it. A request over its bucket's limit is answered at once with
+ * 503 Service Unavailable and a {@code Retry-After} header instead of waiting for a worker or a database
+ * connection. Actuator requests are never limited, so health checks keep working under overload.
+ * </p>
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED =
+            "{\"error\":\"Server is busy, please retry shortly.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final Bucket auth;
+    private final Bucket admin;
+    private final Bucket authenticated;
+
+    /**
+     * Constructs the filter with one limit per bucket and publishes their metrics.
+     *
+     * @param properties    The limit settings.
+     * @param meterRegistry The registry the limits, in-flight counts and rejections are published to.
+     */
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.auth = new Bucket("auth", properties.getAuth(), properties, meterRegistry);
+        this.admin = new Bucket("admin", properties.getAdmin(), properties, meterRegistry);
+        this.authenticated = new Bucket("authenticated", properties.getAuthenticated(), properties, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getServletPath().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Bucket bucket = bucketOf(request.getServletPath());
+        if (!bucket.limit.tryAcquire()) {
+            bucket.rejected.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("application/json");
+            response.getOutputStream().write(REJECTED);
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            bucket.limit.release(System.nanoTime() - started, failed);
+        }
+    }
+
+    private Bucket bucketOf(String path) {
+        if (path.startsWith("/auth/")) {
+            return auth;
+        }
+        if (path.startsWith("/admin/")) {
+            return admin;
+        }
+        return authenticated;
+    }
+
+    /**
+     * A request bucket: its limit and its rejection counter.
+     */
+    private static final class Bucket {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final Counter rejected;
+
+        private Bucket(String name, ConcurrencyLimitProperties.Bucket settings, ConcurrencyLimitProperties properties,
+                       MeterRegistry meterRegistry) {
+            this.limit = new AdaptiveConcurrencyLimit(settings.getInitialLimit(), settings.getMinLimit(),
+                    settings.getMaxLimit(), properties.getLatencyTolerance(), properties.getBackoffRatio(),
+                    properties.getBaselineWindowMs());
+            this.rejected = Counter.builder("rbac.concurrency.rejected")
+                    .description("Requests rejected because their bucket was at its concurrency limit")
+                    .tag("bucket", name)
+                    .register(meterRegistry);
+            Gauge.builder("rbac.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current concurrency limit of the bucket")
+                    .tag("bucket", name)
+                    .register(meterRegistry);
+            Gauge.builder("rbac.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests of the bucket currently in flight")
+                    .tag("bucket", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.vrvsecurity.rbac.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the adaptive concurrency limits, bound from {@code rbac.concurrency.*}.
+ * <p>
+ * Each request bucket has its own limit, which moves between {@code min-limit} and {@code max-limit}
+ * as observed latency rises and falls.
+ * </p>
+ */
+@Getter
+@Setter
+@ConfigurationProperties("rbac.concurrency")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Whether requests are limited at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How many times slower than the recent minimum latency a request may be before it signals overload.
+     */
+    private double latencyTolerance = 2.0;
+
+    /**
+     * The factor a limit is multiplied by when overload is detected.
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * How long a minimum latency is remembered, in milliseconds, so the baseline follows lasting changes.
+     */
+    private long baselineWindowMs = 30000;
+
+    /**
+     * The limit for login and registration requests under {@code /auth/**}.
+     */
+    private Bucket auth = new Bucket(20, 4, 100);
+
+    /**
+     * The limit for administrative requests under {@code /admin/**}.
+     */
+    private Bucket admin = new Bucket(10, 2, 50);
+
+    /**
+     * The limit for all other requests.
+     */
+    private Bucket authenticated = new Bucket(50, 10, 400);
+
+    /**
+     * Limit settings of one request bucket.
+     */
+    @Getter
+    @Setter
+    public static class Bucket {
+
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Bucket() {
+        }
+
+        Bucket(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.vrvsecurity.rbac.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Configuration class routing read-only transactions to a read replica.
+ * <p>
+ * Active only when {@code rbac.datasource.replica.enabled=true}. The primary pool is configured through the usual
+ * {@code spring.datasource.*} properties and the replica pool through {@code rbac.datasource.replica.*}
+ * (e.g., {@code jdbc-url}, {@code username}, {@code password}, {@code maximum-pool-size}). Principal loads and
+ * user listings run in read-only transactions and are served by the replica while it is within
+ * {@code rbac.datasource.replica.max-lag-ms}; writes and reads following a write in the same request stay on
+ * the primary.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@ConditionalOnProperty(name = "rbac.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * Creates the primary connection pool from the standard {@code spring.datasource.*} properties.
+     *
+     * @param properties the standard data source properties.
+     * @return the primary {@link HikariDataSource}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the replica connection pool from the {@code rbac.datasource.replica.*} properties.
+     *
+     * @return the replica {@link HikariDataSource}.
+     */
+    @Bean
+    @ConfigurationProperties("rbac.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    /**
+     * Creates the monitor that disables replica reads while the replica lags too far behind.
+     *
+     * @param primaryDataSource the primary pool.
+     * @param replicaDataSource the replica pool.
+     * @param maxLagMillis      the largest tolerated replica lag, or a negative value to disable the check.
+     * @return the {@link ReplicaLagMonitor}.
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                               @Value("${rbac.datasource.replica.max-lag-ms:2000}") long maxLagMillis) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, maxLagMillis);
+    }
+
+    /**
+     * Provides the application's data source: a lazy proxy over the routing data source, so each transaction
+     * picks its pool only once its read-only flag is known.
+     * <p>
+     * When {@code rbac.datasource.replica.migrate=true} (used with embedded databases), the replica schema is
+     * migrated with the same Flyway scripts as the primary.
+     * </p>
+     *
+     * @param primaryDataSource the primary pool.
+     * @param replicaDataSource the replica pool.
+     * @param lagMonitor        the replica lag monitor.
+     * @param flywayProperties  the Flyway settings used for the primary.
+     * @param migrateReplica    whether the replica schema should be migrated at startup.
+     * @return the routing {@link DataSource}.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 ReplicaLagMonitor lagMonitor, FlywayProperties flywayProperties,
+                                 @Value("${rbac.datasource.replica.migrate:false}") boolean migrateReplica) {
+        if (migrateReplica) {
+            FlywayMigrations.migrate(replicaDataSource, replicaDataSource.getJdbcUrl(), flywayProperties);
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagMonitor);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        ReadRouting.setReplicaEnabled(true);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Registers the filter that releases per-request primary pins, ahead of every other filter.
+     *
+     * @return the {@link FilterRegistrationBean} for the {@link ReadRoutingFilter}.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadRoutingFilter> readRoutingFilter() {
+        FilterRegistrationBean<ReadRoutingFilter> registration = new FilterRegistrationBean<>(new ReadRoutingFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,56 @@
+package com.vrvsecurity.rbac.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration class for continuous Flight Recorder recording of authentication.
+ * <p>
+ * Active only when {@code rbac.jfr.enabled=true}. The application's events are always emitted, so a recording
+ * started on the command line with {@code -XX:StartFlightRecording:settings=...rbac-auth.jfc} works as well; this
+ * configuration only saves having to change the launch command.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@ConditionalOnProperty(name = "rbac.jfr.enabled", havingValue = "true")
+public class FlightRecorderConfig {
+
+    /**
+     * Creates the recording of the authentication events.
+     *
+     * @param authenticationMs the threshold of authentication events, in milliseconds.
+     * @param tokenVerifyMs    the threshold of token verification events, in milliseconds.
+     * @param principalLoadMs  the threshold of principal load events, in milliseconds.
+     * @param passwordHashMs   the threshold of password hash events, in milliseconds.
+     * @param loginMs          the threshold of login events, in milliseconds.
+     * @param maxAgeMinutes    how long recorded data is kept, in minutes.
+     * @param maxSizeMb        the maximum size of the data kept on disk, in megabytes.
+     * @param destination      the file the recording is written to on exit (empty to not write it).
+     * @return the {@link AuthFlightRecording}.
+     */
+    @Bean
+    public AuthFlightRecording authFlightRecording(
+            @Value("${rbac.jfr.threshold.authentication-ms:20}") long authenticationMs,
+            @Value("${rbac.jfr.threshold.token-verify-ms:5}") long tokenVerifyMs,
+            @Value("${rbac.jfr.threshold.principal-load-ms:20}") long principalLoadMs,
+            @Value("${rbac.jfr.threshold.password-hash-ms:500}") long passwordHashMs,
+            @Value("${rbac.jfr.threshold.login-ms:500}") long loginMs,
+            @Value("${rbac.jfr.max-age-minutes:360}") long maxAgeMinutes,
+            @Value("${rbac.jfr.max-size-mb:250}") long maxSizeMb,
+            @Value("${rbac.jfr.destination:}") String destination) {
+        Map<String, Duration> thresholds = Map.of(
+                "com.vrvsecurity.rbac.Authentication", Duration.ofMillis(authenticationMs),
+                "com.vrvsecurity.rbac.TokenVerification", Duration.ofMillis(tokenVerifyMs),
+                "com.vrvsecurity.rbac.PrincipalLoad", Duration.ofMillis(principalLoadMs),
+                "com.vrvsecurity.rbac.PasswordHash", Duration.ofMillis(passwordHashMs),
+                "com.vrvsecurity.rbac.Login", Duration.ofMillis(loginMs));
+        return new AuthFlightRecording(thresholds, Duration.ofMinutes(maxAgeMinutes), maxSizeMb * 1024 * 1024,
+                destination.isBlank() ? null : Path.of(destination));
+    }
+}
@@ -0,0 +1,41 @@
+package com.vrvsecurity.rbac.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies the application's Flyway migrations to additional data sources (replicas, shards).
+ * <p>
+ * Spring Boot only migrates the primary data source; embedded replicas and every shard of the sharded user
+ * store need the same schema, so they are migrated with the same locations, resolving the {@code {vendor}}
+ * placeholder from each data source's JDBC URL.
+ * </p>
+ */
+final class FlywayMigrations {
+
+    private FlywayMigrations() {
+    }
+
+    /**
+     * Migrates a data source with the configured Flyway locations.
+     *
+     * @param dataSource The data source to migrate.
+     * @param jdbcUrl    The JDBC URL of the data source, used to resolve the vendor.
+     * @param properties The Flyway settings used for the primary data source.
+     */
+    static void migrate(DataSource dataSource, String jdbcUrl, FlywayProperties properties) {
+        String vendor = DatabaseDriver.fromJdbcUrl(jdbcUrl).getId();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(properties.getLocations().stream()
+                        .map(location -> location.replace("{vendor}", vendor))
+                        .toArray(String[]::new))
+                .baselineOnMigrate(properties.isBaselineOnMigrate())
+                .baselineVersion(properties.getBaselineVersion())
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,90 @@
+package com.vrvsecurity.rbac.config;
+
+import com.vrvsecurity.rbac.Repository.memory.InMemoryJournal;
+import com.vrvsecurity.rbac.Repository.memory.InMemoryRoleRepository;
+import com.vrvsecurity.rbac.Repository.memory.InMemoryStore;
+import com.vrvsecurity.rbac.Repository.memory.InMemoryTransactionManager;
+import com.vrvsecurity.rbac.Repository.memory.InMemoryUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration class running the application without a database server.
+ * <p>
+ * Active with the {@code inmemory} profile, which also disables the data source, JPA and Flyway
+ * auto-configuration. Users and roles are kept in the in-memory repositories and made durable through a
+ * snapshot and append-only log under {@code rbac.memory.data-dir}. Intended for small edge deployments and
+ * for benchmarking the security pipeline without database noise.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@Profile("inmemory") // Only active when the 'inmemory' profile is enabled
+public class InMemoryStoreConfig {
+
+    /**
+     * Opens the journal holding the durable state of the store.
+     *
+     * @param dataDir the directory holding the snapshot and the log.
+     * @param fsync   whether every change is forced to disk before it returns.
+     * @return the {@link InMemoryJournal}.
+     */
+    @Bean
+    public InMemoryJournal inMemoryJournal(@Value("${rbac.memory.data-dir:./data}") String dataDir,
+                                           @Value("${rbac.memory.fsync:false}") boolean fsync) {
+        return new InMemoryJournal(Path.of(dataDir), fsync);
+    }
+
+    /**
+     * Provides the in-memory role repository.
+     *
+     * @param journal the journal changes are appended to.
+     * @return the {@link InMemoryRoleRepository}.
+     */
+    @Bean
+    public InMemoryRoleRepository inMemoryRoleRepository(InMemoryJournal journal) {
+        return new InMemoryRoleRepository(journal);
+    }
+
+    /**
+     * Provides the in-memory user repository.
+     *
+     * @param roles   the role repository used to resolve role ids.
+     * @param journal the journal changes are appended to.
+     * @return the {@link InMemoryUserRepository}.
+     */
+    @Bean
+    public InMemoryUserRepository inMemoryUserRepository(InMemoryRoleRepository roles, InMemoryJournal journal) {
+        return new InMemoryUserRepository(roles, journal);
+    }
+
+    /**
+     * Restores the repositories from the journal and compacts it periodically.
+     *
+     * @param journal      the journal holding the durable state.
+     * @param roles        the role repository.
+     * @param users        the user repository.
+     * @param compactAfter the number of appended changes after which a snapshot is written.
+     * @return the {@link InMemoryStore}.
+     */
+    @Bean
+    public InMemoryStore inMemoryStore(InMemoryJournal journal, InMemoryRoleRepository roles,
+                                       InMemoryUserRepository users,
+                                       @Value("${rbac.memory.compact-after:100000}") long compactAfter) {
+        return new InMemoryStore(journal, roles, users, compactAfter);
+    }
+
+    /**
+     * Provides a transaction manager so {@code @Transactional} methods run without a database.
+     *
+     * @return the {@link InMemoryTransactionManager}.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new InMemoryTransactionManager();
+    }
+}
@@ -0,0 +1,104 @@
+package com.vrvsecurity.rbac.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound routing hints for the read-replica {@link ReplicaRoutingDataSource}.
+ * <p>
+ * Once a thread has written to the primary, its later read-only transactions in the same request are
+ * pinned to the primary as well, so a request always reads its own writes. Callers can also force a
+ * read onto the primary explicitly, e.g. to confirm that a user missing on a lagging replica really
+ * does not exist. When replica routing is disabled every method here is a cheap no-op.
+ * </p>
+ * <p>
+ * The pin lasts until the end of the request only on threads serving one, as marked by {@link #beginRequest()}.
+ * On any other thread (scheduled jobs, the audit writer, the introspection pool) a write pins the thread only
+ * until its transaction completes, so pooled threads do not stay on the primary for good; such work wraps reads
+ * that must see its own earlier writes in {@link #onPrimary(Supplier)}.
+ * </p>
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> IN_REQUEST = new ThreadLocal<>();
+
+    private static volatile boolean replicaEnabled;
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Checks whether read-only transactions may be routed to a replica at all.
+     *
+     * @return {@code true} if replica routing is configured.
+     */
+    public static boolean isReplicaEnabled() {
+        return replicaEnabled;
+    }
+
+    /**
+     * Runs a read on the primary database regardless of the transaction's read-only flag.
+     *
+     * @param read The read to run; it must start its own transaction.
+     * @param <T>  The type of the result.
+     * @return The result of the read.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinned()) {
+            return read.get();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+
+    /**
+     * Marks the current thread as serving a request, so a write pins it until {@link #clear()}.
+     */
+    public static void beginRequest() {
+        IN_REQUEST.set(Boolean.TRUE);
+    }
+
+    /**
+     * Releases the primary pin of the current thread, called at the end of every request.
+     */
+    public static void clear() {
+        PRIMARY_PINNED.remove();
+        IN_REQUEST.remove();
+    }
+
+    static void setReplicaEnabled(boolean enabled) {
+        replicaEnabled = enabled;
+    }
+
+    /**
+     * Pins the current thread to the primary after a write: until the request ends on a request thread, until
+     * the current transaction completes on any other.
+     */
+    static void pin() {
+        if (isPinned()) {
+            return; // Already pinned by the request or by onPrimary, which releases it
+        }
+        if (IN_REQUEST.get() != null) {
+            PRIMARY_PINNED.set(Boolean.TRUE);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            PRIMARY_PINNED.set(Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    PRIMARY_PINNED.remove();
+                }
+            });
+        }
+    }
+
+    static boolean isPinned() {
+        return PRIMARY_PINNED.get() != null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.vrvsecurity.rbac.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter scoping the primary pin set by {@link ReplicaRoutingDataSource} to the request.
+ * <p>
+ * Worker threads are reused across requests, so a write in one request must not keep the next
+ * request on the same thread away from the replica.
+ * </p>
+ */
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadRouting.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+}
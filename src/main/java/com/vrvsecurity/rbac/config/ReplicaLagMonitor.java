@@ -0,0 +1,84 @@
+package com.vrvsecurity.rbac.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Tracks how far the replica lags behind the primary using a heartbeat row.
+ * <p>
+ * The primary's {@code replica_heartbeat} row is stamped with the current time at a fixed interval; the
+ * replica's copy of the row tells how old the replicated data is. While the lag exceeds the configured
+ * tolerance, or the replica cannot be reached, {@link #isReplicaUsable()} returns {@code false} and
+ * read-only transactions fall back to the primary. A negative tolerance disables the check.
+ * </p>
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile boolean replicaUsable;
+    private volatile long lagMillis = -1;
+
+    /**
+     * Constructs the monitor.
+     *
+     * @param primary      The primary pool, where the heartbeat is written.
+     * @param replica      The replica pool, where the heartbeat is read back.
+     * @param maxLagMillis The largest tolerated lag in milliseconds, or a negative value to disable the check.
+     */
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        this.replicaUsable = maxLagMillis < 0;
+    }
+
+    /**
+     * Checks whether read-only transactions may currently be served by the replica.
+     *
+     * @return {@code true} if the replica is reachable and within the lag tolerance.
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Returns the last measured replica lag.
+     *
+     * @return The lag in milliseconds, or -1 if it has not been measured or the replica is unreachable.
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    /**
+     * Writes the heartbeat on the primary and measures the lag on the replica.
+     */
+    @Scheduled(fixedDelayString = "${rbac.datasource.replica.heartbeat-interval-ms:1000}")
+    public void checkLag() {
+        if (maxLagMillis < 0) {
+            return;
+        }
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", System.currentTimeMillis());
+            Long beatAt = replica.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            lagMillis = beatAt == null ? -1 : Math.max(0, System.currentTimeMillis() - beatAt);
+        } catch (RuntimeException e) {
+            lagMillis = -1;
+            log.debug("Could not measure replica lag", e);
+        }
+        boolean usable = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        if (usable != replicaUsable) {
+            log.info("Replica {} for reads (lag {} ms)", usable ? "enabled" : "disabled", lagMillis);
+        }
+        replicaUsable = usable;
+    }
+}
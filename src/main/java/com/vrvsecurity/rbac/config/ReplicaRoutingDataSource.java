@@ -0,0 +1,51 @@
+package com.vrvsecurity.rbac.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routing {@link javax.sql.DataSource} that sends read-only transactions to a replica pool.
+ * <p>
+ * A connection is routed to the replica only when the current transaction is read-only, the thread
+ * has not written to the primary during the current request (see {@link ReadRouting}) and the
+ * {@link ReplicaLagMonitor} reports the replica within its lag tolerance. Everything else, including
+ * work outside a transaction such as migrations, goes to the primary. It must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the decision is made after
+ * the transaction's read-only flag has been set.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Lookup key of the primary pool.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Lookup key of the replica pool.
+     */
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    /**
+     * Constructs the routing data source.
+     *
+     * @param lagMonitor The monitor deciding whether the replica is fresh enough to serve reads.
+     */
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return !ReadRouting.isPinned() && lagMonitor.isReplicaUsable() ? REPLICA : PRIMARY;
+        }
+        if (inTransaction) {
+            ReadRouting.pin(); // Later reads in this request, or this transaction off requests, must see this write
+        }
+        return PRIMARY;
+    }
+}
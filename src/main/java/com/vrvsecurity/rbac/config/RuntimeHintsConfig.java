@@ -0,0 +1,92 @@
+package com.vrvsecurity.rbac.config;
+
+import com.vrvsecurity.rbac.Repository.PrincipalRow;
+import com.vrvsecurity.rbac.dto.AuthResponse;
+import com.vrvsecurity.rbac.dto.BulkRoleRequest;
+import com.vrvsecurity.rbac.dto.BulkUpdateResponse;
+import com.vrvsecurity.rbac.dto.BulkUserStatusRequest;
+import com.vrvsecurity.rbac.dto.IntrospectionRequest;
+import com.vrvsecurity.rbac.dto.IntrospectionResponse;
+import com.vrvsecurity.rbac.dto.LoginRequest;
+import com.vrvsecurity.rbac.dto.RegistrationRequest;
+import com.vrvsecurity.rbac.dto.RoleRequest;
+import com.vrvsecurity.rbac.dto.SnapshotResponse;
+import com.vrvsecurity.rbac.dto.TokenIntrospection;
+import com.vrvsecurity.rbac.dto.UserProfileResponse;
+import com.vrvsecurity.rbac.dto.UserStatus;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * Configuration class contributing the runtime hints of an ahead-of-time processed build.
+ * <p>
+ * Spring's AOT processing discovers the beans, the JPA entities and the controller mappings itself. What it cannot
+ * see is reflection done by libraries and by Jackson on types only known at runtime: JJWT instantiates its
+ * implementation classes by name and finds its Jackson serializer through {@code ServiceLoader}, endpoints returning
+ * {@code ResponseEntity<?>} hide their body types, and Hibernate constructs {@link PrincipalRow} projections
+ * reflectively. The hints are only read by the GraalVM native image build ({@code -Pnative}); on the JVM they
+ * have no effect.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@ImportRuntimeHints(RuntimeHintsConfig.RbacRuntimeHints.class) // Registers the hints below during AOT processing
+public class RuntimeHintsConfig {
+
+    /**
+     * JJWT implementation classes created through {@code io.jsonwebtoken.lang.Classes}.
+     */
+    private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    /**
+     * Registers reflection, resource and proxy hints for the application.
+     */
+    static class RbacRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+            // Request and response bodies, including those hidden behind ResponseEntity<?>
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    AuthResponse.class, BulkRoleRequest.class, BulkUpdateResponse.class, BulkUserStatusRequest.class,
+                    IntrospectionRequest.class, IntrospectionResponse.class, TokenIntrospection.class,
+                    LoginRequest.class, RegistrationRequest.class, RoleRequest.class, SnapshotResponse.class,
+                    UserProfileResponse.class, UserStatus.class, User.class, Role.class, AccountStatus.class);
+
+            // Constructor expressions of JPQL queries
+            hints.reflection().registerType(PrincipalRow.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            // Flyway scripts in the vendor folders and the Flight Recorder profile
+            hints.resources().registerPattern("db/migration/common/*.sql");
+            hints.resources().registerPattern("db/migration/h2/*.sql");
+            hints.resources().registerPattern("db/migration/mysql/*.sql");
+            hints.resources().registerPattern("jfr/rbac-auth.jfc");
+
+            // Connections handed out by the BoundedDataSource in virtual-thread mode
+            hints.proxies().registerJdkProxy(ConnectionProxy.class);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.vrvsecurity.rbac.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling Spring's scheduled task execution.
+ * <p>
+ * Background maintenance such as rebuilding the email Bloom filter used during registration
+ * runs through {@code @Scheduled} methods, which are only picked up when scheduling is enabled.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@EnableScheduling // Enables detection of @Scheduled methods on Spring beans
+public class SchedulingConfig {
+}
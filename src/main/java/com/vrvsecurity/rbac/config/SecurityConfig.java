@@ -2,7 +2,11 @@ package com.vrvsecurity.rbac.config;
 
 import com.vrvsecurity.rbac.security.JwtAuthFilter;
 import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.TimedPasswordEncoder;
+import com.vrvsecurity.rbac.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,6 +18,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -35,14 +40,25 @@ public class SecurityConfig {
     @Autowired
     private JwtUtil jwtUtil; // Utility for handling JWT tokens
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache; // Remembers Authorization headers already verified
+
+    @Autowired
+    private MeterRegistry meterRegistry; // Registry the authentication timers are published to
+
     @Autowired
     private CorsConfig corsConfig; // CORS configuration for handling cross-origin requests
 
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter; // Sheds load before requests reach authentication
+
     /**
      * Configures the security filter chain for the application.
      * <p>
      * This method sets up CORS, disables CSRF, configures access control rules for various endpoints,
      * enables stateless session management, and integrates JWT authentication using the JwtAuthFilter.
+     * The concurrency limit filter runs just before the JwtAuthFilter, so overload is shed before tokens are
+     * parsed or principals loaded.
      * </p>
      *
      * @param http the {@link HttpSecurity} object for configuring security.
@@ -62,6 +78,7 @@ public class SecurityConfig {
                         .requestMatchers("/user/**").hasRole("USER") // Restricts user-related endpoints to users with USER role
                         .anyRequest().authenticated()) // Requires authentication for any other request
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Disables session-based authentication
+                .addFilterBefore(concurrencyLimitFilter, UsernamePasswordAuthenticationFilter.class) // Rejects excess requests before any authentication work
                 .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class) // Adds the JWT filter before the default authentication filter
                 .build();
     }
@@ -73,11 +90,24 @@ public class SecurityConfig {
      * authenticated user is authorized to access protected resources.
      * </p>
      *
-     * @return a {@link JwtAuthFilter} configured with the JWT utility and user details service.
+     * @return a {@link JwtAuthFilter} configured with the JWT utility, user details service and verified token cache.
      */
     @Bean
     public JwtAuthFilter jwtAuthenticationFilter() {
-        return new JwtAuthFilter(jwtUtil, userDetailsService); // Returns a JWT filter that uses JWT utility and user details service
+        return new JwtAuthFilter(jwtUtil, userDetailsService, verifiedTokenCache, meterRegistry); // Returns a JWT filter that uses JWT utility and user details service
+    }
+
+    /**
+     * Prevents the servlet container from running the JWT filter a second time outside the security filter chain.
+     *
+     * @param filter the JWT authentication filter.
+     * @return a disabled {@link FilterRegistrationBean} for the filter.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthFilter> jwtAuthenticationFilterRegistration(JwtAuthFilter filter) {
+        FilterRegistrationBean<JwtAuthFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     /**
@@ -116,13 +146,14 @@ public class SecurityConfig {
     /**
      * Configures the password encoder for encoding and validating user passwords.
      * <p>
-     * Uses {@link BCryptPasswordEncoder} with a strength of 12 to securely hash passwords.
+     * Uses {@link BCryptPasswordEncoder} with a strength of 12 to securely hash passwords, timed by a
+     * {@link TimedPasswordEncoder}.
      * </p>
      *
-     * @return a {@link BCryptPasswordEncoder} instance for password encoding.
+     * @return a {@link PasswordEncoder} instance for password encoding.
      */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // Returns an encoder with strength 12 for secure password hashing
+    public PasswordEncoder passwordEncoder() {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(12), meterRegistry); // Returns a timed encoder with strength 12 for secure password hashing
     }
 }
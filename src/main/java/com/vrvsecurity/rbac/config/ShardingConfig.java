@@ -0,0 +1,93 @@
+package com.vrvsecurity.rbac.config;
+
+import com.vrvsecurity.rbac.Repository.sharded.ShardedRoleRepository;
+import com.vrvsecurity.rbac.Repository.sharded.ShardedUserRepository;
+import com.vrvsecurity.rbac.Repository.sharded.ShardingProperties;
+import com.vrvsecurity.rbac.Repository.sharded.UserShards;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class enabling the sharded user store.
+ * <p>
+ * Active only when {@code rbac.sharding.enabled=true}. Users and their {@code user_role} rows are partitioned
+ * across the data sources listed under {@code rbac.sharding.shards} by a stable hash of the normalized email,
+ * and the role catalog is replicated on every shard. The sharded repositories take precedence over the JPA
+ * repositories wherever {@code UserStore} or {@code RoleStore} is injected.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@ConditionalOnProperty(name = "rbac.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    /**
+     * Opens a connection pool per configured shard and, unless disabled, migrates every shard's schema.
+     * <p>
+     * The shard pools are not beans, so their {@code hikaricp.*} metrics are bound here, tagged with the pool name.
+     * </p>
+     *
+     * @param properties       the sharding settings.
+     * @param flywayProperties the Flyway settings used for the primary data source.
+     * @param meterRegistry    the registry the pool metrics are published to.
+     * @return the {@link UserShards} holding all shard pools.
+     */
+    @Bean
+    public UserShards userShards(ShardingProperties properties, FlywayProperties flywayProperties,
+                                 MeterRegistry meterRegistry) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setJdbcUrl(shard.getJdbcUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            if (shard.getDriverClassName() != null) {
+                dataSource.setDriverClassName(shard.getDriverClassName());
+            }
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            if (properties.isMigrate()) {
+                FlywayMigrations.migrate(dataSource, shard.getJdbcUrl(), flywayProperties);
+            }
+            dataSources.add(dataSource);
+        }
+        return new UserShards(dataSources);
+    }
+
+    /**
+     * Provides the sharded user repository.
+     *
+     * @param userShards the shard set.
+     * @return the {@link ShardedUserRepository}.
+     */
+    @Bean
+    @Primary
+    public ShardedUserRepository shardedUserRepository(UserShards userShards) {
+        return new ShardedUserRepository(userShards);
+    }
+
+    /**
+     * Provides the role repository replicating the catalog on every shard, after repairing copies an earlier
+     * run could not finish.
+     *
+     * @param userShards the shard set.
+     * @return the {@link ShardedRoleRepository}.
+     */
+    @Bean(initMethod = "repairCatalog")
+    @Primary
+    public ShardedRoleRepository shardedRoleRepository(UserShards userShards) {
+        return new ShardedRoleRepository(userShards);
+    }
+}
@@ -0,0 +1,225 @@
+package com.vrvsecurity.rbac.config;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import com.vrvsecurity.rbac.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup stage warming the authentication paths before the instance reports ready.
+ * <p>
+ * Runs as an {@link ApplicationRunner}, and Spring Boot only switches the readiness state to
+ * {@code ACCEPTING_TRAFFIC} once every runner has returned, so {@code /actuator/health/readiness} stays
+ * {@code OUT_OF_SERVICE} while the warmup runs and a load balancer keeps sending traffic to the old instances.
+ * Each round generates and verifies tokens, loads the warmup account's principal from the database (with its
+ * cache entry evicted, so the Hibernate query plans and the connection pool are used), and sends requests to this
+ * instance over loopback: with the warmup account's token, with a malformed token and without one, which runs
+ * Tomcat, the filter chain, the request matchers and Jackson. The first round also hashes a few passwords.
+ * </p>
+ * <p>
+ * Rounds repeat until JIT compilation settles, i.e. the compiler spent less than {@code settleCompileMillis} in
+ * {@code settleRounds} consecutive rounds after at least {@code minRounds}, or until {@code maxDuration} is spent.
+ * Without a warmup account, principal loading and the authenticated requests are skipped and tokens are issued
+ * for a synthetic user. Warmup traffic is recorded in the {@code rbac.auth.*} and HTTP metrics like any other;
+ * failures are logged and never prevent the instance from becoming ready.
+ * </p>
+ */
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final PasswordEncoder passwordEncoder;
+    private final Environment environment;
+    private final String accountEmail;
+    private final Duration maxDuration;
+    private final int roundSize;
+    private final int minRounds;
+    private final int settleRounds;
+    private final long settleCompileMillis;
+    private final int passwordHashes;
+    private final Timer duration;
+
+    /**
+     * Constructs the warmup.
+     *
+     * @param jwtUtil             The utility issuing and verifying tokens.
+     * @param userDetailsService  The service loading principals.
+     * @param principalCache      The cache the warmup account is evicted from before each load.
+     * @param passwordEncoder     The encoder whose hashing is warmed.
+     * @param environment         The environment holding the port the server listens on.
+     * @param accountEmail        The email of an existing account used for loads and requests, or empty for none.
+     * @param maxDuration         The time budget of the warmup.
+     * @param roundSize           The number of token operations per round; a tenth as many loads and requests.
+     * @param minRounds           The number of rounds run before compilation may count as settled.
+     * @param settleRounds        The number of consecutive quiet rounds after which compilation counts as settled.
+     * @param settleCompileMillis The compilation time below which a round counts as quiet, in milliseconds.
+     * @param passwordHashes      The number of passwords hashed in the first round.
+     * @param meterRegistry       The registry the warmup duration is published to.
+     */
+    public StartupWarmup(JwtUtil jwtUtil, UserDetailsService userDetailsService, PrincipalCache principalCache,
+                         PasswordEncoder passwordEncoder, Environment environment, String accountEmail,
+                         Duration maxDuration, int roundSize, int minRounds, int settleRounds,
+                         long settleCompileMillis, int passwordHashes, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.passwordEncoder = passwordEncoder;
+        this.environment = environment;
+        this.accountEmail = accountEmail == null || accountEmail.isBlank() ? null : accountEmail;
+        this.maxDuration = maxDuration;
+        this.roundSize = Math.max(10, roundSize);
+        this.minRounds = Math.max(1, minRounds);
+        this.settleRounds = Math.max(1, settleRounds);
+        this.settleCompileMillis = settleCompileMillis;
+        this.passwordHashes = passwordHashes;
+        this.duration = Timer.builder("rbac.warmup.duration")
+                .description("Time spent warming up before the instance reported ready")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean compileTimeKnown = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long compileMillisBefore = compileTimeKnown ? compiler.getTotalCompilationTime() : 0;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        UserDetails account = loadAccount();
+        UserDetails principal = account != null ? account : syntheticPrincipal();
+        String token = jwtUtil.generateToken(principal);
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port", "8080");
+
+        int rounds = 0;
+        int quietRounds = 0;
+        boolean settled = false;
+        try {
+            while (System.nanoTime() < deadline) {
+                long compileMillis = compileTimeKnown ? compiler.getTotalCompilationTime() : 0;
+                round(rounds, principal, account != null, token, client, baseUrl, deadline);
+                rounds++;
+                long spent = compileTimeKnown ? compiler.getTotalCompilationTime() - compileMillis : 0;
+                quietRounds = spent < settleCompileMillis ? quietRounds + 1 : 0;
+                if (rounds >= minRounds && quietRounds >= settleRounds) {
+                    settled = true;
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Warmup failed after {} rounds, reporting ready anyway", rounds, e);
+        } finally {
+            if (account != null) {
+                principalCache.evict(account.getUsername());
+            }
+        }
+
+        long elapsed = System.nanoTime() - started;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Warmup ran {} rounds in {} ms ({} ms compiling), {}", rounds, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                compileTimeKnown ? compiler.getTotalCompilationTime() - compileMillisBefore : "?",
+                settled ? "compilation settled" : "time budget spent");
+    }
+
+    private void round(int round, UserDetails principal, boolean hasAccount, String token, HttpClient client,
+                       String baseUrl, long deadline) throws InterruptedException {
+        for (int i = 0; i < roundSize; i++) {
+            Claims claims = jwtUtil.parseClaims(jwtUtil.generateToken(principal));
+            jwtUtil.validateClaims(claims, principal);
+            try {
+                jwtUtil.parseClaims(token.substring(0, token.length() - 2) + "xx"); // Bad signature path
+            } catch (JwtException expected) {
+                // Rejected as it should be
+            }
+        }
+        if (round == 0) {
+            for (int i = 0; i < passwordHashes && System.nanoTime() < deadline; i++) {
+                passwordEncoder.matches("warmup-password", principal.getPassword());
+            }
+        }
+        for (int i = 0; i < roundSize / 10 && System.nanoTime() < deadline; i++) {
+            if (hasAccount) {
+                principalCache.evict(principal.getUsername());
+                userDetailsService.loadUserByUsername(principal.getUsername());
+                send(client, baseUrl + "/user/profile", "Bearer " + token);
+            }
+            send(client, baseUrl + "/user/profile", "Bearer not-a-token");
+            send(client, baseUrl + "/admin/users/active", null);
+        }
+    }
+
+    private static void send(HttpClient client, String url, String authorization) throws InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).GET();
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        try {
+            client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new IllegalStateException("Warmup request to " + url + " failed", e);
+        }
+    }
+
+    /**
+     * Loads the warmup account, if one is configured and exists.
+     *
+     * @return The account's principal, or {@code null}.
+     */
+    private UserDetails loadAccount() {
+        if (accountEmail == null) {
+            return null;
+        }
+        try {
+            return userDetailsService.loadUserByUsername(accountEmail);
+        } catch (RuntimeException e) {
+            log.warn("Warmup account {} could not be loaded, warming up without it: {}", accountEmail, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Builds a principal that exists only in memory, used to issue tokens when there is no warmup account.
+     *
+     * @return The synthetic principal.
+     */
+    private UserDetails syntheticPrincipal() {
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        User user = new User();
+        user.setEmail("warmup@localhost");
+        user.setPassword(passwordEncoder.encode("warmup-password"));
+        user.setStatus(AccountStatus.ACTIVE);
+        user.setRoles(Set.of(role));
+        return new UserPrincipal(user);
+    }
+}
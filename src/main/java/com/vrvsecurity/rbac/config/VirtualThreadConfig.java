@@ -0,0 +1,78 @@
+package com.vrvsecurity.rbac.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration class for running requests on virtual threads.
+ * <p>
+ * Active only when {@code spring.threads.virtual.enabled=true} (see {@code application-virtual-threads.properties}),
+ * in which case Tomcat, {@code @Scheduled} tasks and async execution use virtual threads. Since the number of
+ * request threads is then unbounded, the application's data source is wrapped in a {@link BoundedDataSource}
+ * limiting in-flight database work to {@code rbac.virtual-threads.db-permits} connections, and a
+ * {@link VirtualThreadPinningMonitor} reports virtual threads pinned to their carrier.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Wraps the {@code dataSource} bean in a {@link BoundedDataSource}.
+     * <p>
+     * With read-replica routing enabled the bound applies to the routing data source, so reads and writes share
+     * the permits; the shard pools of the sharded user store are not wrapped.
+     * </p>
+     *
+     * @param permits        the maximum number of connections in use at once, by default the pool size.
+     * @param maxWaiting     the maximum number of requests waiting for a connection.
+     * @param acquireTimeout how long a request waits for a connection, in milliseconds.
+     * @param meterRegistry  the registry the permit metrics are published to.
+     * @return the {@link BeanPostProcessor} wrapping the data source.
+     */
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(
+            @Value("${rbac.virtual-threads.db-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${rbac.virtual-threads.db-max-waiting:10000}") int maxWaiting,
+            @Value("${rbac.virtual-threads.db-acquire-timeout-ms:${spring.datasource.hikari.connection-timeout:30000}}")
+            long acquireTimeout,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof BoundedDataSource)) {
+                    return new BoundedDataSource(dataSource, permits, maxWaiting, Duration.ofMillis(acquireTimeout),
+                            meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Creates the monitor reporting virtual threads pinned to their carrier thread.
+     *
+     * @param thresholdMillis the shortest pin that is reported, in milliseconds.
+     * @param meterRegistry   the registry the pins are published to.
+     * @return the {@link VirtualThreadPinningMonitor}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rbac.virtual-threads.pinning-monitor.enabled", havingValue = "true",
+            matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${rbac.virtual-threads.pinning-monitor.threshold-ms:20}") long thresholdMillis,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(Duration.ofMillis(thresholdMillis), meterRegistry);
+    }
+}
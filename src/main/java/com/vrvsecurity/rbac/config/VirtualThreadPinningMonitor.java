@@ -0,0 +1,133 @@
+package com.vrvsecurity.rbac.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier thread.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} block or a native frame keeps its carrier thread
+ * busy, and enough of them stall every request. This monitor streams the JDK's {@code jdk.VirtualThreadPinned}
+ * Flight Recorder events, which are raised for pins longer than {@code threshold}, and records each one in the
+ * {@code rbac.virtual.threads.pinned} timer tagged with the path it happened on: {@code jdbc} (JPA, Hibernate,
+ * the pool or the driver), {@code bcrypt} (password hashing) or {@code other}. Each distinct stack trace is
+ * logged once at WARN level.
+ * </p>
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_REPORTED_STACKS = 1_000;
+    private static final int LOGGED_FRAMES = 20;
+
+    private static final List<String> JDBC_PACKAGES = List.of("java.sql.", "javax.sql.", "com.mysql.", "org.h2.",
+            "com.zaxxer.hikari.", "org.hibernate.", "org.springframework.jdbc.", "org.springframework.orm.");
+
+    private final Duration threshold;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private volatile RecordingStream stream;
+
+    /**
+     * Constructs the monitor.
+     *
+     * @param threshold     The shortest pin that is reported.
+     * @param meterRegistry The registry the pins are published to.
+     */
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        stream = recording;
+        log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String path = pathOf(frames);
+        Timer.builder("rbac.virtual.threads.pinned")
+                .description("Virtual threads pinned to their carrier thread while blocking")
+                .tag("path", path)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        String stack = frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining("\n\tat ", "\tat ", ""));
+        if (reportedStacks.size() < MAX_REPORTED_STACKS && reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms on the {} path:\n{}", event.getDuration().toMillis(), path, stack);
+        } else {
+            log.debug("Virtual thread pinned for {} ms on the {} path", event.getDuration().toMillis(), path);
+        }
+    }
+
+    /**
+     * Classifies a pinned stack by its innermost frame belonging to a known path.
+     *
+     * @param frames The stack frames, innermost first.
+     * @return {@code jdbc}, {@code bcrypt} or {@code other}.
+     */
+    private static String pathOf(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.contains("BCrypt")) {
+                return "bcrypt";
+            }
+            for (String jdbcPackage : JDBC_PACKAGES) {
+                if (type.startsWith(jdbcPackage)) {
+                    return "jdbc";
+                }
+            }
+        }
+        return "other";
+    }
+
+    private static String describe(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "<unknown>";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(line " + frame.getLineNumber() + ")";
+    }
+}
@@ -0,0 +1,61 @@
+package com.vrvsecurity.rbac.config;
+
+import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for warming up the instance before it reports ready.
+ * <p>
+ * Active only when {@code rbac.warmup.enabled=true}. Readiness is only gated where traffic is routed by the
+ * readiness probe ({@code /actuator/health/readiness}); see {@link StartupWarmup}.
+ * </p>
+ */
+@Configuration // Marks the class as a configuration class to be processed by Spring
+@ConditionalOnProperty(name = "rbac.warmup.enabled", havingValue = "true")
+public class WarmupConfig {
+
+    /**
+     * Creates the startup warmup.
+     *
+     * @param jwtUtil             the utility issuing and verifying tokens.
+     * @param userDetailsService  the service loading principals.
+     * @param principalCache      the cache of loaded principals.
+     * @param passwordEncoder     the encoder whose hashing is warmed.
+     * @param environment         the environment holding the server port.
+     * @param accountEmail        the email of an existing account used for loads and requests (empty for none).
+     * @param maxDurationMs       the time budget of the warmup, in milliseconds.
+     * @param roundSize           the number of token operations per round.
+     * @param minRounds           the number of rounds run before compilation may count as settled.
+     * @param settleRounds        the number of consecutive quiet rounds after which compilation counts as settled.
+     * @param settleCompileMs     the compilation time below which a round counts as quiet, in milliseconds.
+     * @param passwordHashes      the number of passwords hashed in the first round.
+     * @param meterRegistry       the registry the warmup duration is published to.
+     * @return the {@link StartupWarmup}.
+     */
+    @Bean
+    public StartupWarmup startupWarmup(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                       PrincipalCache principalCache, PasswordEncoder passwordEncoder,
+                                       Environment environment,
+                                       @Value("${rbac.warmup.account-email:}") String accountEmail,
+                                       @Value("${rbac.warmup.max-duration-ms:30000}") long maxDurationMs,
+                                       @Value("${rbac.warmup.round-size:200}") int roundSize,
+                                       @Value("${rbac.warmup.min-rounds:5}") int minRounds,
+                                       @Value("${rbac.warmup.settle-rounds:3}") int settleRounds,
+                                       @Value("${rbac.warmup.settle-compile-ms:10}") long settleCompileMs,
+                                       @Value("${rbac.warmup.password-hashes:3}") int passwordHashes,
+                                       MeterRegistry meterRegistry) {
+        return new StartupWarmup(jwtUtil, userDetailsService, principalCache, passwordEncoder, environment,
+                accountEmail, Duration.ofMillis(maxDurationMs), roundSize, minRounds, settleRounds, settleCompileMs,
+                passwordHashes, meterRegistry);
+    }
+}
@@ -1,5 +1,7 @@
 package com.vrvsecurity.rbac.controller.admin;
 
+import com.vrvsecurity.rbac.dto.BulkRoleRequest;
+import com.vrvsecurity.rbac.dto.BulkUpdateResponse;
 import com.vrvsecurity.rbac.dto.RoleRequest;
 import com.vrvsecurity.rbac.service.RoleService;
 import org.springframework.http.HttpStatus;
@@ -13,7 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
  * Controller class for managing roles by the admin.
  * <p>
  * This controller handles HTTP requests related to role management, such as adding new roles
- * to the system. It interacts with the {@link RoleService} to perform the actual role-related
+ * to the system and granting or revoking a role for many users at once. It interacts with the {@link RoleService} to perform the actual role-related
  * operations.
  * </p>
  */
@@ -56,4 +58,51 @@ public class RoleAdminController {
         }
     }
 
+    /**
+     * Endpoint to grant a role to many users at once.
+     * <p>
+     * This method accepts a {@link BulkRoleRequest} containing the role and the emails of the users
+     * and delegates the batched assignment to the {@link RoleService}.
+     * </p>
+     *
+     * @param request the request body containing the role and the user emails.
+     * @return a {@link ResponseEntity} containing the affected counts or an error message.
+     */
+    @PostMapping("/grantRole") // Maps this method to POST requests at '/admin/grantRole'
+    public ResponseEntity<?> grantRole(@RequestBody BulkRoleRequest request){
+        try {
+            BulkUpdateResponse response = roleService.grantRole(request);
+            return ResponseEntity
+                    .status(HttpStatus.OK) // Return HTTP status 200 OK
+                    .body(response); // Return the affected counts
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST) // Return HTTP status 400 Bad Request
+                    .body(e.getMessage()); // Return the error message
+        }
+    }
+
+    /**
+     * Endpoint to revoke a role from many users at once.
+     * <p>
+     * This method accepts a {@link BulkRoleRequest} containing the role and the emails of the users
+     * and delegates the batched revocation to the {@link RoleService}.
+     * </p>
+     *
+     * @param request the request body containing the role and the user emails.
+     * @return a {@link ResponseEntity} containing the affected counts or an error message.
+     */
+    @PostMapping("/revokeRole") // Maps this method to POST requests at '/admin/revokeRole'
+    public ResponseEntity<?> revokeRole(@RequestBody BulkRoleRequest request){
+        try {
+            BulkUpdateResponse response = roleService.revokeRole(request);
+            return ResponseEntity
+                    .status(HttpStatus.OK) // Return HTTP status 200 OK
+                    .body(response); // Return the affected counts
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST) // Return HTTP status 400 Bad Request
+                    .body(e.getMessage()); // Return the error message
+        }
+    }
 }
@@ -1,7 +1,11 @@
 package com.vrvsecurity.rbac.controller.admin;
 
+import com.vrvsecurity.rbac.dto.BulkUpdateResponse;
+import com.vrvsecurity.rbac.dto.BulkUserStatusRequest;
+import com.vrvsecurity.rbac.dto.SnapshotResponse;
 import com.vrvsecurity.rbac.dto.UserStatus;
 import com.vrvsecurity.rbac.model.User;
+import com.vrvsecurity.rbac.service.PrincipalSnapshotService;
 import com.vrvsecurity.rbac.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,14 +26,17 @@ import java.util.List;
 public class UserAdminController {
 
     private final UserService userService; // Service to handle user-related operations
+    private final PrincipalSnapshotService snapshotService; // Service to write principal snapshots
 
     /**
-     * Constructor to initialize the UserService.
+     * Constructor to initialize the UserService and PrincipalSnapshotService.
      *
-     * @param userService the service to handle user operations.
+     * @param userService     the service to handle user operations.
+     * @param snapshotService the service to write principal snapshots.
      */
-    public UserAdminController(UserService userService){
+    public UserAdminController(UserService userService, PrincipalSnapshotService snapshotService){
         this.userService = userService;
+        this.snapshotService = snapshotService;
     }
 
     /**
@@ -55,19 +62,48 @@ public class UserAdminController {
         }
     }
 
+    /**
+     * Endpoint to update the status of many users at once.
+     * <p>
+     * This method allows an admin to approve or change a backlog of accounts in one call, selecting users either
+     * by a list of emails or by their current status and registration date.
+     * </p>
+     *
+     * @param request the BulkUserStatusRequest containing the user selection and the new status.
+     * @return a ResponseEntity containing the affected counts or an error message.
+     */
+    @PostMapping("/updateUserStatuses") // Maps this method to POST requests at '/admin/updateUserStatuses'
+    public ResponseEntity<?> updateUserStatuses(@RequestBody BulkUserStatusRequest request){
+        try {
+            BulkUpdateResponse response = userService.updateUserStatuses(request);
+            return ResponseEntity
+                    .status(HttpStatus.OK) // Return HTTP status 200 OK
+                    .body(response); // Return the affected counts
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST) // Return HTTP status 400 Bad Request
+                    .body(e.getMessage()); // Return the error message
+        }
+    }
+
     /**
      * Endpoint to retrieve users based on their status.
      * <p>
      * This method allows an admin to view a list of users with a specific status, such as 'active', 'pending', or 'inactive'.
+     * Results are paged by user id: pass the last id of a page as {@code afterId} to fetch the next page.
      * </p>
      *
-     * @param status the status to filter users by.
+     * @param status  the status to filter users by.
+     * @param afterId the id after which the page starts (0 for the first page).
+     * @param limit   the maximum number of users to return.
      * @return a ResponseEntity containing a list of users with the given status or an error message.
      */
     @GetMapping("/users/{status}") // Maps this method to GET requests at '/admin/users/{status}'
-    public ResponseEntity<?> getUserByStatus(@PathVariable String status){
+    public ResponseEntity<?> getUserByStatus(@PathVariable String status,
+                                             @RequestParam(defaultValue = "0") long afterId,
+                                             @RequestParam(defaultValue = "500") int limit){
         try {
-            List<User> response = userService.getUserByStatus(status); // Fetch users by status
+            List<User> response = userService.getUserByStatus(status, afterId, limit); // Fetch a page of users by status
             return ResponseEntity
                     .status(HttpStatus.OK) // Return HTTP status 200 OK
                     .body(response); // Return the list of users
@@ -77,4 +113,27 @@ public class UserAdminController {
                     .body(e.getMessage()); // Return the error message
         }
     }
+
+    /**
+     * Endpoint to write a snapshot of all users and roles.
+     * <p>
+     * The snapshot holds what is needed to authenticate every user and is written to the configured
+     * {@code rbac.snapshot.path}; nodes starting with that file load it to warm their principal cache.
+     * </p>
+     *
+     * @return a ResponseEntity describing the written snapshot or an error message.
+     */
+    @PostMapping("/snapshot") // Maps this method to POST requests at '/admin/snapshot'
+    public ResponseEntity<?> writeSnapshot(){
+        try {
+            SnapshotResponse response = snapshotService.writeSnapshot();
+            return ResponseEntity
+                    .status(HttpStatus.OK) // Return HTTP status 200 OK
+                    .body(response); // Return the snapshot details
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST) // Return HTTP status 400 Bad Request
+                    .body(e.getMessage()); // Return the error message
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package com.vrvsecurity.rbac.controller.auth;
+
+import com.vrvsecurity.rbac.dto.IntrospectionRequest;
+import com.vrvsecurity.rbac.dto.IntrospectionResponse;
+import com.vrvsecurity.rbac.security.TokenIntrospector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Controller for checking user tokens on behalf of downstream services.
+ * <p>
+ * A gateway or another service sends a batch of the tokens it received and learns, for each one, whether it is
+ * active and, if so, its subject, the user's current roles and its expiry, in a single round trip and without
+ * holding the signing key. Callers identify themselves with the shared secret configured as
+ * {@code rbac.introspect.client-secret} in the {@code X-Introspection-Secret} header; without a configured
+ * secret the endpoint is not available.
+ * </p>
+ */
+@RestController // Marks this class as a Spring MVC REST controller
+@RequestMapping("/auth") // Defines the base URL path for authentication-related endpoints
+public class IntrospectionController {
+
+    private final TokenIntrospector tokenIntrospector; // Checks the tokens of a batch in parallel
+    private final byte[] clientSecret; // Shared with the downstream services, empty when disabled
+
+    /**
+     * Constructor to initialize the introspector and the client secret.
+     *
+     * @param tokenIntrospector the introspector checking the tokens.
+     * @param clientSecret      the secret downstream services present, or empty to disable the endpoint.
+     */
+    public IntrospectionController(TokenIntrospector tokenIntrospector,
+                                   @Value("${rbac.introspect.client-secret:}") String clientSecret) {
+        this.tokenIntrospector = tokenIntrospector;
+        this.clientSecret = clientSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Endpoint for introspecting a batch of tokens.
+     * <p>
+     * Invalid, expired and refused tokens are reported as inactive with the reason rather than failing the
+     * batch; only a missing or oversized batch is rejected with 400 Bad Request.
+     * </p>
+     *
+     * @param secret  the client secret presented by the caller.
+     * @param request the tokens to introspect.
+     * @return a ResponseEntity containing one result per token, in order, or an error message.
+     */
+    @PostMapping("/introspect") // Maps this method to the POST request at '/auth/introspect'
+    public ResponseEntity<?> introspect(@RequestHeader(value = "X-Introspection-Secret", required = false) String secret,
+                                        @RequestBody IntrospectionRequest request) {
+        if (clientSecret.length == 0) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND) // Return HTTP status 404 Not Found while disabled
+                    .body(Map.of("error", "Token introspection is not enabled"));
+        }
+        if (secret == null || !MessageDigest.isEqual(clientSecret, secret.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED) // Return HTTP status 401 Unauthorized
+                    .body(Map.of("error", "Invalid introspection secret"));
+        }
+
+        try {
+            return ResponseEntity.ok(new IntrospectionResponse(tokenIntrospector.introspect(request.getTokens())));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST) // Return HTTP status 400 Bad Request
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -3,16 +3,24 @@ package com.vrvsecurity.rbac.controller.auth;
 import com.vrvsecurity.rbac.dto.AuthResponse;
 import com.vrvsecurity.rbac.dto.LoginRequest;
 import com.vrvsecurity.rbac.security.JwtUtil;
+import com.vrvsecurity.rbac.security.LoginThrottle;
+import com.vrvsecurity.rbac.security.PrincipalUnavailableException;
+import com.vrvsecurity.rbac.security.UserPrincipal;
+import com.vrvsecurity.rbac.security.audit.AuditAction;
+import com.vrvsecurity.rbac.security.audit.AuditLog;
+import com.vrvsecurity.rbac.security.jfr.LoginEvent;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
@@ -23,6 +31,14 @@ import java.util.Map;
  * <p>
  * This class handles the login request from users, authenticates them using their email
  * and password, and generates a JWT token if the authentication is successful.
+ * The token is built from the principal loaded during authentication, so a login looks the user up once.
+ * </p>
+ * <p>
+ * With Flight Recorder on, logins slower than the recording's threshold are recorded as {@link LoginEvent}s
+ * carrying the password verification time, the user id and the decision.
+ * </p>
+ * <p>
+ * Every login, and every refused one with its decision, is recorded in the {@link AuditLog}.
  * </p>
  */
 @RestController // Marks this class as a Spring MVC REST controller
@@ -36,7 +52,10 @@ public class LoginController {
     private JwtUtil jwtUtil; // Utility class to generate JWT tokens
 
     @Autowired
-    private UserDetailsService userDetailsService; // Loads user details by username
+    private LoginThrottle loginThrottle; // Limits login attempts per email and per client IP
+
+    @Autowired
+    private AuditLog auditLog; // Records logins and failed logins without waiting for the write
 
 
     /**
@@ -46,32 +65,81 @@ public class LoginController {
      * authenticates the user, and generates a JWT token if authentication is successful.
      * If authentication fails, an error message is returned.
      * </p>
+     * <p>
+     * Attempts over the per-email or per-IP limit are refused with 429 Too Many Requests before the user is
+     * loaded or the password hashed.
+     * </p>
      *
-     * @param request the login request containing user email and password.
+     * @param request     the login request containing user email and password.
+     * @param httpRequest the HTTP request, used for the client address.
      * @return a ResponseEntity containing the JWT token if login is successful, or an error message.
      */
     @PostMapping("/login") // Maps this method to the POST request at '/auth/login'
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        long retryAfterSeconds = loginThrottle.tryAcquire(request.getEmail(), httpRequest.getRemoteAddr());
+        if (retryAfterSeconds != LoginThrottle.ADMITTED) {
+            commit(event, "throttled", null);
+            auditLog.record(AuditAction.LOGIN_FAILED, request.getEmail(), "throttled");
+            return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS) // Return HTTP status 429 Too Many Requests
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(Map.of("error", "Too many login attempts, please try again later"));
+        }
+
         try {
             // Authenticating the user using email and password
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
+            long started = System.nanoTime();
+            Authentication authentication;
+            try {
+                authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+                );
+            } finally {
+                event.hashDuration = System.nanoTime() - started;
+            }
 
-            // Load user details after successful authentication
-            UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
+            // The principal loaded while authenticating, so the user is not looked up a second time
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
             // Generate JWT token for the authenticated user
             String jwt = jwtUtil.generateToken(userDetails);
+            loginThrottle.onSuccess(request.getEmail());
+            commit(event, "ok", userDetails);
+            auditLog.record(AuditAction.LOGIN, userDetails.getUsername(), null);
 
             // Return the JWT token wrapped in a response
             return ResponseEntity.ok(new AuthResponse(jwt, "Bearer"));
 
         } catch (AuthenticationException e) {
+            boolean unavailable = e instanceof PrincipalUnavailableException
+                    || e.getCause() instanceof PrincipalUnavailableException;
+            String decision = unavailable ? "unavailable" : "bad-credentials";
+            commit(event, decision, null);
+            auditLog.record(AuditAction.LOGIN_FAILED, request.getEmail(), decision);
             // If authentication fails, return a 401 Unauthorized response with an error message
             return ResponseEntity
                     .status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid credentials"));
         }
     }
+
+    /**
+     * Records the decision of a login in its Flight Recorder event, if the recording wants it.
+     *
+     * @param event       the event begun with the login.
+     * @param decision    the decision: ok, throttled, bad-credentials or unavailable.
+     * @param userDetails the authenticated user, or {@code null} if the login failed.
+     */
+    private static void commit(LoginEvent event, String decision, UserDetails userDetails) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.decision = decision;
+            if (userDetails instanceof UserPrincipal principal) {
+                event.userId = principal.getUserId();
+            }
+            event.commit();
+        }
+    }
 }
@@ -1,5 +1,11 @@
 package com.vrvsecurity.rbac.controller.user;
 
+import com.vrvsecurity.rbac.dto.UserProfileResponse;
+import com.vrvsecurity.rbac.security.UserPrincipal;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -13,5 +19,22 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController // Marks this class as a Spring MVC REST controller
 @RequestMapping("/user") // Defines the base URL path for user-related endpoints
 public class UserController {
-    // Methods for handling user-related endpoints will be added here
+
+    /**
+     * Endpoint returning the authenticated user's profile.
+     * <p>
+     * The profile is read from the principal loaded during authentication, so the request costs no query
+     * beyond authentication itself.
+     * </p>
+     *
+     * @param principal the authenticated user.
+     * @return a ResponseEntity containing the user's email, status and roles.
+     */
+    @GetMapping("/profile") // Maps this method to GET requests at '/user/profile'
+    public ResponseEntity<UserProfileResponse> getProfile(@AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(new UserProfileResponse(
+                principal.getUsername(),
+                principal.getStatus().getLabel(),
+                principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList()));
+    }
 }
@@ -0,0 +1,28 @@
+package com.vrvsecurity.rbac.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for granting or revoking a role for many users at once.
+ * <p>
+ * This class holds the name of the role and the email addresses of the users it is
+ * granted to or revoked from.
+ * </p>
+ */
+@Getter // Lombok annotation to generate getter methods for all fields.
+@Setter // Lombok annotation to generate setter methods for all fields.
+public class BulkRoleRequest {
+
+    /**
+     * The name of the role (e.g., "moderator"), without the "ROLE_" prefix.
+     */
+    private String role;
+
+    /**
+     * The email addresses of the users the role is granted to or revoked from.
+     */
+    private List<String> emails;
+}
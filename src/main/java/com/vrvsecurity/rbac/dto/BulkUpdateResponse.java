@@ -0,0 +1,36 @@
+package com.vrvsecurity.rbac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO (Data Transfer Object) for reporting the outcome of a bulk update.
+ * This class holds how many users were selected, how many rows were actually changed,
+ * how many set-based statements were issued to apply the change and the resulting throughput.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class BulkUpdateResponse {
+
+    /**
+     * The number of users selected by the request.
+     */
+    private int requested;
+
+    /**
+     * The number of rows changed in the database.
+     */
+    private int affected;
+
+    /**
+     * The number of chunked statements issued.
+     */
+    private int chunks;
+
+    /**
+     * The time spent applying the change, normalized to milliseconds per 10,000 users.
+     */
+    private double millisPer10kUsers;
+}
@@ -0,0 +1,42 @@
+package com.vrvsecurity.rbac.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for updating the status of many users at once.
+ * <p>
+ * Users are selected either by an explicit list of emails or by a filter on their current status
+ * and registration date (e.g., all 'pending' users registered before a given date).
+ * </p>
+ */
+@Getter // Lombok annotation to generate getter methods for all fields.
+@Setter // Lombok annotation to generate setter methods for all fields.
+public class BulkUserStatusRequest {
+
+    /**
+     * The email addresses of the users whose status is to be updated.
+     * When present, the filter fields are ignored.
+     */
+    private List<String> emails;
+
+    /**
+     * Filter on the users' current status (e.g., "pending").
+     * Used together with {@link #registeredBefore} when no emails are given.
+     */
+    private String currentStatus;
+
+    /**
+     * Filter on the users' registration date; only users registered before this point are updated.
+     * Users without a registration date (created before it was recorded) never match.
+     */
+    private LocalDateTime registeredBefore;
+
+    /**
+     * The new status to be assigned to the selected users (e.g., "active").
+     */
+    private String status;
+}
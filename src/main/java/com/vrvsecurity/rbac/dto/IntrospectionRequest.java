@@ -0,0 +1,22 @@
+package com.vrvsecurity.rbac.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for introspecting a batch of tokens.
+ * <p>
+ * This class holds the tokens a downstream service wants checked, without the "Bearer " prefix.
+ * </p>
+ */
+@Getter // Lombok annotation to generate getter methods for all fields.
+@Setter // Lombok annotation to generate setter methods for all fields.
+public class IntrospectionRequest {
+
+    /**
+     * The tokens to introspect.
+     */
+    private List<String> tokens;
+}
@@ -0,0 +1,22 @@
+package com.vrvsecurity.rbac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) for the result of introspecting a batch of tokens.
+ * The results are in the order of the requested tokens.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class IntrospectionResponse {
+
+    /**
+     * One result per requested token.
+     */
+    private List<TokenIntrospection> results;
+}
@@ -0,0 +1,41 @@
+package com.vrvsecurity.rbac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO (Data Transfer Object) for reporting a written principal snapshot.
+ * This class holds where the snapshot was written, how many users and roles it contains,
+ * its size on disk and how long it took to write.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class SnapshotResponse {
+
+    /**
+     * The path of the snapshot file.
+     */
+    private String path;
+
+    /**
+     * The number of users in the snapshot.
+     */
+    private int users;
+
+    /**
+     * The number of roles in the snapshot's catalog.
+     */
+    private int roles;
+
+    /**
+     * The size of the snapshot file in bytes.
+     */
+    private long bytes;
+
+    /**
+     * The time spent writing the snapshot, in milliseconds.
+     */
+    private long millis;
+}
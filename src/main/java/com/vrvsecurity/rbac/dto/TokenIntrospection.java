@@ -0,0 +1,45 @@
+package com.vrvsecurity.rbac.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) describing one introspected token.
+ * An active token carries its subject, the user's current roles and its expiry; an inactive one only the reason
+ * it was refused. Absent fields are left out of the response.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+
+    /**
+     * Whether the token would be accepted by this application.
+     */
+    private boolean active;
+
+    /**
+     * The email address of the user the token was issued to.
+     */
+    private String subject;
+
+    /**
+     * The user's current roles (e.g., "ROLE_USER"), which may differ from those at issue time.
+     */
+    private List<String> roles;
+
+    /**
+     * When the token expires, in seconds since the epoch.
+     */
+    private Long exp;
+
+    /**
+     * Why an inactive token was refused (e.g., "expired", "bad-signature", "pending").
+     */
+    private String reason;
+}
@@ -0,0 +1,32 @@
+package com.vrvsecurity.rbac.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) describing the authenticated user.
+ * It is built from the principal on the security context, so returning it needs no database access.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class UserProfileResponse {
+
+    /**
+     * The email address of the user.
+     */
+    private String email;
+
+    /**
+     * The label of the user's account status (e.g., "active").
+     */
+    private String status;
+
+    /**
+     * The names of the roles granted to the user (e.g., "ROLE_USER").
+     */
+    private List<String> roles;
+}
@@ -0,0 +1,100 @@
+package com.vrvsecurity.rbac.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Enumeration of the account states a {@link User} can be in.
+ * <p>
+ * Each state is stored as a small integer code (see {@link AccountStatusConverter}) and exposed
+ * through the API by its lower-case label (e.g., "active", "pending").
+ * </p>
+ */
+public enum AccountStatus {
+
+    /**
+     * The account may use the application.
+     */
+    ACTIVE(1, "active"),
+
+    /**
+     * The account is waiting for admin review (e.g., admin and moderator sign-ups).
+     */
+    PENDING(2, "pending"),
+
+    /**
+     * The account has been deactivated.
+     */
+    INACTIVE(3, "inactive"),
+
+    /**
+     * The account was rejected during review.
+     */
+    DENIED(4, "denied");
+
+    private static final AccountStatus[] BY_CODE = new AccountStatus[5];
+
+    static {
+        for (AccountStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final byte code;
+    private final String label;
+
+    AccountStatus(int code, String label) {
+        this.code = (byte) code;
+        this.label = label;
+    }
+
+    /**
+     * Returns the code stored in the database for this status.
+     *
+     * @return The small integer code.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the label used for this status in requests and responses.
+     *
+     * @return The lower-case label (e.g., "pending").
+     */
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Resolves a status from its database code.
+     *
+     * @param code The stored code.
+     * @return The matching status.
+     * @throws IllegalArgumentException If the code is unknown.
+     */
+    public static AccountStatus fromCode(byte code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown status code " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Resolves a status from its label, ignoring case.
+     *
+     * @param label The label as sent by a client (e.g., "Pending").
+     * @return The matching status.
+     * @throws IllegalArgumentException If the label is unknown.
+     */
+    @JsonCreator
+    public static AccountStatus fromLabel(String label) {
+        for (AccountStatus status : values()) {
+            if (status.label.equalsIgnoreCase(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status " + label);
+    }
+}
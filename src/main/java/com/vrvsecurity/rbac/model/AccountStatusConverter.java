@@ -0,0 +1,25 @@
+package com.vrvsecurity.rbac.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * JPA converter storing an {@link AccountStatus} as its single-byte code.
+ * <p>
+ * Explicit codes are used instead of ordinals so reordering the enum constants can never
+ * change the meaning of stored rows.
+ * </p>
+ */
+@Converter(autoApply = true)
+public class AccountStatusConverter implements AttributeConverter<AccountStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(AccountStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public AccountStatus convertToEntityAttribute(Byte code) {
+        return code == null ? null : AccountStatus.fromCode(code);
+    }
+}
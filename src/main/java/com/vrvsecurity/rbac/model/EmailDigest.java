@@ -0,0 +1,54 @@
+package com.vrvsecurity.rbac.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Utility class for normalizing email addresses and computing their fixed-width lookup digest.
+ * <p>
+ * Emails are stored trimmed and lower-cased so that mixed-case input resolves to the same account.
+ * Users are looked up by the SHA-256 digest of the normalized email, which keeps the unique index
+ * at 32 bytes per entry regardless of how long the email is. The digest matches MySQL's
+ * {@code UNHEX(SHA2(email, 256))}, which is used to backfill existing rows.
+ * </p>
+ */
+public final class EmailDigest {
+
+    /**
+     * Length of a digest in bytes.
+     */
+    public static final int LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private EmailDigest() {
+    }
+
+    /**
+     * Normalizes an email address by trimming surrounding whitespace and lower-casing it.
+     *
+     * @param email The email address as entered.
+     * @return The normalized email, or {@code null} if the input is null.
+     */
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Computes the digest of an already normalized email address.
+     *
+     * @param normalizedEmail The email address returned by {@link #normalize(String)}.
+     * @return The 32-byte SHA-256 digest of the email's UTF-8 bytes.
+     */
+    public static byte[] of(String normalizedEmail) {
+        return SHA_256.get().digest(normalizedEmail.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.LocalDateTime;
 import java.util.Set;
 
 /**
@@ -15,6 +17,12 @@ import java.util.Set;
  * </p>
  */
 @Entity
+@Table(name = "user",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_email_digest", columnNames = "email_digest"),
+        indexes = {
+                @Index(name = "idx_user_status_id", columnList = "status, user_id"), // Keyset listing by status
+                @Index(name = "idx_user_status_registered", columnList = "status, registered_at") // Pending backlog filters
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -42,12 +50,19 @@ public class User {
     private int cellNumber;
 
     /**
-     * Email address of the user.
-     * Must be unique and cannot be null.
+     * Email address of the user, stored trimmed and lower-cased.
+     * Cannot be null; uniqueness is enforced through {@link #emailDigest}.
      */
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
+    /**
+     * SHA-256 digest of the normalized email, used as the fixed-width lookup key.
+     * Must be unique and cannot be null. Maintained automatically from {@link #email}.
+     */
+    @Column(name = "email_digest", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] emailDigest;
+
     /**
      * Encrypted password of the user.
      * Cannot be null.
@@ -56,23 +71,42 @@ public class User {
     private String password;
 
     /**
-     * Status of the user (e.g., active, inactive).
-     * This field is optional and has no constraints.
+     * Status of the user (e.g., active, pending).
+     * Stored as a single-byte code through {@link AccountStatusConverter}.
+     */
+    @Column(columnDefinition = "TINYINT")
+    private AccountStatus status;
+
+    /**
+     * Date and time at which the user registered.
+     * Used by administrative filters such as bulk approval of pending accounts.
      */
-    private String status;
+    private LocalDateTime registeredAt;
 
     /**
      * Roles assigned to the user.
      * <p>
      * Defined as a many-to-many relationship with the {@link Role} entity.
-     * Roles are eagerly fetched whenever the user is loaded.
+     * Roles are eagerly fetched whenever the user is loaded. Lookups by email fetch them in the same statement;
+     * when a list of users is loaded, the roles of up to 100 users are fetched by each further statement.
      * </p>
      */
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "user_role", // Name of the join table
             joinColumns = @JoinColumn(name = "user_id"), // Foreign key referencing user_id in this entity
             inverseJoinColumns = @JoinColumn(name = "role_id") // Foreign key referencing role_id in the Role entity
     )
     private Set<Role> roles;
+
+    /**
+     * Normalizes the email and recomputes its digest before the user is inserted or updated.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        email = EmailDigest.normalize(email);
+        emailDigest = EmailDigest.of(email);
+    }
 }
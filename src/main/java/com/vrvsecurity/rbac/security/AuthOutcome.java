@@ -0,0 +1,112 @@
+package com.vrvsecurity.rbac.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of an authentication stage, published as the {@code outcome} tag of the {@code rbac.auth.*} timers.
+ */
+public enum AuthOutcome {
+
+    OK("ok"),
+    CACHED("cached"),
+    EXPIRED("expired"),
+    BAD_SIGNATURE("bad-signature"),
+    MALFORMED("malformed"),
+    MISMATCH("mismatch"),
+    PENDING("pending"),
+    DISABLED("disabled"),
+    NOT_FOUND("not-found"),
+    UNAVAILABLE("unavailable"),
+    ERROR("error");
+
+    private final String tag;
+
+    AuthOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Returns the value of the {@code outcome} tag.
+     *
+     * @return The tag value.
+     */
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Classifies the failure of an authentication stage.
+     *
+     * @param failure The exception thrown by the stage.
+     * @return The matching outcome, or {@link #ERROR} for unexpected failures.
+     */
+    public static AuthOutcome of(Throwable failure) {
+        if (failure instanceof ExpiredJwtException) {
+            return EXPIRED;
+        }
+        if (failure instanceof SignatureException) {
+            return BAD_SIGNATURE;
+        }
+        if (failure instanceof JwtException || failure instanceof IllegalArgumentException) {
+            return MALFORMED;
+        }
+        if (failure instanceof UsernameNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (failure instanceof PrincipalUnavailableException) {
+            return UNAVAILABLE;
+        }
+        return ERROR;
+    }
+
+    /**
+     * Stage timers registered up front for the outcomes a stage can have, so recording allocates nothing.
+     */
+    public static final class Timers {
+
+        private final Map<AuthOutcome, Timer> timers = new EnumMap<>(AuthOutcome.class);
+
+        /**
+         * Registers one timer per outcome, plus {@link #ERROR}.
+         *
+         * @param meterRegistry The registry the timers are published to.
+         * @param name          The timer name.
+         * @param description   The timer description.
+         * @param outcomes      The outcomes the stage can have.
+         */
+        public Timers(MeterRegistry meterRegistry, String name, String description, AuthOutcome... outcomes) {
+            for (AuthOutcome outcome : outcomes) {
+                timers.put(outcome, register(meterRegistry, name, description, outcome));
+            }
+            timers.computeIfAbsent(ERROR, error -> register(meterRegistry, name, description, error));
+        }
+
+        /**
+         * Records a stage that started at the given time.
+         *
+         * @param outcome      The outcome of the stage.
+         * @param startedNanos The {@link System#nanoTime()} at which the stage started.
+         */
+        public void record(AuthOutcome outcome, long startedNanos) {
+            Timer timer = timers.get(outcome);
+            (timer == null ? timers.get(ERROR) : timer).record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private static Timer register(MeterRegistry meterRegistry, String name, String description,
+                                      AuthOutcome outcome) {
+            return Timer.builder(name)
+                    .description(description)
+                    .tag("outcome", outcome.tag())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.vrvsecurity.rbac.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Propagates principal evictions to every node through a change log table.
+ * <p>
+ * Services record the emails of changed users with {@link #recordUserChanges(Collection)} inside the
+ * transaction that changes them, so a change and its log entry commit together. Every node tails the
+ * {@code cache_change_log} table by sequence id and evicts the logged emails from its {@link PrincipalCache}.
+ * An idle node re-polls every {@code rbac.cache.change-log.poll-interval-ms}, while a node that reads a full
+ * batch keeps reading until it has caught up.
+ * </p>
+ * <p>
+ * Sequence ids are allocated at insert time but become visible at commit, so a slower transaction can
+ * commit an id lower than one already read. Skipped ids are therefore re-checked until
+ * {@code rbac.cache.change-log.gap-timeout-ms} has passed. If the log cannot be read for longer than
+ * {@code rbac.cache.change-log.max-lag-ms}, the whole cache is expired, so no node serves a stale decision
+ * for longer than that bound without flagging it as degraded. Without a database (the {@code inmemory} profile) changes are only evicted locally.
+ * </p>
+ */
+@Component
+public class CacheChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheChangeLog.class);
+
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private final PrincipalCache principalCache;
+    private final JdbcTemplate jdbc;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final long maxLagMillis;
+    private final long retentionMillis;
+    private final Counter evictions;
+    private final ReentrantLock pollLock = new ReentrantLock(); // Not a monitor: polling blocks on JDBC
+
+    private final Map<Long, Long> gaps = new LinkedHashMap<>(); // Skipped sequence id -> time first skipped
+    private long lastSeq = -1; // Highest sequence id read, -1 until the starting position is known
+    private volatile long caughtUpAt = System.currentTimeMillis();
+
+    /**
+     * Constructs the change log.
+     *
+     * @param principalCache   The cache to evict changed users from.
+     * @param jdbc             The primary database, absent when running without one.
+     * @param meterRegistry    The registry the lag and eviction metrics are published to.
+     * @param enabled          Whether changes are logged and tailed.
+     * @param batchSize        The maximum number of log entries read by one query.
+     * @param gapTimeoutMillis How long a skipped sequence id is waited for.
+     * @param maxLagMillis     How long the log may be unreadable before the whole cache is expired.
+     * @param retentionHours   How long log entries are kept.
+     */
+    public CacheChangeLog(PrincipalCache principalCache, ObjectProvider<JdbcTemplate> jdbc, MeterRegistry meterRegistry,
+                          @Value("${rbac.cache.change-log.enabled:true}") boolean enabled,
+                          @Value("${rbac.cache.change-log.batch-size:1000}") int batchSize,
+                          @Value("${rbac.cache.change-log.gap-timeout-ms:10000}") long gapTimeoutMillis,
+                          @Value("${rbac.cache.change-log.max-lag-ms:30000}") long maxLagMillis,
+                          @Value("${rbac.cache.change-log.retention-hours:24}") long retentionHours) {
+        this.principalCache = principalCache;
+        this.jdbc = enabled ? jdbc.getIfAvailable() : null;
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+        this.evictions = Counter.builder("rbac.cache.change.log.evictions")
+                .description("Principals evicted because of changes read from the change log")
+                .register(meterRegistry);
+        Gauge.builder("rbac.cache.change.log.lag", this, CacheChangeLog::getLagMillis)
+                .description("Time since this node last read the change log up to its end")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that the given users changed and evicts them from this node's cache.
+     * <p>
+     * Must be called inside the transaction applying the change; the entries are written with one batched
+     * statement and become visible to other nodes when that transaction commits.
+     * </p>
+     *
+     * @param emails The normalized emails of the changed users.
+     */
+    public void recordUserChanges(Collection<String> emails) {
+        if (jdbc != null && !emails.isEmpty()) {
+            long now = System.currentTimeMillis();
+            List<Object[]> rows = new ArrayList<>(emails.size());
+            for (String email : emails) {
+                rows.add(new Object[]{email, now});
+            }
+            jdbc.batchUpdate("INSERT INTO cache_change_log (email, changed_at) VALUES (?, ?)", rows);
+        }
+        principalCache.evictAll(emails);
+    }
+
+    /**
+     * Returns how long ago this node last read the change log up to its end.
+     *
+     * @return The lag in milliseconds, or 0 when the change log is disabled.
+     */
+    public long getLagMillis() {
+        return jdbc == null ? 0 : Math.max(0, System.currentTimeMillis() - caughtUpAt);
+    }
+
+    /**
+     * Reads new log entries and evicts the changed users, until caught up with the end of the log.
+     */
+    @Scheduled(fixedDelayString = "${rbac.cache.change-log.poll-interval-ms:500}")
+    public void poll() {
+        if (jdbc == null) {
+            return;
+        }
+        pollLock.lock();
+        try {
+            if (lastSeq < 0) {
+                lastSeq = startingSeq();
+            }
+            recheckGaps();
+            List<Map.Entry<Long, String>> entries;
+            do {
+                entries = jdbc.query("SELECT seq, email FROM cache_change_log WHERE seq > ? ORDER BY seq LIMIT ?",
+                        (rs, row) -> Map.entry(rs.getLong(1), rs.getString(2)), lastSeq, batchSize);
+                for (Map.Entry<Long, String> entry : entries) {
+                    trackGaps(entry.getKey());
+                    lastSeq = entry.getKey();
+                }
+                evict(entries);
+            } while (entries.size() == batchSize);
+            caughtUpAt = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the cache change log: {}", e.getMessage());
+            if (getLagMillis() > maxLagMillis) {
+                log.warn("Cache change log unreadable for {} ms, expiring the principal cache", getLagMillis());
+                principalCache.expireAll();
+            }
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes log entries older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${rbac.cache.change-log.purge-interval-ms:3600000}")
+    public void purge() {
+        if (jdbc == null) {
+            return;
+        }
+        try {
+            int deleted = jdbc.update("DELETE FROM cache_change_log WHERE changed_at < ?",
+                    System.currentTimeMillis() - retentionMillis);
+            log.debug("Purged {} cache change log entries", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge the cache change log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Finds where tailing starts: at the end of the log, or, when a principal snapshot is installed, at the
+     * first entry that may have been written after the snapshot so its stale entries are evicted too.
+     *
+     * @return The sequence id after which entries are read.
+     */
+    private long startingSeq() {
+        Instant snapshotCreatedAt = principalCache.getSnapshotCreatedAt();
+        if (snapshotCreatedAt != null) {
+            Long first = jdbc.queryForObject("SELECT MIN(seq) FROM cache_change_log WHERE changed_at >= ?",
+                    Long.class, snapshotCreatedAt.toEpochMilli() - gapTimeoutMillis);
+            if (first != null) {
+                return first - 1;
+            }
+        }
+        Long last = jdbc.queryForObject("SELECT MAX(seq) FROM cache_change_log", Long.class);
+        return last == null ? 0 : last;
+    }
+
+    /**
+     * Remembers the ids skipped between the last read id and the given one.
+     *
+     * @param seq The id just read.
+     */
+    private void trackGaps(long seq) {
+        long now = System.currentTimeMillis();
+        for (long missing = lastSeq + 1; missing < seq && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+            gaps.put(missing, now);
+        }
+    }
+
+    /**
+     * Reads entries committed late under previously skipped ids and stops waiting for ids that timed out.
+     */
+    private void recheckGaps() {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - gapTimeoutMillis;
+        gaps.values().removeIf(skippedAt -> skippedAt < expiredBefore);
+        List<Long> skipped = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < skipped.size(); from += batchSize) {
+            List<Long> batch = skipped.subList(from, Math.min(from + batchSize, skipped.size()));
+            String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            List<Map.Entry<Long, String>> late = jdbc.query(
+                    "SELECT seq, email FROM cache_change_log WHERE seq IN (" + placeholders + ")",
+                    (rs, row) -> Map.entry(rs.getLong(1), rs.getString(2)), batch.toArray());
+            late.forEach(entry -> gaps.remove(entry.getKey()));
+            evict(late);
+        }
+    }
+
+    private void evict(List<Map.Entry<Long, String>> entries) {
+        if (!entries.isEmpty()) {
+            principalCache.evictAll(entries.stream().map(Map.Entry::getValue).toList());
+            evictions.increment(entries.size());
+        }
+    }
+}
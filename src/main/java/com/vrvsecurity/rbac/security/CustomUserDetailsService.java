@@ -1,33 +1,81 @@
 package com.vrvsecurity.rbac.security;
 
-import com.vrvsecurity.rbac.Repository.UserRepository;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.config.ReadRouting;
+import com.vrvsecurity.rbac.model.EmailDigest;
 import com.vrvsecurity.rbac.model.User;
+import com.vrvsecurity.rbac.security.jfr.PrincipalLoadEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Custom implementation of the {@link UserDetailsService} interface for Spring Security.
  * <p>
  * This service is used by Spring Security to load user-specific data during authentication.
- * It fetches user details from the database using the {@link UserRepository}.
+ * It fetches user details from the database using the {@link UserStore} and keeps loaded principals
+ * in the {@link PrincipalCache} so repeated requests from the same user skip the database.
+ * </p>
+ * <p>
+ * Database loads go through the {@link PrincipalLoadBreaker}. While it refuses loads, or when a load fails,
+ * the last cached principal is served if it was loaded within {@code rbac.principal-load.max-staleness-ms},
+ * flagged as {@link UserPrincipal#isDegraded() degraded}; otherwise a {@link PrincipalUnavailableException}
+ * is thrown at once rather than waiting on the connection pool.
+ * </p>
+ * <p>
+ * Every load is timed in {@code rbac.auth.principal.load}, tagged with where the principal came from
+ * ({@code source=cache}, {@code database}, {@code stale} or {@code none}) and the outcome ({@code ok},
+ * {@code not-found} or {@code unavailable}). With Flight Recorder on, loads slower than the recording's threshold
+ * are also recorded as {@link PrincipalLoadEvent}s carrying the database duration and the user id.
  * </p>
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserStore userRepository;
+    private final PrincipalCache principalCache;
+    private final PrincipalLoadBreaker loadBreaker;
+    private final long maxStalenessMillis;
+    private final Counter degradedLoads;
+    private final LoadStage cacheLoads;
+    private final LoadStage databaseLoads;
+    private final LoadStage notFoundLoads;
+    private final LoadStage staleLoads;
+    private final LoadStage unavailableLoads;
 
     /**
-     * Constructor to inject the {@link UserRepository}.
+     * Constructor to inject the {@link UserStore}, {@link PrincipalCache} and {@link PrincipalLoadBreaker}.
      *
-     * @param userRepository The repository to access user data.
+     * @param userRepository     The repository to access user data.
+     * @param principalCache     The cache of previously loaded principals.
+     * @param loadBreaker        The circuit breaker guarding database loads.
+     * @param maxStalenessMillis The maximum age of a cached principal served while the database is unavailable.
+     * @param meterRegistry      The registry the load timers and the count of degraded loads are published to.
      */
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserStore userRepository, PrincipalCache principalCache,
+                                    PrincipalLoadBreaker loadBreaker,
+                                    @Value("${rbac.principal-load.max-staleness-ms:900000}") long maxStalenessMillis,
+                                    MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.loadBreaker = loadBreaker;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.degradedLoads = Counter.builder("rbac.principal.load.degraded")
+                .description("Principals served from stale cache entries while the database was unavailable")
+                .register(meterRegistry);
+        this.cacheLoads = LoadStage.register(meterRegistry, "cache", AuthOutcome.OK);
+        this.databaseLoads = LoadStage.register(meterRegistry, "database", AuthOutcome.OK);
+        this.notFoundLoads = LoadStage.register(meterRegistry, "database", AuthOutcome.NOT_FOUND);
+        this.staleLoads = LoadStage.register(meterRegistry, "stale", AuthOutcome.OK);
+        this.unavailableLoads = LoadStage.register(meterRegistry, "none", AuthOutcome.UNAVAILABLE);
     }
 
     /**
@@ -35,18 +83,106 @@ public class CustomUserDetailsService implements UserDetailsService {
      * <p>
      * This method is called during the authentication process to retrieve user data
      * and convert it into a {@link UserDetails} object for Spring Security.
+     * The email is normalized first, so the cache and the digest lookup are case-insensitive.
      * </p>
      *
-     * @param email The email address of the user to be loaded.
+     * @param username The email address of the user to be loaded.
      * @return A {@link UserDetails} object containing user information.
-     * @throws UsernameNotFoundException If no user is found with the given email.
+     * @throws UsernameNotFoundException     If no user is found with the given email.
+     * @throws PrincipalUnavailableException If the database is unavailable and no recent principal is cached.
      */
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Optional<User> user = userRepository.findByEmail(email);
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        PrincipalLoadEvent event = new PrincipalLoadEvent();
+        event.begin();
+        long loadStarted = System.nanoTime();
+        String email = EmailDigest.normalize(username);
+        UserPrincipal cached = principalCache.get(email);
+        if (cached != null) {
+            event.cacheHit = true;
+            cacheLoads.finish(loadStarted, event, cached);
+            return cached;
+        }
+
+        long ticket = loadBreaker.tryAcquire();
+        if (ticket == PrincipalLoadBreaker.REFUSED) {
+            return degraded(email, null, loadStarted, event);
+        }
+        Optional<User> user;
+        long started = System.nanoTime();
+        try {
+            if (ReadRouting.isReplicaEnabled() && principalCache.isRecentlyChanged(email)) {
+                // The change that evicted the user may not have reached the replica yet
+                user = ReadRouting.onPrimary(() -> userRepository.findByEmail(email));
+            } else {
+                user = userRepository.findByEmail(email);
+                if (user.isEmpty() && ReadRouting.isReplicaEnabled()) {
+                    // The user may have just registered and not reached the replica yet
+                    user = ReadRouting.onPrimary(() -> userRepository.findByEmail(email));
+                }
+            }
+        } catch (RuntimeException e) {
+            event.databaseDuration = System.nanoTime() - started;
+            loadBreaker.release(ticket, false, event.databaseDuration);
+            return degraded(email, e, loadStarted, event);
+        }
+        event.databaseDuration = System.nanoTime() - started;
+        loadBreaker.release(ticket, true, event.databaseDuration);
+
         if (user.isEmpty()) {
+            notFoundLoads.finish(loadStarted, event, null);
             throw new UsernameNotFoundException("User not found with '" + email + "' email");
         }
-        return new UserPrincipal(user.get());
+        UserPrincipal principal = new UserPrincipal(user.get());
+        principalCache.put(email, principal);
+        databaseLoads.finish(loadStarted, event, principal);
+        return principal;
+    }
+
+    /**
+     * Serves the last cached principal while the database cannot be used.
+     *
+     * @param email The normalized email.
+     * @param cause The failure of the load, or {@code null} if the load was refused by the breaker.
+     * @param loadStarted The {@link System#nanoTime()} at which the load started.
+     * @param event The Flight Recorder event begun with the load.
+     * @return The stale principal flagged as degraded.
+     * @throws PrincipalUnavailableException If no principal was cached recently enough.
+     */
+    private UserPrincipal degraded(String email, RuntimeException cause, long loadStarted, PrincipalLoadEvent event) {
+        UserPrincipal stale = principalCache.getStale(email, maxStalenessMillis);
+        if (stale == null) {
+            unavailableLoads.finish(loadStarted, event, null);
+            throw new PrincipalUnavailableException("User details are temporarily unavailable", cause);
+        }
+        degradedLoads.increment();
+        staleLoads.finish(loadStarted, event, stale);
+        return stale.asDegraded();
+    }
+
+    /**
+     * The timer of one source and outcome of a load, with the tags its Flight Recorder event is given.
+     */
+    private record LoadStage(Timer timer, String source, AuthOutcome outcome) {
+
+        static LoadStage register(MeterRegistry meterRegistry, String source, AuthOutcome outcome) {
+            Timer timer = Timer.builder("rbac.auth.principal.load")
+                    .description("Time spent loading principals during authentication")
+                    .tag("source", source)
+                    .tag("outcome", outcome.tag())
+                    .register(meterRegistry);
+            return new LoadStage(timer, source, outcome);
+        }
+
+        void finish(long started, PrincipalLoadEvent event, UserPrincipal principal) {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.source = source;
+                event.outcome = outcome.tag();
+                event.userId = principal != null ? principal.getUserId() : 0;
+                event.commit();
+            }
+        }
     }
 }
@@ -1,21 +1,24 @@
 package com.vrvsecurity.rbac.security;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.security.jfr.AuthenticationEvent;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -24,23 +27,60 @@ import java.util.Map;
  * This filter intercepts incoming requests to validate JWT tokens, authenticate users, and populate the security context.
  * It ensures that only requests with valid tokens proceed further in the filter chain.
  * </p>
+ * <p>
+ * The filter sits on every authenticated request, so its common path is kept free of garbage: Authorization
+ * headers already verified are answered from the {@link VerifiedTokenCache} without parsing the token or
+ * building a new authentication, constant error bodies are serialized once, and {@code /public/**} and
+ * {@code /auth/**}, which need no authentication, are skipped up front.
+ * </p>
+ * <p>
+ * Each authentication is timed in {@code rbac.auth.filter}, tagged with its outcome: {@code cached}, {@code ok},
+ * {@code pending}, {@code not-found}, {@code unavailable}, {@code mismatch} (the token belongs to another user) or
+ * the token failure ({@code expired}, {@code bad-signature}, {@code malformed}). The timers are registered up front,
+ * so recording adds no garbage to the common path. With Flight Recorder on, authentications that miss the cache
+ * and are slower than the recording's threshold are also recorded as {@link AuthenticationEvent}s carrying the
+ * token verification and principal load durations, the user id and the decision. Cache hits take microseconds,
+ * far below any useful threshold, so no event is allocated for them.
+ * </p>
  */
-@Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(); // Thread-safe, shared by all error paths
+    private static final byte[] PENDING_BODY = errorBody("Account is pending approval. Please contact admin.");
+
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AuthOutcome.Timers filterTimers;
 
     /**
      * Constructor for injecting dependencies.
      *
-     * @param jwtUtil           Utility class for handling JWT operations like extracting and validating tokens.
+     * @param jwtUtil            Utility class for handling JWT operations like extracting and validating tokens.
      * @param userDetailsService Service to load user details based on username.
+     * @param verifiedTokenCache Cache of already verified Authorization headers.
+     * @param meterRegistry      Registry the authentication timers are published to.
      */
-    @Autowired
-    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                         VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.filterTimers = new AuthOutcome.Timers(meterRegistry, "rbac.auth.filter",
+                "Time spent authenticating Bearer tokens in the JWT filter", AuthOutcome.values());
+    }
+
+    /**
+     * Skips the endpoints that are open to everyone, where there is nothing to authenticate.
+     *
+     * @param request The HTTP request being processed.
+     * @return {@code true} for {@code /public/**} and {@code /auth/**}.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/public/") || path.startsWith("/auth/");
     }
 
     /**
@@ -58,64 +98,104 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String authHeader = request.getHeader("Authorization");
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
 
-        // Proceed if the Authorization header is missing or does not contain a Bearer token
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        // Proceed if the Authorization header is missing, does not contain a Bearer token, or the request is
+        // already authenticated
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String jwt = authHeader.substring(7);
-        String username = null;
-
-        try {
-            // Extract the username from the JWT
-            username = jwtUtil.extractUsername(jwt);
-        } catch (Exception e) {
-            handleAuthenticationException(response, e);
-            return;
-        }
-
-        // Validate the token and set up the security context
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // A header verified before needs neither parsing nor a principal lookup
+        long started = System.nanoTime();
+        Authentication authentication = verifiedTokenCache.get(authHeader);
+        if (authentication != null) {
+            filterTimers.record(AuthOutcome.CACHED, started);
+        } else {
+            AuthenticationEvent event = new AuthenticationEvent();
+            event.begin();
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    // Check if the user's account status is 'pending'
-                    if (userDetails instanceof UserPrincipal) {
-                        UserPrincipal customUserDetails = (UserPrincipal) userDetails;
-                        if ("pending".equalsIgnoreCase(customUserDetails.getStatus())) {
-                            // Reject requests from users with 'pending' status
-                            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                            response.setContentType("application/json");
-                            Map<String, String> error = new HashMap<>();
-                            error.put("error", "Account is pending approval. Please contact admin.");
-                            String jsonError = new ObjectMapper().writeValueAsString(error);
-                            response.getWriter().write(jsonError);
-                            return;
-                        }
-                    }
-
-                    // Create an authentication token and populate the security context
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                authentication = authenticate(authHeader, event);
+                finish(event, request, authentication != null ? AuthOutcome.OK : AuthOutcome.MISMATCH, started,
+                        authentication);
+            } catch (PendingAccountException e) {
+                // Reject requests from users with 'pending' status
+                finish(event, request, AuthOutcome.PENDING, started, null);
+                writeError(response, HttpServletResponse.SC_FORBIDDEN, PENDING_BODY);
+                return;
+            } catch (PrincipalUnavailableException e) {
+                // The database is down and no recent principal is cached: fail fast with a retryable status
+                finish(event, request, AuthOutcome.UNAVAILABLE, started, null);
+                writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, errorBody(e.getMessage()));
+                return;
             } catch (Exception e) {
+                finish(event, request, AuthOutcome.of(e), started, null);
                 handleAuthenticationException(response, e);
                 return;
             }
         }
+        if (authentication != null) {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Verifies a token not seen before, loads its principal and remembers the result.
+     *
+     * @param authHeader The full Authorization header value.
+     * @param event      The Flight Recorder event the stage durations and user id are recorded in.
+     * @return The authentication, or {@code null} if the token does not belong to the loaded user.
+     * @throws PendingAccountException If the user's account is pending approval.
+     */
+    private Authentication authenticate(String authHeader, AuthenticationEvent event) {
+        long started = System.nanoTime();
+        Claims claims = jwtUtil.parseClaims(authHeader.substring(BEARER_PREFIX.length()));
+        long verified = System.nanoTime();
+        event.tokenVerifyDuration = verified - started;
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        event.principalLoadDuration = System.nanoTime() - verified;
+        if (!jwtUtil.validateClaims(claims, userDetails)) {
+            return null;
+        }
+        if (userDetails instanceof UserPrincipal principal) {
+            event.userId = principal.getUserId();
+            if (principal.getStatus() == AccountStatus.PENDING) {
+                throw new PendingAccountException();
+            }
+            return verifiedTokenCache.put(authHeader, principal.getUsername(), principal,
+                    claims.getExpiration().getTime());
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    /**
+     * Records the outcome of an authentication in its timer and, if Flight Recorder wants it, its event.
+     *
+     * @param event          The event begun with the authentication.
+     * @param request        The HTTP request being processed.
+     * @param outcome        The outcome of the authentication.
+     * @param started        The {@link System#nanoTime()} at which the authentication started.
+     * @param authentication The resulting authentication, or {@code null} if there is none.
+     */
+    private void finish(AuthenticationEvent event, HttpServletRequest request, AuthOutcome outcome, long started,
+                        Authentication authentication) {
+        filterTimers.record(outcome, started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = request.getServletPath();
+            event.decision = outcome.tag();
+            if (event.userId == 0 && authentication != null
+                    && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                event.userId = principal.getUserId();
+            }
+            event.commit();
+        }
+    }
+
     /**
      * Handles authentication exceptions by sending an error response.
      *
@@ -124,11 +204,31 @@ public class JwtAuthFilter extends OncePerRequestFilter {
      * @throws IOException If an error occurs during response writing.
      */
     private void handleAuthenticationException(HttpServletResponse response, Exception e) throws IOException {
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        writeError(response, HttpServletResponse.SC_UNAUTHORIZED, errorBody("Authentication failed: " + e.getMessage()));
+    }
+
+    private static void writeError(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
         response.setContentType("application/json");
-        Map<String, String> error = new HashMap<>();
-        error.put("error", "Authentication failed: " + e.getMessage());
-        String jsonError = new ObjectMapper().writeValueAsString(error);
-        response.getWriter().write(jsonError);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static byte[] errorBody(String message) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(Map.of("error", String.valueOf(message)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Signals that the token is valid but the user's account still awaits approval.
+     */
+    private static final class PendingAccountException extends RuntimeException {
+
+        private PendingAccountException() {
+            super(null, null, false, false); // Control flow only: no message or stack trace
+        }
     }
 }
@@ -1,10 +1,13 @@
 package com.vrvsecurity.rbac.security;
 
+import com.vrvsecurity.rbac.security.jfr.TokenVerificationEvent;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,7 +24,13 @@ import java.util.stream.Collectors;
  * Utility class for handling JWT operations such as token creation, validation, and claims extraction.
  * <p>
  * This class provides methods to generate JWTs, validate them, and extract claims like username and expiration.
- * It uses the `io.jsonwebtoken` library for JWT operations.
+ * It uses the `io.jsonwebtoken` library for JWT operations. The signing key and the parser are built once and
+ * shared, since both are immutable.
+ * </p>
+ * <p>
+ * Every parse is timed in {@code rbac.auth.token.verify}, tagged with its outcome ({@code ok}, {@code expired},
+ * {@code bad-signature} or {@code malformed}), and recorded as a {@link TokenVerificationEvent} when Flight
+ * Recorder is on.
  * </p>
  */
 @Component
@@ -33,14 +42,49 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration; // Token expiration duration in seconds
 
+    private volatile Key signingKey; // Derived from the secret on first use
+    private volatile JwtParser parser; // Thread-safe, built on first use
+
+    private final AuthOutcome.Timers verifyTimers;
+
+    /**
+     * Constructs the utility and registers its metrics.
+     *
+     * @param meterRegistry The registry the token verification timers are published to.
+     */
+    public JwtUtil(MeterRegistry meterRegistry) {
+        this.verifyTimers = new AuthOutcome.Timers(meterRegistry, "rbac.auth.token.verify",
+                "Time spent parsing and verifying JWTs", AuthOutcome.OK, AuthOutcome.EXPIRED,
+                AuthOutcome.BAD_SIGNATURE, AuthOutcome.MALFORMED);
+    }
+
     /**
      * Retrieves the signing key for JWT operations.
      *
      * @return The signing key derived from the secret.
      */
     private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        Key key = signingKey;
+        if (key == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secret);
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Retrieves the parser verifying tokens signed with the signing key.
+     *
+     * @return The shared parser.
+     */
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
     }
 
     /**
@@ -115,11 +159,51 @@ public class JwtUtil {
      * @return A {@link Claims} object containing all claims in the token.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            Claims claims = getParser()
+                    .parseClaimsJws(token)
+                    .getBody();
+            verified(event, AuthOutcome.OK, started);
+            return claims;
+        } catch (RuntimeException e) {
+            verified(event, AuthOutcome.of(e), started);
+            throw e;
+        }
+    }
+
+    private void verified(TokenVerificationEvent event, AuthOutcome outcome, long started) {
+        verifyTimers.record(outcome, started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome.tag();
+            event.commit();
+        }
+    }
+
+    /**
+     * Verifies the given JWT and returns its claims, parsing it only once.
+     *
+     * @param token The JWT to verify.
+     * @return The claims of the token.
+     * @throws io.jsonwebtoken.JwtException If the token is malformed, badly signed or expired.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    /**
+     * Validates already verified claims against the user's details.
+     *
+     * @param claims      The claims returned by {@link #parseClaims(String)}.
+     * @param userDetails The details of the user to validate against.
+     * @return True if the token belongs to the user and has not expired, false otherwise.
+     */
+    public boolean validateClaims(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && claims.getExpiration().getTime() > System.currentTimeMillis();
     }
 
     /**
@@ -0,0 +1,111 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.model.EmailDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles login attempts per account and per client address before any password is checked.
+ * <p>
+ * Every login verifies a cost-12 BCrypt hash, so unthrottled guessing is a cheap way to exhaust CPU.
+ * Attempts are counted in sliding windows per normalized email and per client IP; a login over either limit
+ * is refused without touching the database or the password encoder. A successful login clears the account's
+ * count, so users who mistype their password a few times are not locked out afterwards. Refused attempts are
+ * not counted, so a throttled account becomes available again once its window slides past earlier attempts.
+ * Each limit is checked and counted atomically, so a parallel burst for one account or address cannot get more
+ * attempts through than its limit. A refused client is told to retry after the window of the limit that refused
+ * it, so a throttled address is not sent away for as long as a throttled account.
+ * </p>
+ */
+@Component
+public class LoginThrottle {
+
+    /**
+     * Returned by {@link #tryAcquire(String, String)} when the attempt may proceed.
+     */
+    public static final long ADMITTED = 0;
+
+    private final boolean enabled;
+    private final SlidingWindowLimiter byEmail;
+    private final SlidingWindowLimiter byAddress;
+    private final long emailRetryAfterSeconds;
+    private final long addressRetryAfterSeconds;
+    private final Counter throttledByEmail;
+    private final Counter throttledByAddress;
+
+    /**
+     * Constructs the throttle with the configured limits.
+     *
+     * @param enabled             Whether login attempts are throttled.
+     * @param emailMaxAttempts    The attempts allowed per email within its window.
+     * @param emailWindowSeconds  The length of the per-email window.
+     * @param addressMaxAttempts  The attempts allowed per client IP within its window.
+     * @param addressWindowSeconds The length of the per-IP window.
+     * @param maxKeys             The maximum number of emails, and of addresses, tracked at once.
+     * @param stripes             The number of independently locked stripes per limiter.
+     * @param meterRegistry       The registry the throttled counts are published to.
+     */
+    public LoginThrottle(@Value("${rbac.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${rbac.login-throttle.email.max-attempts:10}") int emailMaxAttempts,
+                         @Value("${rbac.login-throttle.email.window-seconds:300}") long emailWindowSeconds,
+                         @Value("${rbac.login-throttle.ip.max-attempts:100}") int addressMaxAttempts,
+                         @Value("${rbac.login-throttle.ip.window-seconds:60}") long addressWindowSeconds,
+                         @Value("${rbac.login-throttle.max-keys:1000000}") int maxKeys,
+                         @Value("${rbac.login-throttle.stripes:64}") int stripes,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.byEmail = new SlidingWindowLimiter(emailMaxAttempts, emailWindowSeconds, maxKeys, stripes);
+        this.byAddress = new SlidingWindowLimiter(addressMaxAttempts, addressWindowSeconds, maxKeys, stripes);
+        this.emailRetryAfterSeconds = Math.max(1, emailWindowSeconds); // Never ADMITTED, even for an empty window
+        this.addressRetryAfterSeconds = Math.max(1, addressWindowSeconds);
+        this.throttledByEmail = Counter.builder("rbac.login.throttled")
+                .description("Login attempts refused before any password check")
+                .tag("by", "email")
+                .register(meterRegistry);
+        this.throttledByAddress = Counter.builder("rbac.login.throttled")
+                .description("Login attempts refused before any password check")
+                .tag("by", "ip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a login attempt if neither the account nor the client address is over its limit, and counts it.
+     *
+     * @param email   The email the login is for, in any case.
+     * @param address The client IP address.
+     * @return {@link #ADMITTED} if the attempt may proceed, otherwise how many seconds the client should wait
+     *         before retrying: the window of the limit that refused it.
+     */
+    public long tryAcquire(String email, String address) {
+        if (!enabled) {
+            return ADMITTED;
+        }
+        String account = EmailDigest.normalize(email);
+        if (account != null && !byEmail.tryAcquire(account)) {
+            throttledByEmail.increment();
+            return emailRetryAfterSeconds;
+        }
+        if (address != null && !byAddress.tryAcquire(address)) {
+            if (account != null) {
+                byEmail.release(account); // The attempt is refused, so it does not count against the account
+            }
+            throttledByAddress.increment();
+            return addressRetryAfterSeconds;
+        }
+        return ADMITTED;
+    }
+
+    /**
+     * Clears the attempts counted for an account after a successful login.
+     *
+     * @param email The email that logged in.
+     */
+    public void onSuccess(String email) {
+        String account = EmailDigest.normalize(email);
+        if (enabled && account != null) {
+            byEmail.reset(account);
+        }
+    }
+}
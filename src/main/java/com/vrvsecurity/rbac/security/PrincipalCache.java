@@ -0,0 +1,289 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.config.ReadRouting;
+import com.vrvsecurity.rbac.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of loaded {@link UserPrincipal} instances keyed by email.
+ * <p>
+ * Every authenticated request resolves its principal through {@link CustomUserDetailsService}; this cache
+ * lets repeated requests from the same user skip the database. Entries expire after a configurable
+ * time-to-live and must be evicted whenever a user's status or roles change.
+ * </p>
+ * <p>
+ * A {@link PrincipalSnapshot} can back the cache: misses are then served from the snapshot until it reaches
+ * its maximum age, except for users evicted since it was installed, whose snapshot entries are stale.
+ * </p>
+ * <p>
+ * With read-replica routing, a user evicted because they changed may still be stale on a lagging replica, and
+ * reloading them from there would cache the old row for a whole time-to-live. Evicted users are therefore
+ * remembered for the longest lag the replica is allowed ({@code rbac.datasource.replica.max-lag-ms} plus the
+ * {@code heartbeat-interval-ms} it takes to notice it), and {@link #isRecentlyChanged(String)} tells the loader
+ * to read them from the primary meanwhile.
+ * </p>
+ */
+@Component
+public class PrincipalCache {
+
+    private static final int MAX_RECENT_CHANGES = 100_000;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long primaryReadNanos;
+    private final Map<String, Long> recentChanges = new ConcurrentHashMap<>(); // Email -> read primary until
+    private volatile long allPrimaryReadsUntil = System.nanoTime(); // Set when too many changes to track one by one
+    private final Set<String> evictedSinceSnapshot = ConcurrentHashMap.newKeySet();
+    private volatile PrincipalSnapshot snapshot;
+    private volatile long snapshotExpiresAt;
+    private volatile long expiredBefore = System.nanoTime(); // Entries loaded before this are treated as expired
+
+    /**
+     * Constructs the cache with the configured time-to-live and capacity.
+     *
+     * @param ttlSeconds              How long a loaded principal may be served from the cache.
+     * @param maxEntries              The maximum number of principals kept in memory.
+     * @param replicaMaxLagMillis     The largest replica lag reads are routed to it with, or negative if unchecked.
+     * @param replicaHeartbeatMillis  How often the replica lag is measured.
+     */
+    public PrincipalCache(@Value("${rbac.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${rbac.principal-cache.max-entries:100000}") int maxEntries,
+                          @Value("${rbac.datasource.replica.max-lag-ms:2000}") long replicaMaxLagMillis,
+                          @Value("${rbac.datasource.replica.heartbeat-interval-ms:1000}") long replicaHeartbeatMillis) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.primaryReadNanos =
+                TimeUnit.MILLISECONDS.toNanos(Math.max(0, replicaMaxLagMillis) + replicaHeartbeatMillis);
+    }
+
+    /**
+     * Returns the cached principal for the given email if it has not expired.
+     * <p>
+     * On a miss, the principal is read from the installed snapshot, if any, and cached. Expired entries are
+     * kept until replaced so {@link #getStale(String, long)} can still serve them while the database is down.
+     * </p>
+     *
+     * @param email The email the principal was loaded for.
+     * @return The cached principal, or {@code null} if absent or expired.
+     */
+    public UserPrincipal get(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null || System.nanoTime() - entry.loadedAt > ttlNanos || entry.loadedAt - expiredBefore < 0) {
+            return fromSnapshot(email);
+        }
+        return entry.principal;
+    }
+
+    /**
+     * Returns the last principal loaded for the given email, even if it has expired.
+     * <p>
+     * Used only while principals cannot be loaded from the database. Entries evicted because the user changed
+     * are never returned.
+     * </p>
+     *
+     * @param email          The email the principal was loaded for.
+     * @param maxStaleMillis The maximum time since the principal was loaded.
+     * @return The last loaded principal, or {@code null} if absent or loaded longer ago than allowed.
+     */
+    public UserPrincipal getStale(String email, long maxStaleMillis) {
+        Entry entry = entries.get(email);
+        if (entry == null || System.nanoTime() - entry.loadedAt > TimeUnit.MILLISECONDS.toNanos(maxStaleMillis)) {
+            return null;
+        }
+        return entry.principal;
+    }
+
+    /**
+     * Stores a freshly loaded principal.
+     * <p>
+     * When the cache is full an arbitrary entry, possibly still fresh, is dropped to keep memory bounded.
+     * </p>
+     *
+     * @param email     The email the principal was loaded for.
+     * @param principal The principal to cache.
+     */
+    public void put(String email, UserPrincipal principal) {
+        if (ttlNanos <= 0 || maxEntries <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            Iterator<String> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                entries.remove(keys.next());
+            }
+        }
+        entries.put(email, new Entry(principal, System.nanoTime()));
+    }
+
+    /**
+     * Evicts the principal cached for the given email.
+     *
+     * @param email The email whose principal should be evicted.
+     */
+    public void evict(String email) {
+        entries.remove(email);
+        if (snapshot != null) {
+            evictedSinceSnapshot.add(email);
+        }
+        if (ReadRouting.isReplicaEnabled()) {
+            rememberChange(email);
+        }
+    }
+
+    /**
+     * Evicts the principals cached for all the given emails.
+     *
+     * @param emails The emails whose principals should be evicted.
+     */
+    public void evictAll(Collection<String> emails) {
+        for (String email : emails) {
+            evict(email);
+        }
+    }
+
+    /**
+     * Checks whether the user was evicted recently enough that a lagging replica may still hold their old row.
+     *
+     * @param email The normalized email of the user.
+     * @return {@code true} if the user must be loaded from the primary.
+     */
+    public boolean isRecentlyChanged(String email) {
+        long now = System.nanoTime();
+        if (now - allPrimaryReadsUntil < 0) {
+            return true;
+        }
+        Long until = recentChanges.get(email);
+        if (until == null) {
+            return false;
+        }
+        if (now - until < 0) {
+            return true;
+        }
+        recentChanges.remove(email, until);
+        return false;
+    }
+
+    /**
+     * Removes every cached principal and the installed snapshot.
+     */
+    public void clear() {
+        snapshot = null;
+        evictedSinceSnapshot.clear();
+        entries.clear();
+        recentChanges.clear();
+    }
+
+    /**
+     * Expires every cached principal and drops the installed snapshot, while keeping the entries available to
+     * {@link #getStale(String, long)}.
+     * <p>
+     * Used when changes made on other nodes can no longer be tracked: principals are then reloaded, or served
+     * flagged as degraded if the database cannot be reached either.
+     * </p>
+     */
+    public synchronized void expireAll() {
+        snapshot = null;
+        evictedSinceSnapshot.clear();
+        expiredBefore = System.nanoTime();
+    }
+
+    /**
+     * Installs a snapshot that serves cache misses until it is older than the given age.
+     * <p>
+     * Users changed after the snapshot was written but before it is installed are not known to this cache,
+     * so the snapshot should be recent and {@code maxAge} short enough to bound that staleness.
+     * </p>
+     *
+     * @param snapshot The snapshot to read principals from.
+     * @param maxAge   The age of the snapshot after which it is no longer used.
+     * @return {@code true} if the snapshot was installed, {@code false} if it is already too old.
+     */
+    public synchronized boolean useSnapshot(PrincipalSnapshot snapshot, Duration maxAge) {
+        Duration remaining = Duration.between(Instant.now(), snapshot.createdAt().plus(maxAge));
+        if (remaining.isNegative() || remaining.isZero()) {
+            return false;
+        }
+        evictedSinceSnapshot.clear();
+        snapshotExpiresAt = System.nanoTime() + remaining.toNanos();
+        this.snapshot = snapshot;
+        return true;
+    }
+
+    /**
+     * Returns when the installed snapshot was written.
+     *
+     * @return The creation time of the snapshot, or {@code null} if none is installed.
+     */
+    public Instant getSnapshotCreatedAt() {
+        PrincipalSnapshot current = snapshot;
+        return current == null ? null : current.createdAt();
+    }
+
+    /**
+     * Reads a principal from the installed snapshot and caches it.
+     *
+     * @param email The email of the principal.
+     * @return The principal, or {@code null} if there is no usable snapshot entry.
+     */
+    private UserPrincipal fromSnapshot(String email) {
+        PrincipalSnapshot current = snapshot;
+        if (current == null || evictedSinceSnapshot.contains(email)) {
+            return null;
+        }
+        if (System.nanoTime() - snapshotExpiresAt > 0) {
+            clearSnapshot(current);
+            return null;
+        }
+        User user = current.find(email);
+        if (user == null) {
+            return null;
+        }
+        UserPrincipal principal = new UserPrincipal(user);
+        put(email, principal);
+        return principal;
+    }
+
+    /**
+     * Remembers that a user changed. Once more users changed within the lag window than can be tracked, every
+     * load reads from the primary until the window has passed.
+     *
+     * @param email The email of the changed user.
+     */
+    private void rememberChange(String email) {
+        long until = System.nanoTime() + primaryReadNanos;
+        if (recentChanges.size() >= MAX_RECENT_CHANGES) {
+            long now = System.nanoTime();
+            recentChanges.values().removeIf(deadline -> now - deadline >= 0);
+            if (recentChanges.size() >= MAX_RECENT_CHANGES) {
+                allPrimaryReadsUntil = until;
+                recentChanges.clear();
+                return;
+            }
+        }
+        recentChanges.put(email, until);
+    }
+
+    private synchronized void clearSnapshot(PrincipalSnapshot expired) {
+        if (snapshot == expired) {
+            snapshot = null;
+            evictedSinceSnapshot.clear();
+        }
+    }
+
+    /**
+     * A cached principal together with the time it was loaded.
+     */
+    private record Entry(UserPrincipal principal, long loadedAt) {
+    }
+}
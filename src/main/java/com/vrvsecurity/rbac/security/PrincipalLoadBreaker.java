@@ -0,0 +1,202 @@
+package com.vrvsecurity.rbac.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker and concurrency limit around loading principals from the database.
+ * <p>
+ * At most {@code rbac.principal-load.max-concurrent} loads run at once. While the breaker is closed, further
+ * callers wait up to {@code rbac.principal-load.max-wait-ms} for a running load to finish, so a burst of cache
+ * misses on a healthy database (a cold start, a cleared cache, a login storm) is served rather than refused;
+ * only a caller still waiting after that is turned away. After {@code rbac.principal-load.failure-threshold} consecutive
+ * failed or slow loads the breaker opens and every load is refused without touching the database for
+ * {@code rbac.principal-load.open-ms}. A single trial load then decides whether it closes again.
+ * </p>
+ * <p>
+ * Every state change starts a new generation, and each load is tagged with the generation it was admitted in.
+ * Outcomes of loads admitted before the last state change are ignored: a slow load that started while the
+ * database was healthy must not close a breaker opened since, nor may its failure reopen one that has recovered.
+ * </p>
+ */
+@Component
+public class PrincipalLoadBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(PrincipalLoadBreaker.class);
+
+    /**
+     * Returned by {@link #tryAcquire()} when the load is refused.
+     */
+    public static final long REFUSED = -1;
+
+    /**
+     * The breaker states.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, 0, 0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * Constructs the breaker with the configured limits.
+     *
+     * @param maxConcurrent    The maximum number of principal loads running at once.
+     * @param maxWaitMillis    How long a load waits for a running one to finish while the breaker is closed.
+     * @param failureThreshold The number of consecutive failed or slow loads that opens the breaker.
+     * @param slowCallMillis   The duration above which a successful load counts as a failure.
+     * @param openMillis       How long the breaker stays open before a trial load.
+     * @param meterRegistry    The registry the breaker state is published to.
+     */
+    public PrincipalLoadBreaker(@Value("${rbac.principal-load.max-concurrent:16}") int maxConcurrent,
+                                @Value("${rbac.principal-load.max-wait-ms:1000}") long maxWaitMillis,
+                                @Value("${rbac.principal-load.failure-threshold:5}") int failureThreshold,
+                                @Value("${rbac.principal-load.slow-call-ms:2000}") long slowCallMillis,
+                                @Value("${rbac.principal-load.open-ms:10000}") long openMillis,
+                                MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.failureThreshold = failureThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        Gauge.builder("rbac.principal.load.breaker.open", this, breaker -> breaker.getState() == State.CLOSED ? 0 : 1)
+                .description("Whether principal loading from the database is currently refused")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Asks to load a principal from the database.
+     * <p>
+     * A caller granted a load must report its outcome with {@link #release(long, boolean, long)}, passing the
+     * ticket returned here.
+     * </p>
+     *
+     * @return The load's ticket, or {@link #REFUSED} if the breaker is open or too many loads run for longer than
+     *         the allowed wait.
+     */
+    public long tryAcquire() {
+        Phase current = phase.get();
+        if (current.state() == State.OPEN) {
+            if (System.nanoTime() - current.openedAt() < openNanos) {
+                return REFUSED;
+            }
+            Phase trial = current.next(State.HALF_OPEN, 0);
+            if (!phase.compareAndSet(current, trial)) {
+                return REFUSED; // Another caller runs the trial load
+            }
+            current = trial;
+        } else if (current.state() == State.HALF_OPEN) {
+            return REFUSED; // The trial load is still running
+        }
+        if (!acquirePermit(current.state())) {
+            if (current.state() == State.HALF_OPEN) {
+                open(current); // Give the trial up and wait another period
+            }
+            return REFUSED;
+        }
+        if (phase.get() != current) {
+            permits.release(); // The breaker changed state while this load waited for a permit
+            return REFUSED;
+        }
+        return current.generation();
+    }
+
+    /**
+     * Takes a load permit, waiting for one only while the breaker is closed.
+     *
+     * @param current The state the caller was admitted in.
+     * @return {@code true} if a permit was taken.
+     */
+    private boolean acquirePermit(State current) {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (current != State.CLOSED || maxWaitNanos <= 0) {
+            return false; // A trial load never waits, it would only hold the breaker half-open longer
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Reports the outcome of a load granted by {@link #tryAcquire()}.
+     *
+     * @param ticket        The ticket returned by {@link #tryAcquire()}.
+     * @param succeeded     Whether the database answered, including answering that the user does not exist.
+     * @param durationNanos How long the load took.
+     */
+    public void release(long ticket, boolean succeeded, long durationNanos) {
+        permits.release();
+        Phase current = phase.get();
+        if (current.generation() != ticket) {
+            return; // Admitted before the last state change, so it says nothing about the database now
+        }
+        if (succeeded && durationNanos <= slowCallNanos) {
+            if (current.state() == State.CLOSED) {
+                consecutiveFailures.set(0);
+            } else if (phase.compareAndSet(current, current.next(State.CLOSED, 0))) {
+                consecutiveFailures.set(0);
+                log.info("Principal loading recovered, circuit breaker closed");
+            }
+            return;
+        }
+        if (current.state() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(current);
+        }
+    }
+
+    /**
+     * Opens the breaker, unless it has changed state since {@code current} was read.
+     *
+     * @param current The phase the failure was observed in.
+     */
+    private void open(Phase current) {
+        if (phase.compareAndSet(current, current.next(State.OPEN, System.nanoTime()))
+                && current.state() == State.CLOSED) {
+            log.warn("Principal loading failing or slow, circuit breaker open for {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(openNanos));
+        }
+    }
+
+    /**
+     * Returns the current breaker state.
+     *
+     * @return The state.
+     */
+    public State getState() {
+        return phase.get().state();
+    }
+
+    /**
+     * A breaker state and the generation it started, replaced as a whole on every state change.
+     *
+     * @param state      The breaker state.
+     * @param generation The number of state changes before this one.
+     * @param openedAt   The {@link System#nanoTime()} at which the breaker opened, if it is open.
+     */
+    private record Phase(State state, long generation, long openedAt) {
+
+        Phase next(State nextState, long nextOpenedAt) {
+            return new Phase(nextState, generation + 1, nextOpenedAt);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.Repository.PrincipalRow;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact, memory-mapped, read-only snapshot of everything needed to authenticate users.
+ * <p>
+ * The file holds an identifier of the database it was read from and the role catalog, followed by one column
+ * per field, each with one fixed-width value per user in ascending unsigned email digest order: the 32-byte
+ * digests, the user ids, the status codes, a 64-bit role mask (bit {@code i} set when the user holds the
+ * {@code i}-th catalog role) and offsets into a final blob of UTF-8 password hashes. Lookups binary-search the
+ * mapped digest column, so opening a snapshot of millions of users costs a few system calls and the pages are
+ * read on demand.
+ * </p>
+ * <p>
+ * Emails are not stored; a snapshot entry is found by the digest of the email being authenticated.
+ * The catalog can hold at most 64 roles and each column at most 2 GB, i.e. about 67 million users.
+ * </p>
+ */
+public final class PrincipalSnapshot {
+
+    private static final int MAGIC = 0x52424143; // "RBAC"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 28;
+    private static final int DIGEST_BYTES = 32;
+    private static final int MAX_ROLES = Long.SIZE;
+    private static final int MAX_USERS = Integer.MAX_VALUE / DIGEST_BYTES;
+
+    private final Instant createdAt;
+    private final String source;
+    private final List<Role> roles;
+    private final int size;
+    private final MappedByteBuffer digests;
+    private final MappedByteBuffer userIds;
+    private final MappedByteBuffer statuses;
+    private final MappedByteBuffer roleMasks;
+    private final MappedByteBuffer passwordOffsets;
+    private final MappedByteBuffer passwords;
+
+    private PrincipalSnapshot(Instant createdAt, String source, List<Role> roles, int size,
+                              MappedByteBuffer[] columns) {
+        this.createdAt = createdAt;
+        this.source = source;
+        this.roles = roles;
+        this.size = size;
+        this.digests = columns[0];
+        this.userIds = columns[1];
+        this.statuses = columns[2];
+        this.roleMasks = columns[3];
+        this.passwordOffsets = columns[4];
+        this.passwords = columns[5];
+    }
+
+    /**
+     * Maps a snapshot file written by {@link #write}.
+     *
+     * @param file         The snapshot file.
+     * @param preloadPages Whether to read the whole file into memory now rather than page by page on first use.
+     * @return The opened snapshot; it stays valid after the file is replaced or deleted.
+     * @throws IOException If the file cannot be read, is not a snapshot, or is truncated or corrupt.
+     */
+    public static PrincipalSnapshot open(Path file, boolean preloadPages) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " principal snapshot");
+            }
+            Instant createdAt = Instant.ofEpochMilli(header.getLong());
+            int size = header.getInt();
+            int roleCount = header.getInt();
+            int catalogBytes = header.getInt();
+            long columnBytes = (DIGEST_BYTES + Long.BYTES + Byte.BYTES + Long.BYTES + Integer.BYTES) * (long) size
+                    + Integer.BYTES;
+            if (size < 0 || size > MAX_USERS || roleCount < 0 || roleCount > MAX_ROLES || catalogBytes < 0
+                    || HEADER_BYTES + (long) catalogBytes + columnBytes > channel.size()) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+
+            byte[] catalog = new byte[catalogBytes];
+            channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, catalogBytes).get(catalog);
+            List<Role> roles = new ArrayList<>(roleCount);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(catalog));
+            String source = in.readUTF();
+            for (int i = 0; i < roleCount; i++) {
+                Role role = new Role();
+                role.setRoleId(in.readLong());
+                role.setName(in.readUTF());
+                roles.add(role);
+            }
+
+            long[] widths = {DIGEST_BYTES, Long.BYTES, Byte.BYTES, Long.BYTES};
+            MappedByteBuffer[] columns = new MappedByteBuffer[6];
+            long position = HEADER_BYTES + catalogBytes;
+            for (int i = 0; i < widths.length; i++) {
+                columns[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, widths[i] * size);
+                position += widths[i] * size;
+            }
+            columns[4] = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) Integer.BYTES * (size + 1));
+            position += (long) Integer.BYTES * (size + 1);
+            int passwordBytes = columns[4].getInt(size * Integer.BYTES);
+            if (passwordBytes < 0 || position + passwordBytes != channel.size()) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+            columns[5] = channel.map(FileChannel.MapMode.READ_ONLY, position, passwordBytes);
+
+            if (preloadPages) {
+                for (MappedByteBuffer column : columns) {
+                    column.load();
+                }
+            }
+            return new PrincipalSnapshot(createdAt, source, List.copyOf(roles), size, columns);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given roles and users, replacing the file atomically once complete.
+     *
+     * @param file   The snapshot file to write.
+     * @param source An identifier of the database the users are read from, checked before the snapshot is used.
+     * @param roles  The role catalog; at most 64 roles.
+     * @param rows   The users, ordered by unsigned email digest with each user's rows consecutive.
+     * @return The number of users written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static int write(Path file, String source, List<Role> roles, Iterator<PrincipalRow> rows)
+            throws IOException {
+        if (roles.size() > MAX_ROLES) {
+            throw new IllegalArgumentException("A snapshot can hold at most " + MAX_ROLES + " roles");
+        }
+        Map<Long, Integer> roleBits = new HashMap<>();
+        for (int i = 0; i < roles.size(); i++) {
+            roleBits.put(roles.get(i).getRoleId(), i);
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        List<Path> columnFiles = new ArrayList<>();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            DataOutputStream[] columns = new DataOutputStream[6];
+            for (int i = 0; i < columns.length; i++) {
+                Path columnFile = Files.createTempFile(directory, file.getFileName().toString(), ".col" + i);
+                columnFiles.add(columnFile);
+                columns[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(columnFile), 1 << 16));
+            }
+
+            int size = 0;
+            long passwordBytes = 0;
+            try {
+                columns[4].writeInt(0);
+                PrincipalRow current = null;
+                long roleMask = 0;
+                while (rows.hasNext()) {
+                    PrincipalRow row = rows.next();
+                    if (current != null && !Arrays.equals(current.emailDigest(), row.emailDigest())) {
+                        if (Arrays.compareUnsigned(current.emailDigest(), row.emailDigest()) > 0) {
+                            throw new IllegalStateException("Snapshot rows are not ordered by email digest");
+                        }
+                        if (size == MAX_USERS) {
+                            throw new IllegalStateException("Too many users for a single snapshot");
+                        }
+                        passwordBytes = writeUser(columns, current, roleMask, passwordBytes);
+                        size++;
+                        roleMask = 0;
+                    }
+                    current = row;
+                    Integer bit = row.roleId() == null ? null : roleBits.get(row.roleId());
+                    if (bit != null) {
+                        roleMask |= 1L << bit;
+                    }
+                }
+                if (current != null) {
+                    writeUser(columns, current, roleMask, passwordBytes);
+                    size++;
+                }
+            } finally {
+                for (DataOutputStream column : columns) {
+                    column.close();
+                }
+            }
+
+            ByteArrayOutputStream catalog = new ByteArrayOutputStream();
+            DataOutputStream catalogOut = new DataOutputStream(catalog);
+            catalogOut.writeUTF(source);
+            for (Role role : roles) {
+                catalogOut.writeLong(role.getRoleId());
+                catalogOut.writeUTF(role.getName());
+            }
+
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(System.currentTimeMillis())
+                        .putInt(size)
+                        .putInt(roles.size())
+                        .putInt(catalog.size())
+                        .flip();
+                writeFully(out, header);
+                writeFully(out, ByteBuffer.wrap(catalog.toByteArray()));
+                for (Path columnFile : columnFiles) {
+                    try (FileChannel in = FileChannel.open(columnFile, StandardOpenOption.READ)) {
+                        long position = 0;
+                        while (position < in.size()) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } finally {
+            Files.deleteIfExists(temporary);
+            for (Path columnFile : columnFiles) {
+                Files.deleteIfExists(columnFile);
+            }
+        }
+    }
+
+    /**
+     * Looks up the user with the given normalized email.
+     *
+     * @param email The normalized email.
+     * @return A detached user holding the snapshot's id, password, status and roles, or {@code null} if the
+     *         snapshot has no user with this email. The full name and registration date are not stored.
+     */
+    public User find(String email) {
+        byte[] digest = EmailDigest.of(email);
+        int index = indexOf(digest);
+        if (index < 0) {
+            return null;
+        }
+        User user = new User();
+        user.setUserId(userIds.getLong(index * Long.BYTES));
+        user.setEmail(email);
+        user.setEmailDigest(digest);
+        byte status = statuses.get(index);
+        user.setStatus(status == 0 ? null : AccountStatus.fromCode(status));
+
+        int start = passwordOffsets.getInt(index * Integer.BYTES);
+        int end = passwordOffsets.getInt((index + 1) * Integer.BYTES);
+        byte[] password = new byte[end - start];
+        passwords.get(start, password);
+        user.setPassword(new String(password, StandardCharsets.UTF_8));
+
+        long mask = roleMasks.getLong(index * Long.BYTES);
+        Set<Role> held = new HashSet<>();
+        for (int bit = 0; mask != 0; bit++, mask >>>= 1) {
+            if ((mask & 1) != 0) {
+                held.add(roles.get(bit));
+            }
+        }
+        user.setRoles(held);
+        return user;
+    }
+
+    /**
+     * Returns when the snapshot was written.
+     *
+     * @return The creation time.
+     */
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the identifier of the database the snapshot was read from.
+     *
+     * @return The source given to {@link #write}.
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Returns the number of users in the snapshot.
+     *
+     * @return The user count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Binary-searches the digest column, comparing digests as four unsigned big-endian longs.
+     *
+     * @param digest The digest to find.
+     * @return The index of the digest, or -1 if absent.
+     */
+    private int indexOf(byte[] digest) {
+        ByteBuffer key = ByteBuffer.wrap(digest);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int base = middle * DIGEST_BYTES;
+            int comparison = 0;
+            for (int i = 0; i < DIGEST_BYTES && comparison == 0; i += Long.BYTES) {
+                comparison = Long.compareUnsigned(digests.getLong(base + i), key.getLong(i));
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static long writeUser(DataOutputStream[] columns, PrincipalRow row, long roleMask, long passwordBytes)
+            throws IOException {
+        byte[] password = row.password().getBytes(StandardCharsets.UTF_8);
+        passwordBytes += password.length;
+        if (passwordBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many users for a single snapshot");
+        }
+        columns[0].write(row.emailDigest());
+        columns[1].writeLong(row.userId());
+        columns[2].writeByte(row.status() == null ? 0 : row.status().getCode());
+        columns[3].writeLong(roleMask);
+        columns[4].writeInt((int) passwordBytes);
+        columns[5].write(password);
+        return passwordBytes;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
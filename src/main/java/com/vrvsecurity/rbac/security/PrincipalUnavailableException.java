@@ -0,0 +1,22 @@
+package com.vrvsecurity.rbac.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when a principal can neither be loaded from the database nor served from a recent enough cache entry.
+ * <p>
+ * This signals an outage rather than bad credentials, so it is answered with 503 Service Unavailable.
+ * </p>
+ */
+public class PrincipalUnavailableException extends AuthenticationServiceException {
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message The detail message.
+     * @param cause   The failure that prevented loading, or {@code null} if the load was not attempted.
+     */
+    public PrincipalUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
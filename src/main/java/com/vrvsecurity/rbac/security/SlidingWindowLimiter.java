@@ -0,0 +1,192 @@
+package com.vrvsecurity.rbac.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Memory-bounded, lock-striped rate limiter counting events per key in a sliding window.
+ * <p>
+ * Keys are spread over independent stripes, each an access-ordered map guarded by its own lock, so threads
+ * working on different keys rarely contend and there is no global lock. Each stripe holds at most its share of
+ * {@code maxKeys}; when full, its least recently used key is dropped, which only forgets idle keys unless the
+ * limiter is undersized.
+ * </p>
+ * <p>
+ * The window is approximated from two fixed buckets: the count of the current bucket plus the count of the
+ * previous one weighted by how much of it still overlaps the window. This needs a few bytes per key and is
+ * exact for evenly spread events.
+ * </p>
+ * <p>
+ * An event is checked and counted under one stripe lock by {@link #tryAcquire(String)}, so parallel callers for
+ * the same key can never admit more events than the limit.
+ * </p>
+ */
+public class SlidingWindowLimiter {
+
+    private final int maxEvents;
+    private final long windowNanos;
+    private final Stripe[] stripes;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Constructs a limiter.
+     *
+     * @param maxEvents     The number of events allowed per key within one window.
+     * @param windowSeconds The length of the window.
+     * @param maxKeys       The maximum number of keys tracked at once.
+     * @param stripeCount   The number of independently locked stripes.
+     */
+    public SlidingWindowLimiter(int maxEvents, long windowSeconds, int maxKeys, int stripeCount) {
+        this(maxEvents, windowSeconds, maxKeys, stripeCount, System::nanoTime);
+    }
+
+    /**
+     * Constructs a limiter reading time from the given clock, for tests.
+     *
+     * @param maxEvents     The number of events allowed per key within one window.
+     * @param windowSeconds The length of the window.
+     * @param maxKeys       The maximum number of keys tracked at once.
+     * @param stripeCount   The number of independently locked stripes.
+     * @param nanoClock     The source of {@link System#nanoTime()}-like timestamps.
+     */
+    SlidingWindowLimiter(int maxEvents, long windowSeconds, int maxKeys, int stripeCount, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.maxEvents = maxEvents;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.stripes = new Stripe[stripeCount];
+        int keysPerStripe = Math.max(1, maxKeys / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+    }
+
+    /**
+     * Counts an event for the key if the key is below its limit.
+     *
+     * @param key The key.
+     * @return {@code true} if the event was admitted and counted, {@code false} if the key is at its limit.
+     */
+    public boolean tryAcquire(String key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            Window window = stripe.windows.get(key);
+            if (window == null) {
+                if (maxEvents <= 0) {
+                    return false;
+                }
+                window = new Window(now);
+                stripe.windows.put(key, window);
+            } else if (window.estimate(now, windowNanos) >= maxEvents) {
+                return false;
+            }
+            window.add(now, windowNanos);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes back an event admitted by {@link #tryAcquire(String)} that did not go ahead after all.
+     *
+     * @param key The key.
+     */
+    public void release(String key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Window window = stripe.windows.get(key);
+            if (window != null) {
+                window.remove(nanoClock.getAsLong(), windowNanos);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets all events recorded for the key.
+     *
+     * @param key The key.
+     */
+    public void reset(String key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            stripe.windows.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    /**
+     * One lock and the least-recently-used map of windows it guards.
+     */
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Window> windows;
+
+        private Stripe(int maxKeys) {
+            this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    /**
+     * The event counts of one key in the current and the previous fixed bucket.
+     */
+    private static final class Window {
+
+        private long bucketStart;
+        private int previous;
+        private int current;
+
+        private Window(long now) {
+            this.bucketStart = now;
+        }
+
+        private void roll(long now, long windowNanos) {
+            long elapsedBuckets = (now - bucketStart) / windowNanos;
+            if (elapsedBuckets > 0) {
+                previous = elapsedBuckets == 1 ? current : 0;
+                current = 0;
+                bucketStart += elapsedBuckets * windowNanos;
+            }
+        }
+
+        private double estimate(long now, long windowNanos) {
+            roll(now, windowNanos);
+            double overlap = 1 - (double) (now - bucketStart) / windowNanos;
+            return previous * overlap + current;
+        }
+
+        private void add(long now, long windowNanos) {
+            roll(now, windowNanos);
+            current++;
+        }
+
+        private void remove(long now, long windowNanos) {
+            roll(now, windowNanos);
+            if (current > 0) {
+                current--;
+            } else if (previous > 0) {
+                previous--; // The event was counted just before the bucket rolled over
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.security.jfr.PasswordHashEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password encoder timing the hashing done at registration and login.
+ * <p>
+ * Hashes are timed in {@code rbac.auth.password}, tagged {@code operation=encode} or {@code operation=matches}, and
+ * for matches {@code outcome=ok} or {@code outcome=mismatch}. Login attempts for unknown users also appear as
+ * mismatches, since the authentication provider hashes against a dummy password to hide which emails exist.
+ * With Flight Recorder on, hashes slower than the recording's threshold are also recorded as
+ * {@link PasswordHashEvent}s.
+ * </p>
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    /**
+     * Constructs the encoder.
+     *
+     * @param delegate      The encoder doing the hashing.
+     * @param meterRegistry The registry the hashing timers are published to.
+     */
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(meterRegistry, "encode", AuthOutcome.OK);
+        this.matchTimer = timer(meterRegistry, "matches", AuthOutcome.OK);
+        this.mismatchTimer = timer(meterRegistry, "matches", AuthOutcome.MISMATCH);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        long started = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        finish(event, encodeTimer, started, "encode", AuthOutcome.OK);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        long started = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            finish(event, matchTimer, started, "matches", AuthOutcome.OK);
+        } else {
+            finish(event, mismatchTimer, started, "matches", AuthOutcome.MISMATCH);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static void finish(PasswordHashEvent event, Timer timer, long started, String operation,
+                               AuthOutcome outcome) {
+        timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.outcome = outcome.tag();
+            event.commit();
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation, AuthOutcome outcome) {
+        return Timer.builder("rbac.auth.password")
+                .description("Time spent hashing passwords")
+                .tag("operation", operation)
+                .tag("outcome", outcome.tag())
+                .register(meterRegistry);
+    }
+}
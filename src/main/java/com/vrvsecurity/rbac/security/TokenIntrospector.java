@@ -0,0 +1,198 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.dto.TokenIntrospection;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks batches of tokens on behalf of downstream services, the way {@link JwtAuthFilter} checks a request's.
+ * <p>
+ * A token is looked up in the {@link VerifiedTokenCache} under the same {@code Bearer} header the filter caches it
+ * by, so tokens seen by either are answered without parsing them or loading their principal. Other tokens are
+ * verified, their principal is loaded through the {@link UserDetailsService} (and so the {@link PrincipalCache}
+ * and the principal load circuit breaker), and they are cached for the next batch or request. A token is active
+ * while it is validly signed, unexpired, issued to a user that exists and whose account is active; roles are the
+ * user's current ones.
+ * </p>
+ * <p>
+ * A batch is split into up to {@code parallelism} slices of at least {@code minSliceSize} tokens; the request
+ * thread works on the first slice while a dedicated pool works on the others. Keep {@code parallelism} below
+ * {@code rbac.principal-load.max-concurrent} so a batch of uncached tokens does not trip the breaker on its own.
+ * Each token is timed in {@code rbac.auth.introspect}, tagged with its outcome.
+ * </p>
+ */
+@Component
+public class TokenIntrospector implements DisposableBean {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final int maxBatchSize;
+    private final int parallelism;
+    private final int minSliceSize;
+    private final ThreadPoolExecutor pool;
+    private final AuthOutcome.Timers introspectTimers;
+
+    /**
+     * Constructs the introspector.
+     *
+     * @param jwtUtil            The utility verifying tokens.
+     * @param userDetailsService The service loading principals.
+     * @param verifiedTokenCache The cache of already verified Authorization headers, shared with the filter.
+     * @param meterRegistry      The registry the introspection timers are published to.
+     * @param maxBatchSize       The maximum number of tokens in one batch.
+     * @param parallelism        The maximum number of threads working on one batch, the request thread included.
+     * @param minSliceSize       The minimum number of tokens handed to one thread.
+     */
+    public TokenIntrospector(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                             VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry,
+                             @Value("${rbac.introspect.max-batch-size:1000}") int maxBatchSize,
+                             @Value("${rbac.introspect.parallelism:4}") int parallelism,
+                             @Value("${rbac.introspect.min-slice-size:16}") int minSliceSize) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.maxBatchSize = maxBatchSize;
+        this.parallelism = Math.max(1, parallelism);
+        this.minSliceSize = Math.max(1, minSliceSize);
+        AtomicInteger threads = new AtomicInteger();
+        int workers = Math.max(1, this.parallelism - 1);
+        this.pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(workers * 64), runnable -> {
+            Thread thread = new Thread(runnable, "rbac-introspect-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy()); // A saturated pool slows the caller rather than failing it
+        this.pool.allowCoreThreadTimeOut(true);
+        this.introspectTimers = new AuthOutcome.Timers(meterRegistry, "rbac.auth.introspect",
+                "Time spent introspecting a token for a downstream service", AuthOutcome.CACHED, AuthOutcome.OK,
+                AuthOutcome.EXPIRED, AuthOutcome.BAD_SIGNATURE, AuthOutcome.MALFORMED, AuthOutcome.MISMATCH,
+                AuthOutcome.PENDING, AuthOutcome.DISABLED, AuthOutcome.NOT_FOUND, AuthOutcome.UNAVAILABLE);
+    }
+
+    /**
+     * Introspects a batch of tokens.
+     *
+     * @param tokens The tokens, without the {@code Bearer} prefix.
+     * @return One result per token, in the same order.
+     * @throws RuntimeException If no tokens are given or the batch is larger than allowed.
+     */
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new RuntimeException("Tokens are required");
+        }
+        if (tokens.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " tokens can be introspected at once");
+        }
+
+        TokenIntrospection[] results = new TokenIntrospection[tokens.size()];
+        int slices = Math.min(parallelism, (tokens.size() + minSliceSize - 1) / minSliceSize);
+        int sliceSize = (tokens.size() + slices - 1) / slices;
+        List<Future<?>> others = new ArrayList<>(slices - 1);
+        for (int from = sliceSize; from < tokens.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, tokens.size());
+            others.add(pool.submit(() -> introspect(tokens, results, start, end)));
+        }
+        introspect(tokens, results, 0, Math.min(sliceSize, tokens.size()));
+        for (Future<?> slice : others) {
+            try {
+                slice.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while introspecting tokens", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Could not introspect tokens", e.getCause());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void introspect(List<String> tokens, TokenIntrospection[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = introspect(tokens.get(i));
+        }
+    }
+
+    /**
+     * Introspects one token.
+     *
+     * @param token The token, without the {@code Bearer} prefix.
+     * @return The result; never throws for a bad token.
+     */
+    private TokenIntrospection introspect(String token) {
+        long started = System.nanoTime();
+        if (token == null || token.isBlank()) {
+            return inactive(AuthOutcome.MALFORMED, started);
+        }
+        String authHeader = BEARER_PREFIX + token;
+
+        UserPrincipal principal;
+        long expiresAt;
+        AuthOutcome outcome;
+        VerifiedTokenCache.Entry entry = verifiedTokenCache.getEntry(authHeader);
+        if (entry != null && entry.authentication().getPrincipal() instanceof UserPrincipal cached) {
+            principal = cached;
+            expiresAt = entry.expiresAt();
+            outcome = AuthOutcome.CACHED;
+        } else {
+            try {
+                Claims claims = jwtUtil.parseClaims(token);
+                UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                if (!jwtUtil.validateClaims(claims, userDetails) || !(userDetails instanceof UserPrincipal loaded)) {
+                    return inactive(AuthOutcome.MISMATCH, started);
+                }
+                principal = loaded;
+                expiresAt = claims.getExpiration().getTime();
+                if (principal.getStatus() == AccountStatus.ACTIVE) {
+                    verifiedTokenCache.put(authHeader, principal.getUsername(), principal, expiresAt);
+                }
+                outcome = AuthOutcome.OK;
+            } catch (RuntimeException e) {
+                return inactive(AuthOutcome.of(e), started);
+            }
+        }
+
+        if (principal.getStatus() == AccountStatus.PENDING) {
+            return inactive(AuthOutcome.PENDING, started);
+        }
+        if (principal.getStatus() != AccountStatus.ACTIVE) {
+            return inactive(AuthOutcome.DISABLED, started);
+        }
+        List<String> roles = new ArrayList<>(principal.getAuthorities().size());
+        for (GrantedAuthority authority : principal.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        introspectTimers.record(outcome, started);
+        return new TokenIntrospection(true, principal.getUsername(), roles, expiresAt / 1000, null);
+    }
+
+    private TokenIntrospection inactive(AuthOutcome outcome, long started) {
+        introspectTimers.record(outcome, started);
+        return new TokenIntrospection(false, null, null, null, outcome.tag());
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
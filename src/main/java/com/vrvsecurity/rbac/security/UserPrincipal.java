@@ -1,12 +1,13 @@
 package com.vrvsecurity.rbac.security;
 
+import com.vrvsecurity.rbac.model.AccountStatus;
 import com.vrvsecurity.rbac.model.User;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
 /**
  * Custom implementation of the {@link UserDetails} interface for Spring Security.
@@ -16,6 +17,8 @@ import java.util.stream.Collectors;
 public class UserPrincipal implements UserDetails {
 
     private User user;
+    private final boolean degraded;
+    private final List<GrantedAuthority> authorities; // Built once, read on every authenticated request
 
     /**
      * Constructs a new {@link UserPrincipal} instance using the provided user data.
@@ -23,20 +26,49 @@ public class UserPrincipal implements UserDetails {
      * @param user The user object containing user data to be used by Spring Security.
      */
     public UserPrincipal(User user) {
+        this(user, false);
+    }
+
+    private UserPrincipal(User user, boolean degraded) {
         this.user = user;
+        this.degraded = degraded;
+        this.authorities = user.getRoles() == null
+                ? List.of()
+                : user.getRoles().stream()
+                        .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.getName()))
+                        .toList();
+    }
+
+    /**
+     * Returns a copy of this principal flagged as served from a stale cache entry while the database was
+     * unreachable.
+     *
+     * @return The degraded principal.
+     */
+    public UserPrincipal asDegraded() {
+        return new UserPrincipal(user, true);
+    }
+
+    /**
+     * Returns whether this principal was served from a stale cache entry while the database was unreachable.
+     * The status and roles may then be up to {@code rbac.principal-load.max-staleness-ms} old, so sensitive
+     * operations may choose to refuse degraded requests.
+     *
+     * @return {@code true} if the principal is degraded.
+     */
+    public boolean isDegraded() {
+        return degraded;
     }
 
     /**
      * Returns the authorities (roles) granted to the user.
-     * The roles are extracted from the user's roles and converted to {@link GrantedAuthority}.
+     * The roles are converted to {@link GrantedAuthority} once, when the principal is created.
      *
-     * @return A collection of granted authorities (roles) for the user.
+     * @return An unmodifiable collection of granted authorities (roles) for the user.
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
+        return authorities;
     }
 
     /**
@@ -60,13 +92,22 @@ public class UserPrincipal implements UserDetails {
         return user.getEmail();
     }
 
+    /**
+     * Returns the id of the user.
+     *
+     * @return The user's id.
+     */
+    public long getUserId() {
+        return user.getUserId();
+    }
+
     /**
      * Returns the current status of the user.
      * The status could indicate whether the user's account is active, pending, etc.
      *
-     * @return The status of the user (e.g., "active", "pending").
+     * @return The status of the user (e.g., {@link AccountStatus#ACTIVE}, {@link AccountStatus#PENDING}).
      */
-    public String getStatus() {
+    public AccountStatus getStatus() {
         return user.getStatus();
     }
 
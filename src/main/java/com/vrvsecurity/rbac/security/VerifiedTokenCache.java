@@ -0,0 +1,109 @@
+package com.vrvsecurity.rbac.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of Authorization headers whose token has already been verified, with the authentication they produced.
+ * <p>
+ * Verifying a token costs an HMAC, a JSON parse and several allocations; a client sends the same header with
+ * every request until the token expires. An entry is only served while the token has not expired and the
+ * {@link PrincipalCache} still holds the very principal the entry was built from, so evicting or reloading a
+ * user (status or role changes, TTL expiry) also invalidates the tokens verified against it.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final PrincipalCache principalCache;
+    private final int maxEntries;
+
+    /**
+     * Constructs the cache.
+     *
+     * @param principalCache The cache the principals of verified tokens must still be held by.
+     * @param maxEntries     The maximum number of verified headers kept in memory (0 disables the cache).
+     */
+    public VerifiedTokenCache(PrincipalCache principalCache,
+                              @Value("${rbac.token-cache.max-entries:100000}") int maxEntries) {
+        this.principalCache = principalCache;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the authentication of an already verified Authorization header.
+     *
+     * @param authHeader The full Authorization header value.
+     * @return The authentication, or {@code null} if the header is unknown, its token expired or its principal
+     * is no longer the cached one.
+     */
+    public Authentication get(String authHeader) {
+        Entry entry = getEntry(authHeader);
+        return entry == null ? null : entry.authentication();
+    }
+
+    /**
+     * Returns the entry of an already verified Authorization header, including when its token expires.
+     *
+     * @param authHeader The full Authorization header value.
+     * @return The entry, or {@code null} if the header is unknown, its token expired or its principal is no
+     * longer the cached one.
+     */
+    public Entry getEntry(String authHeader) {
+        Entry entry = entries.get(authHeader);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt
+                || principalCache.get(entry.email) != entry.authentication.getPrincipal()) {
+            entries.remove(authHeader, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Remembers a verified header.
+     * <p>
+     * Only principals currently held by the {@link PrincipalCache} are remembered; degraded principals served
+     * while the database is down are not. When the cache is full an arbitrary entry is dropped.
+     * </p>
+     *
+     * @param authHeader The full Authorization header value.
+     * @param email      The normalized email the principal is cached under.
+     * @param principal  The principal the token was verified against.
+     * @param expiresAt  When the token expires, in epoch milliseconds.
+     * @return The authentication to use for the request.
+     */
+    public Authentication put(String authHeader, String email, UserPrincipal principal, long expiresAt) {
+        Authentication authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        if (maxEntries <= 0 || principal.isDegraded() || principalCache.get(email) != principal) {
+            return authentication;
+        }
+        if (entries.size() >= maxEntries) {
+            Iterator<String> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                entries.remove(keys.next());
+            }
+        }
+        entries.put(authHeader, new Entry(email, authentication, expiresAt));
+        return authentication;
+    }
+
+    /**
+     * A verified header's authentication, with the email its principal is cached under and the token expiry.
+     *
+     * @param email          The normalized email the principal is cached under.
+     * @param authentication The authentication built from the principal.
+     * @param expiresAt      When the token expires, in epoch milliseconds.
+     */
+    public record Entry(String email, Authentication authentication, long expiresAt) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.vrvsecurity.rbac.security.audit;
+
+/**
+ * Kind of an audited action, stored as the {@code event_type} of an audit record.
+ */
+public enum AuditAction {
+
+    LOGIN("login"),
+    LOGIN_FAILED("login-failed"),
+    REGISTRATION("registration"),
+    USER_STATUS_CHANGED("user-status-changed"),
+    BULK_STATUS_CHANGED("bulk-status-changed"),
+    ROLE_ADDED("role-added"),
+    ROLE_GRANTED("role-granted"),
+    ROLE_REVOKED("role-revoked");
+
+    private final String label;
+
+    AuditAction(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label the action is stored as.
+     *
+     * @return The label.
+     */
+    public String label() {
+        return label;
+    }
+}
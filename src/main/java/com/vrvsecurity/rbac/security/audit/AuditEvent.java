@@ -0,0 +1,16 @@
+package com.vrvsecurity.rbac.security.audit;
+
+/**
+ * An audited action, as queued by {@link AuditLog} and written by an {@link AuditSink}.
+ *
+ * @param occurredAt The time of the action, in epoch milliseconds.
+ * @param action     The kind of action.
+ * @param actor      The authenticated user who performed it, or {@code null} for unauthenticated requests such as
+ *                   logins and registrations.
+ * @param subject    The user or role acted upon.
+ * @param detail     The outcome or new value, e.g. the new status, or {@code null}.
+ * @param clientIp   The address of the client that sent the request, or {@code null} outside of a request.
+ */
+public record AuditEvent(long occurredAt, AuditAction action, String actor, String subject, String detail,
+                         String clientIp) {
+}
@@ -0,0 +1,290 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous, batched audit trail of logins, registrations and administrative changes.
+ * <p>
+ * {@link #record} only builds an {@link AuditEvent} and offers it to a lock-free {@link AuditRingBuffer}; it never
+ * does I/O, takes a lock or waits on the writer (except under the {@link OverflowPolicy#BLOCK} policy with a full
+ * buffer). A single background thread drains the buffer into an {@link AuditSink} in batches of up to
+ * {@code batchSize} events, every {@code flushInterval} or as soon as a full batch is queued. A batch the sink
+ * fails to store is kept and retried on the next flush while new events queue up behind it, so a database
+ * outage costs events only once the buffer overflows. Events recorded inside a transaction are queued when it
+ * commits, so rolled-back changes are not audited.
+ * </p>
+ * <p>
+ * The queue depth, written, dropped and lost events and the flush time are published as {@code rbac.audit.*}
+ * metrics. The writer stops after the web server, writing whatever is still queued.
+ * </p>
+ */
+public class AuditLog implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditRingBuffer buffer;
+    private final AuditSink sink;
+    private final OverflowPolicy overflowPolicy;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+    private final long maxBlockNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter lost;
+    private final Timer flushes;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    /**
+     * Constructs the audit log.
+     *
+     * @param sink           The destination of the events.
+     * @param capacity       The number of events the ring buffer holds.
+     * @param overflowPolicy What to do with an event when the buffer is full.
+     * @param flushInterval  The longest time an event waits in the buffer while the sink is healthy.
+     * @param batchSize      The maximum number of events written by one call to the sink.
+     * @param maxBlock       How long a request waits for room under the {@link OverflowPolicy#BLOCK} policy.
+     * @param meterRegistry  The registry the audit metrics are published to.
+     */
+    public AuditLog(AuditSink sink, int capacity, OverflowPolicy overflowPolicy, Duration flushInterval,
+                    int batchSize, Duration maxBlock, MeterRegistry meterRegistry) {
+        this.buffer = new AuditRingBuffer(capacity);
+        this.sink = sink;
+        this.overflowPolicy = overflowPolicy;
+        this.flushIntervalNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), flushInterval.toNanos());
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBlockNanos = maxBlock.toNanos();
+        this.written = Counter.builder("rbac.audit.events").tag("result", "written")
+                .description("Audit events stored by the sink")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("rbac.audit.events").tag("result", "dropped")
+                .description("Audit events dropped because the buffer was full")
+                .register(meterRegistry);
+        this.lost = Counter.builder("rbac.audit.events").tag("result", "lost")
+                .description("Audit events still unwritten when the application stopped")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("rbac.audit.flush")
+                .description("Time spent writing a batch of audit events")
+                .register(meterRegistry);
+        Gauge.builder("rbac.audit.queue.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Constructs an audit log that discards every event, used when auditing is disabled.
+     */
+    private AuditLog() {
+        this.buffer = null;
+        this.sink = null;
+        this.overflowPolicy = OverflowPolicy.DROP_NEWEST;
+        this.flushIntervalNanos = 0;
+        this.batchSize = 1;
+        this.maxBlockNanos = 0;
+        this.written = null;
+        this.dropped = null;
+        this.lost = null;
+        this.flushes = null;
+    }
+
+    /**
+     * Returns an audit log that discards every event.
+     *
+     * @return The disabled audit log.
+     */
+    public static AuditLog disabled() {
+        return new AuditLog();
+    }
+
+    /**
+     * Queues an audit event for the action, performed by the currently authenticated user from the current
+     * request's client address. Inside a transaction the event is queued once the transaction commits.
+     *
+     * @param action  The kind of action.
+     * @param subject The user or role acted upon, or {@code null} for a bulk change of many users.
+     * @param detail  The outcome or new value, or {@code null}.
+     */
+    public void record(AuditAction action, String subject, String detail) {
+        if (buffer == null) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(System.currentTimeMillis(), action, currentActor(), subject, detail,
+                currentClientIp());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (!buffer.offer(event)) {
+            overflow(event);
+        } else if (buffer.size() == batchSize) {
+            LockSupport.unpark(writer); // A full batch is waiting; null-safe before the writer starts
+        }
+    }
+
+    private void overflow(AuditEvent event) {
+        switch (overflowPolicy) {
+            case DROP_NEWEST -> dropped.increment();
+            case DROP_OLDEST -> {
+                do {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                } while (!buffer.offer(event));
+            }
+            case BLOCK -> {
+                long deadline = System.nanoTime() + maxBlockNanos;
+                LockSupport.unpark(writer);
+                while (!buffer.offer(event)) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (buffer == null) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("rbac-audit-writer").daemon().start(this::drain);
+        log.info("Audit log writing to {} in batches of up to {} events every {} ms",
+                sink.getClass().getSimpleName(), batchSize, TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos));
+    }
+
+    @Override
+    public void stop() {
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(current);
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        try {
+            sink.close();
+        } catch (IOException e) {
+            log.warn("Could not close the audit sink: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096; // Stops after the web server, so in-flight requests are audited
+    }
+
+    /**
+     * Writer loop: writes full batches at once and partial ones every flush interval, retrying a failed batch
+     * until it is stored. Once stopped, writes what is queued and gives up on a batch the sink rejects.
+     */
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        boolean failing = false;
+        while (true) {
+            boolean stopping = !running;
+            if (batch.isEmpty()) {
+                buffer.drainTo(batch, batchSize);
+            }
+            if (batch.isEmpty()) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            int size = batch.size();
+            if (write(batch, failing)) {
+                written.increment(size);
+                batch.clear();
+                failing = false;
+            } else if (stopping) {
+                lost.increment(size + buffer.size());
+                log.warn("Stopped with {} audit events unwritten", size + buffer.size());
+                return;
+            } else {
+                failing = true;
+            }
+            if (!stopping && (failing || size < batchSize)) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private boolean write(List<AuditEvent> batch, boolean failing) {
+        long started = System.nanoTime();
+        try {
+            sink.write(batch);
+            flushes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (failing) {
+                log.info("Audit sink recovered, {} events queued", buffer.size());
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            if (!failing) {
+                log.warn("Could not write {} audit events, retrying: {}", batch.size(), e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static String currentClientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+}
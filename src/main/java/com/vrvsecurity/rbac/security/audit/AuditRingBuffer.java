@@ -0,0 +1,130 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free ring buffer of audit events.
+ * <p>
+ * Each slot carries a sequence number telling whether it is free for the producer claiming position {@code p}
+ * (sequence {@code p}) or holds the element written there (sequence {@code p + 1}). Producers and consumers claim
+ * positions with a compare-and-set on the tail and head counters and publish a slot by advancing its sequence, so
+ * a full or empty buffer is detected without locks and no thread ever blocks inside the buffer. Any number of
+ * threads may offer and poll; {@link AuditLog} has request threads offer, and its writer thread poll (request
+ * threads also poll under the {@link OverflowPolicy#DROP_OLDEST} policy).
+ * </p>
+ */
+public class AuditRingBuffer {
+
+    private final AuditEvent[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Next position to take from
+    private final AtomicLong tail = new AtomicLong(); // Next position to put into
+
+    /**
+     * Constructs an empty buffer.
+     *
+     * @param capacity The minimum number of events held; rounded up to a power of two.
+     */
+    public AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1; // At least two slots
+        this.slots = new AuditEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an event if there is room.
+     *
+     * @param event The event to add.
+     * @return {@code true} if the event was added, {@code false} if the buffer is full.
+     */
+    public boolean offer(AuditEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = event;
+                    sequences.set(index, position + 1); // Publishes the event to consumers
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // The slot still holds an event from one lap ago
+            } else {
+                position = tail.get(); // Another producer claimed the position
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest event.
+     *
+     * @return The event, or {@code null} if the buffer is empty.
+     */
+    public AuditEvent poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    AuditEvent event = slots[index];
+                    slots[index] = null;
+                    sequences.set(index, position + slots.length); // Frees the slot for the next lap
+                    return event;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null; // Nothing published at this position yet
+            } else {
+                position = head.get(); // Another consumer took the position
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} of the oldest events into the given collection.
+     *
+     * @param target The collection receiving the events, in order.
+     * @param max    The maximum number of events moved.
+     * @return The number of events moved.
+     */
+    public int drainTo(Collection<AuditEvent> target, int max) {
+        int drained = 0;
+        while (drained < max) {
+            AuditEvent event = poll();
+            if (event == null) {
+                break;
+            }
+            target.add(event);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the number of queued events; only an estimate while other threads offer or poll.
+     *
+     * @return The number of events.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(slots.length, tail.get() - head.get()));
+    }
+
+    /**
+     * Returns the number of events the buffer holds when full.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,23 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Durable destination of audit events, written to by the single writer thread of {@link AuditLog}.
+ */
+public interface AuditSink extends Closeable {
+
+    /**
+     * Writes a batch of events; when this returns, the batch is stored.
+     *
+     * @param events The events, oldest first.
+     * @throws IOException If the batch could not be stored; it is retried on the next flush.
+     */
+    void write(List<AuditEvent> events) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,69 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Writes audit events to the {@code audit_log} table.
+ * <p>
+ * A batch is sent as one JDBC batch of inserts and committed once, on a connection borrowed from the application's
+ * pool for the duration of the write. Values longer than their column are truncated.
+ * </p>
+ */
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT = "INSERT INTO audit_log (occurred_at, event_type, actor, subject, detail, "
+            + "client_ip) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * Constructs the sink.
+     *
+     * @param jdbc The database holding the {@code audit_log} table.
+     */
+    public JdbcAuditSink(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void write(List<AuditEvent> events) {
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                for (AuditEvent event : events) {
+                    statement.setLong(1, event.occurredAt());
+                    statement.setString(2, event.action().label());
+                    setText(statement, 3, event.actor(), 255);
+                    setText(statement, 4, event.subject(), 255);
+                    setText(statement, 5, event.detail(), 255);
+                    setText(statement, 6, event.clientIp(), 64);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private static void setText(PreparedStatement statement, int index, String value, int maxLength)
+            throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value.length() > maxLength ? value.substring(0, maxLength) : value);
+        }
+    }
+}
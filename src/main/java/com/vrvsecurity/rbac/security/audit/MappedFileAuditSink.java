@@ -0,0 +1,158 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes audit events to rolling, memory-mapped, append-only segment files.
+ * <p>
+ * Each segment is a file of {@code segmentBytes} mapped read-write; events are appended to the mapping as
+ * tab-separated lines (time, event type, actor, subject, detail, client address, with {@code -} for absent
+ * values) and the mapping is forced to disk after every batch, so a batch costs no system call per event. When
+ * an event does not fit, the segment is trimmed to its written length and the next one is started. Segments are
+ * named {@code audit-<epoch millis>.log}, so they sort in the order they were written; only the newest
+ * {@code maxSegments} are kept. A new segment is started whenever the application starts.
+ * </p>
+ */
+public class MappedFileAuditSink implements AuditSink {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedFileAuditSink.class);
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private Path segment;
+
+    /**
+     * Constructs the sink, creating the directory if needed.
+     *
+     * @param directory    The directory holding the segments.
+     * @param segmentBytes The size of a segment.
+     * @param maxSegments  The number of segments kept, including the one being written.
+     */
+    public MappedFileAuditSink(Path directory, int segmentBytes, int maxSegments) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    @Override
+    public void write(List<AuditEvent> events) throws IOException {
+        if (mapped == null) {
+            roll();
+        }
+        for (AuditEvent event : events) {
+            byte[] line = format(event);
+            if (line.length > mapped.remaining()) {
+                mapped.force();
+                roll();
+            }
+            mapped.put(line, 0, Math.min(line.length, mapped.remaining()));
+        }
+        mapped.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mapped != null) {
+            mapped.force();
+            finishSegment();
+        }
+    }
+
+    /**
+     * Trims the current segment, if any, and maps a new one.
+     *
+     * @throws IOException If the new segment cannot be created.
+     */
+    private void roll() throws IOException {
+        finishSegment();
+        long now = System.currentTimeMillis();
+        Path next = directory.resolve(PREFIX + String.format("%013d", now) + SUFFIX);
+        while (Files.exists(next)) {
+            next = directory.resolve(PREFIX + String.format("%013d", ++now) + SUFFIX);
+        }
+        channel = FileChannel.open(next, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segment = next;
+        deleteOldSegments();
+    }
+
+    /**
+     * Cuts the unused tail off the current segment and closes it. The mapping stays valid until it is garbage
+     * collected but is no longer written.
+     */
+    private void finishSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        int written = mapped.position();
+        mapped = null;
+        try {
+            channel.truncate(written);
+        } catch (IOException e) {
+            log.debug("Could not trim audit segment {}, its tail stays zero-filled: {}", segment, e.getMessage());
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        segments.sort(null);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private static byte[] format(AuditEvent event) {
+        StringBuilder line = new StringBuilder(160)
+                .append(Instant.ofEpochMilli(event.occurredAt())).append('\t')
+                .append(event.action().label()).append('\t');
+        appendField(line, event.actor()).append('\t');
+        appendField(line, event.subject()).append('\t');
+        appendField(line, event.detail()).append('\t');
+        appendField(line, event.clientIp()).append('\n');
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder appendField(StringBuilder line, String value) {
+        if (value == null || value.isEmpty()) {
+            return line.append('-');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            line.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : c); // Keeps one event per line
+        }
+        return line;
+    }
+}
@@ -0,0 +1,45 @@
+package com.vrvsecurity.rbac.security.audit;
+
+/**
+ * What {@link AuditLog} does with an event when its ring buffer is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The new event is dropped; the request never waits.
+     */
+    DROP_NEWEST("drop-newest"),
+
+    /**
+     * The oldest queued event is dropped to make room for the new one; the request never waits.
+     */
+    DROP_OLDEST("drop-oldest"),
+
+    /**
+     * The request waits for the writer to make room, up to {@code rbac.audit.max-block-ms}, and the new event is
+     * dropped if it does not.
+     */
+    BLOCK("block");
+
+    private final String label;
+
+    OverflowPolicy(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Resolves a policy from its configuration label.
+     *
+     * @param label The label, e.g. {@code drop-newest}.
+     * @return The policy.
+     * @throws IllegalArgumentException If no policy has that label.
+     */
+    public static OverflowPolicy fromLabel(String label) {
+        for (OverflowPolicy policy : values()) {
+            if (policy.label.equalsIgnoreCase(label.trim())) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown audit overflow policy: " + label);
+    }
+}
@@ -0,0 +1,44 @@
+package com.vrvsecurity.rbac.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for the authentication of a Bearer token by {@code JwtAuthFilter}.
+ * <p>
+ * The event spans the whole authentication, including the status check, and breaks it down into token
+ * verification and principal load. Tokens served from the verified token cache are not recorded.
+ * </p>
+ */
+@Name("com.vrvsecurity.rbac.Authentication")
+@Label("Authentication")
+@Category({"RBAC", "Security"})
+@Description("Bearer token authentication in the JWT filter")
+@Threshold("20 ms")
+@StackTrace(false)
+public class AuthenticationEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Token Verify Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long tokenVerifyDuration;
+
+    @Label("Principal Load Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long principalLoadDuration;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Decision")
+    @Description("ok, pending, not-found, unavailable, mismatch, expired, bad-signature, malformed or error")
+    public String decision;
+}
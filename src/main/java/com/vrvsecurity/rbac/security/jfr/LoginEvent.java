@@ -0,0 +1,34 @@
+package com.vrvsecurity.rbac.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for a login handled by {@code LoginController}.
+ */
+@Name("com.vrvsecurity.rbac.Login")
+@Label("Login")
+@Category({"RBAC", "Security"})
+@Description("Login request, from the throttle check to the issued token")
+@Threshold("500 ms")
+@StackTrace(false)
+public class LoginEvent extends Event {
+
+    @Label("Hash Duration")
+    @Description("Time spent verifying the password, including loading the user")
+    @Timespan(Timespan.NANOSECONDS)
+    public long hashDuration;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Decision")
+    @Description("ok, throttled, bad-credentials or unavailable")
+    public String decision;
+}
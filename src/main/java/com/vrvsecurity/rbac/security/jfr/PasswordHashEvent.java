@@ -0,0 +1,29 @@
+package com.vrvsecurity.rbac.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a password hash computed at registration or login.
+ */
+@Name("com.vrvsecurity.rbac.PasswordHash")
+@Label("Password Hash")
+@Category({"RBAC", "Security"})
+@Description("Password hashing by the password encoder")
+@Threshold("500 ms")
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    @Label("Operation")
+    @Description("encode or matches")
+    public String operation;
+
+    @Label("Outcome")
+    @Description("ok or mismatch")
+    public String outcome;
+}
@@ -0,0 +1,41 @@
+package com.vrvsecurity.rbac.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for the load of a principal by {@code CustomUserDetailsService}.
+ */
+@Name("com.vrvsecurity.rbac.PrincipalLoad")
+@Label("Principal Load")
+@Category({"RBAC", "Security"})
+@Description("Principal load from the cache, the database or a stale cache entry")
+@Threshold("20 ms")
+@StackTrace(false)
+public class PrincipalLoadEvent extends Event {
+
+    @Label("Source")
+    @Description("cache, database, stale or none")
+    public String source;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Database Duration")
+    @Description("Time spent in the database query, including waiting for a connection")
+    @Timespan(Timespan.NANOSECONDS)
+    public long databaseDuration;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Outcome")
+    @Description("ok, not-found or unavailable")
+    public String outcome;
+}
@@ -0,0 +1,25 @@
+package com.vrvsecurity.rbac.security.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for the parsing and signature verification of a JWT by {@code JwtUtil}.
+ */
+@Name("com.vrvsecurity.rbac.TokenVerification")
+@Label("Token Verification")
+@Category({"RBAC", "Security"})
+@Description("JWT parsing and signature verification")
+@Threshold("5 ms")
+@StackTrace(false)
+public class TokenVerificationEvent extends Event {
+
+    @Label("Outcome")
+    @Description("ok, expired, bad-signature or malformed")
+    public String outcome;
+}
@@ -0,0 +1,63 @@
+package com.vrvsecurity.rbac.service;
+
+import com.vrvsecurity.rbac.model.EmailDigest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper methods shared by the bulk administrative operations in {@link UserService} and {@link RoleService}.
+ */
+final class BulkUpdates {
+
+    private BulkUpdates() {
+    }
+
+    /**
+     * Normalizes an elapsed time to milliseconds per 10,000 users so bulk runs of different sizes compare.
+     *
+     * @param elapsedNanos The time spent applying the change.
+     * @param users        The number of users the change was applied to.
+     * @return The elapsed milliseconds per 10,000 users, or 0 when no users were selected.
+     */
+    static double millisPer10kUsers(long elapsedNanos, int users) {
+        if (users == 0) {
+            return 0;
+        }
+        double millis = elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        return millis * 10_000 / users;
+    }
+
+    /**
+     * Normalizes the emails from a request and removes duplicates while keeping their original order.
+     *
+     * @param emails The emails from the request.
+     * @return An immutable list of distinct normalized emails.
+     */
+    static List<String> normalizedDistinct(List<String> emails) {
+        return emails.stream().map(EmailDigest::normalize).distinct().toList();
+    }
+
+    /**
+     * Computes the lookup digests of a chunk of normalized emails.
+     *
+     * @param normalizedEmails The normalized emails of the chunk.
+     * @return The digests, in the same order.
+     */
+    static List<byte[]> digests(List<String> normalizedEmails) {
+        return normalizedEmails.stream().map(EmailDigest::of).toList();
+    }
+
+    /**
+     * Describes a committed chunk for its audit record: the changed rows out of the chunk's users, and the first
+     * and last email of the chunk so the record can be matched to the request.
+     *
+     * @param changed          The number of rows the chunk's statement changed.
+     * @param normalizedEmails The normalized emails of the chunk.
+     * @return The audit detail; longer than the column only for very long emails, and then truncated by the sink.
+     */
+    static String auditDetail(int changed, List<String> normalizedEmails) {
+        return changed + " of " + normalizedEmails.size() + " users, " + normalizedEmails.get(0) + " to "
+                + normalizedEmails.get(normalizedEmails.size() - 1);
+    }
+}
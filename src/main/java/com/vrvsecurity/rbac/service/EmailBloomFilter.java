@@ -0,0 +1,167 @@
+package com.vrvsecurity.rbac.service;
+
+import com.vrvsecurity.rbac.Repository.UserStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over the emails of all registered users.
+ * <p>
+ * Registration asks this filter before looking an email up: a negative answer means the email is
+ * definitely new and the database read can be skipped, while a positive answer only means the email
+ * might be taken. The filter is rebuilt periodically from the database; until the first build completes
+ * every email is reported as possibly taken. The unique index on the email column remains the final
+ * authority, so a stale filter can only cost an extra lookup, never a duplicate account.
+ * </p>
+ */
+@Component
+public class EmailBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final UserStore userRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile Bits current; // Filter answering queries, null until the first build completes
+    private volatile Bits building; // Filter being rebuilt, also receives emails registered meanwhile
+
+    /**
+     * Constructs the filter with the configured sizing.
+     *
+     * @param userRepository     The repository used to stream all registered emails.
+     * @param expectedInsertions The minimum number of emails the filter is sized for.
+     * @param falsePositiveRate  The target probability of reporting a new email as possibly taken.
+     */
+    public EmailBloomFilter(UserStore userRepository,
+                            @Value("${rbac.registration.bloom.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${rbac.registration.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Checks whether an email might already be registered.
+     *
+     * @param email The email to check.
+     * @return {@code false} if the email is definitely not registered, {@code true} if it might be.
+     */
+    public boolean mightContain(String email) {
+        Bits bits = current;
+        return bits == null || bits.mightContain(hash(email));
+    }
+
+    /**
+     * Records a newly registered email.
+     *
+     * @param email The email that was registered.
+     */
+    public void put(String email) {
+        long hash = hash(email);
+        Bits bits = current;
+        if (bits != null) {
+            bits.put(hash);
+        }
+        Bits next = building;
+        if (next != null) {
+            next.put(hash);
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the emails currently stored in the database and swaps it in atomically.
+     * <p>
+     * The new filter is sized for twice the current number of users (and at least the configured expected
+     * insertions) so it keeps its false positive rate until the next rebuild.
+     * </p>
+     */
+    @Scheduled(initialDelayString = "${rbac.registration.bloom.initial-delay-ms:0}",
+            fixedDelayString = "${rbac.registration.bloom.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.nanoTime();
+        Bits next = new Bits(Math.max(expectedInsertions, userRepository.count() * 2), falsePositiveRate);
+        building = next;
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            emails.forEach(email -> next.put(hash(email)));
+            current = next;
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the email Bloom filter, keeping the previous one", e);
+        } finally {
+            building = null;
+        }
+        log.debug("Rebuilt email Bloom filter in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Computes a 64-bit hash of an email using the MurmurHash3 finalizer over its characters.
+     *
+     * @param email The email to hash.
+     * @return The 64-bit hash.
+     */
+    private static long hash(String email) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < email.length(); i++) {
+            h = (h ^ email.charAt(i)) * 0xC6A4A7935BD1E995L;
+            h ^= h >>> 47;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Thread-safe bit array with {@code k} probe positions derived from one 64-bit hash by double hashing.
+     */
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            long bits = (long) (-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.vrvsecurity.rbac.service;
+
+import com.vrvsecurity.rbac.Repository.PrincipalRow;
+import com.vrvsecurity.rbac.Repository.RoleStore;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.dto.SnapshotResponse;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import com.vrvsecurity.rbac.security.PrincipalSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Service writing and loading {@link PrincipalSnapshot} files.
+ * <p>
+ * An administrator writes a snapshot on demand; a node starting with {@code rbac.snapshot.load-on-startup}
+ * maps the configured file, if present and recent enough, and installs it behind the {@link PrincipalCache}
+ * so its first requests do not each cost a database lookup.
+ * </p>
+ * <p>
+ * Each snapshot records the database it was read from, {@code rbac.snapshot.source} or by default the datasource
+ * URL without its parameters or credentials. A snapshot written from another database is never installed, so a
+ * node pointed at a different environment cannot authenticate users that database does not know.
+ * </p>
+ */
+@Service
+public class PrincipalSnapshotService implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PrincipalSnapshotService.class);
+
+    private final UserStore userRepository;
+    private final RoleStore roleRepository;
+    private final PrincipalCache principalCache;
+    private final Path path;
+    private final String source;
+    private final boolean loadOnStartup;
+    private final Duration maxAge;
+    private final boolean preloadPages;
+    private final ReentrantLock writing = new ReentrantLock();
+
+    /**
+     * Constructs the service with the configured snapshot location and usage.
+     *
+     * @param userRepository The repository streaming the users to snapshot.
+     * @param roleRepository The repository providing the role catalog.
+     * @param principalCache The cache a loaded snapshot is installed in.
+     * @param path           The snapshot file.
+     * @param source         The identifier of the database snapshots are read from.
+     * @param loadOnStartup  Whether an existing snapshot is installed at startup.
+     * @param maxAgeSeconds  The age after which a snapshot is no longer used.
+     * @param preloadPages   Whether a loaded snapshot is read into memory at once.
+     */
+    public PrincipalSnapshotService(UserStore userRepository, RoleStore roleRepository,
+                                    PrincipalCache principalCache,
+                                    @Value("${rbac.snapshot.path:./data/principals.snap}") String path,
+                                    @Value("${rbac.snapshot.source:${spring.datasource.url:}}") String source,
+                                    @Value("${rbac.snapshot.load-on-startup:true}") boolean loadOnStartup,
+                                    @Value("${rbac.snapshot.max-age-seconds:300}") long maxAgeSeconds,
+                                    @Value("${rbac.snapshot.preload-pages:true}") boolean preloadPages) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.principalCache = principalCache;
+        this.path = Path.of(path);
+        this.source = sourceOf(source);
+        this.loadOnStartup = loadOnStartup;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.preloadPages = preloadPages;
+    }
+
+    /**
+     * Installs the configured snapshot at startup when enabled.
+     * <p>
+     * A missing, outdated or unreadable snapshot is logged and skipped; the node then warms its cache from
+     * the database as usual.
+     * </p>
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!loadOnStartup || !Files.exists(path)) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            PrincipalSnapshot snapshot = PrincipalSnapshot.open(path, preloadPages);
+            if (!snapshot.source().equals(source)) {
+                log.warn("Ignoring principal snapshot {} written from {}, not from {}", path, snapshot.source(),
+                        source);
+            } else if (principalCache.useSnapshot(snapshot, maxAge)) {
+                log.info("Loaded principal snapshot of {} users from {} in {} ms", snapshot.size(), path,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } else {
+                log.info("Ignoring principal snapshot {} written at {}, older than {}", path,
+                        snapshot.createdAt(), maxAge);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load principal snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a snapshot of all users and roles to the configured file.
+     * <p>
+     * Users are streamed in email digest order within one read-only transaction, so memory use does not grow
+     * with the number of users. Only one snapshot is written at a time.
+     * </p>
+     *
+     * @return A {@link SnapshotResponse} describing the written snapshot.
+     * @throws RuntimeException If a snapshot is already being written or the file cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public SnapshotResponse writeSnapshot() {
+        if (!writing.tryLock()) {
+            throw new RuntimeException("A snapshot is already being written");
+        }
+        try {
+            long started = System.nanoTime();
+            List<Role> roles = roleRepository.findAll(); // Read first so every role a row references is in the catalog
+            int users;
+            try (Stream<PrincipalRow> rows = userRepository.streamPrincipalRows()) {
+                users = PrincipalSnapshot.write(path, source, roles, rows.iterator());
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            log.info("Wrote principal snapshot of {} users to {} in {} ms", users, path, millis);
+            return new SnapshotResponse(path.toString(), users, roles.size(), Files.size(path), millis);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write snapshot: " + e.getMessage(), e);
+        } finally {
+            writing.unlock();
+        }
+    }
+
+    /**
+     * Reduces a datasource URL to the database it names, dropping parameters and credentials.
+     *
+     * @param url The configured source or datasource URL.
+     * @return The identifier recorded in and compared against snapshots.
+     */
+    static String sourceOf(String url) {
+        return url.split("[?;]", 2)[0].replaceFirst("//[^/@]*@", "//");
+    }
+}
@@ -1,31 +1,61 @@
 package com.vrvsecurity.rbac.service;
 
-import com.vrvsecurity.rbac.Repository.RoleRepository;
+import com.vrvsecurity.rbac.Repository.RoleStore;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.dto.BulkRoleRequest;
+import com.vrvsecurity.rbac.dto.BulkUpdateResponse;
 import com.vrvsecurity.rbac.dto.RoleRequest;
 import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.security.CacheChangeLog;
+import com.vrvsecurity.rbac.security.audit.AuditAction;
+import com.vrvsecurity.rbac.security.audit.AuditLog;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.ToIntBiFunction;
 
 /**
  * Service class that manages role-related operations such as adding new roles.
  * <p>
  * This service handles the logic of adding new roles to the system. It ensures roles are unique by checking the database
  * for existing roles before creating a new one. Roles are stored in uppercase for consistency.
+ * It also grants and revokes roles for many users at once by working directly on the {@code user_role} join table.
  * </p>
  */
 @Service
 public class RoleService {
 
-    private final RoleRepository roleRepository;
+    private final RoleStore roleRepository;
+    private final UserStore userRepository;
+    private final CacheChangeLog cacheChangeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final int bulkChunkSize;
+    private final AuditLog auditLog;
 
     /**
-     * Constructs a new RoleService with the provided RoleRepository.
+     * Constructs a new RoleService with the provided repositories.
      *
      * @param roleRepository The repository for managing roles in the database.
+     * @param userRepository The repository used to change role assignments in bulk.
+     * @param cacheChangeLog The log through which every node evicts a user's principal when their roles change.
+     * @param transactionManager The transaction manager used to commit each chunk with its change log entries.
+     * @param bulkChunkSize  The maximum number of users changed by a single bulk statement.
+     * @param auditLog       The audit trail role additions, grants and revocations are recorded in.
      */
-    public RoleService(RoleRepository roleRepository){
+    public RoleService(RoleStore roleRepository, UserStore userRepository, CacheChangeLog cacheChangeLog,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${rbac.bulk.chunk-size:500}") int bulkChunkSize, AuditLog auditLog){
         this.roleRepository = roleRepository;
+        this.userRepository = userRepository;
+        this.cacheChangeLog = cacheChangeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkChunkSize = bulkChunkSize;
+        this.auditLog = auditLog;
     }
 
     /**
@@ -50,7 +80,69 @@ public class RoleService {
         Role role = new Role();
         role.setName(roleName);  // Store the role in uppercase
         roleRepository.save(role);
+        auditLog.record(AuditAction.ROLE_ADDED, roleName, null); // Audited by the admin who added it
 
         return roleRequest.getRole().toUpperCase() + " role added";  // Return a message indicating the role was added
     }
+
+    /**
+     * Grants a role to many users with batched set-based inserts into the {@code user_role} join table.
+     * Users that already hold the role are left unchanged, so repeating the request is harmless.
+     *
+     * @param request The bulk request containing the role name and the user emails.
+     * @return The number of selected users, the reported row count, the issued statements and the throughput.
+     * @throws RuntimeException If the role does not exist or no emails are given.
+     */
+    public BulkUpdateResponse grantRole(BulkRoleRequest request) {
+        return applyInChunks(request, AuditAction.ROLE_GRANTED, userRepository::grantRoleByEmailDigestIn);
+    }
+
+    /**
+     * Revokes a role from many users with set-based deletes on the {@code user_role} join table.
+     * Users that do not hold the role are unaffected, so repeating the request is harmless.
+     *
+     * @param request The bulk request containing the role name and the user emails.
+     * @return The number of selected users, the deleted rows, the issued statements and the throughput.
+     * @throws RuntimeException If the role does not exist or no emails are given.
+     */
+    public BulkUpdateResponse revokeRole(BulkRoleRequest request) {
+        return applyInChunks(request, AuditAction.ROLE_REVOKED, userRepository::revokeRoleByEmailDigestIn);
+    }
+
+    /**
+     * Resolves the requested role once and applies a join-table statement to the emails chunk by chunk.
+     * Each chunk commits together with the change log entries that evict its principals on every node, and is
+     * audited once it commits.
+     *
+     * @param request   The bulk request containing the role name and the user emails.
+     * @param action    The audit action recorded for each chunk.
+     * @param statement The set-based statement to run for each chunk of email digests and the role id.
+     * @return The counts and throughput of the bulk change.
+     */
+    private BulkUpdateResponse applyInChunks(BulkRoleRequest request, AuditAction action,
+                                             ToIntBiFunction<Collection<byte[]>, Long> statement) {
+        if (request.getRole() == null || request.getEmails() == null || request.getEmails().isEmpty()) {
+            throw new RuntimeException("Role and emails are required");
+        }
+        Role role = roleRepository.findByName("ROLE_" + request.getRole().toUpperCase())
+                .orElseThrow(() -> new RuntimeException(request.getRole().toUpperCase() + " role not found"));
+
+        List<String> emails = BulkUpdates.normalizedDistinct(request.getEmails());
+        long started = System.nanoTime();
+        int affected = 0;
+        int chunks = 0;
+        for (int from = 0; from < emails.size(); from += bulkChunkSize) {
+            List<String> chunk = emails.subList(from, Math.min(from + bulkChunkSize, emails.size()));
+            affected += transactionTemplate.execute(tx -> {
+                int changed = statement.applyAsInt(BulkUpdates.digests(chunk), role.getRoleId());
+                cacheChangeLog.recordUserChanges(chunk);
+                auditLog.record(action, role.getName(), BulkUpdates.auditDetail(changed, chunk));
+                return changed;
+            });
+            chunks++;
+        }
+
+        return new BulkUpdateResponse(emails.size(), affected, chunks,
+                BulkUpdates.millisPer10kUsers(System.nanoTime() - started, emails.size()));
+    }
 }
@@ -1,16 +1,36 @@
 package com.vrvsecurity.rbac.service;
 
-import com.vrvsecurity.rbac.Repository.RoleRepository;
-import com.vrvsecurity.rbac.Repository.UserRepository;
+import com.vrvsecurity.rbac.Repository.RoleStore;
+import com.vrvsecurity.rbac.Repository.UserEmail;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.dto.BulkUpdateResponse;
+import com.vrvsecurity.rbac.dto.BulkUserStatusRequest;
 import com.vrvsecurity.rbac.dto.RegistrationRequest;
 import com.vrvsecurity.rbac.dto.UserStatus;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
 import com.vrvsecurity.rbac.model.Role;
 import com.vrvsecurity.rbac.model.User;
+import com.vrvsecurity.rbac.security.AuthOutcome;
+import com.vrvsecurity.rbac.security.CacheChangeLog;
+import com.vrvsecurity.rbac.security.audit.AuditAction;
+import com.vrvsecurity.rbac.security.audit.AuditLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -23,9 +43,20 @@ import java.util.Set;
 @Service
 public class UserService {
 
-    private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    /**
+     * The largest page of users returned by a single status listing.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final UserStore userRepository;
+    private final RoleStore roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheChangeLog cacheChangeLog;
+    private final EmailBloomFilter emailBloomFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final int bulkChunkSize;
+    private final AuthOutcome.Timers roleLookupTimers;
+    private final AuditLog auditLog;
 
     /**
      * Constructs a new UserService with the provided repositories and password encoder.
@@ -33,11 +64,28 @@ public class UserService {
      * @param userRepository  The repository for managing users in the database.
      * @param roleRepository  The repository for managing roles in the database.
      * @param passwordEncoder The encoder for encrypting user passwords.
+     * @param cacheChangeLog  The log through which every node evicts a user's principal when their status changes.
+     * @param emailBloomFilter The filter answering whether an email might already be registered.
+     * @param transactionManager The transaction manager used to commit each bulk chunk with its change log entries.
+     * @param bulkChunkSize   The maximum number of users changed by a single bulk statement.
+     * @param meterRegistry   The registry the role lookup timers are published to.
+     * @param auditLog        The audit trail registrations and status changes are recorded in.
      */
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder){
+    public UserService(UserStore userRepository, RoleStore roleRepository, PasswordEncoder passwordEncoder,
+                       CacheChangeLog cacheChangeLog, EmailBloomFilter emailBloomFilter,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${rbac.bulk.chunk-size:500}") int bulkChunkSize, MeterRegistry meterRegistry,
+                       AuditLog auditLog){
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.cacheChangeLog = cacheChangeLog;
+        this.emailBloomFilter = emailBloomFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkChunkSize = bulkChunkSize;
+        this.roleLookupTimers = new AuthOutcome.Timers(meterRegistry, "rbac.auth.role.lookup",
+                "Time spent looking up the roles requested at registration", AuthOutcome.OK, AuthOutcome.NOT_FOUND);
+        this.auditLog = auditLog;
     }
 
     /**
@@ -46,47 +94,70 @@ public class UserService {
      * <p>
      * If the user has an 'admin' or 'moderator' role, their account will have a 'pending' status for admin review.
      * </p>
+     * <p>
+     * The email is only looked up when the {@link EmailBloomFilter} reports it as possibly taken. The unique index on
+     * the email column decides concurrent sign-ups: a duplicate-key failure on insert is answered the same way as an
+     * email found by the lookup.
+     * </p>
+     * <p>
+     * Successful registrations are recorded in the {@link AuditLog}.
+     * </p>
      *
      * @param request The registration request object containing user details and roles.
      * @return A message indicating whether the registration was successful or if the email is already taken.
      */
     public String registration(RegistrationRequest request) {
-        Optional<User> byEmail = userRepository.findByEmail(request.getEmail());
-        if(byEmail.isPresent()){
-            return "Already had an account with " + request.getEmail() + " email";
+        String email = EmailDigest.normalize(request.getEmail());
+        if (emailBloomFilter.mightContain(email) && userRepository.findByEmail(email).isPresent()) {
+            return alreadyRegistered(email);
         }
 
         // Initialize the User object with details from the registration request
         User user = new User();
         user.setFullName(request.getFullName());
         user.setCellNumber(request.getCellNumber());
-        user.setEmail(request.getEmail());
+        user.setEmail(email);
         user.setPassword(passwordEncoder.encode(request.getPassword())); // Encode the password
 
         // Default status for 'user', updated based on roles
-        String status = "active";
+        AccountStatus status = AccountStatus.ACTIVE;
         Set<Role> roles = new HashSet<>();
 
+        // Resolve every requested role with a single query
+        Map<String, Role> found = findRoles(request.getRoles());
+
         // Assign roles and set status to 'pending' for admin or moderator roles
         for (String roleName : request.getRoles()) {
-            Role role = roleRepository.findByName("ROLE_" + roleName)
-                    .orElseThrow(() -> new RuntimeException(roleName + " role not found"));
+            Role role = found.get(("ROLE_" + roleName).toUpperCase());
+            if (role == null) {
+                throw new RuntimeException(roleName + " role not found");
+            }
 
             roles.add(role); // Add the role to the user's roles
 
             if ("admin".equalsIgnoreCase(roleName) || "moderator".equalsIgnoreCase(roleName)) {
-                status = "pending"; // Set status to 'pending' for admin or moderator
+                status = AccountStatus.PENDING; // Set status to 'pending' for admin or moderator
             }
         }
 
         user.setStatus(status); // Set the user's status
         user.setRoles(roles); // Set the user's roles
+        user.setRegisteredAt(LocalDateTime.now());
 
-        // Save the user to the database
-        userRepository.save(user);
+        // Save the user to the database, relying on the unique email index to reject duplicates
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.findByEmail(email).isPresent()) {
+                return alreadyRegistered(email);
+            }
+            throw e;
+        }
+        emailBloomFilter.put(email);
+        auditLog.record(AuditAction.REGISTRATION, email, status.getLabel());
 
         // Return an appropriate message based on the status
-        if ("pending".equalsIgnoreCase(status)) {
+        if (status == AccountStatus.PENDING) {
             return "Registration successful. Your account is pending activation and requires admin review.";
         } else {
             return "Registration successful. You can now log in to your account.";
@@ -94,14 +165,57 @@ public class UserService {
     }
 
     /**
-     * Retrieves a list of users by their status.
+     * Looks up the roles requested at registration with one query, keyed by their upper-case stored name.
+     * <p>
+     * Role names are stored upper-case with the {@code ROLE_} prefix (see {@link RoleService#addRole}), so the
+     * requested names are matched regardless of case.
+     * </p>
+     *
+     * @param roleNames The requested role names, without the {@code ROLE_} prefix.
+     * @return The roles found, keyed by upper-case name; requested roles that do not exist are absent.
+     */
+    private Map<String, Role> findRoles(Collection<String> roleNames) {
+        Set<String> names = new HashSet<>();
+        for (String roleName : roleNames) {
+            names.add(("ROLE_" + roleName).toUpperCase());
+        }
+        Map<String, Role> found = new HashMap<>();
+        if (names.isEmpty()) {
+            return found;
+        }
+        long started = System.nanoTime();
+        for (Role role : roleRepository.findByNameIn(names)) {
+            found.put(role.getName().toUpperCase(), role);
+        }
+        roleLookupTimers.record(found.keySet().containsAll(names) ? AuthOutcome.OK : AuthOutcome.NOT_FOUND, started);
+        return found;
+    }
+
+    /**
+     * Builds the response returned when an email is already registered.
      *
-     * @param status The status of users to be retrieved (e.g., 'active', 'pending').
+     * @param email The email that is already taken.
+     * @return A message indicating that the email already has an account.
+     */
+    private String alreadyRegistered(String email) {
+        return "Already had an account with " + email + " email";
+    }
+
+    /**
+     * Retrieves one page of users by their status.
+     * <p>
+     * Pages are ordered by user id; pass the last id of a page as {@code afterId} to fetch the next one.
+     * </p>
+     *
+     * @param status  The status of users to be retrieved (e.g., 'active', 'pending').
+     * @param afterId Only users with a greater id are returned; 0 for the first page.
+     * @param limit   The maximum number of users to return, capped at {@value #MAX_PAGE_SIZE}.
      * @return A list of users with the specified status.
-     * @throws RuntimeException If no users are found with the specified status.
+     * @throws RuntimeException If the status is unknown or no users are found with the specified status.
      */
-    public List<User> getUserByStatus(String status) {
-        List<User> users = userRepository.findByStatus(status);
+    public List<User> getUserByStatus(String status, long afterId, int limit) {
+        List<User> users = userRepository.findByStatusAndUserIdGreaterThanOrderByUserIdAsc(
+                AccountStatus.fromLabel(status), afterId, Limit.of(Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
         if(users.isEmpty()){
             throw new RuntimeException("No users found with " + status + " status");
         }
@@ -111,20 +225,105 @@ public class UserService {
     /**
      * Updates the status of a user based on the provided status object.
      * The user is identified by their email, and their status is updated in the database.
+     * The change is logged in the same transaction so every node evicts the user's cached principal, and audited
+     * once the transaction commits.
      *
      * @param status The UserStatus object containing the email and new status.
      * @return A message indicating the updated status of the user.
-     * @throws RuntimeException If the user is not found with the specified email.
+     * @throws RuntimeException If the status is unknown or the user is not found with the specified email.
      */
+    @Transactional
     public String updateUserStatus(UserStatus status) {
         Optional<User> byEmail = userRepository.findByEmail(status.getEmail());
         if(byEmail.isEmpty()){
             throw new RuntimeException("User not found");
         }
         User user = byEmail.get();
-        user.setStatus(status.getStatus()); // Update the user's status
+        user.setStatus(AccountStatus.fromLabel(status.getStatus())); // Update the user's status
         userRepository.save(user);
+        cacheChangeLog.recordUserChanges(List.of(user.getEmail())); // Drop the stale principal on every node
+        auditLog.record(AuditAction.USER_STATUS_CHANGED, user.getEmail(), user.getStatus().getLabel());
 
         return "Updated user status to " + status.getStatus();
     }
+
+    /**
+     * Updates the status of many users with chunked set-based statements.
+     * <p>
+     * Users are selected by the request's email list or, when no emails are given, by its current status and
+     * registration date filter. Each chunk of at most {@code rbac.bulk.chunk-size} users is changed by a single
+     * {@code UPDATE ... WHERE} statement in its own transaction, together with the change log entries through
+     * which every node evicts the cached principals of the chunk. Each committed chunk is audited once, with its
+     * changed row count.
+     * </p>
+     * <p>
+     * A filter is resolved one chunk at a time, each page starting after the last user id of the previous one,
+     * so memory use does not grow with the number of matching users. Users whose registration date is unknown
+     * (created before the column existed) never match a filter and must be selected by email.
+     * </p>
+     *
+     * @param request The bulk request containing the selection and the new status.
+     * @return The number of selected users, changed rows and issued statements.
+     * @throws RuntimeException If the request has no new status, an unknown status or no selection.
+     */
+    public BulkUpdateResponse updateUserStatuses(BulkUserStatusRequest request) {
+        if (request.getStatus() == null || request.getStatus().isBlank()) {
+            throw new RuntimeException("New status is required");
+        }
+
+        AccountStatus newStatus = AccountStatus.fromLabel(request.getStatus());
+        long started = System.nanoTime();
+        int selected = 0;
+        int affected = 0;
+        int chunks = 0;
+        if (request.getEmails() != null && !request.getEmails().isEmpty()) {
+            List<String> emails = BulkUpdates.normalizedDistinct(request.getEmails()); // Normalize and drop duplicate emails
+            for (int from = 0; from < emails.size(); from += bulkChunkSize) {
+                affected += updateStatusChunk(emails.subList(from, Math.min(from + bulkChunkSize, emails.size())),
+                        newStatus, null);
+                chunks++;
+            }
+            selected = emails.size();
+        } else if (request.getCurrentStatus() != null && request.getRegisteredBefore() != null) {
+            AccountStatus expectedStatus = AccountStatus.fromLabel(request.getCurrentStatus());
+            long afterId = 0;
+            List<UserEmail> page;
+            do {
+                page = userRepository.findEmailsByStatusAndRegisteredBefore(expectedStatus,
+                        request.getRegisteredBefore(), afterId, Limit.of(bulkChunkSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                affected += updateStatusChunk(page.stream().map(UserEmail::email).toList(), newStatus,
+                        expectedStatus);
+                chunks++;
+                selected += page.size();
+                afterId = page.get(page.size() - 1).userId();
+            } while (page.size() == bulkChunkSize);
+        } else {
+            throw new RuntimeException("Either emails or currentStatus and registeredBefore are required");
+        }
+
+        return new BulkUpdateResponse(selected, affected, chunks,
+                BulkUpdates.millisPer10kUsers(System.nanoTime() - started, selected));
+    }
+
+    /**
+     * Changes the status of one chunk of users in its own transaction, logging and auditing the change.
+     *
+     * @param chunk          The normalized emails of the users to change.
+     * @param newStatus      The new status.
+     * @param expectedStatus The status the users must currently have, or {@code null} for any.
+     * @return The number of changed rows.
+     */
+    private int updateStatusChunk(List<String> chunk, AccountStatus newStatus, AccountStatus expectedStatus) {
+        return transactionTemplate.execute(tx -> {
+            int updated = userRepository.updateStatusByEmailDigestIn(
+                    BulkUpdates.digests(chunk), newStatus, expectedStatus);
+            cacheChangeLog.recordUserChanges(chunk);
+            auditLog.record(AuditAction.BULK_STATUS_CHANGED, null,
+                    newStatus.getLabel() + ": " + BulkUpdates.auditDetail(updated, chunk));
+            return updated;
+        });
+    }
 }
@@ -0,0 +1,29 @@
+-- Baseline schema as previously generated by Hibernate (ddl-auto=update) from the original entities.
+-- Existing databases are baselined at this version and skip this script, so columns added since belong in later
+-- migrations.
+
+CREATE TABLE IF NOT EXISTS role (
+    role_id BIGINT NOT NULL AUTO_INCREMENT,
+    name    VARCHAR(255) NOT NULL,
+    PRIMARY KEY (role_id),
+    CONSTRAINT uk_role_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS `user` (
+    user_id       BIGINT NOT NULL AUTO_INCREMENT,
+    full_name     VARCHAR(255) NOT NULL,
+    cell_number   INT NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    status        VARCHAR(255),
+    PRIMARY KEY (user_id),
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS user_role (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_role_user FOREIGN KEY (user_id) REFERENCES `user` (user_id),
+    CONSTRAINT fk_user_role_role FOREIGN KEY (role_id) REFERENCES role (role_id)
+);
@@ -0,0 +1,9 @@
+-- Heartbeat row stamped on the primary and read back on replicas to measure replication lag.
+
+CREATE TABLE replica_heartbeat (
+    id      TINYINT NOT NULL,
+    beat_at BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, 0);
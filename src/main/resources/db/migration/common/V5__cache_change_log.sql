@@ -0,0 +1,10 @@
+-- Change log tailed by every node to evict the cached principals of users changed on any node.
+
+CREATE TABLE cache_change_log (
+    seq        BIGINT       NOT NULL AUTO_INCREMENT,
+    email      VARCHAR(255) NOT NULL,
+    changed_at BIGINT       NOT NULL,
+    PRIMARY KEY (seq)
+);
+
+CREATE INDEX idx_cache_change_log_changed_at ON cache_change_log (changed_at);
@@ -0,0 +1,15 @@
+-- Audit trail of logins, registrations and administrative changes, written in batches by the audit log writer.
+
+CREATE TABLE audit_log (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    occurred_at BIGINT       NOT NULL,
+    event_type  VARCHAR(32)  NOT NULL,
+    actor       VARCHAR(255),
+    subject     VARCHAR(255),
+    detail      VARCHAR(255),
+    client_ip   VARCHAR(64),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_audit_log_occurred_at ON audit_log (occurred_at);
+CREATE INDEX idx_audit_log_subject ON audit_log (subject);
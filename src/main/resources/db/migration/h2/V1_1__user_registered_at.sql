@@ -0,0 +1,3 @@
+-- Adds the registration time used by the pending-backlog filters (embedded databases start empty).
+
+ALTER TABLE `user` ADD COLUMN IF NOT EXISTS registered_at DATETIME(6);
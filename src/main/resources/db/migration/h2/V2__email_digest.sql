@@ -0,0 +1,6 @@
+-- Adds the fixed-width SHA-256 lookup digest with its own unique index (embedded databases start empty).
+-- The digest replaces the variable-length unique index on the email column.
+
+ALTER TABLE `user` ADD COLUMN email_digest BINARY(32) NOT NULL;
+ALTER TABLE `user` ADD CONSTRAINT uk_user_email_digest UNIQUE (email_digest);
+ALTER TABLE `user` DROP CONSTRAINT uk_user_email;
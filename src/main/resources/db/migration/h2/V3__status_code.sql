@@ -0,0 +1,7 @@
+-- Stores the account status as a single-byte code (see AccountStatus) and adds indexes
+-- for keyset-paged listings by status and pending-backlog filters.
+
+ALTER TABLE `user` DROP COLUMN status;
+ALTER TABLE `user` ADD COLUMN status TINYINT;
+CREATE INDEX idx_user_status_id ON `user` (status, user_id);
+CREATE INDEX idx_user_status_registered ON `user` (status, registered_at);
@@ -0,0 +1,16 @@
+-- Adds the registration time used by the pending-backlog filters.
+
+-- Databases created by Hibernate before this migration existed may already have the column (ddl-auto=update
+-- added it once the entity mapped it), so it is only added when missing.
+-- Existing rows keep a NULL registration time: when they registered was never recorded, and the filters by
+-- registration date leave them out rather than guess (see README, Account Status).
+SET @add_registered_at := IF(EXISTS(SELECT 1
+                                    FROM information_schema.columns
+                                    WHERE table_schema = DATABASE()
+                                      AND table_name = 'user'
+                                      AND column_name = 'registered_at'),
+                             'DO 0',
+                             'ALTER TABLE `user` ADD COLUMN registered_at DATETIME(6) NULL');
+PREPARE add_registered_at FROM @add_registered_at;
+EXECUTE add_registered_at;
+DEALLOCATE PREPARE add_registered_at;
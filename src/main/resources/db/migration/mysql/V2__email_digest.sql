@@ -0,0 +1,57 @@
+-- Normalizes stored emails and adds the fixed-width SHA-256 lookup digest with its own unique index.
+-- The digest replaces the variable-length unique index on the email column.
+
+-- Accounts whose emails differ only in case or surrounding whitespace would collide on the new unique index
+-- half-way through the migration. They are detected before anything is changed and the migration fails naming
+-- the first colliding address; the operator merges or renames the accounts and re-runs it (see README, Email Lookup).
+DROP PROCEDURE IF EXISTS check_email_collisions;
+
+DELIMITER //
+CREATE PROCEDURE check_email_collisions()
+BEGIN
+    DECLARE colliding_emails BIGINT;
+    DECLARE first_email VARCHAR(255);
+    DECLARE message VARCHAR(128);
+
+    SELECT COUNT(*), MIN(normalized)
+    INTO colliding_emails, first_email
+    FROM (SELECT LOWER(TRIM(email)) AS normalized
+          FROM `user`
+          GROUP BY LOWER(TRIM(email))
+          HAVING COUNT(*) > 1) collisions;
+
+    IF colliding_emails > 0 THEN
+        SET message = LEFT(CONCAT('V2: ', colliding_emails, ' emails collide after LOWER(TRIM(email)), e.g. ',
+                                  first_email, '; merge or rename them'), 128);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = message;
+    END IF;
+END //
+DELIMITER ;
+
+CALL check_email_collisions();
+DROP PROCEDURE check_email_collisions;
+
+ALTER TABLE `user` ADD COLUMN email_digest BINARY(32) NULL;
+
+UPDATE `user`
+SET email        = LOWER(TRIM(email)),
+    email_digest = UNHEX(SHA2(LOWER(TRIM(email)), 256));
+
+ALTER TABLE `user`
+    MODIFY email_digest BINARY(32) NOT NULL,
+    ADD CONSTRAINT uk_user_email_digest UNIQUE (email_digest);
+
+-- The unique index on email was created either by V1 or, on baselined databases, by Hibernate
+-- under a generated name, so it is looked up by column.
+SET @email_index := (SELECT index_name
+                     FROM information_schema.statistics
+                     WHERE table_schema = DATABASE()
+                       AND table_name = 'user'
+                       AND column_name = 'email'
+                       AND non_unique = 0
+                     LIMIT 1);
+SET @drop_email_index := IF(@email_index IS NULL, 'DO 0',
+                            CONCAT('ALTER TABLE `user` DROP INDEX `', @email_index, '`'));
+PREPARE drop_email_index FROM @drop_email_index;
+EXECUTE drop_email_index;
+DEALLOCATE PREPARE drop_email_index;
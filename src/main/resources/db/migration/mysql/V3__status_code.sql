@@ -0,0 +1,50 @@
+-- Stores the account status as a single-byte code (see AccountStatus) instead of free-form text,
+-- and adds indexes matching its access paths:
+-- - (status, user_id) for keyset-paged listings by status;
+-- - (status, registered_at) for pending-backlog filters.
+-- Both keep pending lookups a short range scan however many users are active.
+
+-- The free-form status column had no constraint, so rows with a value that is not one of the four labels (or no
+-- value at all) cannot be mapped without guessing. They are counted before anything is changed and the migration
+-- fails naming them; the operator sets their status explicitly and re-runs it (see README, Account Status).
+DROP PROCEDURE IF EXISTS check_unknown_statuses;
+
+DELIMITER //
+CREATE PROCEDURE check_unknown_statuses()
+BEGIN
+    DECLARE unknown_rows BIGINT;
+    DECLARE first_value VARCHAR(255);
+    DECLARE message VARCHAR(128);
+
+    SELECT COUNT(*), MIN(COALESCE(status, 'NULL'))
+    INTO unknown_rows, first_value
+    FROM `user`
+    WHERE status IS NULL
+       OR LOWER(TRIM(status)) NOT IN ('active', 'pending', 'inactive', 'denied');
+
+    IF unknown_rows > 0 THEN
+        SET message = LEFT(CONCAT('V3: ', unknown_rows, ' users have an unknown status, e.g. ', first_value,
+                                  '; set one of active/pending/inactive/denied'), 128);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = message;
+    END IF;
+END //
+DELIMITER ;
+
+CALL check_unknown_statuses();
+DROP PROCEDURE check_unknown_statuses;
+
+ALTER TABLE `user` ADD COLUMN status_code TINYINT NULL;
+
+UPDATE `user`
+SET status_code = CASE LOWER(TRIM(status))
+                      WHEN 'active' THEN 1
+                      WHEN 'pending' THEN 2
+                      WHEN 'inactive' THEN 3
+                      WHEN 'denied' THEN 4
+    END;
+
+ALTER TABLE `user`
+    DROP COLUMN status,
+    RENAME COLUMN status_code TO status,
+    ADD INDEX idx_user_status_id (status, user_id),
+    ADD INDEX idx_user_status_registered (status, registered_at);
@@ -0,0 +1,51 @@
+package com.vrvsecurity.rbac;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.service.EmailBloomFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the email Bloom filter is built from the database the H2 profiles run against.
+ * <p>
+ * Until the first build completes the filter reports every email as possibly taken, so a rebuild that fails is
+ * only visible as new emails still being reported. The test uses its own in-memory database so the users it
+ * inserts do not reach the query-count suite.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bloom;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("querycount")
+class EmailBloomFilterTests {
+
+	@Autowired
+	private EmailBloomFilter emailBloomFilter;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Test
+	void rebuildReportsRegisteredEmailsAndRulesOutNewOnes() {
+		for (int i = 0; i < 100; i++) {
+			String email = "bloom" + i + "@example.com";
+			jdbc.update("INSERT INTO `user` (full_name, cell_number, email, email_digest, password, status) " +
+					"VALUES (?, ?, ?, ?, ?, ?)", "Bloom", 0, email, EmailDigest.of(email), "x", AccountStatus.ACTIVE.getCode());
+		}
+
+		emailBloomFilter.rebuild();
+
+		IntStream.range(0, 100).forEach(i -> assertTrue(emailBloomFilter.mightContain("bloom" + i + "@example.com")));
+		long reported = IntStream.range(0, 1000)
+				.filter(i -> emailBloomFilter.mightContain("new" + i + "@example.com"))
+				.count();
+		assertTrue(reported < 100, "Expected the built filter to rule out most new emails, but " + reported
+				+ " of 1000 were reported as possibly taken");
+	}
+}
@@ -0,0 +1,276 @@
+package com.vrvsecurity.rbac;
+
+import com.jayway.jsonpath.JsonPath;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import com.vrvsecurity.rbac.sql.RecordedStatement;
+import com.vrvsecurity.rbac.sql.SqlRecordingConfig;
+import com.vrvsecurity.rbac.sql.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static com.vrvsecurity.rbac.sql.SqlStatementAssertions.assertStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query-count regression tests for the controller endpoints.
+ * <p>
+ * Each test sends one request through MockMvc while a {@link SqlStatementRecorder} recording is open and asserts
+ * the exact number and kind of SQL statements the request executed, so an N+1 loop, an extra lookup or a lost
+ * fetch plan fails the build with a diff of the expected and executed statements. Requests are authenticated
+ * with a principal already cached unless the test is about loading it.
+ * </p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("querycount")
+@Import(SqlRecordingConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryCountTests {
+
+	private static final String PASSWORD = "Secret#123";
+	private static final String ADMIN = "admin@example.com";
+	private static final String USER = "user@example.com";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@BeforeAll
+	void seed() throws Exception {
+		jdbc.update("INSERT INTO role (name) VALUES ('ROLE_USER'), ('ROLE_ADMIN'), ('ROLE_MODERATOR')");
+		register(ADMIN, "admin");
+		for (String email : List.of(USER, "listed@example.com", "status@example.com", "bulk1@example.com",
+				"bulk2@example.com", "grant1@example.com", "grant2@example.com")) {
+			register(email, "user");
+		}
+		jdbc.update("UPDATE `user` SET status = ? WHERE email = ?", AccountStatus.ACTIVE.getCode(), ADMIN);
+	}
+
+	@Test
+	void registrationResolvesAllRolesWithOneQuery() throws Exception {
+		List<RecordedStatement> statements = record(post("/auth/register")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(registration("new@example.com", "user", "moderator")), status().isCreated());
+
+		assertStatements("POST /auth/register", statements,
+				"SELECT user", "SELECT role", "INSERT user", "INSERT user_role", "INSERT user_role");
+	}
+
+	@Test
+	void loginLoadsTheUserOnce() throws Exception {
+		principalCache.clear();
+
+		List<RecordedStatement> statements = record(login(USER), status().isOk());
+
+		assertStatements("POST /auth/login", statements, "SELECT user");
+	}
+
+	@Test
+	void loginWithCachedPrincipalSkipsTheDatabase() throws Exception {
+		token(USER);
+
+		List<RecordedStatement> statements = record(login(USER), status().isOk());
+
+		assertStatements("POST /auth/login (cached principal)", statements);
+	}
+
+	@Test
+	void profileLoadsUserAndRolesWithOneQuery() throws Exception {
+		String token = token(USER);
+		principalCache.clear();
+
+		List<RecordedStatement> statements = record(get("/user/profile")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token), status().isOk());
+
+		assertStatements("GET /user/profile", statements, "SELECT user");
+	}
+
+	@Test
+	void profileWithCachedPrincipalSkipsTheDatabase() throws Exception {
+		String token = token(USER);
+
+		List<RecordedStatement> statements = record(get("/user/profile")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token), status().isOk());
+
+		assertStatements("GET /user/profile (cached principal)", statements);
+	}
+
+	@Test
+	void introspectionLoadsEachUserOnce() throws Exception {
+		String userToken = token(USER);
+		String adminToken = token(ADMIN);
+		principalCache.clear();
+
+		List<RecordedStatement> statements = record(post("/auth/introspect")
+				.header("X-Introspection-Secret", "querycount-secret")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tokens\":[\"" + userToken + "\",\"" + adminToken + "\",\"" + userToken
+						+ "\",\"not-a-token\"]}"), status().isOk());
+
+		assertStatements("POST /auth/introspect", statements, "SELECT user", "SELECT user");
+	}
+
+	@Test
+	void introspectionOfCachedTokensSkipsTheDatabase() throws Exception {
+		String userToken = token(USER);
+		String adminToken = token(ADMIN);
+		introspect(userToken, adminToken);
+
+		List<RecordedStatement> statements = record(post("/auth/introspect")
+				.header("X-Introspection-Secret", "querycount-secret")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tokens\":[\"" + userToken + "\",\"" + adminToken + "\"]}"), status().isOk());
+
+		assertStatements("POST /auth/introspect (cached tokens)", statements);
+	}
+
+	@Test
+	void userListingLoadsRolesInOneBatch() throws Exception {
+		List<RecordedStatement> statements = record(asAdmin(get("/admin/users/active")), status().isOk());
+
+		assertStatements("GET /admin/users/active", statements, "SELECT user", "SELECT user_role");
+	}
+
+	@Test
+	void statusUpdate() throws Exception {
+		List<RecordedStatement> statements = record(asAdmin(post("/admin/updateUserStatus")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"status@example.com\",\"status\":\"inactive\"}")), status().isOk());
+
+		assertStatements("POST /admin/updateUserStatus", statements,
+				"SELECT user", "UPDATE user", "INSERT cache_change_log");
+	}
+
+	@Test
+	void bulkStatusUpdate() throws Exception {
+		List<RecordedStatement> statements = record(asAdmin(post("/admin/updateUserStatuses")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"emails\":[\"bulk1@example.com\",\"bulk2@example.com\"],\"status\":\"inactive\"}")),
+				status().isOk());
+
+		assertStatements("POST /admin/updateUserStatuses", statements, "UPDATE user", "INSERT cache_change_log");
+	}
+
+	@Test
+	void addRole() throws Exception {
+		List<RecordedStatement> statements = record(asAdmin(post("/admin/addRole")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"role\":\"auditor\"}")), status().isCreated());
+
+		assertStatements("POST /admin/addRole", statements, "SELECT role", "INSERT role");
+	}
+
+	@Test
+	void grantRole() throws Exception {
+		List<RecordedStatement> statements = record(asAdmin(post("/admin/grantRole")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(bulkRole("moderator"))), status().isOk());
+
+		assertStatements("POST /admin/grantRole", statements,
+				"SELECT role", "INSERT user_role", "INSERT cache_change_log");
+	}
+
+	@Test
+	void revokeRole() throws Exception {
+		List<RecordedStatement> statements = record(asAdmin(post("/admin/revokeRole")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(bulkRole("user"))), status().isOk());
+
+		assertStatements("POST /admin/revokeRole", statements,
+				"SELECT role", "DELETE user_role", "INSERT cache_change_log");
+	}
+
+	@Test
+	void snapshotStreamsAllPrincipalsWithOneQuery() throws Exception {
+		List<RecordedStatement> statements = record(asAdmin(post("/admin/snapshot")), status().isOk());
+
+		assertStatements("POST /admin/snapshot", statements, "SELECT role", "SELECT user");
+	}
+
+	/**
+	 * Sends a request and returns the statements it executed on this thread.
+	 */
+	private List<RecordedStatement> record(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus)
+			throws Exception {
+		List<RecordedStatement> statements;
+		SqlStatementRecorder.start();
+		try {
+			mockMvc.perform(request).andExpect(expectedStatus);
+		} finally {
+			statements = SqlStatementRecorder.stop();
+		}
+		return statements;
+	}
+
+	/**
+	 * Authenticates a request as the admin, whose principal is cached by the login beforehand.
+	 */
+	private MockHttpServletRequestBuilder asAdmin(MockHttpServletRequestBuilder request) throws Exception {
+		return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(ADMIN));
+	}
+
+	/**
+	 * Logs in outside any recording, leaving the user's principal cached, and returns the issued token.
+	 */
+	private String token(String email) throws Exception {
+		String body = mockMvc.perform(login(email))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return JsonPath.read(body, "$.token");
+	}
+
+	/**
+	 * Introspects tokens outside any recording, leaving them in the verified token cache.
+	 */
+	private void introspect(String... tokens) throws Exception {
+		mockMvc.perform(post("/auth/introspect")
+						.header("X-Introspection-Secret", "querycount-secret")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"tokens\":[\"" + String.join("\",\"", tokens) + "\"]}"))
+				.andExpect(status().isOk());
+	}
+
+	private void register(String email, String... roles) throws Exception {
+		mockMvc.perform(post("/auth/register")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(registration(email, roles)))
+				.andExpect(status().isCreated());
+	}
+
+	private static MockHttpServletRequestBuilder login(String email) {
+		return post("/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}");
+	}
+
+	private static String registration(String email, String... roles) {
+		return "{\"fullName\":\"Query Count\",\"cellNumber\":5550100,\"email\":\"" + email + "\",\"password\":\""
+				+ PASSWORD + "\",\"roles\":[\"" + String.join("\",\"", roles) + "\"]}";
+	}
+
+	private static String bulkRole(String role) {
+		return "{\"role\":\"" + role + "\",\"emails\":[\"grant1@example.com\",\"grant2@example.com\"]}";
+	}
+}
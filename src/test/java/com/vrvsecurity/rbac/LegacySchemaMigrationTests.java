@@ -0,0 +1,58 @@
+package com.vrvsecurity.rbac;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that a database created by Hibernate before the Flyway migrations existed is baselined and migrated.
+ * <p>
+ * The schema the original entities generated is created before the application starts, so Flyway finds a
+ * non-empty database without a history table, baselines it at version 1 and skips {@code V1__baseline}. Every later
+ * migration must then apply on top of that schema, and Hibernate must accept the result ({@code ddl-auto=validate}),
+ * or the context fails to start. The H2 scripts expect empty tables, so the tables are left empty; converting
+ * existing rows is the job of the MySQL scripts.
+ * </p>
+ */
+@SpringBootTest
+@ActiveProfiles("querycount")
+class LegacySchemaMigrationTests {
+
+	private static final String URL = "jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@DynamicPropertySource
+	static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+			ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/common/V1__baseline.sql"));
+		}
+		registry.add("spring.datasource.url", () -> URL);
+	}
+
+	@Test
+	void baselinesTheLegacySchemaAndAppliesEveryLaterMigration() {
+		List<String> applied = jdbc.queryForList(
+				"SELECT version FROM flyway_schema_history WHERE version IS NOT NULL AND success = TRUE "
+				+ "ORDER BY installed_rank", String.class);
+
+		assertEquals("1", applied.get(0), "the legacy database should be baselined at version 1");
+		assertEquals(List.of("1.1", "2", "3", "4", "5", "6"), applied.subList(1, applied.size()));
+		assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+				+ "WHERE table_name = 'user' AND column_name = 'registered_at'", Integer.class));
+	}
+}
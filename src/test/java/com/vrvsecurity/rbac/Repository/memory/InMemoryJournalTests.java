@@ -0,0 +1,236 @@
+package com.vrvsecurity.rbac.Repository.memory;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link InMemoryJournal}: replay, recovery from damaged logs and compaction.
+ */
+class InMemoryJournalTests {
+
+	@TempDir
+	Path directory;
+
+	private final List<InMemoryJournal> opened = new ArrayList<>();
+
+	@AfterEach
+	void closeJournals() throws IOException {
+		for (InMemoryJournal journal : opened) {
+			journal.close();
+		}
+	}
+
+	@Test
+	void replaysTheLatestStateOfEveryRecord() {
+		InMemoryJournal journal = open(new State());
+		Role admin = role(1, "ROLE_ADMIN");
+		journal.appendRole(admin);
+		journal.appendUser(user(1, "first@example.com", AccountStatus.PENDING, admin));
+		journal.appendUser(user(2, "second@example.com", AccountStatus.ACTIVE));
+		journal.appendUser(user(1, "first@example.com", AccountStatus.ACTIVE, admin));
+
+		State state = new State();
+		open(state);
+		assertEquals(Map.of(1L, "ROLE_ADMIN"), state.roleNames());
+		assertEquals(AccountStatus.ACTIVE, state.users.get(1L).getStatus());
+		assertEquals(Set.of(admin.getName()), state.roleNamesOf(1));
+		assertEquals("second@example.com", state.users.get(2L).getEmail());
+	}
+
+	@Test
+	void rejectsAnUnserializableRecordWithoutWritingAnyOfIt() throws IOException {
+		InMemoryJournal journal = open(new State());
+		journal.appendUser(user(1, "first@example.com", AccountStatus.ACTIVE));
+		long length = Files.size(log());
+
+		User tooLong = user(2, "long@example.com", AccountStatus.ACTIVE);
+		tooLong.setFullName("x".repeat(70_000)); // writeUTF refuses more than 64 KB
+		assertThrows(UncheckedIOException.class, () -> journal.appendUser(tooLong));
+		assertEquals(length, Files.size(log()));
+
+		journal.appendUser(user(3, "third@example.com", AccountStatus.ACTIVE));
+		State state = new State();
+		open(state);
+		assertEquals(Set.of(1L, 3L), state.users.keySet());
+	}
+
+	@Test
+	void truncatesAnIncompleteTrailingRecordBeforeAppending() throws IOException {
+		InMemoryJournal journal = open(new State());
+		journal.appendUser(user(1, "first@example.com", AccountStatus.ACTIVE));
+		long complete = Files.size(log());
+		journal.appendUser(user(2, "second@example.com", AccountStatus.ACTIVE));
+		journal.close();
+		try (FileChannel file = FileChannel.open(log(), StandardOpenOption.WRITE)) {
+			file.truncate(Files.size(log()) - 3); // A crash part-way through the second record
+		}
+
+		State state = new State();
+		InMemoryJournal reopened = open(state);
+		assertEquals(Set.of(1L), state.users.keySet());
+		assertEquals(complete, Files.size(log()));
+
+		reopened.appendUser(user(3, "third@example.com", AccountStatus.ACTIVE));
+		State after = new State();
+		open(after);
+		assertEquals(Set.of(1L, 3L), after.users.keySet(), "records appended after the recovery must replay");
+	}
+
+	@Test
+	void stopsAtARecordWithABadChecksumAndTruncatesThere() throws IOException {
+		InMemoryJournal journal = open(new State());
+		journal.appendUser(user(1, "first@example.com", AccountStatus.ACTIVE));
+		long complete = Files.size(log());
+		journal.appendUser(user(2, "second@example.com", AccountStatus.ACTIVE));
+		journal.appendUser(user(3, "third@example.com", AccountStatus.ACTIVE));
+		journal.close();
+		byte[] bytes = Files.readAllBytes(log());
+		bytes[(int) complete + 20] ^= 0x5A; // Inside the payload of the second record
+		Files.write(log(), bytes);
+
+		State state = new State();
+		open(state);
+		assertEquals(Set.of(1L), state.users.keySet());
+		assertEquals(complete, Files.size(log()));
+	}
+
+	@Test
+	void stopsAtAnImpossibleLength() throws IOException {
+		InMemoryJournal journal = open(new State());
+		journal.appendUser(user(1, "first@example.com", AccountStatus.ACTIVE));
+		long complete = Files.size(log());
+		journal.close();
+		Files.write(log(), new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0, 0},
+				StandardOpenOption.APPEND);
+
+		State state = new State();
+		open(state);
+		assertEquals(Set.of(1L), state.users.keySet());
+		assertEquals(complete, Files.size(log()));
+	}
+
+	@Test
+	void compactionMovesTheStateIntoTheSnapshotAndEmptiesTheLog() throws IOException {
+		State live = new State();
+		InMemoryJournal journal = open(live);
+		Role admin = role(1, "ROLE_ADMIN");
+		live.roles.put(1L, admin);
+		journal.appendRole(admin);
+		for (long id = 1; id <= 3; id++) {
+			User user = user(id, "user" + id + "@example.com", AccountStatus.ACTIVE, admin);
+			live.users.put(id, user);
+			journal.appendUser(user);
+		}
+
+		journal.compact(live.roles.values(), live.users.values());
+		assertEquals(0, Files.size(log()));
+		assertEquals(0, journal.appendedSinceCompaction());
+		journal.appendUser(user(4, "user4@example.com", AccountStatus.PENDING));
+
+		State state = new State();
+		open(state);
+		assertEquals(Set.of(1L, 2L, 3L, 4L), state.users.keySet());
+		assertEquals(Set.of("ROLE_ADMIN"), state.roleNamesOf(2));
+		assertEquals(AccountStatus.PENDING, state.users.get(4L).getStatus());
+	}
+
+	@Test
+	void refusesToLoadADamagedSnapshot() throws IOException {
+		State live = new State();
+		InMemoryJournal journal = open(live);
+		live.users.put(1L, user(1, "first@example.com", AccountStatus.ACTIVE));
+		journal.compact(List.of(), live.users.values());
+		journal.close();
+		byte[] bytes = Files.readAllBytes(directory.resolve("snapshot.bin"));
+		bytes[bytes.length - 1] ^= 0x5A;
+		Files.write(directory.resolve("snapshot.bin"), bytes);
+
+		InMemoryJournal damaged = new InMemoryJournal(directory, false);
+		State state = new State();
+		IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> damaged.load(state::restore, state::restore, state.roles::get));
+		assertTrue(e.getMessage().contains("snapshot.bin"), e.getMessage());
+	}
+
+	private InMemoryJournal open(State state) {
+		InMemoryJournal journal = new InMemoryJournal(directory, false);
+		journal.load(state::restore, state::restore, state.roles::get);
+		opened.add(journal);
+		return journal;
+	}
+
+	private Path log() {
+		return directory.resolve("journal.log");
+	}
+
+	private static Role role(long id, String name) {
+		Role role = new Role();
+		role.setRoleId(id);
+		role.setName(name);
+		return role;
+	}
+
+	private static User user(long id, String email, AccountStatus status, Role... roles) {
+		User user = new User();
+		user.setUserId(id);
+		user.setFullName("Journal Test");
+		user.setCellNumber(5550100);
+		user.setEmail(email);
+		user.setPassword("hash");
+		user.setStatus(status);
+		user.setRegisteredAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+		user.setRoles(Set.of(roles));
+		return user;
+	}
+
+	/**
+	 * Restored state, keyed by id the way the repositories keep it.
+	 */
+	private static final class State {
+
+		private final Map<Long, Role> roles = new LinkedHashMap<>();
+		private final Map<Long, User> users = new LinkedHashMap<>();
+
+		private void restore(Role role) {
+			roles.put(role.getRoleId(), role);
+		}
+
+		private void restore(User user) {
+			users.put(user.getUserId(), user);
+		}
+
+		private Map<Long, String> roleNames() {
+			Map<Long, String> names = new LinkedHashMap<>();
+			roles.forEach((id, role) -> names.put(id, role.getName()));
+			return names;
+		}
+
+		private Set<String> roleNamesOf(long userId) {
+			Set<String> names = new HashSet<>();
+			users.get(userId).getRoles().forEach(role -> names.add(role.getName()));
+			return names;
+		}
+	}
+}
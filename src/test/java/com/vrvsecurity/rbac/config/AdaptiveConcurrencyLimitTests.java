@@ -0,0 +1,128 @@
+package com.vrvsecurity.rbac.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimit}.
+ */
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void refusesRequestsBeyondTheLimit() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0, 0.5, 60_000);
+
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertFalse(limit.tryAcquire());
+		assertEquals(2, limit.getInFlight());
+
+		limit.release(FAST, false);
+		assertTrue(limit.tryAcquire());
+	}
+
+	@Test
+	void growsByAboutOnePerLimitOfRequestsWhileBusy() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 100, 2.0, 0.5, 60_000);
+		while (limit.tryAcquire()) {
+			// Fill the limit
+		}
+
+		// Each completion at full use adds 1 / limit, so 4 + 5 + ... + 13 completions reach 14
+		for (int i = 0; i < 85; i++) {
+			limit.release(FAST, false);
+			while (limit.tryAcquire()) {
+				// Refill up to the grown limit
+			}
+		}
+
+		assertTrue(limit.getLimit() >= 13 && limit.getLimit() <= 14, "limit " + limit.getLimit());
+	}
+
+	@Test
+	void doesNotGrowWhileMostlyIdle() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 2.0, 0.5, 60_000);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(limit.tryAcquire());
+			limit.release(FAST, false);
+		}
+
+		assertEquals(10, limit.getLimit());
+	}
+
+	@Test
+	void neverGrowsAboveTheMaximum() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 5, 2.0, 0.5, 60_000);
+
+		for (int round = 0; round < 20; round++) {
+			int admitted = 0;
+			while (limit.tryAcquire()) {
+				admitted++;
+			}
+			for (int i = 0; i < admitted; i++) {
+				limit.release(FAST, false);
+			}
+		}
+
+		assertEquals(5, limit.getLimit());
+	}
+
+	@Test
+	void backsOffWhenARequestIsSlowerThanTheBaselineAllows() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 2.0, 0.5, 60_000);
+		limit.tryAcquire();
+		limit.release(FAST, false); // Baseline of 1 ms
+
+		Thread.sleep(10);
+		limit.tryAcquire();
+		limit.release(FAST * 3, false);
+
+		assertEquals(10, limit.getLimit());
+	}
+
+	@Test
+	void backsOffWhenARequestFails() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 2.0, 0.5, 60_000);
+		Thread.sleep(10);
+
+		limit.tryAcquire();
+		limit.release(FAST, true);
+
+		assertEquals(10, limit.getLimit());
+	}
+
+	@Test
+	void backsOffOnceForRequestsSlowedByTheSameBurst() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 2.0, 0.5, 60_000);
+		limit.tryAcquire();
+		limit.release(FAST, false);
+		Thread.sleep(20);
+
+		long slow = TimeUnit.MILLISECONDS.toNanos(10); // Decreases at most once per 10 ms
+		for (int i = 0; i < 5; i++) {
+			limit.tryAcquire();
+			limit.release(slow, false);
+		}
+
+		assertEquals(10, limit.getLimit());
+	}
+
+	@Test
+	void neverShrinksBelowTheMinimum() throws InterruptedException {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 3, 100, 2.0, 0.5, 60_000);
+		Thread.sleep(10);
+
+		limit.tryAcquire();
+		limit.release(FAST, true);
+
+		assertEquals(3, limit.getLimit());
+	}
+}
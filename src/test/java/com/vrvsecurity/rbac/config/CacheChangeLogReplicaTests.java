@@ -0,0 +1,114 @@
+package com.vrvsecurity.rbac.config;
+
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.security.CacheChangeLog;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import com.vrvsecurity.rbac.security.UserPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that a user evicted through the cache change log is reloaded from the primary while the replica may lag.
+ * <p>
+ * The primary and the replica are two unrelated in-memory databases, so the replica lags forever: a change made
+ * on the primary alone is exactly what a node sees while replication is behind. The lag window is the 200 ms
+ * heartbeat interval, as the lag check is disabled.
+ * </p>
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:changelog-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+		"rbac.datasource.replica.enabled=true",
+		"rbac.datasource.replica.migrate=true",
+		"rbac.datasource.replica.max-lag-ms=-1",
+		"rbac.datasource.replica.heartbeat-interval-ms=200",
+		"rbac.datasource.replica.jdbc-url=jdbc:h2:mem:changelog-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+		"rbac.datasource.replica.username=sa",
+		"rbac.datasource.replica.password=",
+		"rbac.cache.change-log.poll-interval-ms=3600000" // Polled by the test
+})
+@ActiveProfiles("querycount")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CacheChangeLogReplicaTests {
+
+	private static final String EMAIL = "lagging@example.com";
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private HikariDataSource primaryDataSource;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private HikariDataSource replicaDataSource;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@Autowired
+	private CacheChangeLog cacheChangeLog;
+
+	@BeforeEach
+	void seedBothDatabases() {
+		for (HikariDataSource dataSource : new HikariDataSource[] {primaryDataSource, replicaDataSource}) {
+			JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+			jdbc.update("DELETE FROM `user` WHERE email = ?", EMAIL);
+			jdbc.update("INSERT INTO `user` (full_name, cell_number, email, email_digest, password, status) "
+					+ "VALUES ('Lagging', 0, ?, ?, 'x', ?)", EMAIL, EmailDigest.of(EMAIL), AccountStatus.ACTIVE.getCode());
+		}
+		principalCache.clear();
+		cacheChangeLog.poll(); // Start tailing from the current end of the log
+	}
+
+	@AfterAll
+	void disableReplicaRouting() {
+		ReadRouting.setReplicaEnabled(false); // Static, so it would outlive this context into other test classes
+	}
+
+	@Test
+	void reloadsAUserChangedOnAnotherNodeFromThePrimary() throws InterruptedException {
+		assertEquals(AccountStatus.ACTIVE, load().getStatus());
+
+		JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+		primary.update("UPDATE `user` SET status = ? WHERE email = ?", AccountStatus.INACTIVE.getCode(), EMAIL);
+		primary.update("INSERT INTO cache_change_log (email, changed_at) VALUES (?, ?)", EMAIL,
+				System.currentTimeMillis());
+		cacheChangeLog.poll();
+
+		assertEquals(AccountStatus.INACTIVE, load().getStatus(), "the lagging replica must not be read");
+
+		Thread.sleep(300); // Past the lag window, reloads go back to the replica
+		principalCache.expireAll();
+		assertEquals(AccountStatus.ACTIVE, load().getStatus(), "reads should be routed to the replica again");
+	}
+
+	@Test
+	void reloadsAUserChangedOnThisNodeFromThePrimary() {
+		assertEquals(AccountStatus.ACTIVE, load().getStatus());
+
+		new JdbcTemplate(primaryDataSource).update("UPDATE `user` SET status = ? WHERE email = ?",
+				AccountStatus.DENIED.getCode(), EMAIL);
+		cacheChangeLog.recordUserChanges(List.of(EMAIL));
+
+		assertEquals(AccountStatus.DENIED, load().getStatus(), "the lagging replica must not be read");
+	}
+
+	private UserPrincipal load() {
+		return (UserPrincipal) userDetailsService.loadUserByUsername(EMAIL);
+	}
+}
@@ -0,0 +1,88 @@
+package com.vrvsecurity.rbac.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for {@link ConcurrencyLimitFilter}.
+ */
+class ConcurrencyLimitFilterTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private ConcurrencyLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.setAuth(bucket(1));
+		properties.setAdmin(bucket(1));
+		properties.setAuthenticated(bucket(1));
+		meterRegistry = new SimpleMeterRegistry();
+		filter = new ConcurrencyLimitFilter(properties, meterRegistry);
+	}
+
+	@Test
+	void requestOverTheLimitIsRejectedWithRetryAfter() throws Exception {
+		AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+		MockHttpServletResponse outer = send("/auth/login", (request, response) -> nested.set(send("/auth/login", null)));
+
+		assertEquals(200, outer.getStatus());
+		assertEquals(503, nested.get().getStatus());
+		assertEquals("1", nested.get().getHeader("Retry-After"));
+		assertEquals("{\"error\":\"Server is busy, please retry shortly.\"}", nested.get().getContentAsString());
+		assertEquals(1.0, meterRegistry.get("rbac.concurrency.rejected").tag("bucket", "auth").counter().count());
+	}
+
+	@Test
+	void bucketsAreLimitedIndependently() throws Exception {
+		AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+		send("/auth/login", (request, response) -> nested.set(send("/admin/users", null)));
+
+		assertEquals(200, nested.get().getStatus());
+	}
+
+	@Test
+	void actuatorIsNeverLimited() throws Exception {
+		AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+		send("/actuator/health", (request, response) -> nested.set(send("/actuator/health", null)));
+
+		assertEquals(200, nested.get().getStatus());
+		assertNull(nested.get().getHeader("Retry-After"));
+	}
+
+	@Test
+	void completedRequestFreesItsSlot() throws Exception {
+		send("/user/profile", null);
+
+		assertEquals(200, send("/user/profile", null).getStatus());
+	}
+
+	private MockHttpServletResponse send(String path, FilterChain chain) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		try {
+			filter.doFilter(request, response, chain != null ? chain : (req, res) -> { });
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		return response;
+	}
+
+	private static ConcurrencyLimitProperties.Bucket bucket(int limit) {
+		ConcurrencyLimitProperties.Bucket bucket = new ConcurrencyLimitProperties.Bucket();
+		bucket.setInitialLimit(limit);
+		bucket.setMinLimit(limit);
+		bucket.setMaxLimit(limit);
+		return bucket;
+	}
+}
@@ -0,0 +1,146 @@
+package com.vrvsecurity.rbac.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests of which database {@link ReplicaRoutingDataSource} and {@link ReadRouting} send transactions to.
+ * <p>
+ * Each of the two embedded databases holds a single row naming itself, so a query shows where it ran.
+ * </p>
+ */
+class ReplicaRoutingDataSourceTests {
+
+	private HikariDataSource primary;
+	private HikariDataSource replica;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate writes;
+	private TransactionTemplate reads;
+
+	@BeforeEach
+	void setUp() {
+		primary = database("routing-primary");
+		replica = database("routing-replica");
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new ReplicaLagMonitor(primary, replica, -1));
+		routing.setTargetDataSources(Map.of(
+				ReplicaRoutingDataSource.PRIMARY, primary,
+				ReplicaRoutingDataSource.REPLICA, replica));
+		routing.setDefaultTargetDataSource(primary);
+		routing.afterPropertiesSet();
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+
+		jdbc = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		writes = new TransactionTemplate(transactionManager);
+		reads = new TransactionTemplate(transactionManager);
+		reads.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReadRouting.clear();
+		primary.close();
+		replica.close();
+	}
+
+	@Test
+	void readOnlyTransactionGoesToTheReplica() {
+		assertEquals("routing-replica", readOnly());
+	}
+
+	@Test
+	void writeTransactionGoesToThePrimary() {
+		assertEquals("routing-primary", write());
+	}
+
+	@Test
+	void readsAfterAWriteStayOnThePrimaryUntilTheRequestEnds() {
+		ReadRouting.beginRequest();
+		write();
+
+		assertEquals("routing-primary", readOnly());
+		assertEquals("routing-primary", readOnly());
+
+		ReadRouting.clear();
+		assertEquals("routing-replica", readOnly());
+	}
+
+	@Test
+	void pinOffRequestsEndsWithTheWritingTransaction() {
+		write();
+
+		assertFalse(ReadRouting.isPinned());
+		assertEquals("routing-replica", readOnly());
+	}
+
+	@Test
+	void pooledThreadIsNotLeftPinnedByAWrite() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			pool.submit(this::write).get(10, TimeUnit.SECONDS);
+
+			assertEquals("routing-replica", pool.submit(this::readOnly).get(10, TimeUnit.SECONDS));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void onPrimarySendsAReadOnlyTransactionToThePrimary() {
+		assertEquals("routing-primary", ReadRouting.onPrimary(this::readOnly));
+
+		assertFalse(ReadRouting.isPinned());
+		assertEquals("routing-replica", readOnly());
+	}
+
+	@Test
+	void writeInsideOnPrimaryLeavesThePinToOnPrimary() {
+		ReadRouting.onPrimary(() -> {
+			write();
+			return readOnly();
+		});
+
+		assertFalse(ReadRouting.isPinned());
+	}
+
+	private String readOnly() {
+		return reads.execute(status -> whoAmI());
+	}
+
+	private String write() {
+		return writes.execute(status -> {
+			jdbc.update("UPDATE whoami SET hits = hits + 1");
+			return whoAmI();
+		});
+	}
+
+	private String whoAmI() {
+		return jdbc.queryForObject("SELECT name FROM whoami", String.class);
+	}
+
+	private static HikariDataSource database(String name) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		dataSource.setUsername("sa");
+		dataSource.setMaximumPoolSize(2);
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(32), hits INT)");
+		jdbc.update("DELETE FROM whoami");
+		jdbc.update("INSERT INTO whoami VALUES (?, 0)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,104 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests of the fallback of {@link CustomUserDetailsService} to stale principals while the database cannot
+ * be used.
+ */
+class CustomUserDetailsServiceTests {
+
+	private static final String EMAIL = "user@example.com";
+
+	private UserStore userStore;
+	private PrincipalCache principalCache;
+	private PrincipalLoadBreaker loadBreaker;
+	private CustomUserDetailsService service;
+
+	@BeforeEach
+	void setUp() {
+		userStore = mock(UserStore.class);
+		principalCache = new PrincipalCache(60, 1_000, -1, 0);
+		loadBreaker = new PrincipalLoadBreaker(4, 0, 1, 2000, 60_000, new SimpleMeterRegistry());
+		service = new CustomUserDetailsService(userStore, principalCache, loadBreaker, 60_000,
+				new SimpleMeterRegistry());
+	}
+
+	@Test
+	void failedLoadServesTheExpiredPrincipalFlaggedAsDegraded() {
+		when(userStore.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+		assertFalse(((UserPrincipal) service.loadUserByUsername(EMAIL)).isDegraded());
+		principalCache.expireAll();
+		when(userStore.findByEmail(EMAIL)).thenThrow(new DataAccessResourceFailureException("down"));
+
+		UserDetails loaded = service.loadUserByUsername(EMAIL);
+
+		assertEquals(EMAIL, loaded.getUsername());
+		assertTrue(((UserPrincipal) loaded).isDegraded());
+	}
+
+	@Test
+	void openBreakerServesTheExpiredPrincipalWithoutTouchingTheDatabase() {
+		when(userStore.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+		service.loadUserByUsername(EMAIL);
+		principalCache.expireAll();
+		loadBreaker.release(loadBreaker.tryAcquire(), false, 0); // Opens the breaker
+		assertEquals(PrincipalLoadBreaker.State.OPEN, loadBreaker.getState());
+
+		UserDetails loaded = service.loadUserByUsername(EMAIL);
+
+		assertTrue(((UserPrincipal) loaded).isDegraded());
+		verify(userStore, times(1)).findByEmail(EMAIL);
+	}
+
+	@Test
+	void failedLoadWithoutACachedPrincipalIsUnavailable() {
+		DataAccessResourceFailureException outage = new DataAccessResourceFailureException("down");
+		when(userStore.findByEmail(EMAIL)).thenThrow(outage);
+
+		PrincipalUnavailableException e = assertThrows(PrincipalUnavailableException.class,
+				() -> service.loadUserByUsername(EMAIL));
+		assertEquals(outage, e.getCause());
+	}
+
+	@Test
+	void principalOlderThanTheMaximumStalenessIsNotServed() {
+		service = new CustomUserDetailsService(userStore, principalCache, loadBreaker, 0, new SimpleMeterRegistry());
+		when(userStore.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+		service.loadUserByUsername(EMAIL);
+		principalCache.expireAll();
+		when(userStore.findByEmail(EMAIL)).thenThrow(new DataAccessResourceFailureException("down"));
+
+		assertThrows(PrincipalUnavailableException.class, () -> service.loadUserByUsername(EMAIL));
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setUserId(1);
+		user.setFullName("Test User");
+		user.setEmail(EMAIL);
+		user.setPassword("hash");
+		user.setStatus(AccountStatus.ACTIVE);
+		user.setRoles(Set.of());
+		return user;
+	}
+}
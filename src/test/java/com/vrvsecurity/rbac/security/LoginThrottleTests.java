@@ -0,0 +1,45 @@
+package com.vrvsecurity.rbac.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static com.vrvsecurity.rbac.security.LoginThrottle.ADMITTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link LoginThrottle}.
+ */
+class LoginThrottleTests {
+
+	@Test
+	void attemptRefusedByTheAddressLimitDoesNotCountAgainstTheAccount() {
+		LoginThrottle throttle = new LoginThrottle(true, 3, 300, 1, 60, 1000, 4, new SimpleMeterRegistry());
+
+		assertEquals(ADMITTED, throttle.tryAcquire("User@Example.com", "10.0.0.1"));
+		assertEquals(60, throttle.tryAcquire("user@example.com", "10.0.0.1")); // Over the address limit
+
+		assertEquals(ADMITTED, throttle.tryAcquire("user@example.com", "10.0.0.2"));
+		assertEquals(ADMITTED, throttle.tryAcquire("user@example.com", "10.0.0.3"));
+		assertEquals(300, throttle.tryAcquire("user@example.com", "10.0.0.4")); // Third counted attempt reached the limit
+	}
+
+	@Test
+	void successfulLoginClearsTheAccountsAttempts() {
+		LoginThrottle throttle = new LoginThrottle(true, 2, 300, 100, 60, 1000, 4, new SimpleMeterRegistry());
+		assertEquals(ADMITTED, throttle.tryAcquire("user@example.com", "10.0.0.1"));
+		assertEquals(ADMITTED, throttle.tryAcquire("user@example.com", "10.0.0.1"));
+		assertEquals(300, throttle.tryAcquire("user@example.com", "10.0.0.1"));
+
+		throttle.onSuccess("USER@example.com");
+
+		assertEquals(ADMITTED, throttle.tryAcquire("user@example.com", "10.0.0.1"));
+	}
+
+	@Test
+	void disabledThrottleAdmitsEveryAttempt() {
+		LoginThrottle throttle = new LoginThrottle(false, 1, 300, 1, 60, 1000, 4, new SimpleMeterRegistry());
+
+		assertEquals(ADMITTED, throttle.tryAcquire("user@example.com", "10.0.0.1"));
+		assertEquals(ADMITTED, throttle.tryAcquire("user@example.com", "10.0.0.1"));
+	}
+}
@@ -0,0 +1,132 @@
+package com.vrvsecurity.rbac.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Unit tests for {@link PrincipalLoadBreaker}.
+ */
+class PrincipalLoadBreakerTests {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void opensAfterConsecutiveFailuresThenClosesAfterASuccessfulTrial() throws InterruptedException {
+		PrincipalLoadBreaker breaker = breaker(4, 0, 2, 50);
+
+		breaker.release(acquired(breaker), false, FAST);
+		assertEquals(PrincipalLoadBreaker.State.CLOSED, breaker.getState());
+		breaker.release(acquired(breaker), false, FAST);
+		assertEquals(PrincipalLoadBreaker.State.OPEN, breaker.getState());
+		assertEquals(PrincipalLoadBreaker.REFUSED, breaker.tryAcquire());
+
+		Thread.sleep(60);
+		long trial = acquired(breaker);
+		assertEquals(PrincipalLoadBreaker.State.HALF_OPEN, breaker.getState());
+		assertEquals(PrincipalLoadBreaker.REFUSED, breaker.tryAcquire()); // Only one trial at a time
+
+		breaker.release(trial, true, FAST);
+		assertEquals(PrincipalLoadBreaker.State.CLOSED, breaker.getState());
+		acquired(breaker);
+	}
+
+	@Test
+	void failedTrialOpensTheBreakerAgain() throws InterruptedException {
+		PrincipalLoadBreaker breaker = breaker(4, 0, 1, 50);
+		breaker.release(acquired(breaker), false, FAST);
+
+		Thread.sleep(60);
+		breaker.release(acquired(breaker), false, FAST);
+
+		assertEquals(PrincipalLoadBreaker.State.OPEN, breaker.getState());
+		assertEquals(PrincipalLoadBreaker.REFUSED, breaker.tryAcquire());
+	}
+
+	@Test
+	void slowSuccessCountsAsAFailure() {
+		PrincipalLoadBreaker breaker = breaker(4, 0, 1, 10_000);
+
+		breaker.release(acquired(breaker), true, TimeUnit.SECONDS.toNanos(3));
+
+		assertEquals(PrincipalLoadBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void successResetsTheFailureCount() {
+		PrincipalLoadBreaker breaker = breaker(4, 0, 2, 10_000);
+
+		breaker.release(acquired(breaker), false, FAST);
+		breaker.release(acquired(breaker), true, FAST);
+		breaker.release(acquired(breaker), false, FAST);
+
+		assertEquals(PrincipalLoadBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void loadsBeyondTheConcurrencyLimitAreRefusedWithoutWaiting() {
+		PrincipalLoadBreaker breaker = breaker(2, 0, 5, 10_000);
+		long first = acquired(breaker);
+		acquired(breaker);
+
+		assertEquals(PrincipalLoadBreaker.REFUSED, breaker.tryAcquire());
+
+		breaker.release(first, true, FAST);
+		acquired(breaker);
+	}
+
+	@Test
+	void closedBreakerWaitsForARunningLoadToFinish() throws Exception {
+		PrincipalLoadBreaker breaker = breaker(1, 10_000, 5, 10_000);
+		long running = acquired(breaker);
+
+		CompletableFuture<Long> waiting = CompletableFuture.supplyAsync(breaker::tryAcquire);
+		Thread.sleep(50);
+		breaker.release(running, true, FAST);
+
+		assertNotEquals(PrincipalLoadBreaker.REFUSED, waiting.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void lateSuccessDoesNotCloseABreakerOpenedAfterItStarted() {
+		PrincipalLoadBreaker breaker = breaker(4, 0, 1, 10_000);
+		long slow = acquired(breaker); // Admitted while the database was healthy
+		breaker.release(acquired(breaker), false, FAST);
+		assertEquals(PrincipalLoadBreaker.State.OPEN, breaker.getState());
+
+		breaker.release(slow, true, FAST);
+
+		assertEquals(PrincipalLoadBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void lateFailureDoesNotReopenABreakerThatRecovered() throws InterruptedException {
+		PrincipalLoadBreaker breaker = breaker(4, 0, 1, 50);
+		long slow = acquired(breaker);
+		breaker.release(acquired(breaker), false, FAST);
+		Thread.sleep(60);
+		breaker.release(acquired(breaker), true, FAST);
+		assertEquals(PrincipalLoadBreaker.State.CLOSED, breaker.getState());
+
+		breaker.release(slow, false, FAST);
+
+		assertEquals(PrincipalLoadBreaker.State.CLOSED, breaker.getState());
+	}
+
+	private static long acquired(PrincipalLoadBreaker breaker) {
+		long ticket = breaker.tryAcquire();
+		assertNotEquals(PrincipalLoadBreaker.REFUSED, ticket);
+		return ticket;
+	}
+
+	private static PrincipalLoadBreaker breaker(int maxConcurrent, long maxWaitMillis, int failureThreshold,
+												long openMillis) {
+		return new PrincipalLoadBreaker(maxConcurrent, maxWaitMillis, failureThreshold, 2000, openMillis,
+				new SimpleMeterRegistry());
+	}
+}
@@ -0,0 +1,162 @@
+package com.vrvsecurity.rbac.security;
+
+import com.vrvsecurity.rbac.Repository.PrincipalRow;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.model.Role;
+import com.vrvsecurity.rbac.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trip tests for {@link PrincipalSnapshot} files.
+ */
+class PrincipalSnapshotTests {
+
+	private static final String SOURCE = "jdbc:mysql://db-primary:3306/vrvsecurity_db";
+
+	@TempDir
+	Path directory;
+
+	private Path file;
+	private List<Role> roles;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = directory.resolve("principals.snap");
+		roles = List.of(role(1, "ROLE_ADMIN"), role(2, "ROLE_MODERATOR"), role(3, "ROLE_USER"));
+
+		List<PrincipalRow> rows = new ArrayList<>();
+		rows.addAll(rows("admin@example.com", 1, "hash-admin", AccountStatus.ACTIVE, 1L, 3L));
+		rows.addAll(rows("pending@example.com", 2, "hash-pending", AccountStatus.PENDING, 3L));
+		rows.addAll(rows("nobody@example.com", 3, "hash-nobody", AccountStatus.INACTIVE, (Long) null));
+		rows.sort((a, b) -> Arrays.compareUnsigned(a.emailDigest(), b.emailDigest()));
+
+		assertEquals(3, PrincipalSnapshot.write(file, SOURCE, roles, rows.iterator()));
+	}
+
+	@Test
+	void writtenUsersAreFoundByEmail() throws IOException {
+		Instant before = Instant.now();
+		PrincipalSnapshot snapshot = PrincipalSnapshot.open(file, true);
+
+		assertEquals(3, snapshot.size());
+		assertEquals(SOURCE, snapshot.source());
+		assertFalse(snapshot.createdAt().isAfter(before));
+		assertTrue(snapshot.createdAt().isAfter(before.minusSeconds(60)));
+
+		User admin = snapshot.find("admin@example.com");
+		assertEquals(1, admin.getUserId());
+		assertEquals("hash-admin", admin.getPassword());
+		assertEquals(AccountStatus.ACTIVE, admin.getStatus());
+		assertEquals(Set.of("ROLE_ADMIN", "ROLE_USER"), roleNames(admin));
+
+		User pending = snapshot.find("pending@example.com");
+		assertEquals(2, pending.getUserId());
+		assertEquals(AccountStatus.PENDING, pending.getStatus());
+		assertEquals(Set.of("ROLE_USER"), roleNames(pending));
+
+		User withoutRoles = snapshot.find("nobody@example.com");
+		assertEquals("hash-nobody", withoutRoles.getPassword());
+		assertTrue(withoutRoles.getRoles().isEmpty());
+
+		assertNull(snapshot.find("unknown@example.com"));
+	}
+
+	@Test
+	void emptySnapshotFindsNobody() throws IOException {
+		PrincipalSnapshot.write(file, SOURCE, roles, List.<PrincipalRow>of().iterator());
+
+		PrincipalSnapshot snapshot = PrincipalSnapshot.open(file, false);
+
+		assertEquals(0, snapshot.size());
+		assertNull(snapshot.find("admin@example.com"));
+	}
+
+	@Test
+	void cacheServesPrincipalsFromARecentSnapshot() throws IOException {
+		PrincipalCache cache = new PrincipalCache(60, 1_000, -1, 0);
+
+		assertTrue(cache.useSnapshot(PrincipalSnapshot.open(file, false), Duration.ofMinutes(5)));
+
+		UserPrincipal principal = cache.get("admin@example.com");
+		assertNotNull(principal);
+		assertEquals("hash-admin", principal.getPassword());
+	}
+
+	@Test
+	void cacheRejectsASnapshotOlderThanTheMaximumAge() throws IOException {
+		PrincipalCache cache = new PrincipalCache(60, 1_000, -1, 0);
+
+		assertFalse(cache.useSnapshot(PrincipalSnapshot.open(file, false), Duration.ZERO));
+		assertNull(cache.get("admin@example.com"));
+	}
+
+	@Test
+	void truncatedFileIsRejected() throws IOException {
+		for (long length : new long[] {Files.size(file) - 1, 40, 10, 0}) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(length);
+			}
+
+			assertThrows(IOException.class, () -> PrincipalSnapshot.open(file, false), "length " + length);
+		}
+	}
+
+	@Test
+	void corruptUserCountIsRejected() throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 1_000), 16); // The user count
+		}
+
+		assertThrows(IOException.class, () -> PrincipalSnapshot.open(file, false));
+	}
+
+	@Test
+	void fileThatIsNotASnapshotIsRejected() throws IOException {
+		Files.write(file, new byte[64]);
+
+		assertThrows(IOException.class, () -> PrincipalSnapshot.open(file, false));
+	}
+
+	private static List<PrincipalRow> rows(String email, long userId, String password, AccountStatus status,
+										   Long... roleIds) {
+		byte[] digest = EmailDigest.of(email);
+		return Arrays.stream(roleIds)
+				.map(roleId -> new PrincipalRow(digest, userId, password, status, roleId))
+				.toList();
+	}
+
+	private static Role role(long id, String name) {
+		Role role = new Role();
+		role.setRoleId(id);
+		role.setName(name);
+		return role;
+	}
+
+	private static Set<String> roleNames(User user) {
+		return user.getRoles().stream().map(Role::getName).collect(Collectors.toSet());
+	}
+}
@@ -0,0 +1,120 @@
+package com.vrvsecurity.rbac.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link SlidingWindowLimiter}, driven by a manual clock.
+ */
+class SlidingWindowLimiterTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private long now = 1_000 * SECOND;
+
+	@Test
+	void admitsUpToTheLimitWithinOneWindow() {
+		SlidingWindowLimiter limiter = limiter(10, 60, 100, 4);
+
+		assertEquals(10, acquireAll(limiter, "key"));
+		assertTrue(limiter.tryAcquire("other"));
+	}
+
+	@Test
+	void weightsThePreviousBucketByItsOverlapWithTheWindow() {
+		SlidingWindowLimiter limiter = limiter(10, 60, 100, 4);
+		assertEquals(10, acquireAll(limiter, "key"));
+
+		now += 60 * SECOND; // The full previous bucket still overlaps the window
+		assertFalse(limiter.tryAcquire("key"));
+
+		now += 30 * SECOND; // Half of it overlaps: 10 * 0.5 = 5 events left
+		assertEquals(5, acquireAll(limiter, "key"));
+
+		now += 120 * SECOND; // Two buckets later nothing overlaps
+		assertEquals(10, acquireAll(limiter, "key"));
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedKeyWhenAStripeIsFull() {
+		SlidingWindowLimiter limiter = limiter(1, 60, 2, 1);
+		assertTrue(limiter.tryAcquire("a"));
+		assertTrue(limiter.tryAcquire("b"));
+
+		assertFalse(limiter.tryAcquire("a")); // Touches a, so b is now the least recently used
+		assertTrue(limiter.tryAcquire("c"));
+
+		assertFalse(limiter.tryAcquire("a"));
+		assertTrue(limiter.tryAcquire("b"), "b should have been evicted and start over");
+	}
+
+	@Test
+	void resetForgetsTheKeysEvents() {
+		SlidingWindowLimiter limiter = limiter(3, 60, 100, 4);
+		assertEquals(3, acquireAll(limiter, "key"));
+
+		limiter.reset("key");
+
+		assertEquals(3, acquireAll(limiter, "key"));
+	}
+
+	@Test
+	void releaseGivesBackOneEvent() {
+		SlidingWindowLimiter limiter = limiter(3, 60, 100, 4);
+		assertEquals(3, acquireAll(limiter, "key"));
+
+		limiter.release("key");
+
+		assertEquals(1, acquireAll(limiter, "key"));
+	}
+
+	@Test
+	void parallelBurstForOneKeyNeverExceedsTheLimit() throws Exception {
+		SlidingWindowLimiter limiter = new SlidingWindowLimiter(10, 60, 100, 4);
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger admitted = new AtomicInteger();
+		try {
+			for (int i = 0; i < 1000; i++) {
+				pool.execute(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					if (limiter.tryAcquire("key")) {
+						admitted.incrementAndGet();
+					}
+				});
+			}
+			start.countDown();
+		} finally {
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		}
+
+		assertEquals(10, admitted.get());
+	}
+
+	private SlidingWindowLimiter limiter(int maxEvents, long windowSeconds, int maxKeys, int stripes) {
+		return new SlidingWindowLimiter(maxEvents, windowSeconds, maxKeys, stripes, () -> now);
+	}
+
+	private static int acquireAll(SlidingWindowLimiter limiter, String key) {
+		int admitted = 0;
+		while (limiter.tryAcquire(key)) {
+			admitted++;
+		}
+		return admitted;
+	}
+}
@@ -0,0 +1,156 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link AuditLog}: each overflow policy and the writer's retry loop, against a recording sink.
+ * <p>
+ * The overflow tests record before the writer is started, so the buffer fills deterministically.
+ * </p>
+ */
+class AuditLogTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RecordingSink sink = new RecordingSink();
+	private AuditLog auditLog;
+
+	@AfterEach
+	void stopWriter() {
+		if (auditLog != null) {
+			auditLog.stop();
+		}
+	}
+
+	@Test
+	void dropNewestKeepsTheQueuedEvents() {
+		auditLog = auditLog(OverflowPolicy.DROP_NEWEST, Duration.ZERO);
+		recordAll(6);
+		assertEquals(2, count("dropped"));
+
+		auditLog.start();
+		auditLog.stop();
+		assertEquals(List.of("u0", "u1", "u2", "u3"), sink.subjects());
+		assertEquals(4, count("written"));
+	}
+
+	@Test
+	void dropOldestMakesRoomForTheNewEvents() {
+		auditLog = auditLog(OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+		recordAll(6);
+		assertEquals(2, count("dropped"));
+
+		auditLog.start();
+		auditLog.stop();
+		assertEquals(List.of("u2", "u3", "u4", "u5"), sink.subjects());
+	}
+
+	@Test
+	void blockGivesUpAfterTheMaximumWaitWithoutAWriter() {
+		auditLog = auditLog(OverflowPolicy.BLOCK, Duration.ofMillis(50));
+		recordAll(4);
+
+		long started = System.nanoTime();
+		auditLog.record(AuditAction.LOGIN, "u4", null);
+		long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+		assertTrue(waited >= 50, "waited only " + waited + " ms");
+		assertEquals(1, count("dropped"));
+	}
+
+	@Test
+	void blockWaitsForTheWriterInsteadOfDropping() {
+		auditLog = auditLog(OverflowPolicy.BLOCK, Duration.ofSeconds(10));
+		auditLog.start();
+		recordAll(200); // Fifty times the capacity
+
+		auditLog.stop();
+		assertEquals(0, count("dropped"));
+		assertEquals(200, sink.subjects().size());
+		for (int i = 0; i < 200; i++) {
+			assertEquals("u" + i, sink.subjects().get(i));
+		}
+	}
+
+	@Test
+	void writerRetriesAFailedBatchUntilTheSinkRecovers() throws InterruptedException {
+		sink.failures.set(3);
+		auditLog = auditLog(OverflowPolicy.DROP_NEWEST, Duration.ZERO);
+		auditLog.record(AuditAction.LOGIN, "u0", null);
+		auditLog.record(AuditAction.LOGIN, "u1", null);
+		auditLog.start();
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (count("written") < 2 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		auditLog.record(AuditAction.LOGIN, "u2", null);
+		auditLog.stop();
+
+		assertEquals(5, sink.attempts.get(), "three failed attempts, then one per batch");
+		assertEquals(List.of("u0", "u1", "u2"), sink.subjects(), "each event should be stored once, in order");
+		assertEquals(3, count("written"));
+		assertEquals(0, count("lost"));
+	}
+
+	@Test
+	void countsTheQueuedEventsAsLostWhenTheSinkFailsOnStop() {
+		sink.failures.set(Integer.MAX_VALUE);
+		auditLog = auditLog(OverflowPolicy.DROP_NEWEST, Duration.ZERO);
+		recordAll(3);
+		auditLog.start();
+
+		auditLog.stop();
+		assertEquals(3, count("lost"));
+		assertEquals(0, count("written"));
+	}
+
+	private AuditLog auditLog(OverflowPolicy overflowPolicy, Duration maxBlock) {
+		return new AuditLog(sink, 4, overflowPolicy, Duration.ofMillis(5), 2, maxBlock, meterRegistry);
+	}
+
+	private void recordAll(int events) {
+		for (int i = 0; i < events; i++) {
+			auditLog.record(AuditAction.LOGIN, "u" + i, null);
+		}
+	}
+
+	private double count(String result) {
+		return meterRegistry.get("rbac.audit.events").tag("result", result).counter().count();
+	}
+
+	/**
+	 * Sink keeping the events it stored, failing the first {@code failures} writes.
+	 */
+	private static final class RecordingSink implements AuditSink {
+
+		private final List<AuditEvent> events = new ArrayList<>();
+		private final AtomicInteger failures = new AtomicInteger();
+		private final AtomicInteger attempts = new AtomicInteger();
+
+		@Override
+		public synchronized void write(List<AuditEvent> batch) throws IOException {
+			attempts.incrementAndGet();
+			if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+				throw new IOException("sink unavailable");
+			}
+			events.addAll(batch); // The writer reuses the batch list
+		}
+
+		synchronized List<String> subjects() {
+			return events.stream().map(AuditEvent::subject).toList();
+		}
+	}
+}
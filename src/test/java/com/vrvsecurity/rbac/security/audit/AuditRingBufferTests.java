@@ -0,0 +1,197 @@
+package com.vrvsecurity.rbac.security.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link AuditRingBuffer}: bounds, wrap-around and ordering under concurrent producers.
+ */
+class AuditRingBufferTests {
+
+	@Test
+	void roundsTheCapacityUpToAPowerOfTwo() {
+		assertEquals(8, new AuditRingBuffer(5).capacity());
+		assertEquals(8, new AuditRingBuffer(8).capacity());
+		assertEquals(2, new AuditRingBuffer(2).capacity());
+		assertEquals(2, new AuditRingBuffer(1).capacity()); // A slot's sequence tells full from free only with two
+	}
+
+	@Test
+	void refusesOffersWhenFullAndReturnsNullWhenEmpty() {
+		AuditRingBuffer buffer = new AuditRingBuffer(4);
+		assertNull(buffer.poll());
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(event("p", i)));
+		}
+		assertFalse(buffer.offer(event("p", 4)));
+		assertEquals(4, buffer.size());
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals("p-" + i, buffer.poll().detail());
+		}
+		assertNull(buffer.poll());
+		assertEquals(0, buffer.size());
+		assertTrue(buffer.offer(event("p", 5)), "a drained buffer should accept events again");
+	}
+
+	@Test
+	void keepsOrderAcrossManyWrapArounds() {
+		AuditRingBuffer buffer = new AuditRingBuffer(4);
+		int offered = 0;
+		int polled = 0;
+		for (int lap = 0; lap < 100; lap++) {
+			while (buffer.offer(event("p", offered))) {
+				offered++;
+			}
+			for (int i = 0; i < 3; i++) { // Leave one behind so head and tail sit at different slots
+				assertEquals("p-" + polled, buffer.poll().detail());
+				polled++;
+			}
+		}
+		while (polled < offered) {
+			assertEquals("p-" + polled, buffer.poll().detail());
+			polled++;
+		}
+		assertNull(buffer.poll());
+		assertEquals(4 + 99 * 3, offered); // About seventy-five laps around the four slots
+	}
+
+	@Test
+	void drainsAtMostTheRequestedNumberOfEventsInOrder() {
+		AuditRingBuffer buffer = new AuditRingBuffer(8);
+		for (int i = 0; i < 6; i++) {
+			buffer.offer(event("p", i));
+		}
+
+		List<AuditEvent> target = new ArrayList<>();
+		assertEquals(4, buffer.drainTo(target, 4));
+		assertEquals(2, buffer.drainTo(target, 4));
+		assertEquals(0, buffer.drainTo(target, 4));
+		for (int i = 0; i < 6; i++) {
+			assertEquals("p-" + i, target.get(i).detail());
+		}
+	}
+
+	@Test
+	void keepsEachProducersOrderUnderContention() throws Exception {
+		int producers = 4;
+		int perProducer = 10_000;
+		AuditRingBuffer buffer = new AuditRingBuffer(64); // Small, so producers keep finding it full
+		ExecutorService pool = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			for (int p = 0; p < producers; p++) {
+				String producer = "p" + p;
+				pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < perProducer; i++) {
+						AuditEvent event = event(producer, i);
+						while (!buffer.offer(event)) {
+							Thread.yield();
+						}
+					}
+					return null;
+				});
+			}
+			start.countDown();
+
+			int[] next = new int[producers];
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			for (int received = 0; received < producers * perProducer; ) {
+				AuditEvent event = buffer.poll();
+				if (event == null) {
+					assertTrue(System.nanoTime() < deadline, "producers stalled after " + received + " events");
+					Thread.yield(); // Lets a preempted producer publish on a single CPU
+					continue;
+				}
+				int producer = Integer.parseInt(event.subject().substring(1));
+				assertEquals(next[producer], sequence(event),
+						"events of one producer should be polled in the order they were offered");
+				next[producer]++;
+				received++;
+			}
+			assertNull(buffer.poll());
+			int[] expected = new int[producers];
+			Arrays.fill(expected, perProducer);
+			assertArrayEquals(expected, next);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void deliversEveryEventExactlyOnceToConcurrentConsumers() throws Exception {
+		int producers = 2;
+		int consumers = 2;
+		int perProducer = 10_000;
+		AuditRingBuffer buffer = new AuditRingBuffer(32);
+		ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+		AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+		try {
+			for (int p = 0; p < producers; p++) {
+				String producer = "p" + p;
+				pool.submit(() -> {
+					for (int i = 0; i < perProducer; i++) {
+						AuditEvent event = event(producer, i);
+						while (!buffer.offer(event)) {
+							Thread.yield();
+						}
+					}
+				});
+			}
+			List<Future<Set<String>>> polled = new ArrayList<>();
+			for (int c = 0; c < consumers; c++) {
+				polled.add(pool.submit(() -> {
+					Set<String> seen = new HashSet<>();
+					while (remaining.get() > 0) {
+						AuditEvent event = buffer.poll();
+						if (event == null) {
+							Thread.yield();
+						} else {
+							assertTrue(seen.add(event.detail()), "polled twice: " + event.detail());
+							remaining.decrementAndGet();
+						}
+					}
+					return seen;
+				}));
+			}
+
+			Set<String> all = new HashSet<>();
+			for (Future<Set<String>> consumer : polled) {
+				for (String detail : consumer.get(30, TimeUnit.SECONDS)) {
+					assertTrue(all.add(detail), "polled by two consumers: " + detail);
+				}
+			}
+			assertEquals(producers * perProducer, all.size());
+			assertNull(buffer.poll());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static AuditEvent event(String producer, int sequence) {
+		return new AuditEvent(0, AuditAction.LOGIN, null, producer, producer + "-" + sequence, null);
+	}
+
+	private static int sequence(AuditEvent event) {
+		return Integer.parseInt(event.detail().substring(event.detail().indexOf('-') + 1));
+	}
+}
@@ -0,0 +1,66 @@
+package com.vrvsecurity.rbac.service;
+
+import com.vrvsecurity.rbac.Repository.PrincipalRow;
+import com.vrvsecurity.rbac.Repository.RoleStore;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.model.EmailDigest;
+import com.vrvsecurity.rbac.security.PrincipalCache;
+import com.vrvsecurity.rbac.security.PrincipalSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests of the source check {@link PrincipalSnapshotService} applies before installing a snapshot.
+ */
+class PrincipalSnapshotServiceTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void snapshotFromTheConfiguredDatabaseIsInstalled() throws IOException {
+		PrincipalCache cache = loadSnapshotWrittenFrom("jdbc:mysql://db-primary:3306/vrvsecurity_db",
+				"jdbc:mysql://db-primary:3306/vrvsecurity_db?useSSL=true");
+
+		assertNotNull(cache.getSnapshotCreatedAt());
+		assertNotNull(cache.get("user@example.com"));
+	}
+
+	@Test
+	void snapshotFromAnotherDatabaseIsIgnored() throws IOException {
+		PrincipalCache cache = loadSnapshotWrittenFrom("jdbc:mysql://staging-db:3306/vrvsecurity_db",
+				"jdbc:mysql://db-primary:3306/vrvsecurity_db");
+
+		assertNull(cache.getSnapshotCreatedAt());
+		assertNull(cache.get("user@example.com"));
+	}
+
+	@Test
+	void sourceDropsParametersAndCredentials() {
+		assertEquals("jdbc:h2:mem:testdb", PrincipalSnapshotService.sourceOf("jdbc:h2:mem:testdb;MODE=MySQL"));
+		assertEquals("jdbc:mysql://db:3306/rbac",
+				PrincipalSnapshotService.sourceOf("jdbc:mysql://root:secret@db:3306/rbac?password=secret"));
+	}
+
+	private PrincipalCache loadSnapshotWrittenFrom(String writtenFrom, String configuredUrl) throws IOException {
+		Path file = directory.resolve("principals.snap");
+		PrincipalRow row = new PrincipalRow(EmailDigest.of("user@example.com"), 1, "hash", AccountStatus.ACTIVE,
+				null);
+		PrincipalSnapshot.write(file, writtenFrom, List.of(), List.of(row).iterator());
+
+		PrincipalCache cache = new PrincipalCache(60, 1_000, -1, 0);
+		new PrincipalSnapshotService(mock(UserStore.class), mock(RoleStore.class), cache, file.toString(),
+				configuredUrl, true, 300, false).afterPropertiesSet();
+		return cache;
+	}
+}
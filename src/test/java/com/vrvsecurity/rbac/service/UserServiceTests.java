@@ -0,0 +1,105 @@
+package com.vrvsecurity.rbac.service;
+
+import com.vrvsecurity.rbac.Repository.RoleStore;
+import com.vrvsecurity.rbac.Repository.UserEmail;
+import com.vrvsecurity.rbac.Repository.UserStore;
+import com.vrvsecurity.rbac.dto.BulkUpdateResponse;
+import com.vrvsecurity.rbac.dto.BulkUserStatusRequest;
+import com.vrvsecurity.rbac.model.AccountStatus;
+import com.vrvsecurity.rbac.security.CacheChangeLog;
+import com.vrvsecurity.rbac.security.audit.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests of the filter-based path of {@link UserService#updateUserStatuses(BulkUserStatusRequest)}.
+ */
+class UserServiceTests {
+
+	private static final LocalDateTime BEFORE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	private UserStore userStore;
+	private CacheChangeLog cacheChangeLog;
+	private UserService service;
+
+	@BeforeEach
+	void setUp() {
+		userStore = mock(UserStore.class);
+		cacheChangeLog = mock(CacheChangeLog.class);
+		service = new UserService(userStore, mock(RoleStore.class), mock(PasswordEncoder.class), cacheChangeLog,
+				mock(EmailBloomFilter.class), mock(PlatformTransactionManager.class), 2, new SimpleMeterRegistry(),
+				mock(AuditLog.class));
+		when(userStore.updateStatusByEmailDigestIn(anyCollection(), eq(AccountStatus.ACTIVE),
+				eq(AccountStatus.PENDING))).thenAnswer(invocation -> invocation.getArgument(0, List.class).size());
+	}
+
+	@Test
+	void filterIsResolvedOnePageAtATimeAfterTheLastId() {
+		when(userStore.findEmailsByStatusAndRegisteredBefore(AccountStatus.PENDING, BEFORE, 0, Limit.of(2)))
+				.thenReturn(List.of(new UserEmail(3, "a@example.com"), new UserEmail(5, "b@example.com")));
+		when(userStore.findEmailsByStatusAndRegisteredBefore(AccountStatus.PENDING, BEFORE, 5, Limit.of(2)))
+				.thenReturn(List.of(new UserEmail(8, "c@example.com")));
+
+		BulkUpdateResponse response = service.updateUserStatuses(filter());
+
+		assertEquals(3, response.getRequested());
+		assertEquals(3, response.getAffected());
+		assertEquals(2, response.getChunks());
+		InOrder order = inOrder(userStore, cacheChangeLog);
+		order.verify(userStore).findEmailsByStatusAndRegisteredBefore(AccountStatus.PENDING, BEFORE, 0, Limit.of(2));
+		order.verify(cacheChangeLog).recordUserChanges(List.of("a@example.com", "b@example.com"));
+		order.verify(userStore).findEmailsByStatusAndRegisteredBefore(AccountStatus.PENDING, BEFORE, 5, Limit.of(2));
+		order.verify(cacheChangeLog).recordUserChanges(List.of("c@example.com"));
+	}
+
+	@Test
+	void fullLastPageIsFollowedByOneEmptyPage() {
+		when(userStore.findEmailsByStatusAndRegisteredBefore(AccountStatus.PENDING, BEFORE, 0, Limit.of(2)))
+				.thenReturn(List.of(new UserEmail(1, "a@example.com"), new UserEmail(2, "b@example.com")));
+		when(userStore.findEmailsByStatusAndRegisteredBefore(AccountStatus.PENDING, BEFORE, 2, Limit.of(2)))
+				.thenReturn(List.of());
+
+		BulkUpdateResponse response = service.updateUserStatuses(filter());
+
+		assertEquals(2, response.getRequested());
+		assertEquals(1, response.getChunks());
+		verify(cacheChangeLog, times(1)).recordUserChanges(anyCollection());
+	}
+
+	@Test
+	void filterMatchingNobodyChangesNothing() {
+		when(userStore.findEmailsByStatusAndRegisteredBefore(AccountStatus.PENDING, BEFORE, 0, Limit.of(2)))
+				.thenReturn(List.of());
+
+		BulkUpdateResponse response = service.updateUserStatuses(filter());
+
+		assertEquals(0, response.getRequested());
+		assertEquals(0, response.getChunks());
+		verify(cacheChangeLog, times(0)).recordUserChanges(anyCollection());
+	}
+
+	private static BulkUserStatusRequest filter() {
+		BulkUserStatusRequest request = new BulkUserStatusRequest();
+		request.setCurrentStatus("pending");
+		request.setRegisteredBefore(BEFORE);
+		request.setStatus("active");
+		return request;
+	}
+}
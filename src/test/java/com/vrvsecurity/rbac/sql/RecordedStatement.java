@@ -0,0 +1,44 @@
+package com.vrvsecurity.rbac.sql;
+
+import java.util.Locale;
+
+/**
+ * A SQL statement executed while a {@link SqlStatementRecorder} recording was open.
+ *
+ * @param sql       The SQL as sent to the driver.
+ * @param batchSize The number of rows of a JDBC batch, or 0 for a single execution.
+ */
+public record RecordedStatement(String sql, int batchSize) {
+
+    /**
+     * Returns the statement type and the table it reads or changes first, e.g. {@code SELECT user} or
+     * {@code INSERT user_role}. This is what the query-count tests compare, so the assertions survive changes to
+     * column lists and aliases but not an extra or missing round trip.
+     *
+     * @return The type in upper case followed by the table name in lower case.
+     */
+    public String kind() {
+        String[] tokens = sql.trim()
+                .replace("`", "")
+                .replace("\"", "")
+                .toLowerCase(Locale.ROOT)
+                .split("[\\s(),]+");
+        String type = tokens[0];
+        String keyword = switch (type) {
+            case "insert" -> "into";
+            case "update" -> "update";
+            default -> "from";
+        };
+        for (int i = 0; i < tokens.length - 1; i++) {
+            if (tokens[i].equals(keyword)) {
+                return type.toUpperCase(Locale.ROOT) + " " + tokens[i + 1];
+            }
+        }
+        return type.toUpperCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return batchSize > 0 ? sql + "  [batch of " + batchSize + "]" : sql;
+    }
+}
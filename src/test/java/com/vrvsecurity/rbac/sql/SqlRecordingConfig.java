@@ -0,0 +1,33 @@
+package com.vrvsecurity.rbac.sql;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Test configuration wrapping the application's {@code dataSource} bean in a {@link SqlStatementRecorder}.
+ */
+@TestConfiguration
+public class SqlRecordingConfig {
+
+    /**
+     * Wraps the {@code dataSource} bean, so JPA, Flyway and every {@code JdbcTemplate} go through the recorder.
+     *
+     * @return the {@link BeanPostProcessor} wrapping the data source.
+     */
+    @Bean
+    public static BeanPostProcessor sqlStatementRecorderPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof SqlStatementRecorder)) {
+                    return new SqlStatementRecorder(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
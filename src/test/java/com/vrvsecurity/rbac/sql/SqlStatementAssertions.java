@@ -0,0 +1,62 @@
+package com.vrvsecurity.rbac.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Assertions on the statements recorded by {@link SqlStatementRecorder}.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    /**
+     * Asserts that exactly the expected statements were executed, in any order.
+     * <p>
+     * Statements are compared by their {@link RecordedStatement#kind() kind}. On a mismatch the error lists the
+     * expected and actual kinds side by side, marking the differences, followed by the full SQL of every
+     * recorded statement.
+     * </p>
+     *
+     * @param operation The operation the statements were recorded for, e.g. {@code POST /auth/login}.
+     * @param actual    The recorded statements.
+     * @param expected  The expected kinds, e.g. {@code "SELECT user"}.
+     * @throws AssertionError If the statements differ from the expected ones.
+     */
+    public static void assertStatements(String operation, List<RecordedStatement> actual, String... expected) {
+        List<String> expectedKinds = new ArrayList<>(Arrays.asList(expected));
+        List<String> actualKinds = new ArrayList<>(actual.size());
+        for (RecordedStatement statement : actual) {
+            actualKinds.add(statement.kind());
+        }
+        Collections.sort(expectedKinds);
+        Collections.sort(actualKinds);
+        if (expectedKinds.equals(actualKinds)) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder()
+                .append(operation).append(" executed ").append(actual.size()).append(" SQL statement(s), expected ")
+                .append(expected.length).append(":\n");
+        message.append(String.format("    %-32s %s%n", "expected", "actual"));
+        List<String> unmatched = new ArrayList<>(actualKinds);
+        for (String kind : expectedKinds) {
+            if (unmatched.remove(kind)) {
+                message.append(String.format("    %-32s %s%n", kind, kind));
+            } else {
+                message.append(String.format(" -  %-32s%n", kind));
+            }
+        }
+        for (String kind : unmatched) {
+            message.append(String.format(" +  %-32s %s%n", "", kind));
+        }
+        message.append("Executed SQL:\n");
+        for (int i = 0; i < actual.size(); i++) {
+            message.append(String.format("  %d. %s%n", i + 1, actual.get(i)));
+        }
+        throw new AssertionError(message.toString());
+    }
+}
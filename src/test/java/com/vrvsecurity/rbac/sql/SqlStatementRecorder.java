@@ -0,0 +1,186 @@
+package com.vrvsecurity.rbac.sql;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Data source wrapper recording the SQL statements executed by the current thread.
+ * <p>
+ * Every connection handed out is proxied, and so is every statement it creates. While a recording is open on a
+ * thread (see {@link #start()} and {@link #stop()}), each execution on that thread is recorded with its SQL; a
+ * JDBC batch is recorded once, with the number of rows it carried. Statements run by other threads, such as the
+ * change log poller or the Bloom filter rebuild, are never recorded, so a recording around a MockMvc request
+ * holds exactly what the request cost.
+ * </p>
+ */
+public class SqlStatementRecorder extends DelegatingDataSource {
+
+    private static final ThreadLocal<List<RecordedStatement>> RECORDING = new ThreadLocal<>();
+
+    /**
+     * Wraps a data source.
+     *
+     * @param target The data source handing out the connections.
+     */
+    public SqlStatementRecorder(DataSource target) {
+        super(target);
+    }
+
+    /**
+     * Opens a recording on the current thread, discarding any recording left open.
+     */
+    public static void start() {
+        RECORDING.set(new ArrayList<>());
+    }
+
+    /**
+     * Closes the recording of the current thread.
+     *
+     * @return The statements executed since {@link #start()}, in execution order; empty if no recording was open.
+     */
+    public static List<RecordedStatement> stop() {
+        List<RecordedStatement> statements = RECORDING.get();
+        RECORDING.remove();
+        return statements == null ? List.of() : statements;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return record(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return record(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static void recordExecution(String sql, int batchSize) {
+        List<RecordedStatement> statements = RECORDING.get();
+        if (statements != null && sql != null) {
+            statements.add(new RecordedStatement(sql, batchSize));
+        }
+    }
+
+    private static Connection record(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new ConnectionHandler(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Hands out recording statements for a connection.
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                default:
+                    break;
+            }
+            Object result = SqlStatementRecorder.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return recording(statement, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return recording(statement, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return recording(statement, Statement.class, null);
+            }
+            return result;
+        }
+
+        private static Object recording(Statement statement, Class<? extends Statement> type, String sql) {
+            return Proxy.newProxyInstance(SqlStatementRecorder.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    /**
+     * Records the executions of a statement.
+     * <p>
+     * A prepared statement is recorded with the SQL it was prepared with; a plain statement with the SQL passed to
+     * each execution, or for a batch with the first SQL added to it.
+     * </p>
+     */
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private String batchSql;
+        private int batchSize;
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "addBatch":
+                    if (batchSql == null) {
+                        batchSql = args != null && args.length == 1 ? (String) args[0] : preparedSql;
+                    }
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSql = null;
+                    batchSize = 0;
+                    break;
+                case "executeBatch":
+                case "executeLargeBatch":
+                    recordExecution(batchSql, batchSize);
+                    batchSql = null;
+                    batchSize = 0;
+                    break;
+                default:
+                    if (name.toLowerCase(Locale.ROOT).startsWith("execute")) {
+                        recordExecution(args != null && args.length > 0 && args[0] instanceof String sql
+                                ? sql : preparedSql, 0);
+                    }
+                    break;
+            }
+            return SqlStatementRecorder.invoke(target, method, args);
+        }
+    }
+}